@@ -8,6 +8,10 @@ import com.alexpsvet.utils.MessageUtil;
 import com.alexpsvet.utils.menu.MenuListener;
 import com.alexpsvet.utils.menu.MenuManager;
 import com.alexpsvet.database.Database;
+import com.alexpsvet.database.PoolSettings;
+import com.alexpsvet.database.SchemaMigrator;
+import com.alexpsvet.database.SqliteSettings;
+import com.alexpsvet.database.migrations.Migrations;
 import com.alexpsvet.economy.EconomyManager;
 import com.alexpsvet.economy.SalaryTask;
 import com.alexpsvet.clan.ClanManager;
@@ -16,6 +20,7 @@ import com.alexpsvet.chat.ChatManager;
 import com.alexpsvet.auction.AuctionManager;
 import com.alexpsvet.territory.TerritoryManager;
 import com.alexpsvet.territory.TerritoryDisplayManager;
+import com.alexpsvet.player.PlayerSessionManager;
 import com.alexpsvet.player.PlayerStatsManager;
 import com.alexpsvet.teleport.TeleportManager;
 import com.alexpsvet.shop.ShopManager;
@@ -26,6 +31,7 @@ import com.alexpsvet.display.ScoreboardManager;
 import com.alexpsvet.display.TabManager;
 import com.alexpsvet.commands.EconomyCommand;
 import com.alexpsvet.commands.EconomyAdminCommand;
+import com.alexpsvet.commands.DatabaseAdminCommand;
 import com.alexpsvet.commands.ClanCommand;
 import com.alexpsvet.commands.AuctionCommand;
 import com.alexpsvet.commands.TeleportCommand;
@@ -51,6 +57,7 @@ import com.alexpsvet.bounty.BountyListener;
 import com.alexpsvet.jobs.JobsListener;
 import com.alexpsvet.rpgmobs.RPGMobManager;
 import com.alexpsvet.rpgmobs.RPGMobListener;
+import com.alexpsvet.startup.StartupOrchestrator;
 
 /*
  * survival java plugin
@@ -72,6 +79,7 @@ public class Survival extends JavaPlugin {
   private BountyManager bountyManager;
   private JobsManager jobsManager;
   private HomeManager homeManager;
+  private PlayerSessionManager sessionManager;
   private ScoreboardManager scoreboardManager;
   private TabManager tabManager;
   private SalaryTask salaryTask;
@@ -88,14 +96,14 @@ public class Survival extends JavaPlugin {
     // Save default config
     saveDefaultConfig();
     
-    // Initialize database
-    if (!initDatabase()) {
+    // Configure database, it is connected by the startup steps
+    if (!configureDatabase()) {
       LOGGER.severe("Failed to initialize database! Disabling plugin...");
       getServer().getPluginManager().disablePlugin(this);
       return;
     }
     
-    // Initialize managers
+    // Initialize managers, their data is loaded by the startup steps
     economyManager = new EconomyManager(database);
     shopManager = new ShopManager();
     clanManager = new ClanManager(database);
@@ -103,15 +111,41 @@ public class Survival extends JavaPlugin {
     chatManager = new ChatManager();
     auctionManager = new AuctionManager(database);
     territoryManager = new TerritoryManager(database);
-    territoryDisplayManager = new TerritoryDisplayManager(this, territoryManager);
     statsManager = new PlayerStatsManager(database);
     teleportManager = new TeleportManager();
     bountyManager = new BountyManager(database);
     jobsManager = new JobsManager(database);
     homeManager = new HomeManager(database);
+    sessionManager = new PlayerSessionManager(economyManager, statsManager, homeManager);
+    rpgMobManager = new RPGMobManager();
+    
+    // Load independent data in parallel, each step is published on this thread once loaded
+    StartupOrchestrator startup = new StartupOrchestrator(Math.max(2, Runtime.getRuntime().availableProcessors()));
+    startup.register("database", this::connectDatabase);
+    startup.register("economy", economyManager::openJournal, "database");
+    startup.register("baltop", economyManager::loadRanking, "database", "economy");
+    startup.register("shop", shopManager::load);
+    startup.register("messages", chatManager::load);
+    startup.register("rpg-mobs", () -> {
+      rpgMobManager.loadConfig();
+      return null;
+    });
+    startup.register("jobs", jobsManager::loadJobs);
+    startup.register("player-jobs", jobsManager::loadPlayerJobs, "database");
+    startup.register("clans", clanManager::loadClans, "database");
+    startup.register("clan-wars", clanWarManager::loadActiveWars, "database", "clans");
+    startup.register("territories", territoryManager::loadTerritories, "database", "clans");
+    startup.register("auctions", auctionManager::loadListings, "database");
+    startup.register("bounties", bountyManager::loadBounties, "database");
+    if (!startup.run()) {
+      LOGGER.severe("Failed to load plugin data! Disabling plugin...");
+      getServer().getPluginManager().disablePlugin(this);
+      return;
+    }
+    
+    territoryDisplayManager = new TerritoryDisplayManager(this, territoryManager);
     scoreboardManager = new ScoreboardManager();
     tabManager = new TabManager();
-    rpgMobManager = new RPGMobManager();
     
     // Initialize trade manager
     TradeManager.getInstance();
@@ -139,6 +173,8 @@ public class Survival extends JavaPlugin {
     getCommand("balance").setExecutor(economyCommand);
     getCommand("bal").setExecutor(economyCommand);
     getCommand("pay").setExecutor(economyCommand);
+    getCommand("baltop").setExecutor(economyCommand);
+    getCommand("history").setExecutor(economyCommand);
     getCommand("economy").setExecutor(economyCommand);
     getCommand("eco").setExecutor(economyCommand);
     // admin command uses BaseCommand with sub-commands
@@ -172,6 +208,10 @@ public class Survival extends JavaPlugin {
     ClanWarAdminCommand warAdminCommand = new ClanWarAdminCommand();
     getCommand("waradmin").setExecutor(warAdminCommand);
     
+    DatabaseAdminCommand dbAdmin = new DatabaseAdminCommand();
+    getCommand("dbadmin").setExecutor(dbAdmin);
+    getCommand("dbadmin").setTabCompleter(dbAdmin);
+    
     BountyCommand bountyCommand = new BountyCommand();
     getCommand("bounty").setExecutor(bountyCommand);
     
@@ -205,10 +245,13 @@ public class Survival extends JavaPlugin {
     // Start salary task if enabled
     if (getConfig().getBoolean("economy.salary.enabled", true)) {
       salaryTask = new SalaryTask(economyManager);
-      // Run every minute to check for salary eligibility
-      salaryTask.runTaskTimer(this, 20L * 60L, 20L * 60L);
+      // Each run checks a slice of the players, every player is checked once a minute
+      salaryTask.runTaskTimer(this, SalaryTask.PERIOD_TICKS, SalaryTask.PERIOD_TICKS);
     }
     
+    // Move old transactions out of the history table in the background
+    economyManager.startArchiver();
+    
     LOGGER.info("Survival plugin enabled successfully!");
   }
 
@@ -219,6 +262,20 @@ public class Survival extends JavaPlugin {
       statsManager.saveAll();
     }
     
+    // Stop archiving before the last writes
+    if (economyManager != null) {
+      economyManager.closeArchiver();
+    }
+    
+    // Write every coalesced update before shutting down
+    if (database != null && database.isConnected()) {
+      database.getWriteBehindQueue().flush();
+      // Append the buffered economy history while the database writer still runs
+      if (economyManager != null) {
+        economyManager.closeJournal();
+      }
+    }
+    
     // Shutdown territory display manager
     if (territoryDisplayManager != null) {
       territoryDisplayManager.shutdown();
@@ -241,16 +298,23 @@ public class Survival extends JavaPlugin {
   }
   
   /**
-   * Initialize the database connection
+   * Create the database from the config, without connecting it
    * @return true if successful
    */
-  private boolean initDatabase() {
+  private boolean configureDatabase() {
     String dbType = getConfig().getString("database.type", "SQLITE").toUpperCase();
     
     if (dbType.equals("SQLITE")) {
       String sqliteName = getConfig().getString("database.sqlite.file", "data.db");
       String file = new File(getDataFolder(), sqliteName).getAbsolutePath();
       database = new Database(file);
+      SqliteSettings sqliteDefaults = SqliteSettings.defaults();
+      database.setSqliteSettings(new SqliteSettings(
+        getConfig().getBoolean("database.sqlite.wal", sqliteDefaults.isWalMode()),
+        getConfig().getString("database.sqlite.synchronous", sqliteDefaults.getSynchronous()),
+        getConfig().getLong("database.sqlite.mmap-size-mb", sqliteDefaults.getMmapSizeBytes() / (1024 * 1024)) * 1024 * 1024,
+        getConfig().getLong("database.sqlite.cache-size-mb", sqliteDefaults.getCacheSizeKib() / 1024) * 1024
+      ));
     } else if (dbType.equals("MYSQL")) {
       String host = getConfig().getString("database.mysql.host", "localhost");
       int port = getConfig().getInt("database.mysql.port", 3306);
@@ -263,7 +327,55 @@ public class Survival extends JavaPlugin {
       return false;
     }
     
-    return database.connect();
+    PoolSettings defaults = PoolSettings.defaults();
+    database.setPoolSettings(new PoolSettings(
+      getConfig().getInt("database.pool.min-size", defaults.getMinSize()),
+      getConfig().getInt("database.pool.max-size", defaults.getMaxSize()),
+      getConfig().getLong("database.pool.connection-timeout-ms", defaults.getConnectionTimeoutMillis()),
+      getConfig().getBoolean("database.pool.validate-on-borrow", defaults.isValidateOnBorrow()),
+      getConfig().getInt("database.pool.validation-timeout-seconds", defaults.getValidationTimeoutSeconds()),
+      getConfig().getLong("database.pool.idle-timeout-ms", defaults.getIdleTimeoutMillis()),
+      getConfig().getLong("database.pool.leak-detection-threshold-ms", defaults.getLeakDetectionMillis()),
+      getConfig().getInt("database.pool.statement-cache-size", defaults.getStatementCacheSize())
+    ));
+    database.setFetchSize(getConfig().getInt("database.fetch-size", 500));
+    if (getConfig().getBoolean("database.slow-query-log.enabled", true)) {
+      database.getQueryMetrics().enableSlowQueryLog(
+        new File(getDataFolder(), "logs"),
+        getConfig().getLong("database.slow-query-log.threshold-ms", 50L),
+        getConfig().getInt("database.slow-query-log.max-file-size-kb", 1024) * 1024,
+        getConfig().getInt("database.slow-query-log.files", 5)
+      );
+    }
+    database.getWriteBehindQueue().setFlushSettings(
+      getConfig().getLong("database.write-behind.flush-interval-ms", 5000L),
+      getConfig().getInt("database.write-behind.max-pending", 1000)
+    );
+    
+    // Async query results are handed back to the server thread
+    database.setMainThreadExecutor(task -> {
+      if (!isEnabled() || getServer().isPrimaryThread()) {
+        task.run();
+      } else {
+        getServer().getScheduler().runTask(this, task);
+      }
+    });
+    return true;
+  }
+  
+  /**
+   * Connect the database and bring its schema up to date, runs off the main thread
+   * @return nothing to publish
+   * @throws IllegalStateException if the database cannot be used
+   */
+  private Runnable connectDatabase() {
+    if (!database.connect()) {
+      throw new IllegalStateException("Could not connect to the database");
+    }
+    if (!new SchemaMigrator(database, Migrations.all()).migrate()) {
+      throw new IllegalStateException("Could not migrate the database schema");
+    }
+    return null;
   }
   
   /**
@@ -394,6 +506,14 @@ public class Survival extends JavaPlugin {
     return homeManager;
   }
 
+  /**
+   * Get the player session manager
+   * @return the player session manager
+   */
+  public PlayerSessionManager getSessionManager() {
+    return sessionManager;
+  }
+
   /**
    * Get the territory display manager
    * @return the territory display manager
@@ -12,13 +12,13 @@ public class AuctionListing {
     private final UUID seller;
     private final String sellerName;
     private final ItemStack item;
-    private final double price;
+    private final long price; // in cents
     private final long listedAt;
     private final long expiresAt;
     private boolean sold;
     private boolean expired;
     
-    public AuctionListing(int id, UUID seller, String sellerName, ItemStack item, double price, long listedAt, long expiresAt) {
+    public AuctionListing(int id, UUID seller, String sellerName, ItemStack item, long price, long listedAt, long expiresAt) {
         this.id = id;
         this.seller = seller;
         this.sellerName = sellerName;
@@ -46,7 +46,7 @@ public class AuctionListing {
         return item;
     }
     
-    public double getPrice() {
+    public long getPrice() {
         return price;
     }
     
@@ -4,6 +4,7 @@ import com.alexpsvet.Survival;
 import com.alexpsvet.chat.ChatManager;
 import com.alexpsvet.database.Database;
 import com.alexpsvet.economy.EconomyManager;
+import com.alexpsvet.economy.Money;
 import com.alexpsvet.economy.TransactionType;
 import com.alexpsvet.utils.MessageUtil;
 import org.bukkit.Bukkit;
@@ -15,9 +16,8 @@ import org.bukkit.util.io.BukkitObjectOutputStream;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -31,72 +31,51 @@ public class AuctionManager {
     
     private final Database database;
     private final Map<Integer, AuctionListing> listings;
-    private int nextId = 1;
     
     public AuctionManager(Database database) {
         instance = this;
         this.database = database;
         this.listings = new HashMap<>();
-        createTables();
-        loadListings();
         startExpirationTask();
     }
     
     /**
-     * Create auction tables
+     * Load all active listings from database, can be called off the main thread
+     * @return the action making the listings available, run on the main thread
      */
-    private void createTables() {
-        String query = "CREATE TABLE IF NOT EXISTS auction_listings (" +
-                "id INTEGER PRIMARY KEY " + (database.getType().name().equals("SQLITE") ? "AUTOINCREMENT" : "AUTO_INCREMENT") + "," +
-                "seller_uuid VARCHAR(36) NOT NULL," +
-                "seller_name VARCHAR(16) NOT NULL," +
-                "item_data BLOB NOT NULL," +
-                "price DOUBLE NOT NULL," +
-                "listed_at BIGINT NOT NULL," +
-                "expires_at BIGINT NOT NULL," +
-                "sold BOOLEAN DEFAULT 0," +
-                "expired BOOLEAN DEFAULT 0" +
-                ")";
-        database.executeUpdate(query);
-        LOGGER.info("Auction tables created/verified");
-    }
-    
-    /**
-     * Load all active listings from database
-     */
-    private void loadListings() {
-        ResultSet rs = database.executeQuery("SELECT * FROM auction_listings WHERE sold = 0 AND expired = 0");
-        try {
-            while (rs != null && rs.next()) {
-                int id = rs.getInt("id");
-                UUID seller = UUID.fromString(rs.getString("seller_uuid"));
-                String sellerName = rs.getString("seller_name");
-                ItemStack item = deserializeItem(rs.getBytes("item_data"));
-                double price = rs.getDouble("price");
-                long listedAt = rs.getLong("listed_at");
-                long expiresAt = rs.getLong("expires_at");
-                
-                if (item != null) {
-                    AuctionListing listing = new AuctionListing(id, seller, sellerName, item, price, listedAt, expiresAt);
-                    listings.put(id, listing);
-                    if (id >= nextId) {
-                        nextId = id + 1;
-                    }
-                }
+    public Runnable loadListings() {
+        List<AuctionListing> loaded = database.query("SELECT * FROM auction_listings WHERE sold = 0 AND expired = 0", rs -> {
+            ItemStack item = deserializeItem(rs.getBytes("item_data"));
+            if (item == null) {
+                return null;
             }
-            if (rs != null) rs.close();
-            LOGGER.info("Loaded " + listings.size() + " auction listings");
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Failed to load auction listings", e);
-        }
+            return new AuctionListing(
+                rs.getInt("id"),
+                UUID.fromString(rs.getString("seller_uuid")),
+                rs.getString("seller_name"),
+                item,
+                rs.getLong("price"),
+                rs.getLong("listed_at"),
+                rs.getLong("expires_at")
+            );
+        });
+        
+        loaded.removeIf(Objects::isNull);
+        LOGGER.info("Loaded " + loaded.size() + " auction listings");
+        return () -> {
+            for (AuctionListing listing : loaded) {
+                listings.put(listing.getId(), listing);
+            }
+        };
     }
     
     /**
-     * Create a new auction listing
+     * Create a new auction listing, its row is inserted on the database writer
+     * @return a future completed on the main thread with true if the listing was created
      */
-    public boolean createListing(Player seller, ItemStack item, double price, long durationHours) {
+    public CompletableFuture<Boolean> createListing(Player seller, ItemStack item, long price, long durationHours) {
         if (item == null || item.getType() == Material.AIR) {
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
         
         ItemStack clonedItem = item.clone();
@@ -105,36 +84,33 @@ public class AuctionManager {
         
         byte[] itemData = serializeItem(clonedItem);
         if (itemData == null) {
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
         
-        database.executeUpdate(
+        UUID sellerId = seller.getUniqueId();
+        String sellerName = seller.getName();
+        return database.insertAsync(
             "INSERT INTO auction_listings (seller_uuid, seller_name, item_data, price, listed_at, expires_at) VALUES (?, ?, ?, ?, ?, ?)",
-            seller.getUniqueId().toString(), seller.getName(), itemData, price, now, expiresAt
-        );
-        
-        // Get the ID of the newly created listing
-        ResultSet rs = database.executeQuery("SELECT MAX(id) as max_id FROM auction_listings");
-        try {
-            if (rs != null && rs.next()) {
-                int id = rs.getInt("max_id");
-                AuctionListing listing = new AuctionListing(id, seller.getUniqueId(), seller.getName(), clonedItem, price, now, expiresAt);
-                listings.put(id, listing);
-                rs.close();
-                
+            sellerId.toString(), sellerName, itemData, price, now, expiresAt
+        ).thenApply(key -> {
+            if (key < 0) {
+                LOGGER.severe("Failed to create listing for " + sellerName);
+                return false;
+            }
+            
+            int id = (int) (long) key;
+            AuctionListing listing = new AuctionListing(id, sellerId, sellerName, clonedItem, price, now, expiresAt);
+            listings.put(id, listing);
+            
+            if (seller.isOnline()) {
                 String currencySymbol = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
                 ChatManager chatManager = ChatManager.getInstance();
                 MessageUtil.sendMessage(seller, chatManager.getMessage("auction.listed",
-                    "{price}", String.format("%.2f", price),
+                    "{price}", Money.format(price),
                     "{currency}", currencySymbol));
-                
-                return true;
             }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Failed to get listing ID", e);
-        }
-        
-        return false;
+            return true;
+        });
     }
     
     /**
@@ -167,19 +143,18 @@ public class AuctionManager {
             return false;
         }
         
-        // Transfer money
-        economyManager.removeBalance(buyer.getUniqueId(), listing.getPrice());
-        economyManager.addBalance(listing.getSeller(), listing.getPrice());
-        
-        economyManager.addTransaction(buyer.getUniqueId(), TransactionType.PURCHASE, -listing.getPrice(), "Auction purchase");
-        economyManager.addTransaction(listing.getSeller(), TransactionType.SALE, listing.getPrice(), "Auction sale");
+        // Transfer money and mark as sold in one transaction, the sold flag is retried on its own if it fails
+        if (!economyManager.transfer(buyer.getUniqueId(), listing.getSeller(), listing.getPrice(),
+                TransactionType.PURCHASE, "Auction purchase",
+                TransactionType.SALE, "Auction sale",
+                tx -> tx.executeUpdate("UPDATE auction_listings SET sold = 1 WHERE id = ?", listingId))) {
+            return false;
+        }
         
         // Give item to buyer
         buyer.getInventory().addItem(listing.getItem());
         
-        // Mark as sold
         listing.setSold(true);
-        database.executeUpdate("UPDATE auction_listings SET sold = 1 WHERE id = ?", listingId);
         listings.remove(listingId);
         
         // Notify players
@@ -192,14 +167,14 @@ public class AuctionManager {
         
         MessageUtil.sendMessage(buyer, chatManager.getMessage("auction.bought",
             "{item}", itemName,
-            "{price}", String.format("%.2f", listing.getPrice()),
+            "{price}", Money.format(listing.getPrice()),
             "{currency}", currencySymbol));
         
         Player seller = Bukkit.getPlayer(listing.getSeller());
         if (seller != null) {
             MessageUtil.sendMessage(seller, chatManager.getMessage("auction.sold",
                 "{item}", itemName,
-                "{price}", String.format("%.2f", listing.getPrice()),
+                "{price}", Money.format(listing.getPrice()),
                 "{currency}", currencySymbol));
         }
         
@@ -223,7 +198,7 @@ public class AuctionManager {
         }
         
         // Remove listing
-        database.executeUpdate("DELETE FROM auction_listings WHERE id = ?", listingId);
+        database.executeAsync("DELETE FROM auction_listings WHERE id = ?", listingId);
         listings.remove(listingId);
         
         ChatManager chatManager = ChatManager.getInstance();
@@ -276,7 +251,7 @@ public class AuctionManager {
      */
     private void expireListing(AuctionListing listing) {
         listing.setExpired(true);
-        database.executeUpdate("UPDATE auction_listings SET expired = 1 WHERE id = ?", listing.getId());
+        database.executeAsync("UPDATE auction_listings SET expired = 1 WHERE id = ?", listing.getId());
         listings.remove(listing.getId());
         
         // Return item to seller
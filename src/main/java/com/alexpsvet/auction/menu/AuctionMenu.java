@@ -3,6 +3,7 @@ package com.alexpsvet.auction.menu;
 import com.alexpsvet.Survival;
 import com.alexpsvet.auction.AuctionListing;
 import com.alexpsvet.auction.AuctionManager;
+import com.alexpsvet.economy.Money;
 import com.alexpsvet.utils.MessageUtil;
 import com.alexpsvet.utils.menu.Button;
 import com.alexpsvet.utils.menu.Menu;
@@ -105,7 +106,7 @@ public class AuctionMenu {
             
             lore.add("");
             lore.add(MessageUtil.colorize("&7Vendeur: &e" + listing.getSellerName()));
-            lore.add(MessageUtil.colorize("&7Prix: &e" + String.format("%.2f", listing.getPrice()) + " " + currencySymbol));
+            lore.add(MessageUtil.colorize("&7Prix: &e" + Money.format(listing.getPrice()) + " " + currencySymbol));
             
             long timeLeft = listing.getExpiresAt() - System.currentTimeMillis();
             long hoursLeft = timeLeft / 3600000L;
@@ -153,7 +154,7 @@ public class AuctionMenu {
                 String currencySymbol = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
                 
                 lore.add("");
-                lore.add(MessageUtil.colorize("&7Prix: &e" + String.format("%.2f", listing.getPrice()) + " " + currencySymbol));
+                lore.add(MessageUtil.colorize("&7Prix: &e" + Money.format(listing.getPrice()) + " " + currencySymbol));
                 
                 long timeLeft = listing.getExpiresAt() - System.currentTimeMillis();
                 long hoursLeft = timeLeft / 3600000L;
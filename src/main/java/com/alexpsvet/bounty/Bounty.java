@@ -11,11 +11,11 @@ public class Bounty {
     private final String targetName;
     private final UUID issuerUuid;
     private final String issuerName;
-    private final double amount;
+    private final long amount; // in cents
     private final long createdAt;
     private boolean active;
     
-    public Bounty(UUID id, UUID targetUuid, String targetName, UUID issuerUuid, String issuerName, double amount, long createdAt, boolean active) {
+    public Bounty(UUID id, UUID targetUuid, String targetName, UUID issuerUuid, String issuerName, long amount, long createdAt, boolean active) {
         this.id = id;
         this.targetUuid = targetUuid;
         this.targetName = targetName;
@@ -46,7 +46,7 @@ public class Bounty {
         return issuerName;
     }
     
-    public double getAmount() {
+    public long getAmount() {
         return amount;
     }
     
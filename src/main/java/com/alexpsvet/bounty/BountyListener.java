@@ -1,6 +1,7 @@
 package com.alexpsvet.bounty;
 
 import com.alexpsvet.Survival;
+import com.alexpsvet.economy.Money;
 import com.alexpsvet.utils.MessageUtil;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -22,21 +23,21 @@ public class BountyListener implements Listener {
         }
         
         BountyManager bountyManager = BountyManager.getInstance();
-        double totalBounty = bountyManager.claimBounty(killer.getUniqueId(), killer.getName(), victim.getUniqueId());
+        long totalBounty = bountyManager.claimBounty(killer.getUniqueId(), killer.getName(), victim.getUniqueId());
         
         if (totalBounty > 0) {
             String currency = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
             
             // Notify killer
-            killer.sendMessage(MessageUtil.colorize("&a&l✓ Vous avez réclamé une prime de &e" + totalBounty + " " + currency + " &a&lpour avoir tué &6" + victim.getName() + "&a&l!"));
+            killer.sendMessage(MessageUtil.colorize("&a&l✓ Vous avez réclamé une prime de &e" + Money.format(totalBounty) + " " + currency + " &a&lpour avoir tué &6" + victim.getName() + "&a&l!"));
             
             // Notify victim
-            victim.sendMessage(MessageUtil.colorize("&c&l✗ &6" + killer.getName() + " &c&la réclamé la prime sur votre tête de &e" + totalBounty + " " + currency + "&c&l!"));
+            victim.sendMessage(MessageUtil.colorize("&c&l✗ &6" + killer.getName() + " &c&la réclamé la prime sur votre tête de &e" + Money.format(totalBounty) + " " + currency + "&c&l!"));
             
             // Broadcast if high bounty
-            if (totalBounty >= 10000) {
+            if (totalBounty >= Money.of(10000)) {
                 Survival.getInstance().getServer().broadcastMessage(
-                    MessageUtil.colorize("&6&l[PRIME] &6" + killer.getName() + " &ea réclamé une prime de &c" + totalBounty + " " + currency + " &epour avoir tué &6" + victim.getName() + "&e!")
+                    MessageUtil.colorize("&6&l[PRIME] &6" + killer.getName() + " &ea réclamé une prime de &c" + Money.format(totalBounty) + " " + currency + " &epour avoir tué &6" + victim.getName() + "&e!")
                 );
             }
         }
@@ -3,12 +3,10 @@ package com.alexpsvet.bounty;
 import com.alexpsvet.Survival;
 import com.alexpsvet.database.Database;
 import com.alexpsvet.economy.EconomyManager;
+import com.alexpsvet.economy.Money;
 import com.alexpsvet.economy.TransactionType;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.*;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -19,17 +17,15 @@ public class BountyManager {
     private static BountyManager instance;
     private final Database database;
     private final Map<UUID, List<Bounty>> activeBounties; // target UUID -> bounties
-    private final double minimumBounty;
-    private final double maximumBounty;
+    private final long minimumBounty;
+    private final long maximumBounty;
     
     public BountyManager(Database database) {
         instance = this;
         this.database = database;
         this.activeBounties = new HashMap<>();
-        this.minimumBounty = Survival.getInstance().getConfig().getDouble("bounty.minimum-amount", 100.0);
-        this.maximumBounty = Survival.getInstance().getConfig().getDouble("bounty.maximum-amount", 100000.0);
-        createTables();
-        loadBounties();
+        this.minimumBounty = Money.of(Survival.getInstance().getConfig().getDouble("bounty.minimum-amount", 100.0));
+        this.maximumBounty = Money.of(Survival.getInstance().getConfig().getDouble("bounty.maximum-amount", 100000.0));
     }
     
     public static BountyManager getInstance() {
@@ -37,52 +33,27 @@ public class BountyManager {
     }
     
     /**
-     * Create the bounty tables
+     * Load all active bounties from the database, can be called off the main thread
+     * @return the action making the bounties available, run on the main thread
      */
-    private void createTables() {
-        String query = "CREATE TABLE IF NOT EXISTS bounties (" +
-                "id VARCHAR(36) PRIMARY KEY," +
-                "target_uuid VARCHAR(36) NOT NULL," +
-                "target_name VARCHAR(16) NOT NULL," +
-                "issuer_uuid VARCHAR(36) NOT NULL," +
-                "issuer_name VARCHAR(16) NOT NULL," +
-                "amount DOUBLE NOT NULL," +
-                "created_at BIGINT NOT NULL," +
-                "active BOOLEAN NOT NULL DEFAULT 1" +
-                ")";
-        database.executeUpdate(query);
+    public Runnable loadBounties() {
+        List<Bounty> loaded = database.query("SELECT * FROM bounties WHERE active = 1", rs -> new Bounty(
+            UUID.fromString(rs.getString("id")),
+            UUID.fromString(rs.getString("target_uuid")),
+            rs.getString("target_name"),
+            UUID.fromString(rs.getString("issuer_uuid")),
+            rs.getString("issuer_name"),
+            rs.getLong("amount"),
+            rs.getLong("created_at"),
+            rs.getBoolean("active")
+        ));
         
-        String indexQuery = "CREATE INDEX IF NOT EXISTS idx_bounties_target ON bounties(target_uuid, active)";
-        database.executeUpdate(indexQuery);
-        
-        LOGGER.info("Bounty tables created/verified");
-    }
-    
-    /**
-     * Load all active bounties from the database
-     */
-    private void loadBounties() {
-        ResultSet rs = database.executeQuery("SELECT * FROM bounties WHERE active = 1");
-        try {
-            while (rs != null && rs.next()) {
-                Bounty bounty = new Bounty(
-                    UUID.fromString(rs.getString("id")),
-                    UUID.fromString(rs.getString("target_uuid")),
-                    rs.getString("target_name"),
-                    UUID.fromString(rs.getString("issuer_uuid")),
-                    rs.getString("issuer_name"),
-                    rs.getDouble("amount"),
-                    rs.getLong("created_at"),
-                    rs.getBoolean("active")
-                );
-                
+        LOGGER.info("Loaded " + loaded.size() + " active bounties");
+        return () -> {
+            for (Bounty bounty : loaded) {
                 activeBounties.computeIfAbsent(bounty.getTargetUuid(), k -> new ArrayList<>()).add(bounty);
             }
-            if (rs != null) rs.close();
-            LOGGER.info("Loaded " + activeBounties.values().stream().mapToInt(List::size).sum() + " active bounties");
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Failed to load bounties", e);
-        }
+        };
     }
     
     /**
@@ -91,10 +62,10 @@ public class BountyManager {
      * @param issuerName Name of the issuer
      * @param targetUuid UUID of the target player
      * @param targetName Name of the target
-     * @param amount Bounty amount
+     * @param amount Bounty amount in cents
      * @return true if successful, false otherwise
      */
-    public boolean placeBounty(UUID issuerUuid, String issuerName, UUID targetUuid, String targetName, double amount) {
+    public boolean placeBounty(UUID issuerUuid, String issuerName, UUID targetUuid, String targetName, long amount) {
         if (issuerUuid.equals(targetUuid)) {
             return false; // Can't place bounty on yourself
         }
@@ -104,13 +75,11 @@ public class BountyManager {
         }
         
         EconomyManager eco = Survival.getInstance().getEconomyManager();
-        if (eco.getBalance(issuerUuid) < amount) {
+        // Deduct money from issuer
+        if (!eco.removeBalance(issuerUuid, amount)) {
             return false; // Not enough money
         }
         
-        // Deduct money from issuer
-        eco.removeBalance(issuerUuid, amount);
-        
         // Create bounty
         Bounty bounty = new Bounty(
             UUID.randomUUID(),
@@ -124,7 +93,7 @@ public class BountyManager {
         );
         
         // Save to database
-        database.executeUpdate(
+        database.executeAsync(
             "INSERT INTO bounties (id, target_uuid, target_name, issuer_uuid, issuer_name, amount, created_at, active) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
             bounty.getId().toString(),
             bounty.getTargetUuid().toString(),
@@ -147,15 +116,15 @@ public class BountyManager {
      * @param killerUuid UUID of the killer
      * @param killerName Name of the killer
      * @param victimUuid UUID of the victim
-     * @return total bounty amount claimed
+     * @return total bounty amount claimed in cents
      */
-    public double claimBounty(UUID killerUuid, String killerName, UUID victimUuid) {
+    public long claimBounty(UUID killerUuid, String killerName, UUID victimUuid) {
         List<Bounty> bounties = activeBounties.get(victimUuid);
         if (bounties == null || bounties.isEmpty()) {
-            return 0.0;
+            return 0L;
         }
         
-        double totalAmount = 0.0;
+        long totalAmount = 0L;
         EconomyManager eco = Survival.getInstance().getEconomyManager();
         
         for (Bounty bounty : new ArrayList<>(bounties)) {
@@ -172,7 +141,7 @@ public class BountyManager {
                 
                 // Mark as inactive
                 bounty.setActive(false);
-                database.executeUpdate("UPDATE bounties SET active = 0 WHERE id = ?", bounty.getId().toString());
+                database.executeAsync("UPDATE bounties SET active = 0 WHERE id = ?", bounty.getId().toString());
             }
         }
         
@@ -197,17 +166,17 @@ public class BountyManager {
     /**
      * Get total bounty amount on a player
      * @param targetUuid UUID of the target
-     * @return total amount
+     * @return total amount in cents
      */
-    public double getTotalBounty(UUID targetUuid) {
+    public long getTotalBounty(UUID targetUuid) {
         List<Bounty> bounties = activeBounties.get(targetUuid);
         if (bounties == null || bounties.isEmpty()) {
-            return 0.0;
+            return 0L;
         }
         
         return bounties.stream()
                 .filter(Bounty::isActive)
-                .mapToDouble(Bounty::getAmount)
+                .mapToLong(Bounty::getAmount)
                 .sum();
     }
     
@@ -235,7 +204,7 @@ public class BountyManager {
                     
                     // Mark as inactive
                     bounty.setActive(false);
-                    database.executeUpdate("UPDATE bounties SET active = 0 WHERE id = ?", bounty.getId().toString());
+                    database.executeAsync("UPDATE bounties SET active = 0 WHERE id = ?", bounty.getId().toString());
                     
                     // Remove from cache
                     bounties.remove(bounty);
@@ -251,11 +220,11 @@ public class BountyManager {
         return false;
     }
     
-    public double getMinimumBounty() {
+    public long getMinimumBounty() {
         return minimumBounty;
     }
     
-    public double getMaximumBounty() {
+    public long getMaximumBounty() {
         return maximumBounty;
     }
 }
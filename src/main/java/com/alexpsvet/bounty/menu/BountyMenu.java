@@ -4,6 +4,7 @@ import com.alexpsvet.Survival;
 import com.alexpsvet.bounty.Bounty;
 import com.alexpsvet.bounty.BountyManager;
 import com.alexpsvet.economy.EconomyManager;
+import com.alexpsvet.economy.Money;
 import com.alexpsvet.utils.MessageUtil;
 import com.alexpsvet.utils.menu.Button;
 import com.alexpsvet.utils.menu.Menu;
@@ -37,8 +38,8 @@ public class BountyMenu {
         List<String> placeLore = new ArrayList<>();
         placeLore.add(MessageUtil.colorize("&7Placer une prime sur un joueur"));
         placeLore.add("");
-        placeLore.add(MessageUtil.colorize("&7Montant minimum: &e" + bountyManager.getMinimumBounty() + " " + currency));
-        placeLore.add(MessageUtil.colorize("&7Montant maximum: &e" + bountyManager.getMaximumBounty() + " " + currency));
+        placeLore.add(MessageUtil.colorize("&7Montant minimum: &e" + Money.format(bountyManager.getMinimumBounty()) + " " + currency));
+        placeLore.add(MessageUtil.colorize("&7Montant maximum: &e" + Money.format(bountyManager.getMaximumBounty()) + " " + currency));
         placeLore.add("");
         placeLore.add(MessageUtil.colorize("&eCliquez pour placer une prime!"));
         
@@ -114,10 +115,10 @@ public class BountyMenu {
                 meta.setDisplayName(MessageUtil.colorize("&6" + target.getName()));
                 
                 List<String> lore = new ArrayList<>();
-                double currentBounty = BountyManager.getInstance().getTotalBounty(target.getUniqueId());
+                long currentBounty = BountyManager.getInstance().getTotalBounty(target.getUniqueId());
                 if (currentBounty > 0) {
                     String currency = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
-                    lore.add(MessageUtil.colorize("&7Prime actuelle: &c" + currentBounty + " " + currency));
+                    lore.add(MessageUtil.colorize("&7Prime actuelle: &c" + Money.format(currentBounty) + " " + currency));
                 }
                 lore.add("");
                 lore.add(MessageUtil.colorize("&eCliquez pour placer une prime!"));
@@ -154,24 +155,25 @@ public class BountyMenu {
         
         String currency = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
         EconomyManager eco = Survival.getInstance().getEconomyManager();
-        double balance = eco.getBalance(player.getUniqueId());
+        long balance = eco.getBalance(player.getUniqueId());
         
-        // Preset amounts
-        double[] amounts = {100, 500, 1000, 2500, 5000, 10000, 25000, 50000, 100000};
+        // Preset amounts, in whole coins
+        long[] presets = {100, 500, 1000, 2500, 5000, 10000, 25000, 50000, 100000};
         int slot = 10;
         
-        for (double amount : amounts) {
+        for (long preset : presets) {
             if (slot == 17) slot = 19; // Skip to next row
             if (slot >= 35) break;
             
-            Material material = amount <= 1000 ? Material.GOLD_NUGGET :
-                               amount <= 5000 ? Material.GOLD_INGOT :
-                               amount <= 25000 ? Material.GOLD_BLOCK :
+            long amount = preset * Money.SCALE;
+            Material material = preset <= 1000 ? Material.GOLD_NUGGET :
+                               preset <= 5000 ? Material.GOLD_INGOT :
+                               preset <= 25000 ? Material.GOLD_BLOCK :
                                Material.DIAMOND_BLOCK;
             
             ItemStack item = new ItemStack(material);
             List<String> lore = new ArrayList<>();
-            lore.add(MessageUtil.colorize("&7Montant: &e" + amount + " " + currency));
+            lore.add(MessageUtil.colorize("&7Montant: &e" + Money.format(amount) + " " + currency));
             lore.add("");
             
             if (balance >= amount) {
@@ -184,7 +186,7 @@ public class BountyMenu {
             builder.button(new Button.Builder()
                 .slot(slot++)
                 .item(item)
-                .name(MessageUtil.colorize("&6&l" + amount + " " + currency))
+                .name(MessageUtil.colorize("&6&l" + Money.format(amount) + " " + currency))
                 .lore(lore)
                 .onClick((p, clickType) -> {
                     if (balance >= amount) {
@@ -192,11 +194,11 @@ public class BountyMenu {
                             p.getUniqueId(), p.getName(),
                             target.getUniqueId(), target.getName(),
                             amount)) {
-                            p.sendMessage(MessageUtil.colorize("&aPrime de &e" + amount + " " + currency + " &aplacée sur &6" + target.getName() + "&a!"));
+                            p.sendMessage(MessageUtil.colorize("&aPrime de &e" + Money.format(amount) + " " + currency + " &aplacée sur &6" + target.getName() + "&a!"));
                             p.closeInventory();
                             
                             // Notify target
-                            target.sendMessage(MessageUtil.colorize("&c&l⚠ Une prime de &e" + amount + " " + currency + " &c&la été placée sur votre tête!"));
+                            target.sendMessage(MessageUtil.colorize("&c&l⚠ Une prime de &e" + Money.format(amount) + " " + currency + " &c&la été placée sur votre tête!"));
                         } else {
                             p.sendMessage(MessageUtil.colorize("&cErreur lors du placement de la prime."));
                         }
@@ -233,9 +235,9 @@ public class BountyMenu {
         // Sort by total bounty amount
         List<Map.Entry<UUID, List<Bounty>>> sortedBounties = allBounties.entrySet().stream()
             .sorted((e1, e2) -> {
-                double total1 = e1.getValue().stream().mapToDouble(Bounty::getAmount).sum();
-                double total2 = e2.getValue().stream().mapToDouble(Bounty::getAmount).sum();
-                return Double.compare(total2, total1);
+                long total1 = e1.getValue().stream().mapToLong(Bounty::getAmount).sum();
+                long total2 = e2.getValue().stream().mapToLong(Bounty::getAmount).sum();
+                return Long.compare(total2, total1);
             })
             .collect(Collectors.toList());
         
@@ -248,7 +250,7 @@ public class BountyMenu {
             if (bounties.isEmpty()) continue;
             
             String targetName = bounties.get(0).getTargetName();
-            double totalAmount = bounties.stream().mapToDouble(Bounty::getAmount).sum();
+            long totalAmount = bounties.stream().mapToLong(Bounty::getAmount).sum();
             
             ItemStack skull = new ItemStack(Material.PLAYER_HEAD);
             SkullMeta meta = (SkullMeta) skull.getItemMeta();
@@ -260,12 +262,12 @@ public class BountyMenu {
                 meta.setDisplayName(MessageUtil.colorize("&c&l" + targetName));
                 
                 List<String> lore = new ArrayList<>();
-                lore.add(MessageUtil.colorize("&7Prime totale: &e" + totalAmount + " " + currency));
+                lore.add(MessageUtil.colorize("&7Prime totale: &e" + Money.format(totalAmount) + " " + currency));
                 lore.add(MessageUtil.colorize("&7Nombre de primes: &e" + bounties.size()));
                 lore.add("");
                 lore.add(MessageUtil.colorize("&7Placées par:"));
                 for (Bounty bounty : bounties) {
-                    lore.add(MessageUtil.colorize("  &8• &6" + bounty.getIssuerName() + " &7- &e" + bounty.getAmount() + " " + currency));
+                    lore.add(MessageUtil.colorize("  &8• &6" + bounty.getIssuerName() + " &7- &e" + Money.format(bounty.getAmount()) + " " + currency));
                 }
                 meta.setLore(lore);
                 skull.setItemMeta(meta);
@@ -324,7 +326,7 @@ public class BountyMenu {
                 meta.setDisplayName(MessageUtil.colorize("&c" + bounty.getTargetName()));
                 
                 List<String> lore = new ArrayList<>();
-                lore.add(MessageUtil.colorize("&7Montant: &e" + bounty.getAmount() + " " + currency));
+                lore.add(MessageUtil.colorize("&7Montant: &e" + Money.format(bounty.getAmount()) + " " + currency));
                 lore.add(MessageUtil.colorize("&7Placée il y a: &e" + getTimeAgo(bounty.getCreatedAt())));
                 lore.add("");
                 lore.add(MessageUtil.colorize("&eCliquez pour annuler et être remboursé"));
@@ -338,7 +340,7 @@ public class BountyMenu {
                 .item(skull)
                 .onClick((p, clickType) -> {
                     if (BountyManager.getInstance().cancelBounty(bountyId, p.getUniqueId())) {
-                        p.sendMessage(MessageUtil.colorize("&aPrime annulée! Vous avez été remboursé de &e" + bounty.getAmount() + " " + currency));
+                        p.sendMessage(MessageUtil.colorize("&aPrime annulée! Vous avez été remboursé de &e" + Money.format(bounty.getAmount()) + " " + currency));
                         openMyBountiesMenu(p); // Refresh menu
                     } else {
                         p.sendMessage(MessageUtil.colorize("&cErreur lors de l'annulation de la prime."));
@@ -31,18 +31,22 @@ public class ChatManager {
         instance = this;
         this.replyTargets = new HashMap<>();
         this.toggledChat = new HashMap<>();
-        loadMessagesConfig();
     }
     
     /**
-     * Load custom messages configuration
+     * Load custom messages configuration, can be called off the main thread
+     * @return the action making the messages available, run on the main thread
      */
-    private void loadMessagesConfig() {
-        messagesFile = new File(Survival.getInstance().getDataFolder(), "messages.yml");
-        if (!messagesFile.exists()) {
+    public Runnable load() {
+        File file = new File(Survival.getInstance().getDataFolder(), "messages.yml");
+        if (!file.exists()) {
             Survival.getInstance().saveResource("messages.yml", false);
         }
-        messagesConfig = YamlConfiguration.loadConfiguration(messagesFile);
+        FileConfiguration config = YamlConfiguration.loadConfiguration(file);
+        return () -> {
+            messagesFile = file;
+            messagesConfig = config;
+        };
     }
     
     /**
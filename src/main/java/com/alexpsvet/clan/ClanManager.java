@@ -2,13 +2,13 @@ package com.alexpsvet.clan;
 
 import com.alexpsvet.Survival;
 import com.alexpsvet.database.Database;
+import com.alexpsvet.territory.TerritoryManager;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.World;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.*;
-import java.util.logging.Level;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 
 /**
@@ -32,145 +32,79 @@ public class ClanManager {
         this.invitations = new HashMap<>();
         this.maxMembers = Survival.getInstance().getConfig().getInt("clans.max-members", 20);
         this.maxAllies = Survival.getInstance().getConfig().getInt("clans.max-allies", 3);
-        createTables();
-        loadClans();
     }
     
     /**
-     * Create the clan tables
+     * Load all clans from database, can be called off the main thread.
+     * Clans, members, allies and enemies are each read with one query, in parallel, and joined in memory.
+     * @return the action making the clans available, run on the main thread
      */
-    private void createTables() {
-        String clansTable = "CREATE TABLE IF NOT EXISTS clans (" +
-                "name VARCHAR(16) PRIMARY KEY," +
-                "tag VARCHAR(6) NOT NULL," +
-                "leader VARCHAR(36) NOT NULL," +
-                "description TEXT," +
-                "friendly_fire BOOLEAN DEFAULT 0," +
-                "home_world VARCHAR(50)," +
-                "home_x DOUBLE," +
-                "home_y DOUBLE," +
-                "home_z DOUBLE," +
-                "home_yaw FLOAT," +
-                "home_pitch FLOAT," +
-                "created_at BIGINT NOT NULL" +
-                ")";
-        database.executeUpdate(clansTable);
-        
-        String membersTable = "CREATE TABLE IF NOT EXISTS clan_members (" +
-                "clan_name VARCHAR(16) NOT NULL," +
-                "uuid VARCHAR(36) NOT NULL," +
-                "rank VARCHAR(20) NOT NULL," +
-                "joined_at BIGINT NOT NULL," +
-                "PRIMARY KEY (clan_name, uuid)" +
-                ")";
-        database.executeUpdate(membersTable);
-        
-        String alliesTable = "CREATE TABLE IF NOT EXISTS clan_allies (" +
-                "clan_name VARCHAR(16) NOT NULL," +
-                "ally_name VARCHAR(16) NOT NULL," +
-                "created_at BIGINT NOT NULL," +
-                "PRIMARY KEY (clan_name, ally_name)" +
-                ")";
-        database.executeUpdate(alliesTable);
+    public Runnable loadClans() {
+        // Worlds are resolved once, the rows are mapped on the database threads
+        Map<String, World> worlds = new HashMap<>();
+        for (World world : Bukkit.getWorlds()) {
+            worlds.put(world.getName().toLowerCase(Locale.ENGLISH), world);
+        }
         
-        String enemiesTable = "CREATE TABLE IF NOT EXISTS clan_enemies (" +
-                "clan_name VARCHAR(16) NOT NULL," +
-                "enemy_name VARCHAR(16) NOT NULL," +
-                "created_at BIGINT NOT NULL," +
-                "PRIMARY KEY (clan_name, enemy_name)" +
-                ")";
-        database.executeUpdate(enemiesTable);
+        CompletableFuture<List<Clan>> clansLoad = database.loadAsync(() -> database.query("SELECT * FROM clans", rs -> {
+            String name = rs.getString("name");
+            String tag = rs.getString("tag");
+            UUID leader = UUID.fromString(rs.getString("leader"));
+            
+            Clan clan = new Clan(name, tag, leader);
+            clan.setDescription(rs.getString("description"));
+            clan.setFriendlyFire(rs.getBoolean("friendly_fire"));
+            
+            // Load home
+            String homeWorld = rs.getString("home_world");
+            if (homeWorld != null) {
+                Location home = new Location(
+                    worlds.get(homeWorld.toLowerCase(Locale.ENGLISH)),
+                    rs.getDouble("home_x"),
+                    rs.getDouble("home_y"),
+                    rs.getDouble("home_z"),
+                    rs.getFloat("home_yaw"),
+                    rs.getFloat("home_pitch")
+                );
+                clan.setHome(home);
+            }
+            return clan;
+        }));
+        CompletableFuture<Map<String, List<Map.Entry<UUID, ClanRank>>>> membersLoad = database.loadAsync(() ->
+            database.queryGrouped("SELECT clan_name, uuid, rank FROM clan_members",
+                rs -> rs.getString("clan_name"),
+                rs -> new AbstractMap.SimpleEntry<>(UUID.fromString(rs.getString("uuid")), ClanRank.valueOf(rs.getString("rank")))));
+        CompletableFuture<Map<String, List<String>>> alliesLoad = database.loadAsync(() ->
+            database.queryGrouped("SELECT clan_name, ally_name FROM clan_allies",
+                rs -> rs.getString("clan_name"), rs -> rs.getString("ally_name")));
+        CompletableFuture<Map<String, List<String>>> enemiesLoad = database.loadAsync(() ->
+            database.queryGrouped("SELECT clan_name, enemy_name FROM clan_enemies",
+                rs -> rs.getString("clan_name"), rs -> rs.getString("enemy_name")));
         
-        LOGGER.info("Clan tables created/verified");
-    }
-    
-    /**
-     * Load all clans from database
-     */
-    private void loadClans() {
-        ResultSet rs = database.executeQuery("SELECT * FROM clans");
-        try {
-            while (rs != null && rs.next()) {
-                String name = rs.getString("name");
-                String tag = rs.getString("tag");
-                UUID leader = UUID.fromString(rs.getString("leader"));
-                
-                Clan clan = new Clan(name, tag, leader);
-                clan.setDescription(rs.getString("description"));
-                clan.setFriendlyFire(rs.getBoolean("friendly_fire"));
-                
-                // Load home
-                String homeWorld = rs.getString("home_world");
-                if (homeWorld != null) {
-                    Location home = new Location(
-                        Bukkit.getWorld(homeWorld),
-                        rs.getDouble("home_x"),
-                        rs.getDouble("home_y"),
-                        rs.getDouble("home_z"),
-                        rs.getFloat("home_yaw"),
-                        rs.getFloat("home_pitch")
-                    );
-                    clan.setHome(home);
-                }
-                
-                clans.put(name, clan);
-                loadClanMembers(clan);
-                loadClanAllies(clan);
-                loadClanEnemies(clan);
+        Map<String, List<Map.Entry<UUID, ClanRank>>> members = membersLoad.join();
+        Map<String, List<String>> allies = alliesLoad.join();
+        Map<String, List<String>> enemies = enemiesLoad.join();
+        List<Clan> loaded = clansLoad.join();
+        Map<UUID, String> loadedMembers = new HashMap<>();
+        for (Clan clan : loaded) {
+            for (Map.Entry<UUID, ClanRank> member : members.getOrDefault(clan.getName(), Collections.emptyList())) {
+                clan.addMember(member.getKey(), member.getValue());
+                loadedMembers.put(member.getKey(), clan.getName());
             }
-            if (rs != null) rs.close();
-            LOGGER.info("Loaded " + clans.size() + " clans");
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Failed to load clans", e);
-        }
-    }
-    
-    /**
-     * Load clan members
-     */
-    private void loadClanMembers(Clan clan) {
-        ResultSet rs = database.executeQuery("SELECT uuid, rank FROM clan_members WHERE clan_name = ?", clan.getName());
-        try {
-            while (rs != null && rs.next()) {
-                UUID uuid = UUID.fromString(rs.getString("uuid"));
-                ClanRank rank = ClanRank.valueOf(rs.getString("rank"));
-                clan.addMember(uuid, rank);
-                playerClans.put(uuid, clan.getName());
+            for (String ally : allies.getOrDefault(clan.getName(), Collections.emptyList())) {
+                clan.addAlly(ally);
             }
-            if (rs != null) rs.close();
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Failed to load members for clan " + clan.getName(), e);
-        }
-    }
-    
-    /**
-     * Load clan allies
-     */
-    private void loadClanAllies(Clan clan) {
-        ResultSet rs = database.executeQuery("SELECT ally_name FROM clan_allies WHERE clan_name = ?", clan.getName());
-        try {
-            while (rs != null && rs.next()) {
-                clan.addAlly(rs.getString("ally_name"));
+            for (String enemy : enemies.getOrDefault(clan.getName(), Collections.emptyList())) {
+                clan.addEnemy(enemy);
             }
-            if (rs != null) rs.close();
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Failed to load allies for clan " + clan.getName(), e);
         }
-    }
-    
-    /**
-     * Load clan enemies
-     */
-    private void loadClanEnemies(Clan clan) {
-        ResultSet rs = database.executeQuery("SELECT enemy_name FROM clan_enemies WHERE clan_name = ?", clan.getName());
-        try {
-            while (rs != null && rs.next()) {
-                clan.addEnemy(rs.getString("enemy_name"));
+        LOGGER.info("Loaded " + loaded.size() + " clans (" + loadedMembers.size() + " members)");
+        return () -> {
+            for (Clan clan : loaded) {
+                clans.put(clan.getName(), clan);
             }
-            if (rs != null) rs.close();
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Failed to load enemies for clan " + clan.getName(), e);
-        }
+            playerClans.putAll(loadedMembers);
+        };
     }
     
     /**
@@ -184,14 +118,16 @@ public class ClanManager {
         Clan clan = new Clan(name, tag, leader);
         clans.put(name, clan);
         playerClans.put(leader, name);
+        // Territories may still be claimed by a former clan of the same name
+        notifyTerritories(name, leader);
         
         // Save to database
-        database.executeUpdate(
+        database.executeAsync(
             "INSERT INTO clans (name, tag, leader, created_at) VALUES (?, ?, ?, ?)",
             name, tag, leader.toString(), System.currentTimeMillis()
         );
         
-        database.executeUpdate(
+        database.executeAsync(
             "INSERT INTO clan_members (clan_name, uuid, rank, joined_at) VALUES (?, ?, ?, ?)",
             name, leader.toString(), ClanRank.LEADER.name(), System.currentTimeMillis()
         );
@@ -212,12 +148,18 @@ public class ClanManager {
         }
         
         clans.remove(name);
+        TerritoryManager territoryManager = TerritoryManager.getInstance();
+        if (territoryManager != null) {
+            territoryManager.onClanDisbanded(name);
+        }
         
-        // Remove from database
-        database.executeUpdate("DELETE FROM clans WHERE name = ?", name);
-        database.executeUpdate("DELETE FROM clan_members WHERE clan_name = ?", name);
-        database.executeUpdate("DELETE FROM clan_allies WHERE clan_name = ? OR ally_name = ?", name, name);
-        database.executeUpdate("DELETE FROM clan_enemies WHERE clan_name = ? OR enemy_name = ?", name, name);
+        // Remove from database, all rows or none
+        database.inTransactionAsync(tx -> {
+            tx.executeUpdate("DELETE FROM clan_members WHERE clan_name = ?", name);
+            tx.executeUpdate("DELETE FROM clan_allies WHERE clan_name = ? OR ally_name = ?", name, name);
+            tx.executeUpdate("DELETE FROM clan_enemies WHERE clan_name = ? OR enemy_name = ?", name, name);
+            tx.executeUpdate("DELETE FROM clans WHERE name = ?", name);
+        });
     }
     
     /**
@@ -231,8 +173,9 @@ public class ClanManager {
         
         clan.addMember(uuid, ClanRank.MEMBER);
         playerClans.put(uuid, clanName);
+        notifyTerritories(clanName, uuid);
         
-        database.executeUpdate(
+        database.executeAsync(
             "INSERT INTO clan_members (clan_name, uuid, rank, joined_at) VALUES (?, ?, ?, ?)",
             clanName, uuid.toString(), ClanRank.MEMBER.name(), System.currentTimeMillis()
         );
@@ -249,8 +192,9 @@ public class ClanManager {
         
         clan.removeMember(uuid);
         playerClans.remove(uuid);
+        notifyTerritories(clanName, uuid);
         
-        database.executeUpdate("DELETE FROM clan_members WHERE clan_name = ? AND uuid = ?", clanName, uuid.toString());
+        database.executeAsync("DELETE FROM clan_members WHERE clan_name = ? AND uuid = ?", clanName, uuid.toString());
     }
     
     /**
@@ -261,7 +205,7 @@ public class ClanManager {
         if (clan == null) return;
         
         clan.setRank(uuid, rank);
-        database.executeUpdate("UPDATE clan_members SET rank = ? WHERE clan_name = ? AND uuid = ?", 
+        database.executeAsync("UPDATE clan_members SET rank = ? WHERE clan_name = ? AND uuid = ?", 
             rank.name(), clanName, uuid.toString());
     }
     
@@ -273,7 +217,7 @@ public class ClanManager {
         if (clan == null) return;
         
         clan.setHome(location);
-        database.executeUpdate(
+        database.executeAsync(
             "UPDATE clans SET home_world = ?, home_x = ?, home_y = ?, home_z = ?, home_yaw = ?, home_pitch = ? WHERE name = ?",
             location.getWorld().getName(),
             location.getX(),
@@ -292,7 +236,7 @@ public class ClanManager {
         Clan clan = clans.get(clanName);
         if (clan == null) return;
         
-        database.executeUpdate(
+        database.executeAsync(
             "UPDATE clans SET friendly_fire = ?, description = ? WHERE name = ?",
             clan.isFriendlyFire(),
             clan.getDescription(),
@@ -315,10 +259,8 @@ public class ClanManager {
         ally.addAlly(clanName);
         
         long now = System.currentTimeMillis();
-        database.executeUpdate("INSERT INTO clan_allies (clan_name, ally_name, created_at) VALUES (?, ?, ?)", 
-            clanName, allyName, now);
-        database.executeUpdate("INSERT INTO clan_allies (clan_name, ally_name, created_at) VALUES (?, ?, ?)", 
-            allyName, clanName, now);
+        database.executeBatchAsync("INSERT INTO clan_allies (clan_name, ally_name, created_at) VALUES (?, ?, ?)",
+            Arrays.asList(new Object[] { clanName, allyName, now }, new Object[] { allyName, clanName, now }));
         
         return true;
     }
@@ -333,7 +275,7 @@ public class ClanManager {
         if (clan != null) clan.removeAlly(allyName);
         if (ally != null) ally.removeAlly(clanName);
         
-        database.executeUpdate("DELETE FROM clan_allies WHERE (clan_name = ? AND ally_name = ?) OR (clan_name = ? AND ally_name = ?)", 
+        database.executeAsync("DELETE FROM clan_allies WHERE (clan_name = ? AND ally_name = ?) OR (clan_name = ? AND ally_name = ?)", 
             clanName, allyName, allyName, clanName);
     }
     
@@ -366,6 +308,16 @@ public class ClanManager {
         return invitations.containsKey(uuid);
     }
     
+    /**
+     * Let the territories of a clan drop what they know of a member's permissions
+     */
+    private void notifyTerritories(String clanName, UUID uuid) {
+        TerritoryManager territoryManager = TerritoryManager.getInstance();
+        if (territoryManager != null) {
+            territoryManager.onClanMemberChanged(clanName, uuid);
+        }
+    }
+    
     public static ClanManager getInstance() {
         return instance;
     }
@@ -4,6 +4,7 @@ import com.alexpsvet.Survival;
 import com.alexpsvet.clan.Clan;
 import com.alexpsvet.clan.ClanManager;
 import com.alexpsvet.clan.ClanRank;
+import com.alexpsvet.economy.Money;
 import com.alexpsvet.utils.MessageUtil;
 import com.alexpsvet.utils.menu.Button;
 import com.alexpsvet.utils.menu.Menu;
@@ -278,7 +279,7 @@ public class ClanInfoMenu {
             ItemStack create = createItem(Material.NETHER_STAR, "&a&lCréer un Clan",
                 "&7Créer votre propre clan",
                 "",
-                "&7Coût: &e" + Survival.getInstance().getConfig().getDouble("clans.creation-cost") + " " +
+                "&7Coût: &e" + Money.format(Money.of(Survival.getInstance().getConfig().getDouble("clans.creation-cost"))) + " " +
                 Survival.getInstance().getConfig().getString("economy.currency-symbol")
             );
             builder.button(new Button.Builder().slot(49).item(create)
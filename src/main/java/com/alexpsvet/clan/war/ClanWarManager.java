@@ -9,10 +9,7 @@ import org.bukkit.*;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.*;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -48,9 +45,6 @@ public class ClanWarManager {
         this.borderShrinkStartMinutes = Survival.getInstance().getConfig().getInt("clan-wars.border-shrink-start-minutes", 10);
         this.borderShrinkRate = Survival.getInstance().getConfig().getInt("clan-wars.border-shrink-rate", 5);
         this.minBorderSize = Survival.getInstance().getConfig().getInt("clan-wars.min-border-size", 50);
-        
-        createTables();
-        loadActiveWars();
     }
 
     /**
@@ -121,50 +115,29 @@ public class ClanWarManager {
     }
     
     /**
-     * Create war tables
+     * Load active wars from database, can be called off the main thread
+     * @return the action cleaning up the unfinished wars, run on the main thread
      */
-    private void createTables() {
-        String warsTable = "CREATE TABLE IF NOT EXISTS clan_wars (" +
-                "id INTEGER PRIMARY KEY " + (database.getType().name().equals("SQLITE") ? "AUTOINCREMENT" : "AUTO_INCREMENT") + "," +
-                "clan1_name VARCHAR(16) NOT NULL," +
-                "clan2_name VARCHAR(16) NOT NULL," +
-                "status VARCHAR(20) NOT NULL," +
-                "start_time BIGINT," +
-                "end_time BIGINT," +
-                "winner_clan VARCHAR(16)," +
-                "created_at BIGINT NOT NULL" +
-                ")";
-        database.executeUpdate(warsTable);
+    public Runnable loadActiveWars() {
+        List<ClanWar> wars = database.query("SELECT * FROM clan_wars WHERE status != 'FINISHED'", rs -> {
+            ClanWar war = new ClanWar(rs.getInt("id"), rs.getString("clan1_name"), rs.getString("clan2_name"));
+            war.setStatus(ClanWar.WarStatus.valueOf(rs.getString("status")));
+            
+            long startTime = rs.getLong("start_time");
+            if (startTime > 0) {
+                war.setStartTime(startTime);
+            }
+            return war;
+        });
         
-        LOGGER.info("Clan war tables created/verified");
-    }
-    
-    /**
-     * Load active wars from database
-     */
-    private void loadActiveWars() {
-        ResultSet rs = database.executeQuery("SELECT * FROM clan_wars WHERE status != 'FINISHED'");
-        try {
-            while (rs != null && rs.next()) {
-                int id = rs.getInt("id");
-                String clan1 = rs.getString("clan1_name");
-                String clan2 = rs.getString("clan2_name");
-                
-                ClanWar war = new ClanWar(id, clan1, clan2);
-                war.setStatus(ClanWar.WarStatus.valueOf(rs.getString("status")));
+        return () -> {
+            for (ClanWar war : wars) {
+                activeWars.put(war.getId(), war);
                 
-                long startTime = rs.getLong("start_time");
-                if (startTime > 0) {
-                    war.setStartTime(startTime);
-                }
-                
-                activeWars.put(id, war);
-                
-                if (id >= nextWarId) {
-                    nextWarId = id + 1;
+                if (war.getId() >= nextWarId) {
+                    nextWarId = war.getId() + 1;
                 }
             }
-            if (rs != null) rs.close();
             
             // Resume wars if server crashed
             if (!activeWars.isEmpty()) {
@@ -173,10 +146,7 @@ public class ClanWarManager {
                     endWar(war.getId(), null, true);
                 }
             }
-            
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Failed to load clan wars", e);
-        }
+        };
     }
     
     /**
@@ -240,48 +210,44 @@ public class ClanWarManager {
     }
     
     /**
-     * Start a clan war
+     * Start a clan war, once its record is inserted on the database writer
      */
     public void startWar(String clan1Name, String clan2Name) {
         // Create war record
-        database.executeUpdate(
+        database.insertAsync(
             "INSERT INTO clan_wars (clan1_name, clan2_name, status, created_at) VALUES (?, ?, ?, ?)",
             clan1Name, clan2Name, ClanWar.WarStatus.PREPARATION.name(), System.currentTimeMillis()
-        );
-        
-        ResultSet rs = database.executeQuery("SELECT MAX(id) as max_id FROM clan_wars");
-        try {
-            if (rs != null && rs.next()) {
-                int warId = rs.getInt("max_id");
-                ClanWar war = new ClanWar(warId, clan1Name, clan2Name);
-                war.setStatus(ClanWar.WarStatus.PREPARATION);
-                war.setStartTime(System.currentTimeMillis());
-                war.setPreparationEndTime(System.currentTimeMillis() + (preparationMinutes * 60 * 1000));
-                war.setBattleEndTime(System.currentTimeMillis() + ((preparationMinutes + battleMinutes) * 60 * 1000));
-                
-                activeWars.put(warId, war);
-                
-                // Initialize arena
-                if (!warArena.initializeArena()) {
-                    LOGGER.severe("Failed to initialize war arena!");
-                    endWar(warId, null, true);
-                    return;
-                }
-                
-                war.setClan1SpawnLocation(warArena.getClan1Spawn());
-                war.setClan2SpawnLocation(warArena.getClan2Spawn());
-                
-                // Teleport players
-                teleportClansToArena(war);
-                
-                // Start preparation timer
-                startPreparationPhase(war);
-                
-                rs.close();
+        ).thenAccept(key -> {
+            if (key < 0) {
+                LOGGER.severe("Failed to create war between " + clan1Name + " and " + clan2Name);
+                return;
             }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Failed to create war", e);
-        }
+            int warId = (int) (long) key;
+            
+            ClanWar war = new ClanWar(warId, clan1Name, clan2Name);
+            war.setStatus(ClanWar.WarStatus.PREPARATION);
+            war.setStartTime(System.currentTimeMillis());
+            war.setPreparationEndTime(System.currentTimeMillis() + (preparationMinutes * 60 * 1000));
+            war.setBattleEndTime(System.currentTimeMillis() + ((preparationMinutes + battleMinutes) * 60 * 1000));
+            
+            activeWars.put(warId, war);
+            
+            // Initialize arena
+            if (!warArena.initializeArena()) {
+                LOGGER.severe("Failed to initialize war arena!");
+                endWar(warId, null, true);
+                return;
+            }
+            
+            war.setClan1SpawnLocation(warArena.getClan1Spawn());
+            war.setClan2SpawnLocation(warArena.getClan2Spawn());
+            
+            // Teleport players
+            teleportClansToArena(war);
+            
+            // Start preparation timer
+            startPreparationPhase(war);
+        });
     }
     
     /**
@@ -487,7 +453,7 @@ public class ClanWarManager {
         war.setStatus(ClanWar.WarStatus.FINISHED);
         
         // Update database
-        database.executeUpdate(
+        database.executeAsync(
             "UPDATE clan_wars SET status = ?, end_time = ?, winner_clan = ? WHERE id = ?",
             ClanWar.WarStatus.FINISHED.name(), System.currentTimeMillis(), winnerClan, warId
         );
@@ -555,7 +521,7 @@ public class ClanWarManager {
      * Update war status in database
      */
     private void updateWarStatus(ClanWar war) {
-        database.executeUpdate(
+        database.executeAsync(
             "UPDATE clan_wars SET status = ? WHERE id = ?",
             war.getStatus().name(), war.getId()
         );
@@ -5,6 +5,7 @@ import com.alexpsvet.auction.AuctionManager;
 import com.alexpsvet.auction.menu.AuctionMenu;
 import com.alexpsvet.commands.base.BaseCommand;
 import com.alexpsvet.commands.base.SubCommand;
+import com.alexpsvet.economy.Money;
 import com.alexpsvet.utils.MessageUtil;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
@@ -72,9 +73,9 @@ public class AuctionCommand extends BaseCommand {
                 return;
             }
             
-            double price;
+            long price;
             try {
-                price = Double.parseDouble(args[0]);
+                price = Money.parse(args[0]);
             } catch (NumberFormatException e) {
                 MessageUtil.sendError(player, "Prix invalide!");
                 return;
@@ -101,12 +102,20 @@ public class AuctionCommand extends BaseCommand {
                 return;
             }
             
+            // The item leaves the hand now, so it cannot be used while the listing is written
             AuctionManager auctionManager = Survival.getInstance().getAuctionManager();
-            if (auctionManager.createListing(player, item, price, duration)) {
-                player.getInventory().setItemInMainHand(null);
-            } else {
+            ItemStack listed = item.clone();
+            player.getInventory().setItemInMainHand(null);
+            auctionManager.createListing(player, listed, price, duration).thenAccept(created -> {
+                if (created) return;
+                // Give the item back
+                if (player.isOnline() && player.getInventory().firstEmpty() != -1) {
+                    player.getInventory().addItem(listed);
+                } else {
+                    player.getWorld().dropItem(player.getLocation(), listed);
+                }
                 MessageUtil.sendError(player, "Erreur lors de la création de la vente!");
-            }
+            });
         }
         
         @Override
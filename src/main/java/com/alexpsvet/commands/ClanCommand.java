@@ -6,6 +6,7 @@ import com.alexpsvet.clan.ClanManager;
 import com.alexpsvet.clan.ClanRank;
 import com.alexpsvet.clan.menu.ClanInfoMenu;
 import com.alexpsvet.economy.EconomyManager;
+import com.alexpsvet.economy.Money;
 import com.alexpsvet.economy.TransactionType;
 import com.alexpsvet.utils.MessageUtil;
 import org.bukkit.Bukkit;
@@ -118,10 +119,10 @@ public class ClanCommand implements CommandExecutor {
             return true;
         }
         
-        double cost = Survival.getInstance().getConfig().getDouble("clans.creation-cost", 5000.0);
+        long cost = Money.of(Survival.getInstance().getConfig().getDouble("clans.creation-cost", 5000.0));
         if (!economyManager.removeBalance(player.getUniqueId(), cost)) {
             String symbol = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
-            MessageUtil.sendError(player, "Vous avez besoin de " + cost + " " + symbol + " pour créer un clan!");
+            MessageUtil.sendError(player, "Vous avez besoin de " + Money.format(cost) + " " + symbol + " pour créer un clan!");
             return true;
         }
         
@@ -392,10 +393,10 @@ public class ClanCommand implements CommandExecutor {
             return true;
         }
         
-        double cost = Survival.getInstance().getConfig().getDouble("clans.clan-home.set-cost", 1000.0);
+        long cost = Money.of(Survival.getInstance().getConfig().getDouble("clans.clan-home.set-cost", 1000.0));
         if (!economyManager.removeBalance(player.getUniqueId(), cost)) {
             String symbol = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
-            MessageUtil.sendError(player, "Vous avez besoin de " + cost + " " + symbol + " pour définir le home!");
+            MessageUtil.sendError(player, "Vous avez besoin de " + Money.format(cost) + " " + symbol + " pour définir le home!");
             return true;
         }
         
@@ -0,0 +1,179 @@
+package com.alexpsvet.commands;
+
+import com.alexpsvet.Survival;
+import com.alexpsvet.commands.base.BaseCommand;
+import com.alexpsvet.commands.base.SubCommand;
+import com.alexpsvet.database.Database;
+import com.alexpsvet.database.QueryMetrics;
+import com.alexpsvet.database.QueryStats;
+import com.alexpsvet.utils.MessageUtil;
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Admin database command using sub-commands: top, status, reset
+ */
+public class DatabaseAdminCommand extends BaseCommand {
+
+    private final Database database;
+
+    public DatabaseAdminCommand() {
+        this.database = Survival.getInstance().getDatabase();
+
+        // register sub-commands
+        registerSubCommand(new TopSub());
+        registerSubCommand(new StatusSub());
+        registerSubCommand(new ResetSub());
+    }
+
+    @Override
+    public String getName() {
+        return "dbadmin";
+    }
+
+    @Override
+    protected void executeDefault(CommandSender sender, String[] args) {
+        sendHelp(sender);
+    }
+
+    private static String formatMicros(long micros) {
+        if (micros >= 1000000L) {
+            return String.format("%.2fs", micros / 1000000.0);
+        }
+        return String.format("%.1fms", micros / 1000.0);
+    }
+
+    // top [total|count|p99|errors] [n]
+    private class TopSub extends SubCommand {
+        @Override
+        public String getName() { return "top"; }
+
+        @Override
+        public String getDescription() { return "Requêtes les plus coûteuses"; }
+
+        @Override
+        public String getSyntax() { return "/dbadmin top [total|count|p99|errors] [nombre]"; }
+
+        @Override
+        public String getPermission() { return "survival.admin"; }
+
+        @Override
+        public boolean canConsoleExecute() { return true; }
+
+        @Override
+        public void execute(CommandSender sender, String[] args) {
+            String sort = args.length >= 1 ? args[0].toLowerCase() : "total";
+            Comparator<QueryStats> order;
+            switch (sort) {
+                case "total": order = QueryMetrics.byTotalTime(); break;
+                case "count": order = QueryMetrics.byCount(); break;
+                case "p99": order = QueryMetrics.byP99(); break;
+                case "errors": order = QueryMetrics.byErrors(); break;
+                default:
+                    MessageUtil.sendError(sender, "Usage: " + getSyntax());
+                    return;
+            }
+
+            int limit = 10;
+            if (args.length >= 2) {
+                try { limit = Math.max(1, Integer.parseInt(args[1])); } catch (NumberFormatException e) {
+                    MessageUtil.sendError(sender, "Nombre invalide!");
+                    return;
+                }
+            }
+
+            List<QueryStats> top = database.getQueryMetrics().getTop(order, limit);
+            if (top.isEmpty()) {
+                MessageUtil.sendInfo(sender, "Aucune requête enregistrée.");
+                return;
+            }
+
+            MessageUtil.sendMessage(sender, "&6&l===== Requêtes (" + sort + ") =====");
+            int rank = 1;
+            for (QueryStats stats : top) {
+                String template = stats.getTemplate();
+                if (template.length() > 90) {
+                    template = template.substring(0, 87) + "...";
+                }
+                MessageUtil.sendMessage(sender, "&e#" + rank++ + " &f" + template);
+                MessageUtil.sendMessage(sender, "&7   n=" + stats.getCount()
+                    + " err=" + (stats.getErrors() > 0 ? "&c" + stats.getErrors() + "&7" : "0")
+                    + " rows=" + stats.getRows()
+                    + " total=" + formatMicros(stats.getTotalMicros())
+                    + " p50=" + formatMicros(stats.getPercentileMicros(0.50))
+                    + " p95=" + formatMicros(stats.getPercentileMicros(0.95))
+                    + " p99=" + formatMicros(stats.getPercentileMicros(0.99))
+                    + " max=" + formatMicros(stats.getMaxMicros()));
+            }
+        }
+
+        @Override
+        public List<String> getTabCompletions(CommandSender sender, String[] args) {
+            if (args.length == 1) {
+                return Arrays.asList("total", "count", "p99", "errors");
+            }
+            return new ArrayList<>();
+        }
+    }
+
+    // status
+    private class StatusSub extends SubCommand {
+        @Override
+        public String getName() { return "status"; }
+
+        @Override
+        public String getDescription() { return "État des connexions et des caches"; }
+
+        @Override
+        public String getSyntax() { return "/dbadmin status"; }
+
+        @Override
+        public String getPermission() { return "survival.admin"; }
+
+        @Override
+        public boolean canConsoleExecute() { return true; }
+
+        @Override
+        public void execute(CommandSender sender, String[] args) {
+            long hits = database.getStatementCacheHits();
+            long misses = database.getStatementCacheMisses();
+            long lookups = hits + misses;
+
+            MessageUtil.sendMessage(sender, "&6&l===== Base de données =====");
+            MessageUtil.sendMessage(sender, "&eType: &f" + database.getType().name());
+            MessageUtil.sendMessage(sender, "&eConnexions: &f" + database.getActiveConnections() + " utilisées / "
+                + database.getTotalConnections() + " ouvertes");
+            MessageUtil.sendMessage(sender, "&eCache de requêtes: &f" + hits + " hits, " + misses + " misses"
+                + (lookups > 0 ? String.format(" (%.1f%%)", hits * 100.0 / lookups) : ""));
+            MessageUtil.sendMessage(sender, "&eÉcritures en attente: &f" + database.getWriteBehindQueue().getPendingCount());
+        }
+    }
+
+    // reset
+    private class ResetSub extends SubCommand {
+        @Override
+        public String getName() { return "reset"; }
+
+        @Override
+        public String getDescription() { return "Réinitialiser les statistiques des requêtes"; }
+
+        @Override
+        public String getSyntax() { return "/dbadmin reset"; }
+
+        @Override
+        public String getPermission() { return "survival.admin"; }
+
+        @Override
+        public boolean canConsoleExecute() { return true; }
+
+        @Override
+        public void execute(CommandSender sender, String[] args) {
+            database.getQueryMetrics().reset();
+            MessageUtil.sendSuccess(sender, "Statistiques des requêtes réinitialisées.");
+        }
+    }
+}
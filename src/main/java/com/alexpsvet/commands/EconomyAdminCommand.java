@@ -1,7 +1,12 @@
 package com.alexpsvet.commands;
 
+import com.alexpsvet.database.Database;
 import com.alexpsvet.economy.EconomyManager;
+import com.alexpsvet.economy.Money;
 import com.alexpsvet.economy.TransactionType;
+import com.alexpsvet.economy.journal.JournalExporter;
+import com.alexpsvet.economy.journal.JournalReader;
+import com.alexpsvet.economy.journal.TransactionJournal;
 import com.alexpsvet.Survival;
 import com.alexpsvet.commands.base.BaseCommand;
 import com.alexpsvet.commands.base.SubCommand;
@@ -10,11 +15,15 @@ import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import java.io.File;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 
 /**
- * Admin economy command using sub-commands: give, take, set
+ * Admin economy command using sub-commands: give, take, set, journal
  */
 public class EconomyAdminCommand extends BaseCommand {
 
@@ -29,6 +38,7 @@ public class EconomyAdminCommand extends BaseCommand {
         registerSubCommand(new GiveSub());
         registerSubCommand(new TakeSub());
         registerSubCommand(new SetSub());
+        registerSubCommand(new JournalSub());
     }
 
     @Override
@@ -71,16 +81,16 @@ public class EconomyAdminCommand extends BaseCommand {
                 return;
             }
 
-            double amount;
-            try { amount = Double.parseDouble(args[1]); } catch (NumberFormatException e) {
+            long amount;
+            try { amount = Money.parse(args[1]); } catch (NumberFormatException e) {
                 MessageUtil.sendError(sender, "Montant invalide!");
                 return;
             }
 
             economyManager.addBalance(target.getUniqueId(), amount);
             economyManager.addTransaction(target.getUniqueId(), TransactionType.ADMIN_ADD, amount, "Admin give by " + sender.getName());
-            MessageUtil.sendSuccess(sender, "Ajouté " + amount + " " + currencySymbol + " à " + target.getName());
-            MessageUtil.sendSuccess(target, "Vous avez reçu " + amount + " " + currencySymbol);
+            MessageUtil.sendSuccess(sender, "Ajouté " + Money.format(amount) + " " + currencySymbol + " à " + target.getName());
+            MessageUtil.sendSuccess(target, "Vous avez reçu " + Money.format(amount) + " " + currencySymbol);
         }
 
         @Override
@@ -124,16 +134,16 @@ public class EconomyAdminCommand extends BaseCommand {
                 return;
             }
 
-            double amount;
-            try { amount = Double.parseDouble(args[1]); } catch (NumberFormatException e) {
+            long amount;
+            try { amount = Money.parse(args[1]); } catch (NumberFormatException e) {
                 MessageUtil.sendError(sender, "Montant invalide!");
                 return;
             }
 
             if (economyManager.removeBalance(target.getUniqueId(), amount)) {
                 economyManager.addTransaction(target.getUniqueId(), TransactionType.ADMIN_REMOVE, -amount, "Admin take by " + sender.getName());
-                MessageUtil.sendSuccess(sender, "Retiré " + amount + " " + currencySymbol + " de " + target.getName());
-                MessageUtil.sendWarning(target, amount + " " + currencySymbol + " ont été retirés de votre compte");
+                MessageUtil.sendSuccess(sender, "Retiré " + Money.format(amount) + " " + currencySymbol + " de " + target.getName());
+                MessageUtil.sendWarning(target, Money.format(amount) + " " + currencySymbol + " ont été retirés de votre compte");
             } else {
                 MessageUtil.sendError(sender, "Le joueur n'a pas assez d'argent!");
             }
@@ -181,14 +191,14 @@ public class EconomyAdminCommand extends BaseCommand {
                 return;
             }
 
-            double amount;
-            try { amount = Double.parseDouble(args[1]); } catch (NumberFormatException e) {
+            long amount;
+            try { amount = Money.parse(args[1]); } catch (NumberFormatException e) {
                 MessageUtil.sendError(sender, "Montant invalide!");
                 return;
             }
 
             economyManager.setBalance(target.getUniqueId(), target.getName(), amount);
-            MessageUtil.sendSuccess(sender, "Solde de " + target.getName() + " défini à " + amount + " " + currencySymbol);
+            MessageUtil.sendSuccess(sender, "Solde de " + target.getName() + " défini à " + Money.format(amount) + " " + currencySymbol);
         }
 
         @Override
@@ -201,4 +211,77 @@ public class EconomyAdminCommand extends BaseCommand {
             return new ArrayList<>();
         }
     }
+
+    // journal [status|export <csv|sql>]
+    private class JournalSub extends SubCommand {
+        @Override
+        public String getName() { return "journal"; }
+
+        @Override
+        public String getDescription() { return "État et export du journal des transactions"; }
+
+        @Override
+        public String getSyntax() { return "/ecoadmin journal [status|export <csv|sql>]"; }
+
+        @Override
+        public String getPermission() { return "survival.economy.admin"; }
+
+        @Override
+        public boolean canConsoleExecute() { return true; }
+
+        @Override
+        public void execute(CommandSender sender, String[] args) {
+            TransactionJournal journal = economyManager.getJournal();
+            if (args.length == 0 || args[0].equalsIgnoreCase("status")) {
+                MessageUtil.sendMessage(sender, "&6&l===== Journal des transactions =====");
+                MessageUtil.sendMessage(sender, "&eDernier numéro: &f" + journal.getSequence());
+                MessageUtil.sendMessage(sender, "&eEntrées en attente: &f" + journal.getPendingCount());
+                MessageUtil.sendMessage(sender, "&eSegments: &f"
+                    + new JournalReader(economyManager.getJournalDirectory()).segments().size());
+                if (economyManager.getArchiver() != null) {
+                    MessageUtil.sendMessage(sender, "&eTransactions archivées depuis le démarrage: &f"
+                        + economyManager.getArchiver().getArchivedCount());
+                }
+                return;
+            }
+
+            if (!args[0].equalsIgnoreCase("export") || args.length < 2) {
+                MessageUtil.sendError(sender, "Usage: " + getSyntax());
+                return;
+            }
+            JournalExporter.Format format;
+            try { format = JournalExporter.Format.valueOf(args[1].toUpperCase()); } catch (IllegalArgumentException e) {
+                MessageUtil.sendError(sender, "Format invalide! (csv ou sql)");
+                return;
+            }
+
+            File directory = economyManager.getJournalDirectory();
+            File file = new File(new File(directory, "exports"),
+                "economy-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + "." + format.getExtension());
+            MessageUtil.sendInfo(sender, "Export du journal en cours...");
+            Database database = Survival.getInstance().getDatabase();
+            database.supplyAsync(() -> {
+                // Append the buffered entries first so the export is complete
+                journal.flush();
+                return new JournalExporter(new JournalReader(directory), database.getDialect()).export(format, file, 0L);
+            }).thenAccept(count -> {
+                if (count < 0) {
+                    MessageUtil.sendError(sender, "L'export du journal a échoué, voir la console.");
+                } else {
+                    MessageUtil.sendSuccess(sender, count + " transaction(s) exportée(s) dans " + file.getName());
+                }
+            });
+        }
+
+        @Override
+        public List<String> getTabCompletions(CommandSender sender, String[] args) {
+            if (args.length == 1) {
+                return Arrays.asList("status", "export");
+            }
+            if (args.length == 2 && args[0].equalsIgnoreCase("export")) {
+                return Arrays.asList("csv", "sql");
+            }
+            return new ArrayList<>();
+        }
+    }
 }
@@ -1,8 +1,14 @@
 package com.alexpsvet.commands;
 
 import com.alexpsvet.Survival;
+import com.alexpsvet.economy.BalanceRanking;
 import com.alexpsvet.economy.EconomyManager;
+import com.alexpsvet.economy.Money;
 import com.alexpsvet.economy.TransactionType;
+import com.alexpsvet.economy.history.HistoryFilter;
+import com.alexpsvet.economy.history.HistoryPage;
+import com.alexpsvet.economy.history.TransactionHistory;
+import com.alexpsvet.economy.history.TransactionRecord;
 import com.alexpsvet.economy.menu.EconomyMenu;
 import com.alexpsvet.utils.MessageUtil;
 import org.bukkit.Bukkit;
@@ -11,10 +17,16 @@ import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
 /**
  * Economy commands: balance, pay, etc.
  */
 public class EconomyCommand implements CommandExecutor {
+    private static final int BALTOP_PAGE_SIZE = 10;
+    private static final int HISTORY_PAGE_SIZE = 10;
     private final EconomyManager economyManager;
     private final String currencySymbol;
     
@@ -33,6 +45,10 @@ public class EconomyCommand implements CommandExecutor {
                 return handleBalance(sender, args);
             case "pay":
                 return handlePay(sender, args);
+            case "baltop":
+                return handleBaltop(sender, args);
+            case "history":
+                return handleHistory(sender, args);
             case "economy":
             case "eco":
                 return handleEconomyMenu(sender);
@@ -54,10 +70,10 @@ public class EconomyCommand implements CommandExecutor {
             }
             
             Player player = (Player) sender;
-            double balance = economyManager.getBalance(player.getUniqueId());
+            long balance = economyManager.getBalance(player.getUniqueId());
             MessageUtil.sendMessage(sender, 
                 MessageUtil.format("&aVotre solde: &e{amount} {currency}",
-                    "{amount}", String.format("%.2f", balance),
+                    "{amount}", Money.format(balance),
                     "{currency}", currencySymbol));
             return true;
         }
@@ -74,11 +90,11 @@ public class EconomyCommand implements CommandExecutor {
             return true;
         }
         
-        double balance = economyManager.getBalance(target.getUniqueId());
+        long balance = economyManager.getBalance(target.getUniqueId());
         MessageUtil.sendMessage(sender, 
             MessageUtil.format("&aSolde de &e{player}&a: &e{amount} {currency}",
                 "{player}", target.getName(),
-                "{amount}", String.format("%.2f", balance),
+                "{amount}", Money.format(balance),
                 "{currency}", currencySymbol));
         return true;
     }
@@ -110,9 +126,9 @@ public class EconomyCommand implements CommandExecutor {
             return true;
         }
         
-        double amount;
+        long amount;
         try {
-            amount = Double.parseDouble(args[1]);
+            amount = Money.parse(args[1]);
         } catch (NumberFormatException e) {
             MessageUtil.sendError(sender, "Montant invalide!");
             return true;
@@ -126,24 +142,155 @@ public class EconomyCommand implements CommandExecutor {
         if (economyManager.transfer(player.getUniqueId(), target.getUniqueId(), amount)) {
             MessageUtil.sendMessage(sender, 
                 MessageUtil.format("&aVous avez envoyé &e{amount} {currency} &aà &e{player}",
-                    "{amount}", String.format("%.2f", amount),
+                    "{amount}", Money.format(amount),
                     "{currency}", currencySymbol,
                     "{player}", target.getName()));
             MessageUtil.sendMessage(target, 
                 MessageUtil.format("&aVous avez reçu &e{amount} {currency} &ade &e{player}",
-                    "{amount}", String.format("%.2f", amount),
+                    "{amount}", Money.format(amount),
                     "{currency}", currencySymbol,
                     "{player}", player.getName()));
         } else {
             MessageUtil.sendMessage(sender, 
                 MessageUtil.format("&cFonds insuffisants! Vous avez besoin de &e{amount} {currency}",
-                    "{amount}", String.format("%.2f", amount),
+                    "{amount}", Money.format(amount),
                     "{currency}", currencySymbol));
         }
         
         return true;
     }
     
+    /**
+     * Handle baltop command
+     */
+    private boolean handleBaltop(CommandSender sender, String[] args) {
+        int page = 1;
+        if (args.length > 0) {
+            try {
+                page = Integer.parseInt(args[0]);
+            } catch (NumberFormatException e) {
+                MessageUtil.sendError(sender, "Page invalide!");
+                return true;
+            }
+        }
+        
+        BalanceRanking ranking = economyManager.getRanking();
+        int pages = Math.max(1, (ranking.size() + BALTOP_PAGE_SIZE - 1) / BALTOP_PAGE_SIZE);
+        if (page < 1 || page > pages) {
+            MessageUtil.sendError(sender, "Page invalide! (1-" + pages + ")");
+            return true;
+        }
+        
+        List<BalanceRanking.Entry> entries = ranking.getPage((page - 1) * BALTOP_PAGE_SIZE, BALTOP_PAGE_SIZE);
+        sender.sendMessage(MessageUtil.colorize("&6&l===== Classement des richesses &7(" + page + "/" + pages + ") &6&l====="));
+        for (BalanceRanking.Entry entry : entries) {
+            String name = entry.getPlayerName() != null ? entry.getPlayerName() : entry.getUuid().toString().substring(0, 8);
+            sender.sendMessage(MessageUtil.colorize(MessageUtil.format("&e#{rank} &f{player} &7- &e{amount} {currency}",
+                "{rank}", String.valueOf(entry.getRank()),
+                "{player}", name,
+                "{amount}", Money.format(entry.getBalance()),
+                "{currency}", currencySymbol)));
+        }
+        
+        if (sender instanceof Player) {
+            int rank = ranking.getRank(((Player) sender).getUniqueId());
+            if (rank > 0) {
+                sender.sendMessage(MessageUtil.colorize("&7Votre rang: &e#" + rank + " &7sur &e" + ranking.size()));
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Handle history command
+     */
+    private boolean handleHistory(CommandSender sender, String[] args) {
+        if (!(sender instanceof Player)) {
+            MessageUtil.sendError(sender, "Cette commande ne peut être exécutée que par un joueur!");
+            return true;
+        }
+        
+        Player player = (Player) sender;
+        TransactionHistory history = economyManager.getHistory();
+        HistoryFilter filter = history.getFilter(player.getUniqueId());
+        
+        if (args.length >= 2 && args[0].equalsIgnoreCase("type")) {
+            TransactionType type = null;
+            if (!args[1].equalsIgnoreCase("tous")) {
+                try {
+                    type = TransactionType.valueOf(args[1].toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    MessageUtil.sendError(sender, "Type invalide!");
+                    return true;
+                }
+            }
+            history.setFilter(player.getUniqueId(), filter.withType(type));
+            showHistory(player, 0, true);
+            return true;
+        }
+        
+        if (args.length >= 2 && args[0].equalsIgnoreCase("jours")) {
+            int days = 0;
+            if (!args[1].equalsIgnoreCase("tous")) {
+                try {
+                    days = Integer.parseInt(args[1]);
+                } catch (NumberFormatException e) {
+                    MessageUtil.sendError(sender, "Nombre de jours invalide!");
+                    return true;
+                }
+            }
+            history.setFilter(player.getUniqueId(), filter.lastDays(Math.max(0, days)));
+            showHistory(player, 0, true);
+            return true;
+        }
+        
+        int page = 1;
+        if (args.length > 0) {
+            try {
+                page = Integer.parseInt(args[0]);
+            } catch (NumberFormatException e) {
+                MessageUtil.sendError(sender, "Usage: /history [page] | type <type|tous> | jours <nombre|tous>");
+                return true;
+            }
+        }
+        if (page < 1) {
+            MessageUtil.sendError(sender, "Page invalide!");
+            return true;
+        }
+        // The first page is read again to show new transactions, the next ones come from the cache
+        showHistory(player, page - 1, page == 1);
+        return true;
+    }
+    
+    /**
+     * Send a page of a player's history once it is read
+     */
+    private void showHistory(Player player, int page, boolean refresh) {
+        TransactionHistory history = economyManager.getHistory();
+        history.getPage(player.getUniqueId(), player.getUniqueId(), page, HISTORY_PAGE_SIZE, refresh).thenAccept(result -> {
+            if (!player.isOnline()) return;
+            HistoryFilter filter = history.getFilter(player.getUniqueId());
+            String type = filter.getType() != null ? filter.getType().name() : "tous";
+            String period = filter.getDays() > 0 ? filter.getDays() + " jour(s)" : "tout";
+            player.sendMessage(MessageUtil.colorize("&6&l===== Historique &7(page " + (result.getIndex() + 1)
+                + ", type: " + type + ", période: " + period + ") &6&l====="));
+            if (result.getRecords().isEmpty()) {
+                player.sendMessage(MessageUtil.colorize("&7Aucune transaction."));
+                return;
+            }
+            SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM HH:mm");
+            for (TransactionRecord record : result.getRecords()) {
+                String amount = (record.getAmount() >= 0 ? "&a+" : "&c") + Money.format(record.getAmount());
+                String description = record.getDescription() != null ? " &7" + record.getDescription() : "";
+                player.sendMessage(MessageUtil.colorize("&7" + dateFormat.format(new Date(record.getTimestamp()))
+                    + " &f" + record.getType().name() + " " + amount + " " + currencySymbol + description));
+            }
+            if (result.hasNext()) {
+                player.sendMessage(MessageUtil.colorize("&7Page suivante: &e/history " + (result.getIndex() + 2)));
+            }
+        });
+    }
+    
     /**
      * Handle economy menu command
      */
@@ -179,9 +326,9 @@ public class EconomyCommand implements CommandExecutor {
             return true;
         }
         
-        double amount;
+        long amount;
         try {
-            amount = Double.parseDouble(args[2]);
+            amount = Money.parse(args[2]);
         } catch (NumberFormatException e) {
             MessageUtil.sendError(sender, "Montant invalide!");
             return true;
@@ -191,21 +338,21 @@ public class EconomyCommand implements CommandExecutor {
             case "give":
                 economyManager.addBalance(target.getUniqueId(), amount);
                 economyManager.addTransaction(target.getUniqueId(), TransactionType.ADMIN_ADD, amount, "Admin give by " + sender.getName());
-                MessageUtil.sendSuccess(sender, "Ajouté " + amount + " " + currencySymbol + " à " + target.getName());
-                MessageUtil.sendSuccess(target, "Vous avez reçu " + amount + " " + currencySymbol);
+                MessageUtil.sendSuccess(sender, "Ajouté " + Money.format(amount) + " " + currencySymbol + " à " + target.getName());
+                MessageUtil.sendSuccess(target, "Vous avez reçu " + Money.format(amount) + " " + currencySymbol);
                 break;
             case "take":
                 if (economyManager.removeBalance(target.getUniqueId(), amount)) {
                     economyManager.addTransaction(target.getUniqueId(), TransactionType.ADMIN_REMOVE, -amount, "Admin take by " + sender.getName());
-                    MessageUtil.sendSuccess(sender, "Retiré " + amount + " " + currencySymbol + " de " + target.getName());
-                    MessageUtil.sendWarning(target, amount + " " + currencySymbol + " ont été retirés de votre compte");
+                    MessageUtil.sendSuccess(sender, "Retiré " + Money.format(amount) + " " + currencySymbol + " de " + target.getName());
+                    MessageUtil.sendWarning(target, Money.format(amount) + " " + currencySymbol + " ont été retirés de votre compte");
                 } else {
                     MessageUtil.sendError(sender, "Le joueur n'a pas assez d'argent!");
                 }
                 break;
             case "set":
                 economyManager.setBalance(target.getUniqueId(), target.getName(), amount);
-                MessageUtil.sendSuccess(sender, "Solde de " + target.getName() + " défini à " + amount + " " + currencySymbol);
+                MessageUtil.sendSuccess(sender, "Solde de " + target.getName() + " défini à " + Money.format(amount) + " " + currencySymbol);
                 break;
             default:
                 MessageUtil.sendError(sender, "Action invalide! Utilisez: give, take ou set");
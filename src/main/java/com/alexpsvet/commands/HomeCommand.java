@@ -2,6 +2,7 @@ package com.alexpsvet.commands;
 
 import com.alexpsvet.Survival;
 import com.alexpsvet.economy.EconomyManager;
+import com.alexpsvet.economy.Money;
 import com.alexpsvet.home.Home;
 import com.alexpsvet.home.HomeManager;
 import com.alexpsvet.teleport.TeleportManager;
@@ -77,7 +78,7 @@ public class HomeCommand implements CommandExecutor, TabCompleter {
     private boolean handleSetHome(Player player, String[] args) {
         String homeName = args.length > 0 ? args[0] : "home";
         int maxHomes = Survival.getInstance().getConfig().getInt("home.max-homes", 3);
-        double setCost = Survival.getInstance().getConfig().getDouble("home.set-cost", 1000.0);
+        long setCost = Money.of(Survival.getInstance().getConfig().getDouble("home.set-cost", 1000.0));
         String currency = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
         
         // Check if home already exists
@@ -92,7 +93,7 @@ public class HomeCommand implements CommandExecutor, TabCompleter {
         
         // Check balance for new homes
         if (isNew && economyManager.getBalance(player.getUniqueId()) < setCost) {
-            MessageUtil.sendError(player, "Vous n'avez pas assez d'argent! Coût: " + setCost + " " + currency);
+            MessageUtil.sendError(player, "Vous n'avez pas assez d'argent! Coût: " + Money.format(setCost) + " " + currency);
             return true;
         }
         
@@ -114,23 +115,25 @@ public class HomeCommand implements CommandExecutor, TabCompleter {
             loc.getPitch()
         );
         
-        if (homeManager.saveHome(home)) {
-            if (isNew) {
-                MessageUtil.sendSuccess(player, "Home &e" + homeName + " &adéfini! Coût: &e" + setCost + " " + currency);
-                player.sendTitle("§a§lHome Défini", "§7" + homeName, 10, 40, 10);
+        homeManager.saveHome(home).thenAccept(saved -> {
+            if (saved) {
+                if (!player.isOnline()) return;
+                if (isNew) {
+                    MessageUtil.sendSuccess(player, "Home &e" + homeName + " &adéfini! Coût: &e" + Money.format(setCost) + " " + currency);
+                    player.sendTitle("§a§lHome Défini", "§7" + homeName, 10, 40, 10);
+                } else {
+                    MessageUtil.sendSuccess(player, "Home &e" + homeName + " &amis à jour!");
+                    player.sendTitle("§a§lHome Mis à Jour", "§7" + homeName, 10, 40, 10);
+                }
             } else {
-                MessageUtil.sendSuccess(player, "Home &e" + homeName + " &amis à jour!");
-                player.sendTitle("§a§lHome Mis à Jour", "§7" + homeName, 10, 40, 10);
+                MessageUtil.sendError(player, "Erreur lors de la sauvegarde du home!");
+                // Refund if new
+                if (isNew) {
+                    economyManager.addBalance(player.getUniqueId(), setCost);
+                }
             }
-            return true;
-        } else {
-            MessageUtil.sendError(player, "Erreur lors de la sauvegarde du home!");
-            // Refund if new
-            if (isNew) {
-                economyManager.addBalance(player.getUniqueId(), setCost);
-            }
-            return true;
-        }
+        });
+        return true;
     }
     
     private boolean handleDelHome(Player player, String[] args) {
@@ -141,18 +144,19 @@ public class HomeCommand implements CommandExecutor, TabCompleter {
         
         String homeName = args[0];
         
-        if (homeManager.deleteHome(player.getUniqueId(), homeName)) {
-            MessageUtil.sendSuccess(player, "Home &e" + homeName + " &asupprimé!");
-            return true;
-        } else {
-            MessageUtil.sendError(player, "Home &e" + homeName + " &cintrouvable!");
-            return true;
-        }
+        homeManager.deleteHome(player.getUniqueId(), homeName).thenAccept(deleted -> {
+            if (deleted) {
+                MessageUtil.sendSuccess(player, "Home &e" + homeName + " &asupprimé!");
+            } else {
+                MessageUtil.sendError(player, "Home &e" + homeName + " &cintrouvable!");
+            }
+        });
+        return true;
     }
     
     private boolean handleTeleportHome(Player player, String homeName) {
         String currency = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
-        double homeCost = Survival.getInstance().getConfig().getDouble("home.teleport-cost", 100.0);
+        long homeCost = Money.of(Survival.getInstance().getConfig().getDouble("home.teleport-cost", 100.0));
         
         // Check if home exists
         Home home = homeManager.getHome(player.getUniqueId(), homeName);
@@ -170,7 +174,7 @@ public class HomeCommand implements CommandExecutor, TabCompleter {
         
         // Check balance
         if (economyManager.getBalance(player.getUniqueId()) < homeCost) {
-            MessageUtil.sendError(player, "Vous n'avez pas assez d'argent! Coût: " + homeCost + " " + currency);
+            MessageUtil.sendError(player, "Vous n'avez pas assez d'argent! Coût: " + Money.format(homeCost) + " " + currency);
             return true;
         }
         
@@ -189,15 +193,15 @@ public class HomeCommand implements CommandExecutor, TabCompleter {
         teleportManager.startTeleport(player, destination, delay);
         homeManager.setCooldown(player.getUniqueId());
         
-        MessageUtil.sendSuccess(player, "Téléportation vers &e" + homeName + " &adans &e" + delay + "&as. Coût: &e" + homeCost + " " + currency);
+        MessageUtil.sendSuccess(player, "Téléportation vers &e" + homeName + " &adans &e" + delay + "&as. Coût: &e" + Money.format(homeCost) + " " + currency);
         return true;
     }
     
     private void openHomeMenu(Player player) {
         Collection<Home> homes = homeManager.getHomes(player.getUniqueId());
         int maxHomes = Survival.getInstance().getConfig().getInt("home.max-homes", 3);
-        double homeCost = Survival.getInstance().getConfig().getDouble("home.teleport-cost", 100.0);
-        double setCost = Survival.getInstance().getConfig().getDouble("home.set-cost", 1000.0);
+        long homeCost = Money.of(Survival.getInstance().getConfig().getDouble("home.teleport-cost", 100.0));
+        long setCost = Money.of(Survival.getInstance().getConfig().getDouble("home.set-cost", 1000.0));
         int cooldown = Survival.getInstance().getConfig().getInt("home.cooldown-seconds", 300);
         String currency = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
         
@@ -210,9 +214,9 @@ public class HomeCommand implements CommandExecutor, TabCompleter {
         List<String> infoLore = new ArrayList<>();
         infoLore.add(MessageUtil.colorize("&7Homes: &e" + homes.size() + "/" + maxHomes));
         infoLore.add("");
-        infoLore.add(MessageUtil.colorize("&7Coût TP: &e" + homeCost + " " + currency));
+        infoLore.add(MessageUtil.colorize("&7Coût TP: &e" + Money.format(homeCost) + " " + currency));
         infoLore.add(MessageUtil.colorize("&7Cooldown: &e" + cooldown + "s"));
-        infoLore.add(MessageUtil.colorize("&7Coût set home: &e" + setCost + " " + currency));
+        infoLore.add(MessageUtil.colorize("&7Coût set home: &e" + Money.format(setCost) + " " + currency));
         
         if (homeManager.isOnCooldown(player.getUniqueId())) {
             long remaining = homeManager.getCooldownRemaining(player.getUniqueId());
@@ -238,7 +242,7 @@ public class HomeCommand implements CommandExecutor, TabCompleter {
             lore.add(MessageUtil.colorize("&7Position: &e" + 
                 (int)home.getX() + ", " + (int)home.getY() + ", " + (int)home.getZ()));
             lore.add("");
-            lore.add(MessageUtil.colorize("&aClick gauche: &fTéléporter (&e" + homeCost + " " + currency + "&f)"));
+            lore.add(MessageUtil.colorize("&aClick gauche: &fTéléporter (&e" + Money.format(homeCost) + " " + currency + "&f)"));
             lore.add(MessageUtil.colorize("&cClick droit: &fSupprimer"));
             
             final Home finalHome = home;
@@ -7,6 +7,7 @@ import com.alexpsvet.territory.menu.ProtectionBlockMenu;
 import com.alexpsvet.territory.menu.TerritoryConfigMenu;
 import com.alexpsvet.utils.MessageUtil;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -21,7 +22,6 @@ import java.util.List;
  * Command to manage protection
  */
 public class ProtectionCommand implements CommandExecutor, TabCompleter {
-    
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
         if (!(sender instanceof Player)) {
@@ -130,7 +130,48 @@ public class ProtectionCommand implements CommandExecutor, TabCompleter {
             return true;
         }
         
-        MessageUtil.sendError(player, "Usage: /protection [shop|config|trust|untrust] [joueur]");
+        // "nearest" - distance to the closest territory and the protection blocks that fit here
+        if (args[0].equalsIgnoreCase("nearest") || args[0].equalsIgnoreCase("proche")) {
+            TerritoryManager territoryManager = Survival.getInstance().getTerritoryManager();
+            Location location = player.getLocation();
+            Territory nearest = territoryManager.getNearestTerritory(location);
+            
+            if (nearest == null) {
+                MessageUtil.sendSuccess(player, "Aucune zone protégée dans ce monde, le terrain est libre!");
+                return true;
+            }
+            
+            double distance = nearest.getDistanceToBorder(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+            Location center = nearest.getCenter();
+            if (distance == 0) {
+                MessageUtil.sendError(player, "Vous êtes dans la zone protégée de " + nearest.getOwnerName() + "!");
+                return true;
+            }
+            
+            MessageUtil.sendMessage(player, MessageUtil.colorize("&7Zone protégée la plus proche: &e" + nearest.getOwnerName() +
+                " &7à &e" + (int) Math.ceil(distance) + " blocs &7(centre: &e" +
+                center.getBlockX() + ", " + center.getBlockY() + ", " + center.getBlockZ() + "&7)"));
+            
+            // A protection placed here collides once its radius exceeds the distance to the border
+            int maxRadius = (int) Math.floor(distance);
+            String[] names = {"petite", "moyenne", "grande"};
+            int[] radii = {
+                Survival.getInstance().getConfig().getInt("territory.protection-blocks.small.radius", 10),
+                Survival.getInstance().getConfig().getInt("territory.protection-blocks.medium.radius", 25),
+                Survival.getInstance().getConfig().getInt("territory.protection-blocks.large.radius", 50)
+            };
+            List<String> fitting = new ArrayList<>();
+            for (int i = 0; i < radii.length; i++) {
+                if (radii[i] <= maxRadius) {
+                    fitting.add(names[i] + " (" + radii[i] + ")");
+                }
+            }
+            MessageUtil.sendMessage(player, MessageUtil.colorize("&7Rayon maximal ici: &e" + maxRadius + " blocs &7- " +
+                (fitting.isEmpty() ? "&caucune protection ne rentre" : "&aprotections possibles: &e" + String.join(", ", fitting))));
+            return true;
+        }
+        
+        MessageUtil.sendError(player, "Usage: /protection [shop|config|trust|untrust|proche] [joueur]");
         return true;
     }
     
@@ -139,7 +180,7 @@ public class ProtectionCommand implements CommandExecutor, TabCompleter {
         List<String> completions = new ArrayList<>();
         
         if (args.length == 1) {
-            completions.addAll(Arrays.asList("shop", "config", "configure", "trust", "untrust"));
+            completions.addAll(Arrays.asList("shop", "config", "configure", "trust", "untrust", "proche"));
             return completions;
         }
         
@@ -0,0 +1,336 @@
+package com.alexpsvet.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded pool of JDBC connections.
+ * Borrowed connections are handed out as proxies whose close() returns them to the pool,
+ * and each physical connection keeps its prepared statements in a {@link StatementCache}.
+ */
+class ConnectionPool {
+    private static final Logger LOGGER = Logger.getLogger("survival");
+    private static final long HOUSEKEEPING_INTERVAL_MILLIS = 5000L;
+
+    /**
+     * Opens new physical connections for the pool
+     */
+    interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private final String name;
+    private final ConnectionFactory factory;
+    private final PoolSettings settings;
+    private final LinkedBlockingDeque<PooledConnection> idle;
+    private final Set<PooledConnection> leased;
+    private final Semaphore permits;
+    private final AtomicInteger total;
+    private final AtomicLong statementHits;
+    private final AtomicLong statementMisses;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    ConnectionPool(String name, ConnectionFactory factory, PoolSettings settings) {
+        this.name = name;
+        this.factory = factory;
+        this.settings = settings;
+        this.idle = new LinkedBlockingDeque<>();
+        this.leased = ConcurrentHashMap.newKeySet();
+        this.permits = new Semaphore(settings.getMaxSize(), true);
+        this.total = new AtomicInteger();
+        this.statementHits = new AtomicLong();
+        this.statementMisses = new AtomicLong();
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Survival-" + name + "-Pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Open the minimum number of connections and start housekeeping
+     * @throws SQLException if the first connection cannot be opened
+     */
+    void start() throws SQLException {
+        for (int i = 0; i < settings.getMinSize(); i++) {
+            idle.offerLast(open());
+        }
+        housekeeper.scheduleWithFixedDelay(this::housekeep,
+            HOUSEKEEPING_INTERVAL_MILLIS, HOUSEKEEPING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection, waiting up to the connection timeout for one to become free
+     * @return a connection that must be closed to return it to the pool
+     * @throws SQLException if no connection could be obtained in time
+     */
+    Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool " + name + " is closed");
+        }
+        try {
+            if (!permits.tryAcquire(settings.getConnectionTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Timed out after " + settings.getConnectionTimeoutMillis()
+                    + "ms waiting for a connection from pool " + name + " (" + leased.size() + " in use)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isUsable(pooled)) {
+                    break;
+                }
+                discard(pooled);
+            }
+            if (pooled == null) {
+                pooled = open();
+            }
+            pooled.leasedAt = System.currentTimeMillis();
+            pooled.leaseTrace = settings.getLeakDetectionMillis() > 0 ? new Throwable("Connection borrowed here") : null;
+            pooled.leakReported = false;
+            leased.add(pooled);
+            return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new Lease(pooled));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Close every connection of the pool
+     */
+    void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+        if (!leased.isEmpty()) {
+            LOGGER.warning("Closing pool " + name + " with " + leased.size() + " connection(s) still in use");
+            for (PooledConnection connection : leased) {
+                discard(connection);
+            }
+            leased.clear();
+        }
+    }
+
+    /**
+     * Get the number of open physical connections
+     * @return the number of connections
+     */
+    int getTotalConnections() {
+        return total.get();
+    }
+
+    /**
+     * Get the number of connections currently borrowed
+     * @return the number of borrowed connections
+     */
+    int getActiveConnections() {
+        return leased.size();
+    }
+
+    /**
+     * Get the number of prepared statements served from the statement caches
+     * @return the number of cache hits
+     */
+    long getStatementCacheHits() {
+        return statementHits.get();
+    }
+
+    /**
+     * Get the number of prepared statements that had to be prepared on the connection
+     * @return the number of cache misses
+     */
+    long getStatementCacheMisses() {
+        return statementMisses.get();
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection connection = factory.create();
+        total.incrementAndGet();
+        StatementCache statements = settings.getStatementCacheSize() > 0
+            ? new StatementCache(settings.getStatementCacheSize(), statementHits, statementMisses)
+            : null;
+        return new PooledConnection(connection, statements);
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        try {
+            if (pooled.connection.isClosed()) {
+                return false;
+            }
+            return !settings.isValidateOnBorrow() || pooled.connection.isValid(settings.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        total.decrementAndGet();
+        if (pooled.statements != null) {
+            pooled.statements.closeAll();
+        }
+        try {
+            pooled.connection.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Failed to close pooled connection", e);
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        leased.remove(pooled);
+        try {
+            boolean broken = pooled.connection.isClosed();
+            if (!broken && !pooled.connection.getAutoCommit()) {
+                pooled.connection.rollback();
+                pooled.connection.setAutoCommit(true);
+            }
+            if (broken || closed) {
+                discard(pooled);
+            } else {
+                pooled.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Discarding connection that could not be reset", e);
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Retire idle connections above the minimum, top the pool back up and report leaks
+     */
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+
+            if (settings.getIdleTimeoutMillis() > 0) {
+                Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+                while (oldestFirst.hasNext() && total.get() > settings.getMinSize()) {
+                    PooledConnection pooled = oldestFirst.next();
+                    if (now - pooled.lastUsed > settings.getIdleTimeoutMillis() && idle.remove(pooled)) {
+                        discard(pooled);
+                    }
+                }
+            }
+
+            while (!closed && total.get() < settings.getMinSize()) {
+                idle.offerLast(open());
+            }
+
+            if (settings.getLeakDetectionMillis() > 0) {
+                for (PooledConnection pooled : leased) {
+                    if (!pooled.leakReported && now - pooled.leasedAt > settings.getLeakDetectionMillis()) {
+                        pooled.leakReported = true;
+                        LOGGER.log(Level.WARNING, "Possible connection leak in pool " + name + ": connection borrowed for "
+                            + (now - pooled.leasedAt) + "ms", pooled.leaseTrace);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Failed to refill connection pool " + name, e);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Unexpected error during connection pool housekeeping", e);
+        }
+    }
+
+    /**
+     * A physical connection and its bookkeeping
+     */
+    private static final class PooledConnection {
+        private final Connection connection;
+        private final StatementCache statements;
+        private volatile long lastUsed;
+        private volatile long leasedAt;
+        private volatile Throwable leaseTrace;
+        private volatile boolean leakReported;
+
+        private PooledConnection(Connection connection, StatementCache statements) {
+            this.connection = connection;
+            this.statements = statements;
+            this.lastUsed = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Only prepareStatement(String) and prepareStatement(String, int autoGeneratedKeys) are cached
+     */
+    private static boolean isCacheable(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        return types.length == 1 || (types.length == 2 && types[1] == int.class);
+    }
+
+    /**
+     * Handle given to a borrower, only valid until it is closed
+     */
+    private final class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        private Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + name + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to pool " + name);
+            }
+            if (pooled.statements != null && method.getName().equals("prepareStatement") && isCacheable(method)) {
+                Integer autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : null;
+                return pooled.statements.prepare(pooled.connection, (Connection) proxy, (String) args[0], autoGeneratedKeys);
+            }
+            try {
+                return method.invoke(pooled.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
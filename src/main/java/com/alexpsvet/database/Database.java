@@ -8,16 +8,42 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Database manager for MySQL or SQLite
+ * Database manager for MySQL or SQLite, backed by a bounded connection pool.
+ * On SQLite, writes go through a single dedicated connection while reads use the pool,
+ * so readers never wait on each other and writers never fail on a busy lock.
  */
 public class Database {
     private static final Logger LOGGER = Logger.getLogger("survival");
-    private Connection connection;
+    private ConnectionPool pool;
+    private ConnectionPool writePool;
+    private PoolSettings poolSettings = PoolSettings.defaults();
+    private SqliteSettings sqliteSettings = SqliteSettings.defaults();
+    private int fetchSize = 500;
+    private volatile ExecutorService readExecutor;
+    private volatile ExecutorService writeExecutor;
+    private volatile Executor mainThreadExecutor = Runnable::run;
+    private final WriteBehindQueue writeBehindQueue = new WriteBehindQueue(this);
+    private final QueryMetrics metrics = new QueryMetrics();
     private final DatabaseType type;
+    private final SqlDialect dialect;
     
     // SQLite
     private final String sqliteFile;
@@ -35,6 +61,7 @@ public class Database {
      */
     public Database(String sqliteFile) {
         this.type = DatabaseType.SQLITE;
+        this.dialect = new SqlDialect(type);
         this.sqliteFile = sqliteFile;
         this.host = null;
         this.port = 0;
@@ -54,6 +81,7 @@ public class Database {
      */
     public Database(String host, int port, String database, String username, String password) {
         this.type = DatabaseType.MYSQL;
+        this.dialect = new SqlDialect(type);
         this.sqliteFile = null;
         this.host = host;
         this.port = port;
@@ -95,55 +123,193 @@ public class Database {
     }
     
     /**
-     * Connect to the database
+     * Set the connection pool settings, must be called before {@link #connect()}
+     * @param poolSettings The pool settings
+     */
+    public void setPoolSettings(PoolSettings poolSettings) {
+        this.poolSettings = poolSettings;
+    }
+    
+    /**
+     * Set the SQLite PRAGMA profile, must be called before {@link #connect()}
+     * @param sqliteSettings The SQLite settings
+     */
+    public void setSqliteSettings(SqliteSettings sqliteSettings) {
+        this.sqliteSettings = sqliteSettings;
+    }
+    
+    /**
+     * Set how many rows are fetched per round-trip when streaming query results
+     * @param fetchSize The fetch size
+     */
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = Math.max(1, fetchSize);
+    }
+    
+    /**
+     * Set the executor used to deliver async results back to the server thread
+     * @param mainThreadExecutor The executor running tasks on the main thread
+     */
+    public void setMainThreadExecutor(Executor mainThreadExecutor) {
+        this.mainThreadExecutor = mainThreadExecutor;
+    }
+    
+    /**
+     * Connect to the database and open the connection pool
      * @return true if connection successful
      */
     public boolean connect() {
         try {
+            ConnectionPool.ConnectionFactory factory;
             if (type == DatabaseType.SQLITE) {
                 Class.forName("org.sqlite.JDBC");
-                connection = DriverManager.getConnection("jdbc:sqlite:" + sqliteFile);
-                LOGGER.info("Connected to SQLite database: " + sqliteFile);
+                // The writer opens first so the journal mode is switched before any reader connects
+                writePool = new ConnectionPool("SQLite-Write", () -> openSqliteConnection(true), new PoolSettings(
+                    1, 1, poolSettings.getConnectionTimeoutMillis(), poolSettings.isValidateOnBorrow(),
+                    poolSettings.getValidationTimeoutSeconds(), 0L, poolSettings.getLeakDetectionMillis(),
+                    poolSettings.getStatementCacheSize()));
+                writePool.start();
+                factory = () -> openSqliteConnection(false);
             } else {
                 Class.forName("com.mysql.jdbc.Driver");
-                String url = "jdbc:mysql://" + host + ":" + port + "/" + database + "?useSSL=false&autoReconnect=true";
-                connection = DriverManager.getConnection(url, username, password);
-                LOGGER.info("Connected to MySQL database: " + database);
+                String url = "jdbc:mysql://" + host + ":" + port + "/" + database + "?useSSL=false&useCursorFetch=true";
+                factory = () -> DriverManager.getConnection(url, username, password);
+            }
+            pool = new ConnectionPool(type.name(), factory, poolSettings);
+            pool.start();
+            readExecutor = Executors.newFixedThreadPool(poolSettings.getMaxSize(), threadFactory("Survival-DB-Read"));
+            // A single writer keeps asynchronous writes in submission order
+            writeExecutor = Executors.newSingleThreadExecutor(threadFactory("Survival-DB-Write"));
+            writeBehindQueue.start();
+            if (type == DatabaseType.SQLITE) {
+                LOGGER.info("Connected to SQLITE database: " + sqliteFile + " (" + poolSettings.getMinSize() + "-"
+                    + poolSettings.getMaxSize() + " readers, 1 writer, journal " + (sqliteSettings.isWalMode() ? "WAL" : "DELETE")
+                    + ", synchronous " + sqliteSettings.getSynchronous() + ")");
+            } else {
+                LOGGER.info("Connected to MYSQL database: " + database
+                    + " (pool " + poolSettings.getMinSize() + "-" + poolSettings.getMaxSize() + ")");
             }
             return true;
         } catch (ClassNotFoundException | SQLException e) {
             LOGGER.log(Level.SEVERE, "Failed to connect to database", e);
+            if (pool != null) {
+                pool.close();
+                pool = null;
+            }
+            if (writePool != null) {
+                writePool.close();
+                writePool = null;
+            }
             return false;
         }
     }
     
     /**
-     * Disconnect from the database
+     * Open a SQLite connection with the configured PRAGMA profile.
+     * Reader connections are query-only, every write goes through the single writer connection.
      */
-    public void disconnect() {
-        if (connection != null) {
-            try {
-                connection.close();
-                LOGGER.info("Disconnected from database");
-            } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "Failed to disconnect from database", e);
+    private Connection openSqliteConnection(boolean writer) throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + sqliteFile);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + poolSettings.getConnectionTimeoutMillis());
+            if (writer) {
+                stmt.execute("PRAGMA journal_mode = " + (sqliteSettings.isWalMode() ? "WAL" : "DELETE"));
+            }
+            stmt.execute("PRAGMA synchronous = " + sqliteSettings.getSynchronous());
+            stmt.execute("PRAGMA mmap_size = " + sqliteSettings.getMmapSizeBytes());
+            // A negative cache size is in KiB rather than pages
+            stmt.execute("PRAGMA cache_size = -" + sqliteSettings.getCacheSizeKib());
+            stmt.execute("PRAGMA temp_store = MEMORY");
+            if (!writer) {
+                stmt.execute("PRAGMA query_only = 1");
             }
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
         }
+        return connection;
+    }
+    
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
     
     /**
-     * Get the database connection
-     * @return the connection
+     * Disconnect from the database, waiting for pending asynchronous writes, and close the connection pool
+     */
+    public void disconnect() {
+        if (writeExecutor != null) {
+            writeBehindQueue.stop();
+        }
+        shutdownExecutor(writeExecutor, "write");
+        shutdownExecutor(readExecutor, "read");
+        writeExecutor = null;
+        readExecutor = null;
+        if (writePool != null) {
+            checkpoint();
+            writePool.close();
+            writePool = null;
+        }
+        if (pool != null) {
+            pool.close();
+            pool = null;
+            LOGGER.info("Disconnected from database");
+        }
+        metrics.close();
+    }
+    
+    /**
+     * Fold the SQLite write-ahead log back into the database file
      */
-    public Connection getConnection() {
+    private void checkpoint() {
+        if (!sqliteSettings.isWalMode()) return;
+        try (Connection conn = writePool.borrow(); Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Failed to checkpoint SQLite write-ahead log", e);
+        }
+    }
+    
+    private void shutdownExecutor(ExecutorService executor, String name) {
+        if (executor == null) return;
+        executor.shutdown();
         try {
-            if (connection == null || connection.isClosed()) {
-                connect();
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                LOGGER.warning("Timed out waiting for pending database " + name + " tasks, " 
+                    + executor.shutdownNow().size() + " task(s) dropped");
             }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error checking connection status", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
         }
-        return connection;
+    }
+    
+    /**
+     * Borrow a connection from the pool.
+     * The connection must be closed by the caller to return it to the pool.
+     * On SQLite it is read-only, writes must go through the update and transaction methods.
+     * @return the connection
+     * @throws SQLException if no connection is available before the pool timeout
+     */
+    public Connection getConnection() throws SQLException {
+        if (pool == null) {
+            throw new SQLException("Database is not connected");
+        }
+        return pool.borrow();
+    }
+    
+    /**
+     * Borrow the connection writes are made on: the single writer connection on SQLite,
+     * any pooled connection on MySQL
+     */
+    Connection getWriteConnection() throws SQLException {
+        ConnectionPool writer = writePool;
+        return writer != null ? writer.borrow() : getConnection();
     }
     
     /**
@@ -152,9 +318,13 @@ public class Database {
      * @return the number of affected rows, or -1 if error
      */
     public int executeUpdate(String query) {
-        try (Statement stmt = getConnection().createStatement()) {
-            return stmt.executeUpdate(query);
+        long start = System.nanoTime();
+        try (Connection conn = getWriteConnection(); Statement stmt = conn.createStatement()) {
+            int rows = stmt.executeUpdate(query);
+            metrics.record(query, start, rows, null);
+            return rows;
         } catch (SQLException e) {
+            metrics.recordError(query, start, null);
             LOGGER.log(Level.SEVERE, "Failed to execute update: " + query, e);
             return -1;
         }
@@ -167,63 +337,373 @@ public class Database {
      * @return the number of affected rows, or -1 if error
      */
     public int executeUpdate(String query, Object... params) {
-        try (PreparedStatement pstmt = getConnection().prepareStatement(query)) {
-            for (int i = 0; i < params.length; i++) {
-                pstmt.setObject(i + 1, params[i]);
-            }
-            return pstmt.executeUpdate();
+        long start = System.nanoTime();
+        try (Connection conn = getWriteConnection(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+            bind(pstmt, params);
+            int rows = pstmt.executeUpdate();
+            metrics.record(query, start, rows, params);
+            return rows;
         } catch (SQLException e) {
+            metrics.recordError(query, start, params);
             LOGGER.log(Level.SEVERE, "Failed to execute prepared update: " + query, e);
             return -1;
         }
     }
     
     /**
-     * Execute a query (SELECT)
-     * @param query The SQL query
-     * @return the result set, or null if error
+     * Execute an insert and return the key generated for the new row
+     * @param query The INSERT query with placeholders
+     * @param params The parameters to replace placeholders
+     * @return the generated key, or -1 if error
      */
-    public ResultSet executeQuery(String query) {
-        try {
-            Statement stmt = getConnection().createStatement();
-            return stmt.executeQuery(query);
+    public long insert(String query, Object... params) {
+        long start = System.nanoTime();
+        try (Connection conn = getWriteConnection()) {
+            long key = insert(conn, query, params);
+            metrics.record(query, start, 1, params);
+            return key;
         } catch (SQLException e) {
+            metrics.recordError(query, start, params);
+            LOGGER.log(Level.SEVERE, "Failed to execute insert: " + query, e);
+            return -1;
+        }
+    }
+    
+    static long insert(Connection conn, String query, Object... params) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            bind(pstmt, params);
+            pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("No key generated by insert: " + query);
+                }
+                return keys.getLong(1);
+            }
+        }
+    }
+    
+    /**
+     * Execute a query and map every row.
+     * Rows are streamed from the cursor using the configured fetch size, and the statement,
+     * result set and connection are always closed before returning.
+     * @param query The SQL query with placeholders
+     * @param mapper The row mapper
+     * @param params The parameters to replace placeholders
+     * @return the mapped rows, empty if error
+     */
+    public <T> List<T> query(String query, RowMapper<T> mapper, Object... params) {
+        List<T> rows = new ArrayList<>();
+        long start = System.nanoTime();
+        try (Connection conn = getConnection(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setFetchSize(fetchSize);
+            bind(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapper.map(rs));
+                }
+            }
+            metrics.record(query, start, rows.size(), params);
+        } catch (SQLException e) {
+            metrics.recordError(query, start, params);
             LOGGER.log(Level.SEVERE, "Failed to execute query: " + query, e);
-            return null;
         }
+        return rows;
     }
     
     /**
-     * Execute a query with prepared statement
+     * Execute a query and map its first row
      * @param query The SQL query with placeholders
+     * @param mapper The row mapper
      * @param params The parameters to replace placeholders
-     * @return the result set, or null if error
+     * @return the mapped row, or null if there is no row or an error occurred
      */
-    public ResultSet executeQuery(String query, Object... params) {
-        try {
-            PreparedStatement pstmt = getConnection().prepareStatement(query);
-            for (int i = 0; i < params.length; i++) {
-                pstmt.setObject(i + 1, params[i]);
+    public <T> T queryOne(String query, RowMapper<T> mapper, Object... params) {
+        long start = System.nanoTime();
+        try (Connection conn = getConnection(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setMaxRows(1);
+            bind(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                T row = rs.next() ? mapper.map(rs) : null;
+                metrics.record(query, start, row != null ? 1 : 0, params);
+                return row;
             }
-            return pstmt.executeQuery();
         } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Failed to execute prepared query: " + query, e);
+            metrics.recordError(query, start, params);
+            LOGGER.log(Level.SEVERE, "Failed to execute query: " + query, e);
             return null;
         }
     }
     
     /**
-     * Check if the connection is valid
-     * @return true if valid
+     * Execute a query and group the mapped rows by key, streaming through the result set.
+     * Meant for set-based bulk loading instead of one query per parent entity.
+     * @param query The SQL query with placeholders
+     * @param keyMapper Maps a row to its group key
+     * @param valueMapper Maps a row to its value
+     * @param params The parameters to replace placeholders
+     * @return the values per key in result order, empty if error
      */
-    public boolean isConnected() {
-        try {
-            return connection != null && !connection.isClosed();
+    public <K, V> Map<K, List<V>> queryGrouped(String query, RowMapper<K> keyMapper, RowMapper<V> valueMapper, Object... params) {
+        Map<K, List<V>> groups = new HashMap<>();
+        long start = System.nanoTime();
+        long count = 0;
+        try (Connection conn = getConnection(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setFetchSize(fetchSize);
+            bind(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    groups.computeIfAbsent(keyMapper.map(rs), key -> new ArrayList<>()).add(valueMapper.map(rs));
+                    count++;
+                }
+            }
+            metrics.record(query, start, count, params);
+        } catch (SQLException e) {
+            metrics.recordError(query, start, params);
+            LOGGER.log(Level.SEVERE, "Failed to execute query: " + query, e);
+            groups.clear();
+        }
+        return groups;
+    }
+    
+    static void bind(PreparedStatement pstmt, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            pstmt.setObject(i + 1, params[i]);
+        }
+    }
+    
+    /**
+     * Run statements in a single transaction, committed if the callback completes and rolled back otherwise.
+     * The callback must only use the given transaction: on SQLite it holds the only write connection.
+     * @param callback The statements to run
+     * @return true if the transaction was committed
+     */
+    public boolean inTransaction(TransactionCallback callback) {
+        try (Connection conn = getWriteConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                callback.run(new Transaction(conn, metrics));
+                conn.commit();
+                return true;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                LOGGER.log(Level.SEVERE, "Transaction rolled back", e);
+                return false;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to run transaction", e);
             return false;
         }
     }
     
+    /**
+     * Run statements in a single transaction on the database writer, after every write submitted before it
+     * @param callback The statements to run, off the main thread
+     * @return a future completed on the main thread with true if the transaction was committed
+     */
+    public CompletableFuture<Boolean> inTransactionAsync(TransactionCallback callback) {
+        return supplyWriteAsync(() -> inTransaction(callback));
+    }
+    
+    /**
+     * Execute the same statement once per parameter row, as a single JDBC batch in one transaction
+     * @param query The SQL query with placeholders
+     * @param rows The parameters of each execution
+     * @return true if the batch was committed
+     */
+    public boolean executeBatch(String query, List<Object[]> rows) {
+        return inTransaction(tx -> tx.executeBatch(query, rows));
+    }
+    
+    /**
+     * Execute a batch on the database writer without waiting for the result
+     * @param query The SQL query with placeholders
+     * @param rows The parameters of each execution
+     */
+    public void executeBatchAsync(String query, List<Object[]> rows) {
+        submitWrite(() -> executeBatch(query, rows));
+    }
+    
+    /**
+     * Run a read task on the database executor
+     * @param task The task, run off the main thread
+     * @return a future completed on the main thread with the task result
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        return onMainThread(submit(readExecutor, task));
+    }
+    
+    /**
+     * Run a bulk loading task on the database executor.
+     * Unlike {@link #supplyAsync(Supplier)} the future completes on the database thread,
+     * so the main thread may wait on it during startup, before the scheduler runs.
+     * @param task The task, run off the main thread
+     * @return a future completed on the database thread with the task result
+     */
+    public <T> CompletableFuture<T> loadAsync(Supplier<T> task) {
+        return submit(readExecutor, task);
+    }
+    
+    /**
+     * Run a write task on the database writer, after every write submitted before it
+     * @param task The task, run off the main thread
+     * @return a future completed on the main thread with the task result
+     */
+    public <T> CompletableFuture<T> supplyWriteAsync(Supplier<T> task) {
+        return onMainThread(submit(writeExecutor, task));
+    }
+
+    /**
+     * Run a write task on the database writer, after every write submitted before it.
+     * Unlike {@link #supplyWriteAsync(Supplier)} the future completes on the database writer,
+     * so a background thread may wait on it without depending on the main thread.
+     * @param task The task, run off the main thread
+     * @return a future completed on the database writer with the task result
+     */
+    public <T> CompletableFuture<T> writeAsync(Supplier<T> task) {
+        return submit(writeExecutor, task);
+    }
+
+    /**
+     * Execute a query asynchronously and map every row
+     * @param query The SQL query with placeholders
+     * @param mapper The row mapper, run off the main thread
+     * @param params The parameters to replace placeholders
+     * @return a future completed on the main thread with the mapped rows
+     */
+    public <T> CompletableFuture<List<T>> queryAsync(String query, RowMapper<T> mapper, Object... params) {
+        return supplyAsync(() -> query(query, mapper, params));
+    }
+    
+    /**
+     * Execute an update asynchronously, after every write submitted before it
+     * @param query The SQL query with placeholders
+     * @param params The parameters to replace placeholders
+     * @return a future completed on the main thread with the number of affected rows, or -1 if error
+     */
+    public CompletableFuture<Integer> executeUpdateAsync(String query, Object... params) {
+        return supplyWriteAsync(() -> executeUpdate(query, params));
+    }
+    
+    /**
+     * Execute an insert asynchronously, after every write submitted before it
+     * @param query The INSERT query with placeholders
+     * @param params The parameters to replace placeholders
+     * @return a future completed on the main thread with the generated key, or -1 if error
+     */
+    public CompletableFuture<Long> insertAsync(String query, Object... params) {
+        return supplyWriteAsync(() -> insert(query, params));
+    }
+    
+    /**
+     * Execute an update in the background without waiting for the result.
+     * Writes run in submission order; errors are logged.
+     * @param query The SQL query with placeholders
+     * @param params The parameters to replace placeholders
+     */
+    public void executeAsync(String query, Object... params) {
+        submit(writeExecutor, () -> executeUpdate(query, params));
+    }
+    
+    /**
+     * Get the executor running tasks on the main thread
+     */
+    Executor getMainThreadExecutor() {
+        return mainThreadExecutor;
+    }
+    
+    /**
+     * Run a task on the database writer without returning to the main thread
+     */
+    CompletableFuture<Void> submitWrite(Runnable task) {
+        return submit(writeExecutor, () -> {
+            task.run();
+            return null;
+        });
+    }
+    
+    private <T> CompletableFuture<T> submit(ExecutorService executor, Supplier<T> task) {
+        if (executor == null) {
+            // Not connected or already shutting down: keep the work rather than dropping it
+            return CompletableFuture.completedFuture(task.get());
+        }
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            LOGGER.warning("Database executor is shutting down, running task on the calling thread");
+            return CompletableFuture.completedFuture(task.get());
+        }
+    }
+    
+    private <T> CompletableFuture<T> onMainThread(CompletableFuture<T> future) {
+        return future.thenApplyAsync(Function.identity(), mainThreadExecutor);
+    }
+    
+    /**
+     * Get the per SQL template timing statistics
+     * @return the query metrics
+     */
+    public QueryMetrics getQueryMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * Get the number of open connections over all pools
+     * @return the number of connections
+     */
+    public int getTotalConnections() {
+        ConnectionPool readers = pool;
+        ConnectionPool writer = writePool;
+        return (readers != null ? readers.getTotalConnections() : 0) + (writer != null ? writer.getTotalConnections() : 0);
+    }
+    
+    /**
+     * Get the number of connections currently in use over all pools
+     * @return the number of borrowed connections
+     */
+    public int getActiveConnections() {
+        ConnectionPool readers = pool;
+        ConnectionPool writer = writePool;
+        return (readers != null ? readers.getActiveConnections() : 0) + (writer != null ? writer.getActiveConnections() : 0);
+    }
+    
+    /**
+     * Get the number of prepared statements served from the per-connection statement caches
+     * @return the number of cache hits
+     */
+    public long getStatementCacheHits() {
+        ConnectionPool readers = pool;
+        ConnectionPool writer = writePool;
+        return (readers != null ? readers.getStatementCacheHits() : 0) + (writer != null ? writer.getStatementCacheHits() : 0);
+    }
+    
+    /**
+     * Get the number of prepared statements that were not cached and had to be prepared
+     * @return the number of cache misses
+     */
+    public long getStatementCacheMisses() {
+        ConnectionPool readers = pool;
+        ConnectionPool writer = writePool;
+        return (readers != null ? readers.getStatementCacheMisses() : 0) + (writer != null ? writer.getStatementCacheMisses() : 0);
+    }
+    
+    /**
+     * Get the write-behind queue used to coalesce hot entity updates
+     * @return the write-behind queue
+     */
+    public WriteBehindQueue getWriteBehindQueue() {
+        return writeBehindQueue;
+    }
+    
+    /**
+     * Check if the connection pool is open
+     * @return true if connected
+     */
+    public boolean isConnected() {
+        return pool != null;
+    }
+    
     /**
      * Get the database type
      * @return the database type
@@ -231,4 +711,12 @@ public class Database {
     public DatabaseType getType() {
         return type;
     }
+    
+    /**
+     * Get the SQL differences of the database type
+     * @return the dialect
+     */
+    public SqlDialect getDialect() {
+        return dialect;
+    }
 }
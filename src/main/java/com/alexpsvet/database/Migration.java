@@ -0,0 +1,39 @@
+package com.alexpsvet.database;
+
+import java.sql.SQLException;
+
+/**
+ * A versioned schema change.
+ * Migrations are applied in version order, each one in its own transaction, and recorded in schema_version.
+ */
+public abstract class Migration {
+    private final int version;
+    private final String description;
+
+    /**
+     * Create a migration
+     * @param version The schema version reached once the migration is applied, starting at 1
+     * @param description A short description of the change
+     */
+    protected Migration(int version, String description) {
+        this.version = version;
+        this.description = description;
+    }
+
+    /**
+     * Apply the migration.
+     * MySQL commits DDL statements implicitly, so statements must be safe to run again if a migration fails halfway.
+     * @param tx The transaction of the migration
+     * @param dialect The SQL dialect of the database
+     * @throws SQLException if a statement fails
+     */
+    public abstract void apply(Transaction tx, SqlDialect dialect) throws SQLException;
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,79 @@
+package com.alexpsvet.database;
+
+/**
+ * Settings for the database connection pool
+ */
+public class PoolSettings {
+    private final int minSize;
+    private final int maxSize;
+    private final long connectionTimeoutMillis;
+    private final boolean validateOnBorrow;
+    private final int validationTimeoutSeconds;
+    private final long idleTimeoutMillis;
+    private final long leakDetectionMillis;
+    private final int statementCacheSize;
+
+    /**
+     * Create pool settings
+     * @param minSize Number of connections kept open even when idle
+     * @param maxSize Maximum number of connections
+     * @param connectionTimeoutMillis How long a caller waits for a free connection
+     * @param validateOnBorrow Whether connections are checked before being handed out
+     * @param validationTimeoutSeconds Timeout of the validation check
+     * @param idleTimeoutMillis How long a connection above the minimum may stay idle
+     * @param leakDetectionMillis How long a connection may be borrowed before a leak is reported (0 to disable)
+     * @param statementCacheSize Number of prepared statements cached per connection (0 to disable)
+     */
+    public PoolSettings(int minSize, int maxSize, long connectionTimeoutMillis, boolean validateOnBorrow,
+                        int validationTimeoutSeconds, long idleTimeoutMillis, long leakDetectionMillis,
+                        int statementCacheSize) {
+        this.maxSize = Math.max(1, maxSize);
+        this.minSize = Math.max(0, Math.min(minSize, this.maxSize));
+        this.connectionTimeoutMillis = Math.max(0, connectionTimeoutMillis);
+        this.validateOnBorrow = validateOnBorrow;
+        this.validationTimeoutSeconds = Math.max(1, validationTimeoutSeconds);
+        this.idleTimeoutMillis = Math.max(0, idleTimeoutMillis);
+        this.leakDetectionMillis = Math.max(0, leakDetectionMillis);
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+    }
+
+    /**
+     * Get the default pool settings
+     * @return the default settings
+     */
+    public static PoolSettings defaults() {
+        return new PoolSettings(2, 10, 5000L, true, 2, 600000L, 10000L, 128);
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getConnectionTimeoutMillis() {
+        return connectionTimeoutMillis;
+    }
+
+    public boolean isValidateOnBorrow() {
+        return validateOnBorrow;
+    }
+
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public long getLeakDetectionMillis() {
+        return leakDetectionMillis;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+}
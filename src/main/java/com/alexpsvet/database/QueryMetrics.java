@@ -0,0 +1,162 @@
+package com.alexpsvet.database;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per SQL template timing of every statement executed through {@link Database}.
+ * Durations are measured from the moment a connection is requested, so waiting on the pool counts.
+ */
+public class QueryMetrics {
+    private static final int MAX_CACHED_SQL = 2048;
+
+    private final Map<String, QueryStats> byTemplate;
+    private final Map<String, QueryStats> bySql;
+    private volatile SlowQueryLog slowQueryLog;
+
+    QueryMetrics() {
+        this.byTemplate = new ConcurrentHashMap<>();
+        this.bySql = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Log queries slower than a threshold to rolling files
+     * @param directory The directory of the log files
+     * @param thresholdMillis Queries taking at least this long are logged
+     * @param maxFileBytes Size of a file before rotating
+     * @param fileCount Number of files kept
+     */
+    public void enableSlowQueryLog(File directory, long thresholdMillis, int maxFileBytes, int fileCount) {
+        SlowQueryLog previous = slowQueryLog;
+        slowQueryLog = SlowQueryLog.open(directory, thresholdMillis, maxFileBytes, fileCount);
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Get the statistics of every template, sorted by the given order
+     * @param order The sort order, e.g. {@link #byTotalTime()}
+     * @param limit Maximum number of entries
+     * @return the statistics
+     */
+    public List<QueryStats> getTop(Comparator<QueryStats> order, int limit) {
+        List<QueryStats> stats = new ArrayList<>(byTemplate.values());
+        stats.sort(order);
+        return stats.size() > limit ? new ArrayList<>(stats.subList(0, limit)) : stats;
+    }
+
+    /**
+     * Forget every recorded statistic
+     */
+    public void reset() {
+        bySql.clear();
+        byTemplate.clear();
+    }
+
+    public static Comparator<QueryStats> byTotalTime() {
+        return Comparator.comparingLong(QueryStats::getTotalMicros).reversed();
+    }
+
+    public static Comparator<QueryStats> byCount() {
+        return Comparator.comparingLong(QueryStats::getCount).reversed();
+    }
+
+    public static Comparator<QueryStats> byP99() {
+        return Comparator.comparingLong((QueryStats stats) -> stats.getPercentileMicros(0.99)).reversed();
+    }
+
+    public static Comparator<QueryStats> byErrors() {
+        return Comparator.comparingLong(QueryStats::getErrors).reversed();
+    }
+
+    void record(String sql, long startNanos, long rows, Object[] params) {
+        record(sql, startNanos, rows, false, params);
+    }
+
+    void recordError(String sql, long startNanos, Object[] params) {
+        record(sql, startNanos, 0, true, params);
+    }
+
+    void close() {
+        SlowQueryLog log = slowQueryLog;
+        slowQueryLog = null;
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    private void record(String sql, long startNanos, long rows, boolean error, Object[] params) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        statsFor(sql).record(micros, rows, error);
+        SlowQueryLog log = slowQueryLog;
+        if (log != null && log.isSlow(micros)) {
+            log.log(sql, micros, rows, error, params);
+        }
+    }
+
+    private QueryStats statsFor(String sql) {
+        QueryStats stats = bySql.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        stats = byTemplate.computeIfAbsent(template(sql), QueryStats::new);
+        // SQL with inlined literals would grow this map without bound
+        if (bySql.size() < MAX_CACHED_SQL) {
+            bySql.put(sql, stats);
+        }
+        return stats;
+    }
+
+    /**
+     * Reduce a statement to its template: literals become ? and whitespace is collapsed
+     */
+    static String template(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                i++;
+                while (i < length) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                out.append('?');
+                i++;
+            } else if (Character.isDigit(c) && (out.length() == 0 || !isIdentifierPart(out.charAt(out.length() - 1)))) {
+                while (i < length && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                out.append('?');
+            } else if (Character.isWhitespace(c)) {
+                while (i < length && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (out.length() > 0 && i < length) {
+                    out.append(' ');
+                }
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return out.toString();
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
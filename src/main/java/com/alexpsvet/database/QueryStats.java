@@ -0,0 +1,110 @@
+package com.alexpsvet.database;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timing statistics of one SQL template.
+ * Durations go into a log-linear histogram (four buckets per power of two, in microseconds),
+ * so percentiles are exact to within 25%.
+ */
+public class QueryStats {
+    private static final int BUCKETS = 160;
+
+    private final String template;
+    private final LongAdder count;
+    private final LongAdder errors;
+    private final LongAdder rows;
+    private final LongAdder totalMicros;
+    private final AtomicLong maxMicros;
+    private final AtomicLongArray histogram;
+
+    QueryStats(String template) {
+        this.template = template;
+        this.count = new LongAdder();
+        this.errors = new LongAdder();
+        this.rows = new LongAdder();
+        this.totalMicros = new LongAdder();
+        this.maxMicros = new AtomicLong();
+        this.histogram = new AtomicLongArray(BUCKETS);
+    }
+
+    void record(long micros, long rowCount, boolean error) {
+        count.increment();
+        if (error) {
+            errors.increment();
+        } else {
+            rows.add(rowCount);
+        }
+        totalMicros.add(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+        histogram.incrementAndGet(bucket(micros));
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getTotalMicros() {
+        return totalMicros.sum();
+    }
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    /**
+     * Get an approximate percentile of the recorded durations
+     * @param percentile The percentile, between 0 and 1
+     * @return the duration in microseconds, 0 if nothing was recorded
+     */
+    public long getPercentileMicros(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = histogram.get(i);
+            total += counts[i];
+        }
+        if (total == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(upperBound(i), getMaxMicros());
+            }
+        }
+        return getMaxMicros();
+    }
+
+    private static int bucket(long micros) {
+        if (micros < 4) {
+            return (int) Math.max(0, micros);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) ((micros >>> (exponent - 2)) & 3);
+        return Math.min(BUCKETS - 1, exponent * 4 + sub - 4);
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < 4) {
+            return bucket;
+        }
+        int exponent = (bucket + 4) / 4;
+        int sub = (bucket + 4) % 4;
+        return ((5L + sub) << (exponent - 2)) - 1;
+    }
+}
@@ -0,0 +1,19 @@
+package com.alexpsvet.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a result set to an object
+ * @param <T> The mapped type
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    /**
+     * Map the current row, without moving the cursor
+     * @param rs The result set positioned on the row
+     * @return the mapped object
+     * @throws SQLException if a column cannot be read
+     */
+    T map(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,94 @@
+package com.alexpsvet.database;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Brings the database schema up to date by applying pending migrations in version order.
+ * The applied versions are recorded in the schema_version table.
+ */
+public class SchemaMigrator {
+    private static final Logger LOGGER = Logger.getLogger("survival");
+
+    private final Database database;
+    private final SqlDialect dialect;
+    private final List<Migration> migrations;
+
+    /**
+     * Create a migrator
+     * @param database The connected database
+     * @param migrations The known migrations, in any order
+     */
+    public SchemaMigrator(Database database, List<Migration> migrations) {
+        this.database = database;
+        this.dialect = database.getDialect();
+        this.migrations = new ArrayList<>(migrations);
+        this.migrations.sort(Comparator.comparingInt(Migration::getVersion));
+        for (int i = 1; i < this.migrations.size(); i++) {
+            if (this.migrations.get(i).getVersion() == this.migrations.get(i - 1).getVersion()) {
+                throw new IllegalArgumentException("Duplicate migration version " + this.migrations.get(i).getVersion());
+            }
+        }
+    }
+
+    /**
+     * Apply every migration newer than the current schema version
+     * @return true if the schema is up to date, false if a migration failed
+     */
+    public boolean migrate() {
+        int current = getCurrentVersion();
+        if (current < 0) {
+            return false;
+        }
+
+        int latest = migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).getVersion();
+        if (current > latest) {
+            LOGGER.warning("Database schema version " + current + " is newer than this plugin version (" + latest + ")");
+            return true;
+        }
+
+        int applied = 0;
+        for (Migration migration : migrations) {
+            if (migration.getVersion() <= current) {
+                continue;
+            }
+            long start = System.currentTimeMillis();
+            boolean committed = database.inTransaction(tx -> {
+                migration.apply(tx, dialect);
+                tx.executeUpdate("INSERT INTO schema_version (version, description, applied_at) VALUES (?, ?, ?)",
+                    migration.getVersion(), migration.getDescription(), System.currentTimeMillis());
+            });
+            if (!committed) {
+                LOGGER.severe("Schema migration v" + migration.getVersion() + " (" + migration.getDescription() + ") failed");
+                return false;
+            }
+            LOGGER.info("Applied schema migration v" + migration.getVersion() + " (" + migration.getDescription() + ") in "
+                + (System.currentTimeMillis() - start) + "ms");
+            applied++;
+        }
+
+        if (applied == 0) {
+            LOGGER.info("Database schema is up to date (version " + current + ")");
+        }
+        return true;
+    }
+
+    /**
+     * Get the current schema version, creating the version table if needed
+     * @return the version, 0 for a new database, or -1 if error
+     */
+    public int getCurrentVersion() {
+        if (database.executeUpdate("CREATE TABLE IF NOT EXISTS schema_version (" +
+                "version INTEGER PRIMARY KEY," +
+                "description VARCHAR(200) NOT NULL," +
+                "applied_at BIGINT NOT NULL" +
+                ")") < 0) {
+            return -1;
+        }
+        Integer version = database.queryOne("SELECT MAX(version) AS version FROM schema_version",
+            rs -> rs.getInt("version"));
+        return version != null ? version : -1;
+    }
+}
@@ -0,0 +1,86 @@
+package com.alexpsvet.database;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Rolling log file of queries slower than a threshold
+ */
+class SlowQueryLog {
+    private static final Logger LOGGER = Logger.getLogger("survival");
+
+    private final long thresholdMicros;
+    private final FileHandler handler;
+
+    private SlowQueryLog(long thresholdMicros, FileHandler handler) {
+        this.thresholdMicros = thresholdMicros;
+        this.handler = handler;
+    }
+
+    /**
+     * Open the slow query log, rotating between the given number of files
+     * @param directory The directory of the log files
+     * @param thresholdMillis Queries taking at least this long are logged
+     * @param maxFileBytes Size of a file before rotating
+     * @param fileCount Number of files kept
+     * @return the log, or null if the file cannot be opened
+     */
+    static SlowQueryLog open(File directory, long thresholdMillis, int maxFileBytes, int fileCount) {
+        if (!directory.exists() && !directory.mkdirs()) {
+            LOGGER.warning("Failed to create slow query log directory: " + directory.getAbsolutePath());
+            return null;
+        }
+        try {
+            String pattern = new File(directory, "slow-queries.%g.log").getAbsolutePath();
+            FileHandler handler = new FileHandler(pattern, Math.max(0, maxFileBytes), Math.max(1, fileCount), true);
+            handler.setEncoding("UTF-8");
+            handler.setFormatter(new LineFormatter());
+            return new SlowQueryLog(Math.max(0, thresholdMillis) * 1000L, handler);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to open slow query log in " + directory.getAbsolutePath(), e);
+            return null;
+        }
+    }
+
+    boolean isSlow(long micros) {
+        return micros >= thresholdMicros;
+    }
+
+    void log(String sql, long micros, long rows, boolean error, Object[] params) {
+        StringBuilder line = new StringBuilder(128);
+        line.append(String.format("%.1f", micros / 1000.0)).append(" ms | ")
+            .append(error ? "ERROR" : "rows=" + rows).append(" | ")
+            .append(Thread.currentThread().getName()).append(" | ")
+            .append(sql.replaceAll("\\s+", " ").trim());
+        if (params != null && params.length > 0) {
+            line.append(" | params=[");
+            for (int i = 0; i < params.length; i++) {
+                if (i > 0) line.append(", ");
+                Object param = params[i];
+                line.append(param instanceof byte[] ? "<" + ((byte[]) param).length + " bytes>" : String.valueOf(param));
+            }
+            line.append(']');
+        }
+        handler.publish(new LogRecord(Level.INFO, line.toString()));
+    }
+
+    void close() {
+        handler.close();
+    }
+
+    private static final class LineFormatter extends Formatter {
+        private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+        @Override
+        public synchronized String format(LogRecord record) {
+            return "[" + dateFormat.format(new Date(record.getMillis())) + "] " + record.getMessage() + System.lineSeparator();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.alexpsvet.database;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * SQL differences between the supported databases
+ */
+public class SqlDialect {
+    private final DatabaseType type;
+
+    SqlDialect(DatabaseType type) {
+        this.type = type;
+    }
+
+    public DatabaseType getType() {
+        return type;
+    }
+
+    /**
+     * Get the column definition of an auto-increment integer primary key
+     * @return the column type and constraints
+     */
+    public String autoIncrementPrimaryKey() {
+        return type == DatabaseType.SQLITE ? "INTEGER PRIMARY KEY AUTOINCREMENT" : "INTEGER PRIMARY KEY AUTO_INCREMENT";
+    }
+
+    /**
+     * Quote a value as a string literal, for statements written to a file instead of bound as parameters.
+     * MySQL reads backslash escapes inside literals, SQLite only doubles the quotes.
+     * @param value The value
+     * @return the quoted literal
+     */
+    public String stringLiteral(String value) {
+        StringBuilder literal = new StringBuilder(value.length() + 2).append('\'');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\'') {
+                literal.append("''");
+            } else if (type == DatabaseType.SQLITE) {
+                literal.append(c);
+            } else if (c == '\\') {
+                literal.append("\\\\");
+            } else if (c == '\0') {
+                literal.append("\\0");
+            } else if (c == '\n') {
+                literal.append("\\n");
+            } else if (c == '\r') {
+                literal.append("\\r");
+            } else if (c == '\u001A') {
+                literal.append("\\Z");
+            } else {
+                literal.append(c);
+            }
+        }
+        return literal.append('\'').toString();
+    }
+
+    /**
+     * Create an index if it does not exist yet
+     * @param tx The transaction to run in
+     * @param name The index name
+     * @param table The indexed table
+     * @param columns The indexed columns, comma separated
+     * @throws SQLException if the index cannot be created
+     */
+    public void createIndex(Transaction tx, String name, String table, String columns) throws SQLException {
+        if (type == DatabaseType.SQLITE) {
+            tx.executeUpdate("CREATE INDEX IF NOT EXISTS " + name + " ON " + table + "(" + columns + ")");
+            return;
+        }
+        // MySQL has no CREATE INDEX IF NOT EXISTS
+        boolean exists = !tx.query(
+            "SELECT 1 FROM information_schema.statistics WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?",
+            rs -> Boolean.TRUE, table, name).isEmpty();
+        if (!exists) {
+            tx.executeUpdate("CREATE INDEX " + name + " ON " + table + "(" + columns + ")");
+        }
+    }
+
+    /**
+     * Drop an index if it exists
+     * @param tx The transaction to run in
+     * @param name The index name
+     * @param table The indexed table
+     * @throws SQLException if the index cannot be dropped
+     */
+    public void dropIndex(Transaction tx, String name, String table) throws SQLException {
+        if (type == DatabaseType.SQLITE) {
+            tx.executeUpdate("DROP INDEX IF EXISTS " + name);
+            return;
+        }
+        boolean exists = !tx.query(
+            "SELECT 1 FROM information_schema.statistics WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?",
+            rs -> Boolean.TRUE, table, name).isEmpty();
+        if (exists) {
+            tx.executeUpdate("DROP INDEX " + name + " ON " + table);
+        }
+    }
+
+    /**
+     * Check if a table has a column
+     * @param tx The transaction to run in
+     * @param table The table
+     * @param column The column name
+     * @return true if the column exists
+     * @throws SQLException if the schema cannot be read
+     */
+    public boolean columnExists(Transaction tx, String table, String column) throws SQLException {
+        if (type == DatabaseType.SQLITE) {
+            List<String> columns = tx.query("PRAGMA table_info(" + table + ")", rs -> rs.getString("name"));
+            for (String name : columns) {
+                if (name.equalsIgnoreCase(column)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return !tx.query(
+            "SELECT 1 FROM information_schema.columns WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?",
+            rs -> Boolean.TRUE, table, column).isEmpty();
+    }
+
+    /**
+     * Add a column if it does not exist yet
+     * @param tx The transaction to run in
+     * @param table The table
+     * @param column The column name
+     * @param definition The type and constraints of the column, which must have a default
+     * @throws SQLException if the column cannot be added
+     */
+    public void addColumn(Transaction tx, String table, String column, String definition) throws SQLException {
+        if (!columnExists(tx, table, column)) {
+            tx.executeUpdate("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        }
+    }
+
+    /**
+     * Replace a column by a new one of another type, filled from the old values.
+     * The new column is built next to the old one, which is dropped before the new one takes its name,
+     * so a replacement interrupted at any step is finished when it runs again.
+     * @param tx The transaction to run in
+     * @param table The table
+     * @param column The column name
+     * @param definition The type and constraints of the new column, which must have a default
+     * @param value The new value of each row, computed from the old column
+     * @throws SQLException if the column cannot be replaced
+     */
+    public void replaceColumn(Transaction tx, String table, String column, String definition, String value)
+            throws SQLException {
+        String replacement = column + "_new";
+        if (columnExists(tx, table, column)) {
+            addColumn(tx, table, replacement, definition);
+            tx.executeUpdate("UPDATE " + table + " SET " + replacement + " = " + value);
+            tx.executeUpdate("ALTER TABLE " + table + " DROP COLUMN " + column);
+        }
+        if (columnExists(tx, table, replacement)) {
+            if (type == DatabaseType.SQLITE) {
+                tx.executeUpdate("ALTER TABLE " + table + " RENAME COLUMN " + replacement + " TO " + column);
+            } else {
+                // RENAME COLUMN needs MySQL 8, CHANGE also works on older servers
+                tx.executeUpdate("ALTER TABLE " + table + " CHANGE " + replacement + " " + column + " " + definition);
+            }
+        }
+    }
+}
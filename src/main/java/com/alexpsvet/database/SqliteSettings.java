@@ -0,0 +1,62 @@
+package com.alexpsvet.database;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * PRAGMA profile applied to SQLite connections
+ */
+public class SqliteSettings {
+    private static final Logger LOGGER = Logger.getLogger("survival");
+    private static final List<String> SYNCHRONOUS_LEVELS = Arrays.asList("OFF", "NORMAL", "FULL", "EXTRA");
+
+    private final boolean walMode;
+    private final String synchronous;
+    private final long mmapSizeBytes;
+    private final long cacheSizeKib;
+
+    /**
+     * Create SQLite settings
+     * @param walMode Whether the write-ahead log is used instead of the rollback journal
+     * @param synchronous How often SQLite syncs to disk: OFF, NORMAL, FULL or EXTRA
+     * @param mmapSizeBytes How much of the database file is memory-mapped (0 to disable)
+     * @param cacheSizeKib Page cache size of each connection, in KiB
+     */
+    public SqliteSettings(boolean walMode, String synchronous, long mmapSizeBytes, long cacheSizeKib) {
+        String level = synchronous == null ? "" : synchronous.trim().toUpperCase();
+        if (!SYNCHRONOUS_LEVELS.contains(level)) {
+            LOGGER.warning("Invalid SQLite synchronous level: " + synchronous + ", using NORMAL");
+            level = "NORMAL";
+        }
+        this.walMode = walMode;
+        this.synchronous = level;
+        this.mmapSizeBytes = Math.max(0, mmapSizeBytes);
+        this.cacheSizeKib = Math.max(0, cacheSizeKib);
+    }
+
+    /**
+     * Get the default SQLite settings: WAL, NORMAL sync (durable across crashes of the server, not of the OS),
+     * 256 MiB memory map and 16 MiB page cache
+     * @return the default settings
+     */
+    public static SqliteSettings defaults() {
+        return new SqliteSettings(true, "NORMAL", 256L * 1024 * 1024, 16L * 1024);
+    }
+
+    public boolean isWalMode() {
+        return walMode;
+    }
+
+    public String getSynchronous() {
+        return synchronous;
+    }
+
+    public long getMmapSizeBytes() {
+        return mmapSizeBytes;
+    }
+
+    public long getCacheSizeKib() {
+        return cacheSizeKib;
+    }
+}
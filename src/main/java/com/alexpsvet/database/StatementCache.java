@@ -0,0 +1,217 @@
+package com.alexpsvet.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * LRU cache of the prepared statements of one physical connection.
+ * Statements are handed out as proxies whose close() resets them and keeps them for the next caller.
+ */
+class StatementCache {
+    private static final Logger LOGGER = Logger.getLogger("survival");
+    private static final int NO_GENERATED_KEYS_FLAG = -1;
+
+    private final int capacity;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final LinkedHashMap<Key, CachedStatement> statements;
+
+    /**
+     * Create a statement cache
+     * @param capacity Maximum number of cached statements
+     * @param hits Counter of statements served from the cache
+     * @param misses Counter of statements that had to be prepared
+     */
+    StatementCache(int capacity, AtomicLong hits, AtomicLong misses) {
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Get a prepared statement for the given SQL, reusing the cached one when it is free
+     * @param connection The physical connection
+     * @param owner The connection handle given to the borrower
+     * @param sql The SQL text
+     * @param autoGeneratedKeys The generated keys flag, or null for the plain prepareStatement(String)
+     * @return the statement, to be closed by the caller
+     * @throws SQLException if the statement cannot be prepared
+     */
+    synchronized PreparedStatement prepare(Connection connection, Connection owner, String sql, Integer autoGeneratedKeys)
+            throws SQLException {
+        Key key = new Key(sql, autoGeneratedKeys != null ? autoGeneratedKeys : NO_GENERATED_KEYS_FLAG);
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse) {
+            hits.incrementAndGet();
+            return cached.lease(owner);
+        }
+        misses.incrementAndGet();
+        PreparedStatement statement = autoGeneratedKeys != null
+            ? connection.prepareStatement(sql, autoGeneratedKeys)
+            : connection.prepareStatement(sql);
+        if (cached != null) {
+            // The same SQL is already open on this connection, hand out a private statement
+            return statement;
+        }
+        cached = new CachedStatement(key, statement);
+        statements.put(key, cached);
+        evictOverflow();
+        return cached.lease(owner);
+    }
+
+    /**
+     * Close every cached statement
+     */
+    synchronized void closeAll() {
+        for (CachedStatement cached : statements.values()) {
+            cached.evicted = true;
+            if (!cached.inUse) {
+                cached.closeQuietly();
+            }
+        }
+        statements.clear();
+    }
+
+    private void evictOverflow() {
+        Iterator<CachedStatement> eldestFirst = statements.values().iterator();
+        while (statements.size() > capacity && eldestFirst.hasNext()) {
+            CachedStatement eldest = eldestFirst.next();
+            eldestFirst.remove();
+            eldest.evicted = true;
+            if (!eldest.inUse) {
+                eldest.closeQuietly();
+            }
+        }
+    }
+
+    private synchronized void release(CachedStatement cached) {
+        cached.inUse = false;
+        if (cached.evicted) {
+            cached.closeQuietly();
+            return;
+        }
+        try {
+            cached.statement.clearParameters();
+            cached.statement.clearBatch();
+            if (cached.statement.getMaxRows() != 0) {
+                cached.statement.setMaxRows(0);
+            }
+        } catch (SQLException e) {
+            statements.remove(cached.key);
+            cached.evicted = true;
+            cached.closeQuietly();
+        }
+    }
+
+    /**
+     * A cached statement is identified by its SQL text and generated keys flag
+     */
+    private static final class Key {
+        private final String sql;
+        private final int autoGeneratedKeys;
+
+        private Key(String sql, int autoGeneratedKeys) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return autoGeneratedKeys == other.autoGeneratedKeys && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sql.hashCode() + autoGeneratedKeys;
+        }
+    }
+
+    private final class CachedStatement {
+        private final Key key;
+        private final PreparedStatement statement;
+        private boolean inUse;
+        private boolean evicted;
+
+        private CachedStatement(Key key, PreparedStatement statement) {
+            this.key = key;
+            this.statement = statement;
+        }
+
+        private PreparedStatement lease(Connection owner) {
+            inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(StatementCache.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class }, new Handle(this, owner));
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Failed to close cached statement", e);
+            }
+        }
+    }
+
+    /**
+     * Handle given to a caller, only valid until it is closed
+     */
+    private final class Handle implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection owner;
+        private boolean closed;
+
+        private Handle(CachedStatement cached, Connection owner) {
+            this.cached = cached;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(cached);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || cached.statement.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + cached.key.sql + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement has already been closed");
+            }
+            try {
+                return method.invoke(cached.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
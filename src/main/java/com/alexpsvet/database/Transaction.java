@@ -0,0 +1,126 @@
+package com.alexpsvet.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Statements executed on the connection of an open transaction.
+ * Any SQLException thrown here rolls the whole transaction back.
+ */
+public class Transaction {
+    private final Connection connection;
+    private final QueryMetrics metrics;
+
+    Transaction(Connection connection, QueryMetrics metrics) {
+        this.connection = connection;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Execute an update query with prepared statement
+     * @param query The SQL query with placeholders
+     * @param params The parameters to replace placeholders
+     * @return the number of affected rows
+     * @throws SQLException if the update fails
+     */
+    public int executeUpdate(String query, Object... params) throws SQLException {
+        long start = System.nanoTime();
+        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+            Database.bind(pstmt, params);
+            int rows = pstmt.executeUpdate();
+            metrics.record(query, start, rows, params);
+            return rows;
+        } catch (SQLException e) {
+            metrics.recordError(query, start, params);
+            throw e;
+        }
+    }
+
+    /**
+     * Execute an insert and return the key generated for the new row
+     * @param query The INSERT query with placeholders
+     * @param params The parameters to replace placeholders
+     * @return the generated key
+     * @throws SQLException if the insert fails or generates no key
+     */
+    public long insert(String query, Object... params) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            long key = Database.insert(connection, query, params);
+            metrics.record(query, start, 1, params);
+            return key;
+        } catch (SQLException e) {
+            metrics.recordError(query, start, params);
+            throw e;
+        }
+    }
+
+    /**
+     * Execute the same statement once per parameter row, as a single JDBC batch
+     * @param query The SQL query with placeholders
+     * @param rows The parameters of each execution
+     * @return the number of affected rows of each execution
+     * @throws SQLException if the batch fails
+     */
+    public int[] executeBatch(String query, List<Object[]> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return new int[0];
+        }
+        long start = System.nanoTime();
+        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+            for (Object[] params : rows) {
+                Database.bind(pstmt, params);
+                pstmt.addBatch();
+            }
+            int[] counts = pstmt.executeBatch();
+            long affected = 0;
+            for (int count : counts) {
+                // SUCCESS_NO_INFO is counted as one row
+                affected += count >= 0 ? count : 1;
+            }
+            metrics.record(query, start, affected, null);
+            return counts;
+        } catch (SQLException e) {
+            metrics.recordError(query, start, null);
+            throw e;
+        }
+    }
+
+    /**
+     * Execute a query and map every row
+     * @param query The SQL query with placeholders
+     * @param mapper The row mapper
+     * @param params The parameters to replace placeholders
+     * @return the mapped rows
+     * @throws SQLException if the query fails
+     */
+    public <T> List<T> query(String query, RowMapper<T> mapper, Object... params) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        long start = System.nanoTime();
+        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+            Database.bind(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapper.map(rs));
+                }
+            }
+            metrics.record(query, start, rows.size(), params);
+        } catch (SQLException e) {
+            metrics.recordError(query, start, params);
+            throw e;
+        }
+        return rows;
+    }
+
+    /**
+     * Get the underlying connection, which must not be closed or committed by the caller
+     * @return the connection
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+}
@@ -0,0 +1,16 @@
+package com.alexpsvet.database;
+
+import java.sql.SQLException;
+
+/**
+ * Work executed inside a database transaction
+ */
+@FunctionalInterface
+public interface TransactionCallback {
+    /**
+     * Run the statements of the transaction
+     * @param tx The open transaction
+     * @throws SQLException to roll the transaction back
+     */
+    void run(Transaction tx) throws SQLException;
+}
@@ -0,0 +1,243 @@
+package com.alexpsvet.database;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BinaryOperator;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind queue for hot entity updates.
+ * Updates are registered per entity key, repeated updates to the same key are merged,
+ * and pending updates are flushed on the database writer as JDBC batches,
+ * on an interval or when too many updates are pending.
+ * Pending updates are drained on the main thread, so a flush is always ordered
+ * after direct writes the main thread submitted before it.
+ */
+public class WriteBehindQueue {
+    private static final Logger LOGGER = Logger.getLogger("survival");
+
+    private final Database database;
+    private final List<Channel> channels;
+    private final AtomicBoolean flushScheduled;
+    private long flushIntervalMillis = 5000L;
+    private int maxPending = 1000;
+    private ScheduledExecutorService timer;
+
+    WriteBehindQueue(Database database) {
+        this.database = database;
+        this.channels = new CopyOnWriteArrayList<>();
+        this.flushScheduled = new AtomicBoolean();
+    }
+
+    /**
+     * Set the flush interval and the pending update threshold, must be called before the queue starts
+     * @param flushIntervalMillis Interval between two flushes
+     * @param maxPending Number of pending updates on one statement that triggers an early flush
+     */
+    public void setFlushSettings(long flushIntervalMillis, int maxPending) {
+        this.flushIntervalMillis = Math.max(100L, flushIntervalMillis);
+        this.maxPending = Math.max(1, maxPending);
+    }
+
+    /**
+     * Register a statement updates are coalesced for
+     * @param sql The update statement, executed once per dirty key
+     * @param merger Merges the pending parameters (first argument) with newer ones (second argument)
+     * @return the channel to enqueue updates on
+     */
+    public Channel register(String sql, BinaryOperator<Object[]> merger) {
+        Channel channel = new Channel(sql, merger);
+        channels.add(channel);
+        return channel;
+    }
+
+    /**
+     * Merger keeping only the newest parameters
+     * @return the merger
+     */
+    public static BinaryOperator<Object[]> lastWriteWins() {
+        return (older, newer) -> newer;
+    }
+
+    /**
+     * Merger keeping the newest parameters but summing the given numeric positions
+     * @param indexes Parameter positions holding deltas
+     * @return the merger
+     */
+    public static BinaryOperator<Object[]> summing(int... indexes) {
+        return (older, newer) -> {
+            Object[] merged = newer.clone();
+            for (int index : indexes) {
+                merged[index] = add((Number) older[index], (Number) newer[index]);
+            }
+            return merged;
+        };
+    }
+
+    private static Number add(Number a, Number b) {
+        if (a instanceof Double || a instanceof Float || b instanceof Double || b instanceof Float) {
+            return a.doubleValue() + b.doubleValue();
+        }
+        return a.longValue() + b.longValue();
+    }
+
+    /**
+     * Get the number of pending updates
+     * @return the number of dirty keys over all channels
+     */
+    public long getPendingCount() {
+        long pending = 0;
+        for (Channel channel : channels) {
+            pending += channel.dirty.size();
+        }
+        return pending;
+    }
+
+    void start() {
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Survival-DB-WriteBehind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleWithFixedDelay(this::scheduleFlush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void stop() {
+        if (timer != null) {
+            timer.shutdownNow();
+            timer = null;
+        }
+        flush();
+    }
+
+    /**
+     * Flush every pending update and wait for it to be written
+     */
+    public void flush() {
+        flushAsync().join();
+    }
+
+    /**
+     * Drain every pending update and hand it to the database writer
+     * @return a future completed once the updates are written
+     */
+    public CompletableFuture<Void> flushAsync() {
+        List<Batch> batches = new ArrayList<>();
+        for (Channel channel : channels) {
+            Batch batch = channel.drain();
+            if (batch != null) {
+                batches.add(batch);
+            }
+        }
+        if (batches.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return database.submitWrite(() -> write(batches));
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            database.getMainThreadExecutor().execute(() -> {
+                flushScheduled.set(false);
+                flushAsync();
+            });
+        }
+    }
+
+    private void write(List<Batch> batches) {
+        boolean committed = database.inTransaction(tx -> {
+            for (Batch batch : batches) {
+                tx.executeBatch(batch.channel.sql, batch.rows);
+            }
+        });
+        if (!committed) {
+            int count = 0;
+            for (Batch batch : batches) {
+                count += batch.rows.size();
+                for (int i = 0; i < batch.keys.size(); i++) {
+                    batch.channel.requeue(batch.keys.get(i), batch.rows.get(i));
+                }
+            }
+            LOGGER.severe("Failed to flush " + count + " pending update(s), they will be retried");
+        }
+    }
+
+    /**
+     * Updates drained from a channel
+     */
+    private static final class Batch {
+        private final Channel channel;
+        private final List<Object> keys = new ArrayList<>();
+        private final List<Object[]> rows = new ArrayList<>();
+
+        private Batch(Channel channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * A coalesced update statement
+     */
+    public final class Channel {
+        private final String sql;
+        private final BinaryOperator<Object[]> merger;
+        private final Map<Object, Object[]> dirty;
+
+        private Channel(String sql, BinaryOperator<Object[]> merger) {
+            this.sql = sql;
+            this.merger = merger;
+            this.dirty = new ConcurrentHashMap<>();
+        }
+
+        /**
+         * Mark an entity dirty, merging with its pending update if there is one
+         * @param key The entity key
+         * @param params The statement parameters
+         */
+        public void enqueue(Object key, Object... params) {
+            dirty.merge(key, params, merger);
+            if (dirty.size() >= maxPending) {
+                scheduleFlush();
+            }
+        }
+
+        /**
+         * Drop the pending update of an entity, e.g. before it is deleted or overwritten directly
+         * @param key The entity key
+         * @return the dropped parameters, or null if nothing was pending
+         */
+        public Object[] discard(Object key) {
+            return dirty.remove(key);
+        }
+
+        /**
+         * Put back an update that could not be written, under any newer update made meanwhile
+         * @param key The entity key
+         * @param params The statement parameters
+         */
+        public void requeue(Object key, Object... params) {
+            dirty.merge(key, params, (newer, failed) -> merger.apply(failed, newer));
+        }
+
+        private Batch drain() {
+            if (dirty.isEmpty()) return null;
+            Batch batch = new Batch(this);
+            for (Object key : dirty.keySet()) {
+                Object[] params = dirty.remove(key);
+                if (params != null) {
+                    batch.keys.add(key);
+                    batch.rows.add(params);
+                }
+            }
+            return batch.rows.isEmpty() ? null : batch;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.alexpsvet.database.migrations;
+
+import com.alexpsvet.database.Migration;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The schema migrations of the plugin
+ */
+public final class Migrations {
+
+    private Migrations() {
+    }
+
+    /**
+     * Get every migration, new ones are appended with the next version number
+     * @return the migrations
+     */
+    public static List<Migration> all() {
+        return Arrays.asList(
+            new V1InitialSchema(),
+            new V2LookupIndexes(),
+            new V3MoneyMinorUnits(),
+            new V4JournalSequence(),
+            new V5TransactionHistoryIndexes(),
+            new V6ArchiveTotals()
+        );
+    }
+}
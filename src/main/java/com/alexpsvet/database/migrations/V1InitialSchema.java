@@ -0,0 +1,165 @@
+package com.alexpsvet.database.migrations;
+
+import com.alexpsvet.database.Migration;
+import com.alexpsvet.database.SqlDialect;
+import com.alexpsvet.database.Transaction;
+
+import java.sql.SQLException;
+
+/**
+ * Tables previously created by each manager on startup.
+ * Statements only create what is missing, so databases created before migrations existed are adopted as is.
+ */
+class V1InitialSchema extends Migration {
+
+    V1InitialSchema() {
+        super(1, "Initial schema");
+    }
+
+    @Override
+    public void apply(Transaction tx, SqlDialect dialect) throws SQLException {
+        // Economy
+        tx.executeUpdate("CREATE TABLE IF NOT EXISTS economy_players (" +
+                "uuid VARCHAR(36) PRIMARY KEY," +
+                "player_name VARCHAR(16) NOT NULL," +
+                "balance DOUBLE NOT NULL DEFAULT 0," +
+                "last_salary BIGINT NOT NULL DEFAULT 0," +
+                "total_earned DOUBLE NOT NULL DEFAULT 0," +
+                "total_spent DOUBLE NOT NULL DEFAULT 0," +
+                "created_at BIGINT NOT NULL" +
+                ")");
+        tx.executeUpdate("CREATE TABLE IF NOT EXISTS economy_transactions (" +
+                "id " + dialect.autoIncrementPrimaryKey() + "," +
+                "uuid VARCHAR(36) NOT NULL," +
+                "type VARCHAR(20) NOT NULL," +
+                "amount DOUBLE NOT NULL," +
+                "description TEXT," +
+                "timestamp BIGINT NOT NULL" +
+                ")");
+
+        // Clans
+        tx.executeUpdate("CREATE TABLE IF NOT EXISTS clans (" +
+                "name VARCHAR(16) PRIMARY KEY," +
+                "tag VARCHAR(6) NOT NULL," +
+                "leader VARCHAR(36) NOT NULL," +
+                "description TEXT," +
+                "friendly_fire BOOLEAN DEFAULT 0," +
+                "home_world VARCHAR(50)," +
+                "home_x DOUBLE," +
+                "home_y DOUBLE," +
+                "home_z DOUBLE," +
+                "home_yaw FLOAT," +
+                "home_pitch FLOAT," +
+                "created_at BIGINT NOT NULL" +
+                ")");
+        tx.executeUpdate("CREATE TABLE IF NOT EXISTS clan_members (" +
+                "clan_name VARCHAR(16) NOT NULL," +
+                "uuid VARCHAR(36) NOT NULL," +
+                "rank VARCHAR(20) NOT NULL," +
+                "joined_at BIGINT NOT NULL," +
+                "PRIMARY KEY (clan_name, uuid)" +
+                ")");
+        tx.executeUpdate("CREATE TABLE IF NOT EXISTS clan_allies (" +
+                "clan_name VARCHAR(16) NOT NULL," +
+                "ally_name VARCHAR(16) NOT NULL," +
+                "created_at BIGINT NOT NULL," +
+                "PRIMARY KEY (clan_name, ally_name)" +
+                ")");
+        tx.executeUpdate("CREATE TABLE IF NOT EXISTS clan_enemies (" +
+                "clan_name VARCHAR(16) NOT NULL," +
+                "enemy_name VARCHAR(16) NOT NULL," +
+                "created_at BIGINT NOT NULL," +
+                "PRIMARY KEY (clan_name, enemy_name)" +
+                ")");
+        tx.executeUpdate("CREATE TABLE IF NOT EXISTS clan_wars (" +
+                "id " + dialect.autoIncrementPrimaryKey() + "," +
+                "clan1_name VARCHAR(16) NOT NULL," +
+                "clan2_name VARCHAR(16) NOT NULL," +
+                "status VARCHAR(20) NOT NULL," +
+                "start_time BIGINT," +
+                "end_time BIGINT," +
+                "winner_clan VARCHAR(16)," +
+                "created_at BIGINT NOT NULL" +
+                ")");
+
+        // Auction
+        tx.executeUpdate("CREATE TABLE IF NOT EXISTS auction_listings (" +
+                "id " + dialect.autoIncrementPrimaryKey() + "," +
+                "seller_uuid VARCHAR(36) NOT NULL," +
+                "seller_name VARCHAR(16) NOT NULL," +
+                "item_data BLOB NOT NULL," +
+                "price DOUBLE NOT NULL," +
+                "listed_at BIGINT NOT NULL," +
+                "expires_at BIGINT NOT NULL," +
+                "sold BOOLEAN DEFAULT 0," +
+                "expired BOOLEAN DEFAULT 0" +
+                ")");
+
+        // Territories
+        tx.executeUpdate("CREATE TABLE IF NOT EXISTS territories (" +
+                "id " + dialect.autoIncrementPrimaryKey() + "," +
+                "owner_uuid VARCHAR(36) NOT NULL," +
+                "owner_name VARCHAR(16) NOT NULL," +
+                "clan_name VARCHAR(16)," +
+                "world VARCHAR(50) NOT NULL," +
+                "center_x INTEGER NOT NULL," +
+                "center_y INTEGER NOT NULL," +
+                "center_z INTEGER NOT NULL," +
+                "radius INTEGER NOT NULL," +
+                "created_at BIGINT NOT NULL," +
+                "flag_pvp BOOLEAN DEFAULT 0," +
+                "flag_explosions BOOLEAN DEFAULT 0," +
+                "flag_mob_spawning BOOLEAN DEFAULT 1," +
+                "flag_mob_griefing BOOLEAN DEFAULT 0," +
+                "flag_fire_spread BOOLEAN DEFAULT 0" +
+                ")");
+        tx.executeUpdate("CREATE TABLE IF NOT EXISTS territory_trusted (" +
+                "territory_id INTEGER NOT NULL," +
+                "player_uuid VARCHAR(36) NOT NULL," +
+                "PRIMARY KEY (territory_id, player_uuid)" +
+                ")");
+
+        // Players
+        tx.executeUpdate("CREATE TABLE IF NOT EXISTS player_stats (" +
+                "uuid VARCHAR(36) PRIMARY KEY," +
+                "player_name VARCHAR(16) NOT NULL," +
+                "kills INTEGER NOT NULL DEFAULT 0," +
+                "deaths INTEGER NOT NULL DEFAULT 0," +
+                "playtime BIGINT NOT NULL DEFAULT 0," +
+                "rank VARCHAR(20) NOT NULL DEFAULT 'USER'," +
+                "group_name VARCHAR(20) NOT NULL DEFAULT 'USER'," +
+                "last_join BIGINT NOT NULL," +
+                "created_at BIGINT NOT NULL" +
+                ")");
+        tx.executeUpdate("CREATE TABLE IF NOT EXISTS player_jobs (" +
+                "player_uuid VARCHAR(36) PRIMARY KEY," +
+                "job_id VARCHAR(50) NOT NULL," +
+                "level INTEGER NOT NULL DEFAULT 1," +
+                "experience DOUBLE NOT NULL DEFAULT 0," +
+                "joined_at BIGINT NOT NULL" +
+                ")");
+        tx.executeUpdate("CREATE TABLE IF NOT EXISTS homes (" +
+                "owner VARCHAR(36) NOT NULL, " +
+                "name VARCHAR(32) NOT NULL, " +
+                "world VARCHAR(64) NOT NULL, " +
+                "x DOUBLE NOT NULL, " +
+                "y DOUBLE NOT NULL, " +
+                "z DOUBLE NOT NULL, " +
+                "yaw FLOAT NOT NULL, " +
+                "pitch FLOAT NOT NULL, " +
+                "PRIMARY KEY (owner, name))");
+
+        // Bounties
+        tx.executeUpdate("CREATE TABLE IF NOT EXISTS bounties (" +
+                "id VARCHAR(36) PRIMARY KEY," +
+                "target_uuid VARCHAR(36) NOT NULL," +
+                "target_name VARCHAR(16) NOT NULL," +
+                "issuer_uuid VARCHAR(36) NOT NULL," +
+                "issuer_name VARCHAR(16) NOT NULL," +
+                "amount DOUBLE NOT NULL," +
+                "created_at BIGINT NOT NULL," +
+                "active BOOLEAN NOT NULL DEFAULT 1" +
+                ")");
+        dialect.createIndex(tx, "idx_bounties_target", "bounties", "target_uuid, active");
+    }
+}
@@ -0,0 +1,25 @@
+package com.alexpsvet.database.migrations;
+
+import com.alexpsvet.database.Migration;
+import com.alexpsvet.database.SqlDialect;
+import com.alexpsvet.database.Transaction;
+
+import java.sql.SQLException;
+
+/**
+ * Secondary indexes for lookups that scanned whole tables.
+ * territory_trusted(territory_id) and clan_members(clan_name) are not indexed separately:
+ * they are the leading column of their composite primary key, which already serves those lookups.
+ */
+class V2LookupIndexes extends Migration {
+
+    V2LookupIndexes() {
+        super(2, "Lookup indexes");
+    }
+
+    @Override
+    public void apply(Transaction tx, SqlDialect dialect) throws SQLException {
+        dialect.createIndex(tx, "idx_economy_transactions_uuid", "economy_transactions", "uuid");
+        dialect.createIndex(tx, "idx_auction_listings_active", "auction_listings", "sold, expired");
+    }
+}
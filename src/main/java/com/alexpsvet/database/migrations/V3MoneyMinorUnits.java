@@ -0,0 +1,33 @@
+package com.alexpsvet.database.migrations;
+
+import com.alexpsvet.database.Migration;
+import com.alexpsvet.database.SqlDialect;
+import com.alexpsvet.database.Transaction;
+
+import java.sql.SQLException;
+
+/**
+ * Money columns stored as integer cents instead of floating point coins.
+ * Existing amounts are multiplied by 100 and rounded to the nearest cent.
+ */
+class V3MoneyMinorUnits extends Migration {
+    private static final String CENTS = "BIGINT NOT NULL DEFAULT 0";
+
+    V3MoneyMinorUnits() {
+        super(3, "Money in cents");
+    }
+
+    @Override
+    public void apply(Transaction tx, SqlDialect dialect) throws SQLException {
+        toCents(tx, dialect, "economy_players", "balance");
+        toCents(tx, dialect, "economy_players", "total_earned");
+        toCents(tx, dialect, "economy_players", "total_spent");
+        toCents(tx, dialect, "economy_transactions", "amount");
+        toCents(tx, dialect, "auction_listings", "price");
+        toCents(tx, dialect, "bounties", "amount");
+    }
+
+    private static void toCents(Transaction tx, SqlDialect dialect, String table, String column) throws SQLException {
+        dialect.replaceColumn(tx, table, column, CENTS, "ROUND(" + column + " * 100)");
+    }
+}
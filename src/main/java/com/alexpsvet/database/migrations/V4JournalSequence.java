@@ -0,0 +1,23 @@
+package com.alexpsvet.database.migrations;
+
+import com.alexpsvet.database.Migration;
+import com.alexpsvet.database.SqlDialect;
+import com.alexpsvet.database.Transaction;
+
+import java.sql.SQLException;
+
+/**
+ * Sequence number of the economy journal entry each stored balance was written for,
+ * so a journal replay only applies the changes the database is missing
+ */
+class V4JournalSequence extends Migration {
+
+    V4JournalSequence() {
+        super(4, "Economy journal sequence");
+    }
+
+    @Override
+    public void apply(Transaction tx, SqlDialect dialect) throws SQLException {
+        dialect.addColumn(tx, "economy_players", "journal_seq", "BIGINT NOT NULL DEFAULT 0");
+    }
+}
@@ -0,0 +1,27 @@
+package com.alexpsvet.database.migrations;
+
+import com.alexpsvet.database.Migration;
+import com.alexpsvet.database.SqlDialect;
+import com.alexpsvet.database.Transaction;
+
+import java.sql.SQLException;
+
+/**
+ * Composite indexes for browsing the transaction history page by page, newest first.
+ * (uuid, timestamp, id) serves the unfiltered pages and date ranges,
+ * (uuid, type, timestamp, id) the pages of a single type.
+ * The uuid index is the prefix of both and is dropped.
+ */
+class V5TransactionHistoryIndexes extends Migration {
+
+    V5TransactionHistoryIndexes() {
+        super(5, "Transaction history indexes");
+    }
+
+    @Override
+    public void apply(Transaction tx, SqlDialect dialect) throws SQLException {
+        dialect.createIndex(tx, "idx_economy_transactions_history", "economy_transactions", "uuid, timestamp, id");
+        dialect.createIndex(tx, "idx_economy_transactions_type", "economy_transactions", "uuid, type, timestamp, id");
+        dialect.dropIndex(tx, "idx_economy_transactions_uuid", "economy_transactions");
+    }
+}
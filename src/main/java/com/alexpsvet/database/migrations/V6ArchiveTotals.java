@@ -0,0 +1,28 @@
+package com.alexpsvet.database.migrations;
+
+import com.alexpsvet.database.Migration;
+import com.alexpsvet.database.SqlDialect;
+import com.alexpsvet.database.Transaction;
+
+import java.sql.SQLException;
+
+/**
+ * Per-player sums of the transactions moved out of economy_transactions by the archiver
+ */
+class V6ArchiveTotals extends Migration {
+
+    V6ArchiveTotals() {
+        super(6, "Archived transaction totals");
+    }
+
+    @Override
+    public void apply(Transaction tx, SqlDialect dialect) throws SQLException {
+        tx.executeUpdate("CREATE TABLE IF NOT EXISTS economy_archive_totals (" +
+                "uuid VARCHAR(36) PRIMARY KEY," +
+                "earned BIGINT NOT NULL DEFAULT 0," +
+                "spent BIGINT NOT NULL DEFAULT 0," +
+                "transactions BIGINT NOT NULL DEFAULT 0," +
+                "archived_until BIGINT NOT NULL DEFAULT 0" +
+                ")");
+    }
+}
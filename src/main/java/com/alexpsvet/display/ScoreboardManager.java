@@ -4,6 +4,7 @@ import com.alexpsvet.Survival;
 import com.alexpsvet.clan.Clan;
 import com.alexpsvet.clan.ClanManager;
 import com.alexpsvet.economy.EconomyManager;
+import com.alexpsvet.economy.Money;
 import com.alexpsvet.player.PlayerStats;
 import com.alexpsvet.player.PlayerStatsManager;
 import com.alexpsvet.utils.MessageUtil;
@@ -59,13 +60,15 @@ public class ScoreboardManager {
             setScore(objective, MessageUtil.colorize("&eRang: " + rankDisplay), line--);
         }
         
-        setScore(objective, MessageUtil.colorize("&r"), line--);
-        
-        // Economy
+        // Economy, kept next to the rank so the sidebar stays within 15 lines
         EconomyManager eco = Survival.getInstance().getEconomyManager();
-        double balance = eco.getBalance(player.getUniqueId());
+        long balance = eco.getBalance(player.getUniqueId());
         String currency = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
-        setScore(objective, MessageUtil.colorize("&6Argent: &e" + String.format("%.0f", balance) + " " + currency), line--);
+        setScore(objective, MessageUtil.colorize("&6Argent: &e" + Money.formatWhole(balance) + " " + currency), line--);
+        int wealthRank = eco.getRanking().getRank(player.getUniqueId());
+        if (wealthRank > 0) {
+            setScore(objective, MessageUtil.colorize("&bClassement: &f#" + wealthRank), line--);
+        }
         
         setScore(objective, MessageUtil.colorize(" &r"), line--);
         
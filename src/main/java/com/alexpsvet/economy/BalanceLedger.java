@@ -0,0 +1,340 @@
+package com.alexpsvet.economy;
+
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Thread-safe in-memory ledger of player balances, in cents.
+ * Balances are split over striped segments, each an open-addressing table of primitive
+ * UUID halves and long balances, so the hot read path allocates nothing.
+ * Reads are optimistic and never block, writes to one segment are serialized by its lock,
+ * and a debit only happens if the balance still covers it when the lock is held,
+ * so two concurrent purchases cannot spend the same money twice.
+ */
+class BalanceLedger {
+    /**
+     * Returned by {@link #get(UUID)} for a balance that is not cached
+     */
+    static final long MISSING = Long.MIN_VALUE;
+
+    private static final int STRIPES = 64;
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Notified of every balance change while the lock of the balance is still held,
+     * so changes of one player are seen in the order they were applied
+     */
+    @FunctionalInterface
+    interface Listener {
+        /**
+         * @param uuid The player's UUID
+         * @param balance The new balance
+         * @param earned The amount added by the change
+         * @param spent The amount removed by the change
+         */
+        void changed(UUID uuid, long balance, long earned, long spent);
+    }
+
+    /**
+     * Notified of a transfer while the locks of both balances are still held
+     */
+    @FunctionalInterface
+    interface TransferListener {
+        /**
+         * @param fromBalance The new balance of the sender
+         * @param toBalance The new balance of the receiver
+         */
+        void transferred(long fromBalance, long toBalance);
+    }
+
+    private final Segment[] segments;
+
+    BalanceLedger() {
+        this.segments = new Segment[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Get a cached balance, without blocking
+     * @param uuid The player's UUID
+     * @return the balance, or {@link #MISSING} if it is not cached
+     */
+    long get(UUID uuid) {
+        return segment(uuid).get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Cache a balance read from the database, unless a newer one is already cached
+     * @param uuid The player's UUID
+     * @param balance The stored balance
+     * @return the cached balance
+     */
+    long cache(UUID uuid, long balance) {
+        Segment segment = segment(uuid);
+        long stamp = segment.lock.writeLock();
+        try {
+            long cached = segment.find(uuid);
+            if (cached != MISSING) {
+                return cached;
+            }
+            segment.put(uuid, balance);
+            return balance;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Overwrite a balance
+     * @param uuid The player's UUID
+     * @param balance The new balance
+     * @param whileLocked Run once the balance is set, before its lock is released, may be null
+     */
+    void set(UUID uuid, long balance, Runnable whileLocked) {
+        Segment segment = segment(uuid);
+        long stamp = segment.lock.writeLock();
+        try {
+            segment.put(uuid, balance);
+            if (whileLocked != null) {
+                whileLocked.run();
+            }
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Add money to a balance, an uncached balance counts as 0
+     * @param uuid The player's UUID
+     * @param amount The amount to add
+     * @param listener Notified of the change, may be null
+     * @return the new balance
+     */
+    long credit(UUID uuid, long amount, Listener listener) {
+        Segment segment = segment(uuid);
+        long stamp = segment.lock.writeLock();
+        try {
+            long balance = segment.getOrZero(uuid) + amount;
+            segment.put(uuid, balance);
+            if (listener != null) {
+                listener.changed(uuid, balance, amount, 0L);
+            }
+            return balance;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove money from a balance if it covers the amount
+     * @param uuid The player's UUID
+     * @param amount The amount to remove
+     * @param listener Notified of the change, may be null
+     * @return true if the money was removed
+     */
+    boolean debit(UUID uuid, long amount, Listener listener) {
+        Segment segment = segment(uuid);
+        long stamp = segment.lock.writeLock();
+        try {
+            long current = segment.getOrZero(uuid);
+            if (current < amount) {
+                return false;
+            }
+            long balance = current - amount;
+            segment.put(uuid, balance);
+            if (listener != null) {
+                listener.changed(uuid, balance, 0L, amount);
+            }
+            return true;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Move money between two balances if the sender's balance covers the amount.
+     * Both locks are taken in segment order, so opposite transfers cannot deadlock.
+     * @param from The sender's UUID
+     * @param to The receiver's UUID
+     * @param amount The amount to move
+     * @param listener Notified of the transfer, may be null
+     * @return true if the money was moved
+     */
+    boolean transfer(UUID from, UUID to, long amount, TransferListener listener) {
+        int fromIndex = index(from);
+        int toIndex = index(to);
+        Segment first = segments[Math.min(fromIndex, toIndex)];
+        Segment second = segments[Math.max(fromIndex, toIndex)];
+        long firstStamp = first.lock.writeLock();
+        // The locks are not reentrant, a segment holding both balances is only locked once
+        long secondStamp = second != first ? second.lock.writeLock() : 0L;
+        try {
+            Segment fromSegment = segments[fromIndex];
+            Segment toSegment = segments[toIndex];
+            long fromCurrent = fromSegment.getOrZero(from);
+            if (fromCurrent < amount) {
+                return false;
+            }
+            long fromBalance = fromCurrent - amount;
+            fromSegment.put(from, fromBalance);
+            long toBalance = toSegment.getOrZero(to) + amount;
+            toSegment.put(to, toBalance);
+            if (listener != null) {
+                listener.transferred(fromBalance, toBalance);
+            }
+            return true;
+        } finally {
+            if (second != first) {
+                second.lock.unlockWrite(secondStamp);
+            }
+            first.lock.unlockWrite(firstStamp);
+        }
+    }
+
+    /**
+     * Drop every cached balance
+     */
+    void clear() {
+        for (Segment segment : segments) {
+            long stamp = segment.lock.writeLock();
+            try {
+                segment.table = new Table(INITIAL_CAPACITY);
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    private Segment segment(UUID uuid) {
+        return segments[index(uuid)];
+    }
+
+    /**
+     * The top bits of the hash pick the segment, the low bits the slot in its table
+     */
+    private static int index(UUID uuid) {
+        return hash(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()) >>> 26;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Open-addressing table, replaced as a whole when it grows
+     */
+    private static final class Table {
+        private final long[] msb;
+        private final long[] lsb;
+        private final long[] balances;
+        private final boolean[] used;
+        private int size;
+
+        private Table(int capacity) {
+            this.msb = new long[capacity];
+            this.lsb = new long[capacity];
+            this.balances = new long[capacity];
+            this.used = new boolean[capacity];
+        }
+
+        /**
+         * @return the slot of the key, the free slot it would take, or -1 if none was found
+         */
+        private int slot(long keyMsb, long keyLsb) {
+            int mask = used.length - 1;
+            int slot = hash(keyMsb, keyLsb) & mask;
+            // Bounded so a read racing a writer cannot loop forever, such a read is retried under the lock
+            for (int probes = 0; probes <= mask; probes++) {
+                if (!used[slot] || (msb[slot] == keyMsb && lsb[slot] == keyLsb)) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * One stripe of the ledger
+     */
+    private static final class Segment {
+        private final StampedLock lock = new StampedLock();
+        private volatile Table table = new Table(INITIAL_CAPACITY);
+
+        private long get(long keyMsb, long keyLsb) {
+            long stamp = lock.tryOptimisticRead();
+            long balance = read(table, keyMsb, keyLsb);
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    balance = read(table, keyMsb, keyLsb);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return balance;
+        }
+
+        private static long read(Table table, long keyMsb, long keyLsb) {
+            int slot = table.slot(keyMsb, keyLsb);
+            return slot >= 0 && table.used[slot] ? table.balances[slot] : MISSING;
+        }
+
+        /**
+         * Must be called with the write lock held
+         */
+        private long find(UUID uuid) {
+            return read(table, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        }
+
+        /**
+         * Must be called with the write lock held
+         */
+        private long getOrZero(UUID uuid) {
+            long balance = find(uuid);
+            return balance != MISSING ? balance : 0L;
+        }
+
+        /**
+         * Must be called with the write lock held
+         */
+        private void put(UUID uuid, long balance) {
+            long keyMsb = uuid.getMostSignificantBits();
+            long keyLsb = uuid.getLeastSignificantBits();
+            Table current = table;
+            int slot = current.slot(keyMsb, keyLsb);
+            if (slot >= 0 && current.used[slot]) {
+                current.balances[slot] = balance;
+                return;
+            }
+            // Keep the load factor at most 1/2 so probe sequences stay short
+            if ((current.size + 1) * 2 > current.used.length) {
+                current = grow(current);
+                table = current;
+                slot = current.slot(keyMsb, keyLsb);
+            }
+            current.msb[slot] = keyMsb;
+            current.lsb[slot] = keyLsb;
+            current.balances[slot] = balance;
+            current.used[slot] = true;
+            current.size++;
+        }
+
+        private static Table grow(Table old) {
+            Table grown = new Table(old.used.length * 2);
+            for (int i = 0; i < old.used.length; i++) {
+                if (!old.used[i]) continue;
+                int slot = grown.slot(old.msb[i], old.lsb[i]);
+                grown.msb[slot] = old.msb[i];
+                grown.lsb[slot] = old.lsb[i];
+                grown.balances[slot] = old.balances[i];
+                grown.used[slot] = true;
+            }
+            grown.size = old.size;
+            return grown;
+        }
+    }
+}
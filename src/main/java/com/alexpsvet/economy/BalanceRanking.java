@@ -0,0 +1,256 @@
+package com.alexpsvet.economy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Players ordered by balance, richest first, for the balance leaderboard.
+ * The order is kept in a treap whose nodes count their subtree, so a player's rank
+ * and the start of a page are found in O(log n) and a page of k players is read in O(k).
+ * It is seeded once from the database and updated on every balance change, from any thread.
+ */
+public class BalanceRanking {
+
+    /**
+     * A ranked player
+     */
+    public static final class Entry {
+        private final int rank;
+        private final UUID uuid;
+        private final String playerName;
+        private final long balance;
+
+        private Entry(int rank, UUID uuid, String playerName, long balance) {
+            this.rank = rank;
+            this.uuid = uuid;
+            this.playerName = playerName;
+            this.balance = balance;
+        }
+
+        public int getRank() { return rank; }
+        public UUID getUuid() { return uuid; }
+        public String getPlayerName() { return playerName; }
+        public long getBalance() { return balance; }
+    }
+
+    private final Map<UUID, Node> nodes;
+    private final Map<UUID, String> names;
+    private Node root;
+
+    public BalanceRanking() {
+        this.nodes = new HashMap<>();
+        this.names = new HashMap<>();
+    }
+
+    /**
+     * Add players read from the database, keeping the balances already ranked since they are newer
+     * @param uuid The player's UUID
+     * @param playerName The player's name, may be null
+     * @param balance The stored balance in cents
+     */
+    public synchronized void seed(UUID uuid, String playerName, long balance) {
+        if (playerName != null) {
+            names.putIfAbsent(uuid, playerName);
+        }
+        if (!nodes.containsKey(uuid)) {
+            insert(uuid, balance);
+        }
+    }
+
+    /**
+     * Move a player to the position of a new balance
+     * @param uuid The player's UUID
+     * @param balance The new balance in cents
+     */
+    public synchronized void update(UUID uuid, long balance) {
+        Node node = nodes.get(uuid);
+        if (node != null) {
+            if (node.balance == balance) return;
+            root = remove(root, node);
+        }
+        insert(uuid, balance);
+    }
+
+    /**
+     * Remember the name shown for a player
+     * @param uuid The player's UUID
+     * @param playerName The player's name
+     */
+    public synchronized void setName(UUID uuid, String playerName) {
+        names.put(uuid, playerName);
+    }
+
+    /**
+     * Get the rank of a player
+     * @param uuid The player's UUID
+     * @return the rank starting at 1, or -1 if the player is not ranked
+     */
+    public synchronized int getRank(UUID uuid) {
+        Node target = nodes.get(uuid);
+        if (target == null) {
+            return -1;
+        }
+        int before = 0;
+        Node node = root;
+        while (node != target) {
+            if (compare(target, node) < 0) {
+                node = node.left;
+            } else {
+                before += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return before + size(node.left) + 1;
+    }
+
+    /**
+     * Get a page of the leaderboard
+     * @param offset Number of players skipped from the top
+     * @param count Maximum number of players returned
+     * @return the players, richest first
+     */
+    public synchronized List<Entry> getPage(int offset, int count) {
+        if (offset < 0 || count <= 0 || offset >= size(root)) {
+            return Collections.emptyList();
+        }
+        List<Entry> page = new ArrayList<>(Math.min(count, size(root) - offset));
+        collect(root, offset, offset + count, 0, page);
+        return page;
+    }
+
+    /**
+     * Get the number of ranked players
+     * @return the number of players
+     */
+    public synchronized int size() {
+        return size(root);
+    }
+
+    /**
+     * Add the entries ranked in [from, to) of a subtree whose first entry has index start
+     */
+    private void collect(Node node, int from, int to, int start, List<Entry> page) {
+        if (node == null || start >= to || start + node.size <= from) {
+            return;
+        }
+        collect(node.left, from, to, start, page);
+        int index = start + size(node.left);
+        if (index >= from && index < to) {
+            page.add(new Entry(index + 1, node.uuid, names.get(node.uuid), node.balance));
+        }
+        collect(node.right, from, to, index + 1, page);
+    }
+
+    private void insert(UUID uuid, long balance) {
+        Node node = new Node(uuid, balance);
+        nodes.put(uuid, node);
+        root = insert(root, node);
+    }
+
+    private static Node insert(Node parent, Node node) {
+        if (parent == null) {
+            return node;
+        }
+        if (node.priority > parent.priority) {
+            Node[] halves = split(parent, node);
+            node.left = halves[0];
+            node.right = halves[1];
+            return node.resize();
+        }
+        if (compare(node, parent) < 0) {
+            parent.left = insert(parent.left, node);
+        } else {
+            parent.right = insert(parent.right, node);
+        }
+        return parent.resize();
+    }
+
+    /**
+     * Split a subtree into the nodes ranked before the key and the nodes ranked after it
+     */
+    private static Node[] split(Node parent, Node key) {
+        if (parent == null) {
+            return new Node[2];
+        }
+        if (compare(parent, key) < 0) {
+            Node[] halves = split(parent.right, key);
+            parent.right = halves[0];
+            halves[0] = parent.resize();
+            return halves;
+        }
+        Node[] halves = split(parent.left, key);
+        parent.left = halves[1];
+        halves[1] = parent.resize();
+        return halves;
+    }
+
+    private Node remove(Node parent, Node node) {
+        if (parent == node) {
+            nodes.remove(node.uuid);
+            return merge(node.left, node.right);
+        }
+        if (compare(node, parent) < 0) {
+            parent.left = remove(parent.left, node);
+        } else {
+            parent.right = remove(parent.right, node);
+        }
+        return parent.resize();
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return left.resize();
+        }
+        right.left = merge(left, right.left);
+        return right.resize();
+    }
+
+    /**
+     * Richest first, ties broken by UUID so every player has one position
+     */
+    private static int compare(Node a, Node b) {
+        if (a.balance != b.balance) {
+            return a.balance > b.balance ? -1 : 1;
+        }
+        if (a.msb != b.msb) {
+            return Long.compare(a.msb, b.msb);
+        }
+        return Long.compare(a.lsb, b.lsb);
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static final class Node {
+        private final UUID uuid;
+        private final long msb;
+        private final long lsb;
+        private final long balance;
+        private final int priority;
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        private Node(UUID uuid, long balance) {
+            this.uuid = uuid;
+            this.msb = uuid.getMostSignificantBits();
+            this.lsb = uuid.getLeastSignificantBits();
+            this.balance = balance;
+            this.priority = ThreadLocalRandom.current().nextInt();
+        }
+
+        private Node resize() {
+            size = size(left) + size(right) + 1;
+            return this;
+        }
+    }
+}
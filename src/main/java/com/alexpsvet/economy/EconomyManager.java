@@ -2,107 +2,274 @@ package com.alexpsvet.economy;
 
 import com.alexpsvet.Survival;
 import com.alexpsvet.database.Database;
+import com.alexpsvet.database.TransactionCallback;
+import com.alexpsvet.database.WriteBehindQueue;
+import com.alexpsvet.economy.history.TransactionArchiver;
+import com.alexpsvet.economy.history.TransactionHistory;
+import com.alexpsvet.economy.journal.DatabaseJournalSink;
+import com.alexpsvet.economy.journal.FileJournalSink;
+import com.alexpsvet.economy.journal.JournalReader;
+import com.alexpsvet.economy.journal.JournalReplayer;
+import com.alexpsvet.economy.journal.TransactionJournal;
+import org.bukkit.configuration.file.FileConfiguration;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Economy manager for player balances
+ * Economy manager for player balances.
+ * Balances are kept in a {@link BalanceLedger}, so they can be read and changed from any thread.
+ * Every change is numbered by the {@link TransactionJournal}, which also keeps the transaction history,
+ * and moves the player in the {@link BalanceRanking} of the leaderboard.
  */
 public class EconomyManager {
     private static final Logger LOGGER = Logger.getLogger("survival");
+    private static final String BALANCE_UPDATE =
+        "UPDATE economy_players SET balance = ?, total_earned = total_earned + ?, total_spent = total_spent + ?, journal_seq = ? WHERE uuid = ?";
+    private static final String SALARY_UPDATE = "UPDATE economy_players SET last_salary = ? WHERE uuid = ?";
+    private static final long RETRY_DELAY_TICKS = 100L;
     private static EconomyManager instance;
     private final Database database;
-    private final Map<UUID, Double> balanceCache;
-    private final double startingBalance;
+    private final BalanceLedger ledger;
+    private final BalanceRanking ranking;
+    private final TransactionHistory history;
+    private final TransactionArchiver archiver;
+    private final WriteBehindQueue.Channel balanceWrites;
+    private final WriteBehindQueue.Channel salaryWrites;
+    private final SalaryClock salaries;
+    private final Set<UUID> accounts;
+    private final Set<TransactionCallback> failedWrites; // Statements of failed transfers, retried until written
+    private final TransactionJournal journal;
+    private final File journalDirectory;
+    private final FileJournalSink fileJournal;
+    private final long startingBalance;
     
     public EconomyManager(Database database) {
         instance = this;
         this.database = database;
-        this.balanceCache = new HashMap<>();
-        this.startingBalance = Survival.getInstance().getConfig().getDouble("economy.starting-balance", 1000.0);
-        createTables();
+        this.ledger = new BalanceLedger();
+        this.ranking = new BalanceRanking();
+        this.history = new TransactionHistory(database);
+        // Balance is written as the cached value, earned/spent as deltas summed between flushes
+        this.balanceWrites = database.getWriteBehindQueue().register(BALANCE_UPDATE, WriteBehindQueue.summing(1, 2));
+        // Only used to retry salary timestamps whose batch failed
+        this.salaryWrites = database.getWriteBehindQueue().register(SALARY_UPDATE, WriteBehindQueue.lastWriteWins());
+        this.salaries = new SalaryClock();
+        this.accounts = ConcurrentHashMap.newKeySet();
+        this.failedWrites = ConcurrentHashMap.newKeySet();
+        this.startingBalance = Money.of(Survival.getInstance().getConfig().getDouble("economy.starting-balance", 1000.0));
+        
+        FileConfiguration config = Survival.getInstance().getConfig();
+        this.journal = new TransactionJournal();
+        this.journal.setFlushSettings(
+            config.getLong("economy.journal.flush-interval-ms", 1000L),
+            config.getInt("economy.journal.max-pending", 5000)
+        );
+        if (config.getBoolean("economy.journal.database", true)) {
+            journal.addSink(new DatabaseJournalSink(database));
+        }
+        this.journalDirectory = new File(Survival.getInstance().getDataFolder(), "journal");
+        if (config.getBoolean("economy.journal.file.enabled", false)) {
+            this.fileJournal = new FileJournalSink(journalDirectory,
+                config.getInt("economy.journal.file.segment-size-mb", 16) * 1024 * 1024,
+                config.getBoolean("economy.journal.file.sync", false));
+            journal.addSink(fileJournal);
+        } else {
+            this.fileJournal = null;
+        }
+        
+        if (config.getBoolean("economy.archive.enabled", true)) {
+            TransactionArchiver.Mode mode = "files".equalsIgnoreCase(config.getString("economy.archive.mode", "tables"))
+                ? TransactionArchiver.Mode.FILES : TransactionArchiver.Mode.TABLES;
+            this.archiver = new TransactionArchiver(database, new File(Survival.getInstance().getDataFolder(), "archive"));
+            this.archiver.setSettings(mode,
+                config.getInt("economy.archive.max-age-days", 90),
+                config.getInt("economy.archive.chunk-size", 500),
+                config.getLong("economy.archive.chunk-pause-ms", 200L));
+        } else {
+            this.archiver = null;
+        }
     }
     
     /**
-     * Create the economy tables
+     * Open the journal, replaying the balances a crash kept from the database, runs off the main thread
+     * @return nothing to publish
+     * @throws IOException if the journal files cannot be opened
      */
-    private void createTables() {
-        String query = "CREATE TABLE IF NOT EXISTS economy_players (" +
-                "uuid VARCHAR(36) PRIMARY KEY," +
-                "player_name VARCHAR(16) NOT NULL," +
-                "balance DOUBLE NOT NULL DEFAULT 0," +
-                "last_salary BIGINT NOT NULL DEFAULT 0," +
-                "total_earned DOUBLE NOT NULL DEFAULT 0," +
-                "total_spent DOUBLE NOT NULL DEFAULT 0," +
-                "created_at BIGINT NOT NULL" +
-                ")";
-        database.executeUpdate(query);
-        
-        String transactionsQuery = "CREATE TABLE IF NOT EXISTS economy_transactions (" +
-                "id INTEGER PRIMARY KEY " + (database.getType().name().equals("SQLITE") ? "AUTOINCREMENT" : "AUTO_INCREMENT") + "," +
-                "uuid VARCHAR(36) NOT NULL," +
-                "type VARCHAR(20) NOT NULL," +
-                "amount DOUBLE NOT NULL," +
-                "description TEXT," +
-                "timestamp BIGINT NOT NULL" +
-                ")";
-        database.executeUpdate(transactionsQuery);
-        
-        LOGGER.info("Economy tables created/verified");
+    public Runnable openJournal() throws IOException {
+        Long stored = database.queryOne("SELECT MAX(journal_seq) AS seq FROM economy_players", rs -> rs.getLong("seq"));
+        long lastSequence = stored != null ? stored : 0L;
+        if (fileJournal != null) {
+            lastSequence = Math.max(lastSequence, fileJournal.open());
+            long checkpoint = readCheckpoint();
+            if (new JournalReplayer(database, new JournalReader(journalDirectory)).replay(checkpoint) < 0) {
+                throw new IOException("Failed to replay the economy journal");
+            }
+            lastSequence = Math.max(lastSequence, checkpoint);
+        }
+        journal.start(lastSequence);
+        return null;
+    }
+    
+    /**
+     * Seed the balance leaderboard with every stored account, runs off the main thread
+     * @return nothing to publish, the ranking is thread-safe
+     */
+    public Runnable loadRanking() {
+        List<Object[]> rows = database.query("SELECT uuid, player_name, balance FROM economy_players", rs -> new Object[] {
+            UUID.fromString(rs.getString("uuid")), rs.getString("player_name"), rs.getLong("balance")
+        });
+        for (Object[] row : rows) {
+            ranking.seed((UUID) row[0], (String) row[1], (Long) row[2]);
+        }
+        LOGGER.info("Ranked " + rows.size() + " economy accounts");
+        return null;
+    }
+    
+    /**
+     * Write the pending journal entries and close the journal.
+     * Once every balance is stored, a checkpoint lets the next start skip replaying the journal,
+     * and the segments holding only entries before it are deleted.
+     */
+    public void closeJournal() {
+        // Last attempt for the statements of failed transfers, their scheduled retries will not run anymore
+        for (TransactionCallback write : failedWrites) {
+            if (database.writeAsync(() -> database.inTransaction(write)).join()) {
+                failedWrites.remove(write);
+            }
+        }
+        if (!failedWrites.isEmpty()) {
+            LOGGER.severe(failedWrites.size() + " failed transfer write(s) could not be retried before shutdown");
+        }
+        journal.close();
+        if (fileJournal == null) {
+            return;
+        }
+        database.getWriteBehindQueue().flush();
+        // The writer runs tasks in order, so every balance write submitted before this one is done
+        database.writeAsync(() -> null).join();
+        long sequence = journal.getSequence();
+        if (database.getWriteBehindQueue().getPendingCount() == 0 && writeCheckpoint(sequence)) {
+            int deleted = fileJournal.deleteSegmentsThrough(sequence);
+            if (deleted > 0) {
+                LOGGER.info("Deleted " + deleted + " economy journal segment(s) before the checkpoint");
+            }
+        }
+    }
+    
+    /**
+     * Start moving old transactions out of the history table, if enabled
+     */
+    public void startArchiver() {
+        if (archiver != null) {
+            archiver.start(Survival.getInstance().getConfig().getLong("economy.archive.interval-minutes", 60L) * 60000L);
+        }
+    }
+    
+    /**
+     * Stop the archiver, letting the chunk in progress finish
+     */
+    public void closeArchiver() {
+        if (archiver != null) {
+            archiver.close();
+        }
+    }
+    
+    private long readCheckpoint() {
+        File file = new File(journalDirectory, "checkpoint");
+        if (!file.exists()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).trim());
+        } catch (IOException | NumberFormatException e) {
+            LOGGER.log(Level.WARNING, "Ignoring unreadable economy journal checkpoint", e);
+            return 0L;
+        }
+    }
+    
+    /**
+     * @return true if the checkpoint was written
+     */
+    private boolean writeCheckpoint(long sequence) {
+        List<String> lines = Collections.singletonList(Long.toString(sequence));
+        try {
+            Files.write(new File(journalDirectory, "checkpoint").toPath(), lines, StandardCharsets.UTF_8);
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to write the economy journal checkpoint", e);
+            return false;
+        }
     }
     
     /**
      * Get a player's balance
      * @param uuid The player's UUID
-     * @return The balance
+     * @return The balance in cents
      */
-    public double getBalance(UUID uuid) {
-        if (balanceCache.containsKey(uuid)) {
-            return balanceCache.get(uuid);
+    public long getBalance(UUID uuid) {
+        long cached = ledger.get(uuid);
+        if (cached != BalanceLedger.MISSING) {
+            return cached;
         }
         
-        ResultSet rs = database.executeQuery("SELECT balance FROM economy_players WHERE uuid = ?", uuid.toString());
-        try {
-            if (rs != null && rs.next()) {
-                double balance = rs.getDouble("balance");
-                balanceCache.put(uuid, balance);
-                rs.close();
-                return balance;
-            }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Failed to get balance for " + uuid, e);
+        Long balance = database.queryOne("SELECT balance FROM economy_players WHERE uuid = ?",
+            rs -> rs.getLong("balance"), uuid.toString());
+        if (balance != null) {
+            return ledger.cache(uuid, balance);
         }
         
-        return 0.0;
+        return 0L;
     }
     
     /**
      * Set a player's balance
      * @param uuid The player's UUID
      * @param playerName The player's name
-     * @param balance The new balance
+     * @param balance The new balance in cents
      */
-    public void setBalance(UUID uuid, String playerName, double balance) {
-        balanceCache.put(uuid, balance);
-        
-        int result = database.executeUpdate(
-            "UPDATE economy_players SET balance = ? WHERE uuid = ?",
-            balance, uuid.toString()
-        );
+    public void setBalance(UUID uuid, String playerName, long balance) {
+        ledger.set(uuid, balance, () -> writeBalance(uuid, playerName, balance));
+    }
+    
+    /**
+     * Write a balance directly, called while the ledger lock of the player is held
+     * so the write is submitted in the same order as the balance changes
+     */
+    private void writeBalance(UUID uuid, String playerName, long balance) {
+        // Overwrite any pending balance update, keeping its earned/spent totals
+        Object[] pending = balanceWrites.discard(uuid);
+        long earned = pending != null ? ((Number) pending[1]).longValue() : 0L;
+        long spent = pending != null ? ((Number) pending[2]).longValue() : 0L;
+        long sequence = journal.recordBalance(uuid, balance, 0L, 0L);
+        ranking.setName(uuid, playerName);
+        ranking.update(uuid, balance);
         
-        if (result == 0) {
-            // Player doesn't exist, create entry
-            database.executeUpdate(
-                "INSERT INTO economy_players (uuid, player_name, balance, created_at) VALUES (?, ?, ?, ?)",
-                uuid.toString(), playerName, balance, System.currentTimeMillis()
+        // Runs on the database writer so it stays ordered with other writes
+        database.supplyWriteAsync(() -> {
+            int result = database.executeUpdate(
+                BALANCE_UPDATE, balance, earned, spent, sequence, uuid.toString()
             );
-        }
+            
+            if (result == 0) {
+                // Player doesn't exist, create entry
+                database.executeUpdate(
+                    "INSERT INTO economy_players (uuid, player_name, balance, journal_seq, created_at) VALUES (?, ?, ?, ?, ?)",
+                    uuid.toString(), playerName, balance, sequence, System.currentTimeMillis()
+                );
+            }
+            return result;
+        });
     }
     
     /**
@@ -112,98 +279,224 @@ public class EconomyManager {
      */
     public void createAccount(UUID uuid, String playerName) {
         if (!hasAccount(uuid)) {
-            setBalance(uuid, playerName, startingBalance);
-            addTransaction(uuid, TransactionType.STARTING_BALANCE, startingBalance, "Starting balance");
-            LOGGER.info("Created economy account for " + playerName);
+            openAccount(uuid, playerName);
         }
     }
     
+    private void openAccount(UUID uuid, String playerName) {
+        setBalance(uuid, playerName, startingBalance);
+        addTransaction(uuid, TransactionType.STARTING_BALANCE, startingBalance, "Starting balance");
+        accounts.add(uuid);
+        LOGGER.info("Created economy account for " + playerName);
+    }
+    
     /**
-     * Check if a player has an account
+     * Check if a player has an account, only querying the database for players not seen yet
      * @param uuid The player's UUID
      * @return true if the player has an account
      */
     public boolean hasAccount(UUID uuid) {
-        ResultSet rs = database.executeQuery("SELECT uuid FROM economy_players WHERE uuid = ?", uuid.toString());
-        try {
-            if (rs != null && rs.next()) {
-                rs.close();
-                return true;
-            }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Failed to check account for " + uuid, e);
+        if (accounts.contains(uuid)) {
+            return true;
         }
-        return false;
+        boolean exists = database.queryOne("SELECT uuid FROM economy_players WHERE uuid = ?",
+            rs -> Boolean.TRUE, uuid.toString()) != null;
+        if (exists) {
+            accounts.add(uuid);
+        }
+        return exists;
     }
     
     /**
      * Add money to a player's balance
      * @param uuid The player's UUID
-     * @param amount The amount to add
+     * @param amount The amount to add in cents
      */
-    public void addBalance(UUID uuid, double amount) {
-        double current = getBalance(uuid);
-        double newBalance = current + amount;
-        balanceCache.put(uuid, newBalance);
-        
-        database.executeUpdate(
-            "UPDATE economy_players SET balance = balance + ?, total_earned = total_earned + ? WHERE uuid = ?",
-            amount, amount, uuid.toString()
-        );
+    public void addBalance(UUID uuid, long amount) {
+        getBalance(uuid); // make sure the stored balance is cached
+        ledger.credit(uuid, amount, this::enqueueBalance);
     }
     
     /**
      * Remove money from a player's balance
      * @param uuid The player's UUID
-     * @param amount The amount to remove
-     * @return true if successful (player had enough money)
+     * @param amount The amount to remove in cents
+     * @return true if successful (player had enough money), checked and debited atomically
      */
-    public boolean removeBalance(UUID uuid, double amount) {
-        double current = getBalance(uuid);
-        if (current < amount) {
-            return false;
-        }
-        
-        double newBalance = current - amount;
-        balanceCache.put(uuid, newBalance);
-        
-        database.executeUpdate(
-            "UPDATE economy_players SET balance = balance - ?, total_spent = total_spent + ? WHERE uuid = ?",
-            amount, amount, uuid.toString()
-        );
-        
-        return true;
+    public boolean removeBalance(UUID uuid, long amount) {
+        getBalance(uuid); // make sure the stored balance is cached
+        return ledger.debit(uuid, amount, this::enqueueBalance);
+    }
+    
+    /**
+     * Journal a balance change and queue it for the next write-behind flush,
+     * called while the ledger lock of the player is held
+     */
+    private void enqueueBalance(UUID uuid, long balance, long earned, long spent) {
+        long sequence = journal.recordBalance(uuid, balance, earned, spent);
+        ranking.update(uuid, balance);
+        balanceWrites.enqueue(uuid, balance, earned, spent, sequence, uuid.toString());
     }
     
     /**
      * Transfer money from one player to another
      * @param from The sender's UUID
      * @param to The receiver's UUID
-     * @param amount The amount to transfer
+     * @param amount The amount to transfer in cents
      * @return true if successful
      */
-    public boolean transfer(UUID from, UUID to, double amount) {
-        if (removeBalance(from, amount)) {
-            addBalance(to, amount);
-            addTransaction(from, TransactionType.TRANSFER_SEND, -amount, "Transfer to " + to);
-            addTransaction(to, TransactionType.TRANSFER_RECEIVE, amount, "Transfer from " + from);
-            return true;
+    public boolean transfer(UUID from, UUID to, long amount) {
+        return transfer(from, to, amount,
+            TransactionType.TRANSFER_SEND, "Transfer to " + to,
+            TransactionType.TRANSFER_RECEIVE, "Transfer from " + from,
+            null);
+    }
+    
+    /**
+     * Transfer money from one player to another, persisting both balances
+     * and any extra statements in a single database transaction
+     * @param from The sender's UUID
+     * @param to The receiver's UUID
+     * @param amount The amount to transfer in cents
+     * @param sendType The transaction type recorded for the sender
+     * @param sendDescription The description recorded for the sender
+     * @param receiveType The transaction type recorded for the receiver
+     * @param receiveDescription The description recorded for the receiver
+     * @param extra Extra statements committed with the transfer, or null. They must be idempotent:
+     *              if the transaction fails they are run again on their own until they commit
+     * @return true if the sender had enough money
+     */
+    public boolean transfer(UUID from, UUID to, long amount,
+                            TransactionType sendType, String sendDescription,
+                            TransactionType receiveType, String receiveDescription,
+                            TransactionCallback extra) {
+        // make sure the stored balances are cached
+        getBalance(from);
+        getBalance(to);
+        return ledger.transfer(from, to, amount, (fromBalance, toBalance) -> recordTransfer(
+            from, to, amount, fromBalance, toBalance, sendType, sendDescription, receiveType, receiveDescription, extra));
+    }
+    
+    /**
+     * Persist a transfer, called while the ledger locks of both players are held
+     * so the transaction is submitted in the same order as the balance changes
+     */
+    private void recordTransfer(UUID from, UUID to, long amount, long fromBalance, long toBalance,
+                                TransactionType sendType, String sendDescription,
+                                TransactionType receiveType, String receiveDescription,
+                                TransactionCallback extra) {
+        // Take over any pending write-behind update so the transaction carries the full change
+        Object[] fromUpdate = takeBalanceUpdate(from, fromBalance, 0L, amount);
+        Object[] toUpdate = takeBalanceUpdate(to, toBalance, amount, 0L);
+        journal.recordTransaction(from, sendType, -amount, sendDescription);
+        journal.recordTransaction(to, receiveType, amount, receiveDescription);
+        
+        database.inTransactionAsync(tx -> {
+            tx.executeUpdate(BALANCE_UPDATE, fromUpdate);
+            tx.executeUpdate(BALANCE_UPDATE, toUpdate);
+            if (extra != null) {
+                extra.run(tx);
+            }
+        }).thenAccept(committed -> {
+            if (!committed) {
+                // Keep the balances the players see, they are written with the next flush
+                balanceWrites.requeue(from, fromUpdate);
+                balanceWrites.requeue(to, toUpdate);
+                LOGGER.severe("Failed to record transfer of " + Money.format(amount) + " from " + from + " to " + to);
+                // The extra statements, e.g. marking an auction listing sold, already took effect in game
+                if (extra != null) {
+                    failedWrites.add(extra);
+                    retryWrite(extra);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Run the statements of a failed transfer in their own transaction, again later until it commits
+     */
+    private void retryWrite(TransactionCallback write) {
+        database.inTransactionAsync(write).thenAccept(committed -> {
+            if (committed) {
+                failedWrites.remove(write);
+                return;
+            }
+            LOGGER.warning("Failed to write the statements of a transfer, retrying in " + (RETRY_DELAY_TICKS / 20) + " seconds");
+            Survival.getInstance().getServer().getScheduler().runTaskLater(Survival.getInstance(),
+                () -> retryWrite(write), RETRY_DELAY_TICKS);
+        });
+    }
+    
+    /**
+     * Journal a balance change and remove the pending balance update of the player, folding its deltas into a new one
+     */
+    private Object[] takeBalanceUpdate(UUID uuid, long balance, long earned, long spent) {
+        long sequence = journal.recordBalance(uuid, balance, earned, spent);
+        ranking.update(uuid, balance);
+        Object[] pending = balanceWrites.discard(uuid);
+        if (pending != null) {
+            earned += ((Number) pending[1]).longValue();
+            spent += ((Number) pending[2]).longValue();
         }
-        return false;
+        return new Object[] { balance, earned, spent, sequence, uuid.toString() };
     }
     
     /**
-     * Add a transaction to the history
+     * Add a transaction to the history, written with the next journal flush
      * @param uuid The player's UUID
      * @param type The transaction type
-     * @param amount The amount
+     * @param amount The amount in cents, negative for money spent
      * @param description The description
+     * @return the journal sequence number of the transaction
      */
-    public void addTransaction(UUID uuid, TransactionType type, double amount, String description) {
-        database.executeUpdate(
-            "INSERT INTO economy_transactions (uuid, type, amount, description, timestamp) VALUES (?, ?, ?, ?, ?)",
-            uuid.toString(), type.name(), amount, description, System.currentTimeMillis()
-        );
+    public long addTransaction(UUID uuid, TransactionType type, long amount, String description) {
+        return journal.recordTransaction(uuid, type, amount, description);
+    }
+    
+    /**
+     * Load the account of a joining player, creating it with the starting balance if needed.
+     * The balance and salary state are cached, so the player's session never waits on the database.
+     * Blocks on the database, call it off the main thread.
+     * @param uuid The player's UUID
+     * @param playerName The player's name
+     * @return true if the account was created
+     */
+    public boolean loadAccount(UUID uuid, String playerName) {
+        long[] row = database.queryOne("SELECT balance, last_salary FROM economy_players WHERE uuid = ?",
+            rs -> new long[] { rs.getLong("balance"), rs.getLong("last_salary") }, uuid.toString());
+        if (row == null) {
+            if (accounts.contains(uuid)) {
+                // Created earlier in this run, its row is still being written
+                salaries.load(uuid, 0L);
+                return false;
+            }
+            openAccount(uuid, playerName);
+            salaries.load(uuid, 0L);
+            return true;
+        }
+        accounts.add(uuid);
+        ranking.setName(uuid, playerName);
+        ranking.seed(uuid, playerName, ledger.cache(uuid, row[0]));
+        salaries.load(uuid, row[1]);
+        return false;
+    }
+    
+    /**
+     * Forget the salary state of a player who left
+     * @param uuid The player's UUID
+     */
+    public void unloadSession(UUID uuid) {
+        salaries.forget(uuid);
+    }
+    
+    /**
+     * Put back the salary state loaded for a joining player,
+     * dropped in between if the player relogged and the old session quit after the pre-login
+     * @param uuid The player's UUID
+     * @param lastSalary The last salary timestamp loaded at pre-login
+     */
+    public void restoreSession(UUID uuid, long lastSalary) {
+        salaries.restore(uuid, lastSalary);
     }
     
     /**
@@ -212,35 +505,111 @@ public class EconomyManager {
      * @return The timestamp in milliseconds
      */
     public long getLastSalary(UUID uuid) {
-        ResultSet rs = database.executeQuery("SELECT last_salary FROM economy_players WHERE uuid = ?", uuid.toString());
-        try {
-            if (rs != null && rs.next()) {
-                long timestamp = rs.getLong("last_salary");
-                rs.close();
-                return timestamp;
-            }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Failed to get last salary for " + uuid, e);
+        Long cached = salaries.get(uuid);
+        if (cached != null) {
+            return cached;
         }
-        return 0;
+        Long timestamp = database.queryOne("SELECT last_salary FROM economy_players WHERE uuid = ?",
+            rs -> rs.getLong("last_salary"), uuid.toString());
+        return timestamp != null ? timestamp : 0;
     }
     
     /**
-     * Update the last salary timestamp for a player
+     * Check if a player is due a salary, without touching the database
      * @param uuid The player's UUID
+     * @param now The current time in milliseconds
+     * @param intervalMillis Time between two salaries
+     * @return true if the salary state is loaded and the last salary is old enough
      */
-    public void updateLastSalary(UUID uuid) {
-        database.executeUpdate(
-            "UPDATE economy_players SET last_salary = ? WHERE uuid = ?",
-            System.currentTimeMillis(), uuid.toString()
-        );
+    public boolean isSalaryDue(UUID uuid, long now, long intervalMillis) {
+        return salaries.isDue(uuid, now, intervalMillis);
     }
     
     /**
-     * Clear the balance cache
+     * Pay a salary to several players in one pass.
+     * Balances and salary timestamps are changed in memory right away
+     * and persisted together in a single batched transaction.
+     * @param players The UUIDs of the paid players
+     * @param amount The salary in cents
+     * @param now The time of the payment in milliseconds
+     */
+    public void paySalaries(List<UUID> players, long amount, long now) {
+        if (players.isEmpty()) {
+            return;
+        }
+        List<Object[]> balanceRows = new ArrayList<>(players.size());
+        List<Object[]> salaryRows = new ArrayList<>(players.size());
+        for (UUID uuid : players) {
+            getBalance(uuid); // make sure the stored balance is cached
+            ledger.credit(uuid, amount, (player, balance, earned, spent) ->
+                balanceRows.add(takeBalanceUpdate(player, balance, earned, spent)));
+            journal.recordTransaction(uuid, TransactionType.SALARY, amount, "Salary payment");
+            salaries.paid(uuid, now);
+            salaryRows.add(new Object[] { now, uuid.toString() });
+        }
+        
+        database.inTransactionAsync(tx -> {
+            tx.executeBatch(BALANCE_UPDATE, balanceRows);
+            tx.executeBatch(SALARY_UPDATE, salaryRows);
+        }).thenAccept(committed -> {
+            if (!committed) {
+                // Keep what the players see, it is written with the next flush
+                // A credit always succeeds, so the rows are in the order of the players
+                for (int i = 0; i < players.size(); i++) {
+                    balanceWrites.requeue(players.get(i), balanceRows.get(i));
+                    salaryWrites.requeue(players.get(i), salaryRows.get(i));
+                }
+                LOGGER.severe("Failed to record the salaries of " + players.size() + " player(s)");
+            }
+        });
+    }
+    
+    /**
+     * Clear the balance cache, writing pending balance updates first
      */
     public void clearCache() {
-        balanceCache.clear();
+        database.getWriteBehindQueue().flush();
+        ledger.clear();
+    }
+    
+    /**
+     * Get the balance leaderboard
+     * @return the ranking of every account
+     */
+    public BalanceRanking getRanking() {
+        return ranking;
+    }
+    
+    /**
+     * Get the transaction archiver
+     * @return the archiver, or null if archiving is disabled
+     */
+    public TransactionArchiver getArchiver() {
+        return archiver;
+    }
+    
+    /**
+     * Get the transaction history browser
+     * @return the transaction history
+     */
+    public TransactionHistory getHistory() {
+        return history;
+    }
+    
+    /**
+     * Get the economy journal
+     * @return the journal
+     */
+    public TransactionJournal getJournal() {
+        return journal;
+    }
+    
+    /**
+     * Get the directory of the journal files
+     * @return the directory, which holds no segment unless the file journal is enabled
+     */
+    public File getJournalDirectory() {
+        return journalDirectory;
     }
     
     /**
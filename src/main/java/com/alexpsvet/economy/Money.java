@@ -0,0 +1,92 @@
+package com.alexpsvet.economy;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money amounts are handled as a primitive long of minor units (cents), so they add up exactly.
+ * Major units (e.g. 12.5 coins) only appear in the config, in player input and in displayed text.
+ */
+public final class Money {
+    /**
+     * Number of minor units in one major unit
+     */
+    public static final long SCALE = 100L;
+
+    private Money() {
+    }
+
+    /**
+     * Convert a major-unit amount, e.g. a config value, rounding to the nearest cent
+     * @param major The amount in major units
+     * @return the amount in cents
+     */
+    public static long of(double major) {
+        return Math.round(major * SCALE);
+    }
+
+    /**
+     * Convert an amount to major units, only for computations that are rounded back with {@link #of(double)}
+     * @param cents The amount in cents
+     * @return the amount in major units
+     */
+    public static double toMajor(long cents) {
+        return cents / (double) SCALE;
+    }
+
+    /**
+     * Multiply an amount by a factor, rounding to the nearest cent
+     * @param cents The amount in cents
+     * @param factor The factor, e.g. a level multiplier
+     * @return the product in cents
+     */
+    public static long multiply(long cents, double factor) {
+        return Math.round(cents * factor);
+    }
+
+    /**
+     * Parse an amount typed by a player, e.g. "12", "12.5" or "12,50", rounding to the nearest cent
+     * @param input The amount in major units
+     * @return the amount in cents
+     * @throws NumberFormatException if the input is not a number or is too large
+     */
+    public static long parse(String input) {
+        try {
+            return new BigDecimal(input.trim().replace(',', '.'))
+                .movePointRight(2)
+                .setScale(0, RoundingMode.HALF_UP)
+                .longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + input);
+        }
+    }
+
+    /**
+     * Format an amount with two decimals, e.g. 1234.50
+     * @param cents The amount in cents
+     * @return the formatted amount, without currency
+     */
+    public static String format(long cents) {
+        StringBuilder builder = new StringBuilder(24);
+        if (cents < 0) {
+            builder.append('-');
+        }
+        long abs = Math.abs(cents);
+        long fraction = abs % SCALE;
+        builder.append(abs / SCALE).append('.');
+        if (fraction < 10) {
+            builder.append('0');
+        }
+        return builder.append(fraction).toString();
+    }
+
+    /**
+     * Format an amount rounded to whole major units, e.g. 1235
+     * @param cents The amount in cents
+     * @return the formatted amount, without currency
+     */
+    public static String formatWhole(long cents) {
+        long half = cents < 0 ? -SCALE / 2 : SCALE / 2;
+        return Long.toString((cents + half) / SCALE);
+    }
+}
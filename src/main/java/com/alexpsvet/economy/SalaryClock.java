@@ -0,0 +1,55 @@
+package com.alexpsvet.economy;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Time of the last salary of the players with a session, read and changed from any thread.
+ * A relog loads the new session before the old one quits, so the state dropped by that quit
+ * is put back when the new session joins.
+ */
+final class SalaryClock {
+    private final Map<UUID, Long> lastSalaries;
+
+    SalaryClock() {
+        this.lastSalaries = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Cache the stored time of a logging in player, unless a session already holds a newer one
+     */
+    void load(UUID uuid, long lastSalary) {
+        lastSalaries.putIfAbsent(uuid, lastSalary);
+    }
+
+    /**
+     * Put back the time loaded for a joining player, keeping a salary paid since
+     */
+    void restore(UUID uuid, long lastSalary) {
+        lastSalaries.merge(uuid, lastSalary, Math::max);
+    }
+
+    void paid(UUID uuid, long now) {
+        lastSalaries.put(uuid, now);
+    }
+
+    void forget(UUID uuid) {
+        lastSalaries.remove(uuid);
+    }
+
+    /**
+     * @return the time of the last salary, or null if the player has no session
+     */
+    Long get(UUID uuid) {
+        return lastSalaries.get(uuid);
+    }
+
+    /**
+     * @return true if the player has a session and the last salary is old enough
+     */
+    boolean isDue(UUID uuid, long now, long intervalMillis) {
+        Long lastSalary = lastSalaries.get(uuid);
+        return lastSalary != null && now - lastSalary >= intervalMillis;
+    }
+}
@@ -6,19 +6,31 @@ import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 /**
- * Task to pay salaries to online players
+ * Task to pay salaries to online players.
+ * Players are spread over {@link #SLOTS} slots by UUID and each run checks a single slot,
+ * so with a run every {@link #PERIOD_TICKS} ticks every player is checked once a minute
+ * without the whole server being handled in one tick.
  */
 public class SalaryTask extends BukkitRunnable {
+    /**
+     * Ticks between two runs
+     */
+    public static final long PERIOD_TICKS = 20L;
+    private static final int SLOTS = 60;
+    
     private final EconomyManager economyManager;
-    private final double salaryAmount;
+    private final long salaryAmount;
     private final long intervalMillis;
+    private int slot;
     
     public SalaryTask(EconomyManager economyManager) {
         this.economyManager = economyManager;
-        this.salaryAmount = Survival.getInstance().getConfig().getDouble("economy.salary.amount", 50.0);
+        this.salaryAmount = Money.of(Survival.getInstance().getConfig().getDouble("economy.salary.amount", 50.0));
         int intervalMinutes = Survival.getInstance().getConfig().getInt("economy.salary.interval-minutes", 30);
         this.intervalMillis = intervalMinutes * 60 * 1000L;
     }
@@ -28,20 +40,30 @@ public class SalaryTask extends BukkitRunnable {
         long now = System.currentTimeMillis();
         String currencySymbol = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
         
+        int current = slot;
+        slot = (slot + 1) % SLOTS;
+        
+        List<Player> paid = new ArrayList<>();
+        List<UUID> uuids = new ArrayList<>();
         for (Player player : Bukkit.getOnlinePlayers()) {
             UUID uuid = player.getUniqueId();
-            long lastSalary = economyManager.getLastSalary(uuid);
-            
-            if (now - lastSalary >= intervalMillis) {
-                economyManager.addBalance(uuid, salaryAmount);
-                economyManager.updateLastSalary(uuid);
-                economyManager.addTransaction(uuid, TransactionType.SALARY, salaryAmount, "Salary payment");
-                
-                MessageUtil.sendSuccess(player, 
-                    MessageUtil.format("Vous avez reçu votre salaire: &e{amount} {currency}",
-                        "{amount}", String.format("%.2f", salaryAmount),
-                        "{currency}", currencySymbol));
+            if (Math.floorMod(uuid.hashCode(), SLOTS) != current) continue;
+            // The salary state is cached by the player session, no query here
+            if (economyManager.isSalaryDue(uuid, now, intervalMillis)) {
+                paid.add(player);
+                uuids.add(uuid);
             }
         }
+        if (paid.isEmpty()) {
+            return;
+        }
+        
+        economyManager.paySalaries(uuids, salaryAmount, now);
+        String message = MessageUtil.format("Vous avez reçu votre salaire: &e{amount} {currency}",
+            "{amount}", Money.format(salaryAmount),
+            "{currency}", currencySymbol);
+        for (Player player : paid) {
+            MessageUtil.sendSuccess(player, message);
+        }
     }
 }
@@ -0,0 +1,73 @@
+package com.alexpsvet.economy.history;
+
+import com.alexpsvet.economy.TransactionType;
+
+import java.util.Objects;
+
+/**
+ * Restricts a transaction history to one type and a time range
+ */
+public final class HistoryFilter {
+    /**
+     * Every transaction
+     */
+    public static final HistoryFilter NONE = new HistoryFilter(null, 0L, 0L);
+    
+    private final TransactionType type;
+    private final long from;
+    private final long to;
+    
+    /**
+     * @param type The only type shown, or null for every type
+     * @param from The earliest timestamp included in milliseconds, or 0 for no limit
+     * @param to The timestamp the range ends before in milliseconds, or 0 for no limit
+     */
+    public HistoryFilter(TransactionType type, long from, long to) {
+        this.type = type;
+        this.from = from;
+        this.to = to;
+    }
+    
+    /**
+     * Get a filter keeping this range with another type
+     * @param type The type, or null for every type
+     * @return the filter
+     */
+    public HistoryFilter withType(TransactionType type) {
+        return new HistoryFilter(type, from, to);
+    }
+    
+    /**
+     * Get a filter keeping this type, limited to the last days
+     * @param days The number of days, or 0 for no limit
+     * @return the filter
+     */
+    public HistoryFilter lastDays(int days) {
+        return new HistoryFilter(type, days > 0 ? System.currentTimeMillis() - days * 86400000L : 0L, 0L);
+    }
+    
+    /**
+     * Get how many days back the range starts
+     * @return the number of days, rounded, or 0 if the range has no start
+     */
+    public int getDays() {
+        return from > 0 ? (int) Math.round((System.currentTimeMillis() - from) / 86400000.0) : 0;
+    }
+    
+    public TransactionType getType() { return type; }
+    public long getFrom() { return from; }
+    public long getTo() { return to; }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HistoryFilter)) return false;
+        HistoryFilter other = (HistoryFilter) o;
+        return type == other.type && from == other.from && to == other.to;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, from, to);
+    }
+}
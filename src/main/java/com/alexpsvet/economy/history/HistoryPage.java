@@ -0,0 +1,34 @@
+package com.alexpsvet.economy.history;
+
+import java.util.List;
+
+/**
+ * A page of a transaction history, newest first
+ */
+public class HistoryPage {
+    private final int index;
+    private final List<TransactionRecord> records;
+    private final boolean hasNext;
+    
+    public HistoryPage(int index, List<TransactionRecord> records, boolean hasNext) {
+        this.index = index;
+        this.records = records;
+        this.hasNext = hasNext;
+    }
+    
+    /**
+     * Get the position of the page
+     * @return the page index, starting at 0
+     */
+    public int getIndex() { return index; }
+    public List<TransactionRecord> getRecords() { return records; }
+    public boolean hasNext() { return hasNext; }
+    
+    /**
+     * Get the oldest record of the page, where the next page starts
+     * @return the last record, or null if the page is empty
+     */
+    public TransactionRecord getLast() {
+        return records.isEmpty() ? null : records.get(records.size() - 1);
+    }
+}
@@ -0,0 +1,298 @@
+package com.alexpsvet.economy.history;
+
+import com.alexpsvet.database.Database;
+import com.alexpsvet.database.Transaction;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves old rows of economy_transactions out of the live table, so it stays small.
+ * A background thread archives the oldest rows in small chunks, each one a single transaction
+ * on the database writer followed by a pause, so other writes never wait long behind it.
+ * Rows go to a table per month, economy_transactions_yyyyMM, or to a gzip CSV file per month.
+ * The sums of the archived rows of each player are added to economy_archive_totals in the same transaction,
+ * so the amounts earned and spent over the whole history are still known once the rows are gone.
+ */
+public class TransactionArchiver {
+    private static final Logger LOGGER = Logger.getLogger("survival");
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter FILE_MONTH = DateTimeFormatter.ofPattern("yyyy-MM").withZone(ZoneOffset.UTC);
+    private static final String TOTALS_UPDATE =
+        "UPDATE economy_archive_totals SET earned = earned + ?, spent = spent + ?, transactions = transactions + ?, " +
+        "archived_until = ? WHERE uuid = ?";
+    private static final String TOTALS_INSERT =
+        "INSERT INTO economy_archive_totals (earned, spent, transactions, archived_until, uuid) VALUES (?, ?, ?, ?, ?)";
+
+    /**
+     * Where archived rows go
+     */
+    public enum Mode {
+        /**
+         * A table per month in the same database
+         */
+        TABLES,
+        /**
+         * A gzip CSV file per month in the archive directory
+         */
+        FILES
+    }
+
+    private final Database database;
+    private final File directory;
+    private final Set<String> tables;
+    private Mode mode = Mode.TABLES;
+    private long maxAgeMillis = 90L * 86400000L;
+    private int chunkSize = 500;
+    private long pauseMillis = 200L;
+    private volatile long archivedCount;
+    private ScheduledExecutorService executor;
+
+    /**
+     * Create an archiver
+     * @param database The database
+     * @param directory The directory of the archive files
+     */
+    public TransactionArchiver(Database database, File directory) {
+        this.database = database;
+        this.directory = directory;
+        this.tables = new HashSet<>();
+    }
+
+    /**
+     * Set what is archived and how fast, must be called before the archiver starts
+     * @param mode Where archived rows go
+     * @param maxAgeDays Age from which a transaction is archived
+     * @param chunkSize Number of rows moved per chunk
+     * @param pauseMillis Pause between two chunks
+     */
+    public void setSettings(Mode mode, int maxAgeDays, int chunkSize, long pauseMillis) {
+        this.mode = mode;
+        this.maxAgeMillis = Math.max(1, maxAgeDays) * 86400000L;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pauseMillis = Math.max(0L, pauseMillis);
+    }
+
+    /**
+     * Start archiving on the archiver thread, once now and then on an interval
+     * @param intervalMillis Interval between two passes
+     */
+    public void start(long intervalMillis) {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Survival-Archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::archive, 0L, Math.max(60000L, intervalMillis), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the archiver thread, waiting for the chunk in progress
+     */
+    public void close() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+
+    /**
+     * Get the number of rows archived since the start
+     * @return the number of rows
+     */
+    public long getArchivedCount() {
+        return archivedCount;
+    }
+
+    /**
+     * Archive every row older than the maximum age, chunk by chunk, runs off the main thread
+     * @return the number of rows archived, or -1 if a chunk failed
+     */
+    public long archive() {
+        long cutoff = System.currentTimeMillis() - maxAgeMillis;
+        long archived = 0;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                int moved = archiveChunk(cutoff);
+                if (moved < 0) {
+                    return -1;
+                }
+                if (moved == 0) {
+                    break;
+                }
+                archived += moved;
+                archivedCount += moved;
+                Thread.sleep(pauseMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (archived > 0) {
+            LOGGER.info("Archived " + archived + " economy transactions older than " + (maxAgeMillis / 86400000L) + " days");
+        }
+        return archived;
+    }
+
+    /**
+     * Move the oldest rows, in id order up to the first one that is still recent
+     * @return the number of rows moved, 0 if none is old enough, or -1 if error
+     */
+    private int archiveChunk(long cutoff) {
+        List<Object[]> rows = database.query(
+            "SELECT id, uuid, type, amount, description, timestamp FROM economy_transactions ORDER BY id LIMIT ?",
+            rs -> new Object[] {
+                rs.getLong("id"), rs.getString("uuid"), rs.getString("type"),
+                rs.getLong("amount"), rs.getString("description"), rs.getLong("timestamp")
+            }, chunkSize);
+        // Ids follow the journal order, rows written slightly out of time order wait for the next pass
+        int count = 0;
+        while (count < rows.size() && (Long) rows.get(count)[5] < cutoff) {
+            count++;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        List<Object[]> chunk = rows.subList(0, count);
+
+        Map<String, List<Object[]>> months = new LinkedHashMap<>();
+        for (Object[] row : chunk) {
+            months.computeIfAbsent(MONTH.format(Instant.ofEpochMilli((Long) row[5])), month -> new ArrayList<>()).add(row);
+        }
+        if (mode == Mode.FILES) {
+            // Written before the rows are deleted: a chunk whose deletion fails is written again, readers skip repeated ids
+            for (Map.Entry<String, List<Object[]>> month : months.entrySet()) {
+                if (!appendToFile(month.getValue())) {
+                    return -1;
+                }
+            }
+        } else if (!createTables(months.keySet())) {
+            return -1;
+        }
+
+        long firstId = (Long) chunk.get(0)[0];
+        long lastId = (Long) chunk.get(count - 1)[0];
+        boolean committed = database.writeAsync(() -> database.inTransaction(tx -> {
+            if (mode == Mode.TABLES) {
+                for (Map.Entry<String, List<Object[]>> month : months.entrySet()) {
+                    tx.executeBatch("INSERT INTO economy_transactions_" + month.getKey() +
+                        " (id, uuid, type, amount, description, timestamp) VALUES (?, ?, ?, ?, ?, ?)", month.getValue());
+                }
+            }
+            addTotals(tx, chunk);
+            // The chunk holds every row from the first id to the last one
+            tx.executeUpdate("DELETE FROM economy_transactions WHERE id >= ? AND id <= ?", firstId, lastId);
+        })).join();
+        return committed ? count : -1;
+    }
+
+    /**
+     * Create the monthly archive tables, each in its own statement since MySQL commits around DDL
+     */
+    private boolean createTables(Set<String> months) {
+        for (String month : months) {
+            if (tables.contains(month)) continue;
+            String table = "economy_transactions_" + month;
+            boolean created = database.writeAsync(() -> database.inTransaction(tx -> {
+                tx.executeUpdate("CREATE TABLE IF NOT EXISTS " + table + " (" +
+                    "id BIGINT PRIMARY KEY," +
+                    "uuid VARCHAR(36) NOT NULL," +
+                    "type VARCHAR(20) NOT NULL," +
+                    "amount BIGINT NOT NULL," +
+                    "description TEXT," +
+                    "timestamp BIGINT NOT NULL" +
+                    ")");
+                database.getDialect().createIndex(tx, "idx_" + table + "_history", table, "uuid, timestamp");
+            })).join();
+            if (!created) {
+                return false;
+            }
+            tables.add(month);
+        }
+        return true;
+    }
+
+    private void addTotals(Transaction tx, List<Object[]> chunk) throws SQLException {
+        Map<String, long[]> totals = new HashMap<>();
+        for (Object[] row : chunk) {
+            long amount = (Long) row[3];
+            long[] total = totals.computeIfAbsent((String) row[1], uuid -> new long[4]);
+            if (amount >= 0) {
+                total[0] += amount;
+            } else {
+                total[1] -= amount;
+            }
+            total[2]++;
+            total[3] = Math.max(total[3], (Long) row[5]);
+        }
+        for (Map.Entry<String, long[]> entry : totals.entrySet()) {
+            long[] total = entry.getValue();
+            Object[] params = { total[0], total[1], total[2], total[3], entry.getKey() };
+            if (tx.executeUpdate(TOTALS_UPDATE, params) == 0) {
+                tx.executeUpdate(TOTALS_INSERT, params);
+            }
+        }
+    }
+
+    private boolean appendToFile(List<Object[]> rows) {
+        File file = new File(directory, "economy-transactions-" +
+            FILE_MONTH.format(Instant.ofEpochMilli((Long) rows.get(0)[5])) + ".csv.gz");
+        if (!directory.exists() && !directory.mkdirs()) {
+            LOGGER.warning("Failed to create archive directory: " + directory.getAbsolutePath());
+            return false;
+        }
+        boolean header = !file.exists();
+        // Each append is a complete gzip member, gzip readers read the members one after the other
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            GZIPOutputStream gzip = new GZIPOutputStream(out);
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8));
+            if (header) {
+                writer.write("id,uuid,type,amount,description,timestamp");
+                writer.newLine();
+            }
+            for (Object[] row : rows) {
+                writer.write(row[0] + "," + row[1] + "," + row[2] + "," + row[3] + ",");
+                if (row[4] != null) {
+                    writer.write('"');
+                    writer.write(((String) row[4]).replace("\"", "\"\""));
+                    writer.write('"');
+                }
+                writer.write("," + row[5]);
+                writer.newLine();
+            }
+            writer.flush();
+            gzip.finish();
+            out.getFD().sync();
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to write archive file " + file.getAbsolutePath(), e);
+            return false;
+        }
+    }
+}
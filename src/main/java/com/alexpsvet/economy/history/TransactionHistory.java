@@ -0,0 +1,191 @@
+package com.alexpsvet.economy.history;
+
+import com.alexpsvet.database.Database;
+import com.alexpsvet.economy.TransactionType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Browses the transaction history of players.
+ * Pages are read with keyset pagination on (uuid, timestamp, id): each page starts right after
+ * the last record of the previous one, so reading a page costs the same at any depth,
+ * where an OFFSET would scan every skipped row. Filters are part of the query
+ * and served by the composite indexes on economy_transactions.
+ * The pages read by a viewer are cached for a short time, so going back costs nothing.
+ * The cache is only used from the main thread.
+ */
+public class TransactionHistory {
+    private static final long CACHE_MILLIS = 30000L;
+    private static final String COLUMNS = "SELECT id, type, amount, description, timestamp FROM economy_transactions";
+
+    private final Database database;
+    private final Map<UUID, Viewer> viewers;
+
+    public TransactionHistory(Database database) {
+        this.database = database;
+        this.viewers = new HashMap<>();
+    }
+
+    /**
+     * Get the filter a player browses with
+     * @param viewer The viewing player's UUID
+     * @return the filter, {@link HistoryFilter#NONE} by default
+     */
+    public HistoryFilter getFilter(UUID viewer) {
+        Viewer state = viewers.get(viewer);
+        return state != null ? state.filter : HistoryFilter.NONE;
+    }
+
+    /**
+     * Change the filter a player browses with, dropping the cached pages
+     * @param viewer The viewing player's UUID
+     * @param filter The new filter
+     */
+    public void setFilter(UUID viewer, HistoryFilter filter) {
+        viewers.computeIfAbsent(viewer, uuid -> new Viewer()).reset(null, 0, filter);
+    }
+
+    /**
+     * Get a page of a player's history, read in the background unless cached
+     * @param viewer The viewing player's UUID
+     * @param owner The UUID of the player whose history is read
+     * @param index The page index, starting at 0
+     * @param pageSize The number of records per page
+     * @param refresh Drop the cached pages first, to see new transactions
+     * @return a future completed on the main thread with the page, the last one if the index is past the end
+     */
+    public CompletableFuture<HistoryPage> getPage(UUID viewer, UUID owner, int index, int pageSize, boolean refresh) {
+        Viewer state = viewers.computeIfAbsent(viewer, uuid -> new Viewer());
+        if (refresh || !owner.equals(state.owner) || pageSize != state.pageSize
+                || System.currentTimeMillis() - state.loadedAt > CACHE_MILLIS) {
+            state.reset(owner, pageSize, state.filter);
+        }
+        if (index < state.pages.size()) {
+            return CompletableFuture.completedFuture(state.pages.get(index));
+        }
+
+        HistoryPage last = state.pages.isEmpty() ? null : state.pages.get(state.pages.size() - 1);
+        if (last != null && !last.hasNext()) {
+            return CompletableFuture.completedFuture(last);
+        }
+
+        // Keyset pages can only be reached one after the other, read the missing ones in a single task
+        HistoryFilter filter = state.filter;
+        int first = state.pages.size();
+        long generation = state.generation;
+        return database.supplyAsync(() -> readPages(owner, filter, last, first, index, pageSize)).thenApply(pages -> {
+            if (state.generation == generation && state.pages.size() == first) {
+                state.pages.addAll(pages);
+            }
+            return pages.isEmpty() ? last : pages.get(pages.size() - 1);
+        });
+    }
+
+    /**
+     * Forget the pages and filter of a player who left
+     * @param viewer The viewing player's UUID
+     */
+    public void forget(UUID viewer) {
+        viewers.remove(viewer);
+    }
+
+    /**
+     * Read pages from the one after the given page up to the wanted index, stopping at the end of the history
+     * @return the pages read
+     */
+    private List<HistoryPage> readPages(UUID owner, HistoryFilter filter, HistoryPage after,
+                                        int first, int last, int pageSize) {
+        List<HistoryPage> pages = new ArrayList<>();
+        TransactionRecord cursor = after != null ? after.getLast() : null;
+        for (int index = first; index <= last; index++) {
+            List<TransactionRecord> records = readPage(owner, filter, cursor, pageSize + 1);
+            boolean hasNext = records.size() > pageSize;
+            if (hasNext) {
+                records = records.subList(0, pageSize);
+            }
+            if (records.isEmpty() && index > 0) {
+                break;
+            }
+            HistoryPage page = new HistoryPage(index, new ArrayList<>(records), hasNext);
+            pages.add(page);
+            if (!hasNext) {
+                break;
+            }
+            cursor = page.getLast();
+        }
+        return pages;
+    }
+
+    /**
+     * Read the records following a cursor, newest first
+     * @return the records, empty if error
+     */
+    private List<TransactionRecord> readPage(UUID owner, HistoryFilter filter, TransactionRecord cursor, int limit) {
+        StringBuilder sql = new StringBuilder(COLUMNS).append(" WHERE uuid = ?");
+        List<Object> params = new ArrayList<>();
+        params.add(owner.toString());
+        if (filter.getType() != null) {
+            sql.append(" AND type = ?");
+            params.add(filter.getType().name());
+        }
+        if (filter.getFrom() > 0) {
+            sql.append(" AND timestamp >= ?");
+            params.add(filter.getFrom());
+        }
+        if (filter.getTo() > 0) {
+            sql.append(" AND timestamp < ?");
+            params.add(filter.getTo());
+        }
+        if (cursor != null) {
+            // Same as (timestamp, id) < (?, ?), written so that older MySQL servers also use the index range
+            sql.append(" AND timestamp <= ? AND (timestamp < ? OR id < ?)");
+            params.add(cursor.getTimestamp());
+            params.add(cursor.getTimestamp());
+            params.add(cursor.getId());
+        }
+        sql.append(" ORDER BY timestamp DESC, id DESC LIMIT ?");
+        params.add(limit);
+
+        return database.query(sql.toString(), rs -> new TransactionRecord(
+            rs.getLong("id"),
+            parseType(rs.getString("type")),
+            rs.getLong("amount"),
+            rs.getString("description"),
+            rs.getLong("timestamp")
+        ), params.toArray());
+    }
+
+    private static TransactionType parseType(String name) {
+        try {
+            return TransactionType.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return TransactionType.OTHER;
+        }
+    }
+
+    /**
+     * Browsing state of a player
+     */
+    private static final class Viewer {
+        private final List<HistoryPage> pages = new ArrayList<>();
+        private HistoryFilter filter = HistoryFilter.NONE;
+        private UUID owner;
+        private int pageSize;
+        private long loadedAt;
+        private long generation;
+
+        private void reset(UUID owner, int pageSize, HistoryFilter filter) {
+            this.pages.clear();
+            this.owner = owner;
+            this.pageSize = pageSize;
+            this.filter = filter;
+            this.loadedAt = System.currentTimeMillis();
+            this.generation++;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.alexpsvet.economy.history;
+
+import com.alexpsvet.economy.TransactionType;
+
+/**
+ * A line of a player's transaction history
+ */
+public class TransactionRecord {
+    private final long id;
+    private final TransactionType type;
+    private final long amount;
+    private final String description;
+    private final long timestamp;
+    
+    public TransactionRecord(long id, TransactionType type, long amount, String description, long timestamp) {
+        this.id = id;
+        this.type = type;
+        this.amount = amount;
+        this.description = description;
+        this.timestamp = timestamp;
+    }
+    
+    public long getId() { return id; }
+    public TransactionType getType() { return type; }
+    public long getAmount() { return amount; }
+    public String getDescription() { return description; }
+    public long getTimestamp() { return timestamp; }
+}
@@ -0,0 +1,45 @@
+package com.alexpsvet.economy.journal;
+
+import com.alexpsvet.database.Database;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Journal sink writing the transaction history to economy_transactions, one JDBC batch per journal flush
+ */
+public class DatabaseJournalSink implements JournalSink {
+    static final String TRANSACTION_INSERT =
+        "INSERT INTO economy_transactions (uuid, type, amount, description, timestamp) VALUES (?, ?, ?, ?, ?)";
+
+    private final Database database;
+
+    public DatabaseJournalSink(Database database) {
+        this.database = database;
+    }
+
+    @Override
+    public boolean storesBalances() {
+        return false;
+    }
+
+    @Override
+    public boolean write(List<JournalEntry> entries) {
+        List<Object[]> rows = new ArrayList<>(entries.size());
+        for (JournalEntry entry : entries) {
+            rows.add(new Object[] {
+                entry.getUuid().toString(), entry.getType().name(), entry.getAmount(),
+                entry.getDescription(), entry.getTimestamp()
+            });
+        }
+        if (rows.isEmpty()) {
+            return true;
+        }
+        // Waits for the database writer, which keeps the batch ordered with the other writes
+        return database.writeAsync(() -> database.executeBatch(TRANSACTION_INSERT, rows)).join();
+    }
+
+    @Override
+    public void close() {
+    }
+}
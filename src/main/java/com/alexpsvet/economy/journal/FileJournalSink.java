@@ -0,0 +1,159 @@
+package com.alexpsvet.economy.journal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Journal sink appending entries to memory-mapped segment files of a fixed size.
+ * Appending is a memory copy, the operating system writes the pages to disk in large batches,
+ * and entries written to the mapping survive a crash of the server process.
+ * A full segment is closed and the next one is named after its first sequence number.
+ */
+public class FileJournalSink implements JournalSink {
+    private static final Logger LOGGER = Logger.getLogger("survival");
+
+    private final File directory;
+    private final int segmentBytes;
+    private final boolean syncEachBatch;
+    private MappedByteBuffer segment;
+    private long lastWritten;
+
+    /**
+     * Create a file sink
+     * @param directory The directory of the segments
+     * @param segmentBytes Size of a segment file
+     * @param syncEachBatch Force each batch to disk, so it also survives a power loss
+     */
+    public FileJournalSink(File directory, int segmentBytes, boolean syncEachBatch) {
+        this.directory = directory;
+        this.segmentBytes = Math.max(1024 * 1024, segmentBytes);
+        this.syncEachBatch = syncEachBatch;
+    }
+
+    /**
+     * Open the newest segment and find the end of its entries
+     * @return the sequence number of the last entry written, or 0 if the journal is empty
+     * @throws IOException if the directory or the newest segment cannot be opened
+     */
+    public long open() throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Failed to create journal directory " + directory.getAbsolutePath());
+        }
+        List<File> segments = new JournalReader(directory).segments();
+        if (segments.isEmpty()) {
+            return 0L;
+        }
+
+        File newest = segments.get(segments.size() - 1);
+        lastWritten = JournalReader.firstSequence(newest) - 1;
+        MappedByteBuffer buffer = mapForWriting(newest, -1L);
+        if (buffer.getInt() != JournalCodec.MAGIC || buffer.getInt() != JournalCodec.VERSION) {
+            throw new IOException("Journal segment " + newest.getName() + " is not readable");
+        }
+        JournalEntry entry;
+        while ((entry = JournalCodec.decode(buffer)) != null) {
+            lastWritten = entry.getSequence();
+        }
+        // A torn record left by a crash is overwritten by the next entry. The pages after it may still hold
+        // records written before the crash, cleared so they are not read back after the new entries
+        int end = buffer.position();
+        byte[] zeros = new byte[4096];
+        while (buffer.hasRemaining()) {
+            buffer.put(zeros, 0, Math.min(zeros.length, buffer.remaining()));
+        }
+        buffer.position(end);
+        segment = buffer;
+        return lastWritten;
+    }
+
+    @Override
+    public boolean storesBalances() {
+        return true;
+    }
+
+    @Override
+    public boolean write(List<JournalEntry> entries) {
+        try {
+            for (JournalEntry entry : entries) {
+                // Entries of a batch that failed halfway are retried, skip the ones already written
+                if (entry.getSequence() <= lastWritten) continue;
+                byte[] record = JournalCodec.encode(entry);
+                if (segment == null || segment.remaining() < record.length) {
+                    rotate(entry.getSequence());
+                }
+                segment.put(record);
+                lastWritten = entry.getSequence();
+            }
+            if (syncEachBatch && segment != null) {
+                segment.force();
+            }
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to append to the economy journal in " + directory.getAbsolutePath(), e);
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (segment != null) {
+            segment.force();
+            segment = null;
+        }
+    }
+
+    /**
+     * Delete the segments whose entries are all at or below a sequence number, the newest one is always kept.
+     * Call it once the balances up to that sequence number are stored, they are never replayed again.
+     * @param sequence The sequence number of the checkpoint
+     * @return the number of segments deleted
+     */
+    public int deleteSegmentsThrough(long sequence) {
+        List<File> segments = new JournalReader(directory).segments();
+        int deleted = 0;
+        // A segment ends right before the first entry of the next one
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (JournalReader.firstSequence(segments.get(i + 1)) > sequence + 1) break;
+            File segment = segments.get(i);
+            if (segment.delete()) {
+                deleted++;
+            } else {
+                LOGGER.warning("Failed to delete journal segment " + segment.getName());
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Close the current segment and start a new one
+     */
+    private void rotate(long firstSequence) throws IOException {
+        if (segment != null) {
+            segment.force();
+        }
+        File file = JournalReader.segmentFile(directory, firstSequence);
+        MappedByteBuffer buffer = mapForWriting(file, segmentBytes);
+        buffer.putInt(JournalCodec.MAGIC);
+        buffer.putInt(JournalCodec.VERSION);
+        segment = buffer;
+    }
+
+    /**
+     * @param length Size the file is preallocated to, or -1 to keep its size
+     */
+    private static MappedByteBuffer mapForWriting(File file, long length) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+            if (length >= 0) {
+                raf.setLength(length);
+            }
+            // The mapping stays valid once the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.alexpsvet.economy.journal;
+
+import com.alexpsvet.economy.TransactionType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Binary format of the journal files.
+ * A segment starts with a header, followed by records written back to back:
+ * payload length, CRC32 of the payload, then the payload.
+ * A zero length marks the end of the written part, the rest of the file is preallocated zeros.
+ */
+final class JournalCodec {
+    static final int MAGIC = 0x534A4E4C;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_OVERHEAD = 8;
+    /**
+     * Longest description kept, longer ones are cut so a record always fits in a segment
+     */
+    static final int MAX_DESCRIPTION_BYTES = 1024;
+
+    private static final int COMMON_SIZE = 1 + 8 * 4;
+
+    private JournalCodec() {
+    }
+
+    /**
+     * Encode an entry as a record
+     * @param entry The entry
+     * @return the record, length and checksum included
+     */
+    static byte[] encode(JournalEntry entry) {
+        byte[] type = null;
+        byte[] description = null;
+        int size = COMMON_SIZE;
+        if (entry.getKind() == JournalEntry.Kind.TRANSACTION) {
+            type = entry.getType().name().getBytes(StandardCharsets.UTF_8);
+            description = truncate(entry.getDescription());
+            size += 8 + 2 + type.length + 4 + (description != null ? description.length : 0);
+        } else {
+            size += 8 * 3;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_OVERHEAD + size);
+        buffer.putInt(size);
+        buffer.putInt(0); // checksum, filled once the payload is written
+        buffer.put((byte) entry.getKind().ordinal());
+        buffer.putLong(entry.getSequence());
+        buffer.putLong(entry.getTimestamp());
+        buffer.putLong(entry.getUuid().getMostSignificantBits());
+        buffer.putLong(entry.getUuid().getLeastSignificantBits());
+        if (type != null) {
+            buffer.putLong(entry.getAmount());
+            buffer.putShort((short) type.length);
+            buffer.put(type);
+            buffer.putInt(description != null ? description.length : -1);
+            if (description != null) {
+                buffer.put(description);
+            }
+        } else {
+            buffer.putLong(entry.getBalance());
+            buffer.putLong(entry.getEarned());
+            buffer.putLong(entry.getSpent());
+        }
+
+        byte[] record = buffer.array();
+        CRC32 crc = new CRC32();
+        crc.update(record, RECORD_OVERHEAD, size);
+        buffer.putInt(4, (int) crc.getValue());
+        return record;
+    }
+
+    /**
+     * Decode the record at the position of a buffer, moving the position past it
+     * @param buffer The segment content
+     * @return the entry, or null at the end of the written part or on a torn or corrupt record
+     */
+    static JournalEntry decode(ByteBuffer buffer) {
+        if (buffer.remaining() < RECORD_OVERHEAD) {
+            return null;
+        }
+        int start = buffer.position();
+        int size = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (size < COMMON_SIZE || size > buffer.remaining()) {
+            buffer.position(start);
+            return null;
+        }
+
+        byte[] payload = new byte[size];
+        buffer.get(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, size);
+        if ((int) crc.getValue() != checksum) {
+            buffer.position(start);
+            return null;
+        }
+
+        try {
+            ByteBuffer in = ByteBuffer.wrap(payload);
+            int kind = in.get();
+            long sequence = in.getLong();
+            long timestamp = in.getLong();
+            UUID uuid = new UUID(in.getLong(), in.getLong());
+            if (kind == JournalEntry.Kind.BALANCE.ordinal()) {
+                return JournalEntry.balance(sequence, timestamp, uuid, in.getLong(), in.getLong(), in.getLong());
+            }
+            long amount = in.getLong();
+            byte[] type = new byte[in.getShort()];
+            in.get(type);
+            int descriptionLength = in.getInt();
+            String description = null;
+            if (descriptionLength >= 0) {
+                byte[] bytes = new byte[descriptionLength];
+                in.get(bytes);
+                description = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return JournalEntry.transaction(sequence, timestamp, uuid,
+                TransactionType.valueOf(new String(type, StandardCharsets.UTF_8)), amount, description);
+        } catch (RuntimeException e) {
+            // A checksum match with an unreadable payload means a format change, stop reading the segment
+            buffer.position(start);
+            return null;
+        }
+    }
+
+    private static byte[] truncate(String description) {
+        if (description == null) {
+            return null;
+        }
+        byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_DESCRIPTION_BYTES) {
+            return bytes;
+        }
+        // Cut on a character boundary so the description stays valid UTF-8
+        int end = MAX_DESCRIPTION_BYTES;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+            end--;
+        }
+        byte[] cut = new byte[end];
+        System.arraycopy(bytes, 0, cut, 0, end);
+        return cut;
+    }
+}
@@ -0,0 +1,85 @@
+package com.alexpsvet.economy.journal;
+
+import com.alexpsvet.economy.TransactionType;
+
+import java.util.UUID;
+
+/**
+ * One record of the economy journal.
+ * A transaction entry is a line of a player's history, a balance entry is the balance of a player
+ * after a change, used to rebuild economy_players after a crash.
+ */
+public final class JournalEntry {
+    /**
+     * Kind of a journal entry, its ordinal is stored in the journal files and must not change
+     */
+    public enum Kind {
+        TRANSACTION,
+        BALANCE
+    }
+
+    private final Kind kind;
+    private final long sequence;
+    private final long timestamp;
+    private final UUID uuid;
+    private final TransactionType type;
+    private final long amount;
+    private final String description;
+    private final long balance;
+    private final long earned;
+    private final long spent;
+
+    private JournalEntry(Kind kind, long sequence, long timestamp, UUID uuid, TransactionType type, long amount,
+                         String description, long balance, long earned, long spent) {
+        this.kind = kind;
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.uuid = uuid;
+        this.type = type;
+        this.amount = amount;
+        this.description = description;
+        this.balance = balance;
+        this.earned = earned;
+        this.spent = spent;
+    }
+
+    /**
+     * Create a transaction entry
+     * @param sequence The sequence number of the entry
+     * @param timestamp The time of the transaction in milliseconds
+     * @param uuid The player's UUID
+     * @param type The transaction type
+     * @param amount The amount in cents, negative for money spent
+     * @param description The description, may be null
+     * @return the entry
+     */
+    public static JournalEntry transaction(long sequence, long timestamp, UUID uuid, TransactionType type,
+                                           long amount, String description) {
+        return new JournalEntry(Kind.TRANSACTION, sequence, timestamp, uuid, type, amount, description, 0L, 0L, 0L);
+    }
+
+    /**
+     * Create a balance entry
+     * @param sequence The sequence number of the entry
+     * @param timestamp The time of the change in milliseconds
+     * @param uuid The player's UUID
+     * @param balance The new balance in cents
+     * @param earned The amount added by the change in cents
+     * @param spent The amount removed by the change in cents
+     * @return the entry
+     */
+    public static JournalEntry balance(long sequence, long timestamp, UUID uuid, long balance, long earned, long spent) {
+        return new JournalEntry(Kind.BALANCE, sequence, timestamp, uuid, null, 0L, null, balance, earned, spent);
+    }
+
+    public Kind getKind() { return kind; }
+    public long getSequence() { return sequence; }
+    public long getTimestamp() { return timestamp; }
+    public UUID getUuid() { return uuid; }
+    public TransactionType getType() { return type; }
+    public long getAmount() { return amount; }
+    public String getDescription() { return description; }
+    public long getBalance() { return balance; }
+    public long getEarned() { return earned; }
+    public long getSpent() { return spent; }
+}
@@ -0,0 +1,129 @@
+package com.alexpsvet.economy.journal;
+
+import com.alexpsvet.database.SqlDialect;
+import com.alexpsvet.economy.Money;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Turns the transaction history of the journal into files other tools can read
+ */
+public class JournalExporter {
+    private static final Logger LOGGER = Logger.getLogger("survival");
+
+    /**
+     * Output format of an export
+     */
+    public enum Format {
+        /**
+         * One line per transaction, amounts in major units
+         */
+        CSV("csv"),
+        /**
+         * INSERT statements for economy_transactions, amounts in cents, in the dialect of the exporter
+         */
+        SQL("sql");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final JournalReader reader;
+    private final SqlDialect dialect;
+
+    /**
+     * @param reader The journal read
+     * @param dialect The dialect of the SQL exports, its string literals are escaped differently
+     */
+    public JournalExporter(JournalReader reader, SqlDialect dialect) {
+        this.reader = reader;
+        this.dialect = dialect;
+    }
+
+    /**
+     * Export every transaction with a sequence number above the given one, runs off the main thread
+     * @param format The output format
+     * @param file The file written
+     * @param afterSequence Transactions up to this sequence number are skipped
+     * @return the number of transactions exported, or -1 if error
+     */
+    public long export(Format format, File file, long afterSequence) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            LOGGER.warning("Failed to create export directory: " + parent.getAbsolutePath());
+            return -1;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            if (format == Format.CSV) {
+                writer.write("sequence,timestamp,uuid,type,amount,description");
+                writer.newLine();
+            }
+            long[] count = new long[1];
+            reader.read(afterSequence, entry -> {
+                if (entry.getKind() != JournalEntry.Kind.TRANSACTION) return;
+                try {
+                    if (format == Format.CSV) {
+                        writeCsv(writer, entry);
+                    } else {
+                        writeSql(writer, entry);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            });
+            return count[0];
+        } catch (IOException | UncheckedIOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to export the economy journal to " + file.getAbsolutePath(), e);
+            return -1;
+        }
+    }
+
+    private static void writeCsv(BufferedWriter writer, JournalEntry entry) throws IOException {
+        writer.write(Long.toString(entry.getSequence()));
+        writer.write(',');
+        writer.write(Long.toString(entry.getTimestamp()));
+        writer.write(',');
+        writer.write(entry.getUuid().toString());
+        writer.write(',');
+        writer.write(entry.getType().name());
+        writer.write(',');
+        writer.write(Money.format(entry.getAmount()));
+        writer.write(',');
+        if (entry.getDescription() != null) {
+            writer.write('"');
+            writer.write(entry.getDescription().replace("\"", "\"\""));
+            writer.write('"');
+        }
+        writer.newLine();
+    }
+
+    private void writeSql(BufferedWriter writer, JournalEntry entry) throws IOException {
+        writer.write("INSERT INTO economy_transactions (uuid, type, amount, description, timestamp) VALUES ('");
+        writer.write(entry.getUuid().toString());
+        writer.write("', '");
+        writer.write(entry.getType().name());
+        writer.write("', ");
+        writer.write(Long.toString(entry.getAmount()));
+        writer.write(", ");
+        writer.write(entry.getDescription() != null ? dialect.stringLiteral(entry.getDescription()) : "NULL");
+        writer.write(", ");
+        writer.write(Long.toString(entry.getTimestamp()));
+        writer.write(");");
+        writer.newLine();
+    }
+}
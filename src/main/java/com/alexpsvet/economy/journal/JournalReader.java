@@ -0,0 +1,102 @@
+package com.alexpsvet.economy.journal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Reads the segments of a journal directory in sequence order
+ */
+public class JournalReader {
+    private static final Logger LOGGER = Logger.getLogger("survival");
+    private static final String PREFIX = "economy-";
+    private static final String SUFFIX = ".journal";
+
+    private final File directory;
+
+    public JournalReader(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Read every entry with a sequence number above the given one.
+     * Segments holding only older entries are skipped without being opened.
+     * @param afterSequence Entries up to this sequence number are skipped
+     * @param consumer Receives the entries in sequence order
+     * @return the number of entries read
+     * @throws IOException if a segment cannot be read
+     */
+    public long read(long afterSequence, Consumer<JournalEntry> consumer) throws IOException {
+        List<File> segments = segments();
+        long count = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            // A segment ends right before the first entry of the next one
+            if (i + 1 < segments.size() && firstSequence(segments.get(i + 1)) <= afterSequence + 1) continue;
+
+            ByteBuffer buffer = map(segments.get(i));
+            if (buffer == null) continue;
+            JournalEntry entry;
+            while ((entry = JournalCodec.decode(buffer)) != null) {
+                if (entry.getSequence() > afterSequence) {
+                    consumer.accept(entry);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the segment files, oldest first
+     * @return the segments
+     */
+    public List<File> segments() {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        List<File> segments = new ArrayList<>(Arrays.asList(files));
+        segments.sort((a, b) -> Long.compare(firstSequence(a), firstSequence(b)));
+        return segments;
+    }
+
+    /**
+     * Map a segment for reading, positioned after its header
+     * @param segment The segment file
+     * @return the content, or null if the file is not a journal segment
+     * @throws IOException if the file cannot be mapped
+     */
+    static ByteBuffer map(File segment) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segment, "r"); FileChannel channel = file.getChannel()) {
+            // The mapping stays valid once the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < JournalCodec.HEADER_SIZE
+                    || buffer.getInt() != JournalCodec.MAGIC || buffer.getInt() != JournalCodec.VERSION) {
+                LOGGER.warning("Skipping unreadable journal segment " + segment.getName());
+                return null;
+            }
+            return buffer;
+        }
+    }
+
+    static File segmentFile(File directory, long firstSequence) {
+        return new File(directory, PREFIX + String.format("%020d", firstSequence) + SUFFIX);
+    }
+
+    static long firstSequence(File segment) {
+        String name = segment.getName();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
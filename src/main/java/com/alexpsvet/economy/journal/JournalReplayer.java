@@ -0,0 +1,92 @@
+package com.alexpsvet.economy.journal;
+
+import com.alexpsvet.database.Database;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Rebuilds economy_players from the balance entries of the journal after a crash.
+ * Each stored balance carries the sequence number of the change it was written for,
+ * so only newer entries are applied and replaying twice changes nothing.
+ */
+public class JournalReplayer {
+    private static final Logger LOGGER = Logger.getLogger("survival");
+    private static final String BALANCE_RESTORE =
+        "UPDATE economy_players SET balance = ?, total_earned = total_earned + ?, total_spent = total_spent + ?, journal_seq = ? WHERE uuid = ?";
+
+    private final Database database;
+    private final JournalReader reader;
+
+    public JournalReplayer(Database database, JournalReader reader) {
+        this.database = database;
+        this.reader = reader;
+    }
+
+    /**
+     * Apply the balance entries the database is missing, runs off the main thread
+     * @param afterSequence Entries up to this sequence number are known to be stored
+     * @return the number of balances restored, or -1 if error
+     */
+    public int replay(long afterSequence) {
+        Map<UUID, Long> stored = new HashMap<>();
+        for (Map.Entry<UUID, Long> row : database.query("SELECT uuid, journal_seq FROM economy_players",
+                rs -> new AbstractMap.SimpleImmutableEntry<>(UUID.fromString(rs.getString("uuid")), rs.getLong("journal_seq")))) {
+            stored.put(row.getKey(), row.getValue());
+        }
+
+        Map<UUID, Restore> restores = new HashMap<>();
+        int[] unknown = new int[1];
+        try {
+            reader.read(afterSequence, entry -> {
+                if (entry.getKind() != JournalEntry.Kind.BALANCE) return;
+                Long storedSequence = stored.get(entry.getUuid());
+                if (storedSequence == null) {
+                    // The account row itself was never written, it is created again on the next join
+                    unknown[0]++;
+                    return;
+                }
+                if (entry.getSequence() <= storedSequence) return;
+                Restore restore = restores.computeIfAbsent(entry.getUuid(), uuid -> new Restore());
+                restore.balance = entry.getBalance();
+                restore.earned += entry.getEarned();
+                restore.spent += entry.getSpent();
+                restore.sequence = entry.getSequence();
+            });
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to read the economy journal", e);
+            return -1;
+        }
+        if (unknown[0] > 0) {
+            LOGGER.warning("Skipped " + unknown[0] + " journal balance entries of players without an account");
+        }
+        if (restores.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> rows = new ArrayList<>(restores.size());
+        for (Map.Entry<UUID, Restore> entry : restores.entrySet()) {
+            Restore restore = entry.getValue();
+            rows.add(new Object[] { restore.balance, restore.earned, restore.spent, restore.sequence, entry.getKey().toString() });
+        }
+        if (!database.writeAsync(() -> database.executeBatch(BALANCE_RESTORE, rows)).join()) {
+            return -1;
+        }
+        LOGGER.info("Restored " + rows.size() + " balance(s) from the economy journal");
+        return rows.size();
+    }
+
+    private static final class Restore {
+        private long balance;
+        private long earned;
+        private long spent;
+        private long sequence;
+    }
+}
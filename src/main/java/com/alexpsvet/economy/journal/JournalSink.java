@@ -0,0 +1,26 @@
+package com.alexpsvet.economy.journal;
+
+import java.util.List;
+
+/**
+ * Destination of the economy journal, written by the journal thread only
+ */
+public interface JournalSink {
+    /**
+     * Check if balance entries are kept, a sink keeping only the history does not need them
+     * @return true if balance entries are written
+     */
+    boolean storesBalances();
+
+    /**
+     * Append a batch of entries, in sequence order
+     * @param entries The entries, balance entries included only if {@link #storesBalances()}
+     * @return true if the entries were stored, false to retry them with the next batch
+     */
+    boolean write(List<JournalEntry> entries);
+
+    /**
+     * Release the resources of the sink, after the last batch was written
+     */
+    void close();
+}
@@ -0,0 +1,258 @@
+package com.alexpsvet.economy.journal;
+
+import com.alexpsvet.economy.TransactionType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only journal of the economy.
+ * Entries are numbered and buffered in memory by the thread changing the money,
+ * then appended to every sink in large batches by the journal thread,
+ * on an interval or when too many entries are pending.
+ * A batch a sink failed to store is retried with the next one.
+ */
+public class TransactionJournal {
+    private static final Logger LOGGER = Logger.getLogger("survival");
+
+    private final List<Target> targets;
+    private final AtomicBoolean flushScheduled;
+    private final Object lock = new Object();
+    private List<JournalEntry> pending;
+    private long sequence;
+    private boolean storesBalances;
+    private long flushIntervalMillis = 1000L;
+    private int maxPending = 5000;
+    private ScheduledExecutorService executor;
+
+    public TransactionJournal() {
+        this.targets = new ArrayList<>();
+        this.flushScheduled = new AtomicBoolean();
+        this.pending = new ArrayList<>();
+    }
+
+    /**
+     * Set the flush interval and the pending entry threshold, must be called before the journal starts
+     * @param flushIntervalMillis Interval between two flushes
+     * @param maxPending Number of pending entries that triggers an early flush
+     */
+    public void setFlushSettings(long flushIntervalMillis, int maxPending) {
+        this.flushIntervalMillis = Math.max(100L, flushIntervalMillis);
+        this.maxPending = Math.max(1, maxPending);
+    }
+
+    /**
+     * Add a sink, must be called before the journal starts
+     * @param sink The sink
+     */
+    public void addSink(JournalSink sink) {
+        targets.add(new Target(sink));
+        storesBalances |= sink.storesBalances();
+    }
+
+    /**
+     * Start numbering entries after the given sequence number and start the journal thread
+     * @param lastSequence The highest sequence number already used
+     */
+    public void start(long lastSequence) {
+        synchronized (lock) {
+            sequence = Math.max(sequence, lastSequence);
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Survival-Journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::write, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Record a line of a player's history
+     * @param uuid The player's UUID
+     * @param type The transaction type
+     * @param amount The amount in cents, negative for money spent
+     * @param description The description
+     * @return the sequence number of the entry
+     */
+    public long recordTransaction(UUID uuid, TransactionType type, long amount, String description) {
+        long now = System.currentTimeMillis();
+        synchronized (lock) {
+            long number = ++sequence;
+            append(JournalEntry.transaction(number, now, uuid, type, amount, description));
+            return number;
+        }
+    }
+
+    /**
+     * Record the balance of a player after a change.
+     * Must be called while the balance is locked, so the entries of a player are numbered in the order of the changes.
+     * @param uuid The player's UUID
+     * @param balance The new balance in cents
+     * @param earned The amount added by the change in cents
+     * @param spent The amount removed by the change in cents
+     * @return the sequence number of the change, stored with the balance
+     */
+    public long recordBalance(UUID uuid, long balance, long earned, long spent) {
+        long now = System.currentTimeMillis();
+        synchronized (lock) {
+            long number = ++sequence;
+            if (storesBalances) {
+                append(JournalEntry.balance(number, now, uuid, balance, earned, spent));
+            }
+            return number;
+        }
+    }
+
+    /**
+     * Must be called with the lock held
+     */
+    private void append(JournalEntry entry) {
+        pending.add(entry);
+        if (pending.size() >= maxPending && executor != null && flushScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::write);
+            } catch (RejectedExecutionException e) {
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Append every pending entry and wait for the sinks
+     */
+    public void flush() {
+        if (executor == null) {
+            write();
+            return;
+        }
+        try {
+            executor.submit(this::write).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RejectedExecutionException e) {
+            LOGGER.log(Level.SEVERE, "Failed to flush the economy journal", e);
+        }
+    }
+
+    /**
+     * Append every pending entry, stop the journal thread and close the sinks
+     */
+    public void close() {
+        flush();
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        for (Target target : targets) {
+            if (!target.retry.isEmpty()) {
+                LOGGER.severe(target.retry.size() + " economy journal entries could not be stored by "
+                    + target.sink.getClass().getSimpleName());
+            }
+            target.sink.close();
+        }
+    }
+
+    /**
+     * Get the number of entries waiting for a sink
+     * @return the number of pending entries, retried ones included
+     */
+    public long getPendingCount() {
+        long count;
+        synchronized (lock) {
+            count = pending.size();
+        }
+        for (Target target : targets) {
+            count += target.retry.size();
+        }
+        return count;
+    }
+
+    /**
+     * Get the highest sequence number used
+     * @return the sequence number
+     */
+    public long getSequence() {
+        synchronized (lock) {
+            return sequence;
+        }
+    }
+
+    /**
+     * Drain the pending entries and hand them to every sink, run on the journal thread
+     */
+    private void write() {
+        flushScheduled.set(false);
+        List<JournalEntry> batch;
+        synchronized (lock) {
+            if (pending.isEmpty() && !hasRetries()) {
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+
+        for (Target target : targets) {
+            List<JournalEntry> entries = batch;
+            if (!target.retry.isEmpty()) {
+                entries = new ArrayList<>(target.retry);
+                entries.addAll(batch);
+            }
+            if (!target.sink.storesBalances()) {
+                entries = transactionsOnly(entries);
+            }
+            if (entries.isEmpty()) continue;
+
+            boolean stored;
+            try {
+                stored = target.sink.write(entries);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Economy journal sink failed", e);
+                stored = false;
+            }
+            if (stored) {
+                target.retry = new ArrayList<>();
+            } else {
+                target.retry = entries;
+                LOGGER.warning(entries.size() + " economy journal entries will be retried");
+            }
+        }
+    }
+
+    private boolean hasRetries() {
+        for (Target target : targets) {
+            if (!target.retry.isEmpty()) return true;
+        }
+        return false;
+    }
+
+    private static List<JournalEntry> transactionsOnly(List<JournalEntry> entries) {
+        List<JournalEntry> transactions = new ArrayList<>(entries.size());
+        for (JournalEntry entry : entries) {
+            if (entry.getKind() == JournalEntry.Kind.TRANSACTION) {
+                transactions.add(entry);
+            }
+        }
+        return transactions;
+    }
+
+    /**
+     * A sink and the entries it failed to store, only touched by the journal thread
+     */
+    private static final class Target {
+        private final JournalSink sink;
+        private volatile List<JournalEntry> retry = new ArrayList<>();
+
+        private Target(JournalSink sink) {
+            this.sink = sink;
+        }
+    }
+}
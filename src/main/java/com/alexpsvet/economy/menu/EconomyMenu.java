@@ -1,45 +1,62 @@
 package com.alexpsvet.economy.menu;
 
 import com.alexpsvet.Survival;
+import com.alexpsvet.economy.BalanceRanking;
 import com.alexpsvet.economy.EconomyManager;
+import com.alexpsvet.economy.Money;
+import com.alexpsvet.economy.TransactionType;
+import com.alexpsvet.economy.history.HistoryFilter;
+import com.alexpsvet.economy.history.HistoryPage;
+import com.alexpsvet.economy.history.TransactionHistory;
+import com.alexpsvet.economy.history.TransactionRecord;
 import com.alexpsvet.utils.MessageUtil;
-import org.bukkit.Bukkit;
+import com.alexpsvet.utils.menu.Button;
+import com.alexpsvet.utils.menu.Menu;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.Inventory;
+import org.bukkit.event.inventory.ClickType;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
 
 /**
  * Menu for economy/balance information
  */
 public class EconomyMenu {
+    private static final int TOP_SHOWN = 5;
+    private static final int HISTORY_PAGE_SIZE = 45;
+    private static final int[] HISTORY_PERIODS = {0, 1, 7, 30};
     
     /**
      * Open the economy menu for a player
      */
     public static void open(Player player) {
         EconomyManager economyManager = EconomyManager.getInstance();
-        double balance = economyManager.getBalance(player.getUniqueId());
+        long balance = economyManager.getBalance(player.getUniqueId());
         String currency = Survival.getInstance().getConfig().getString("economy.currency-name", "Coins");
         String symbol = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
         
-        Inventory inv = Bukkit.createInventory(null, 27, MessageUtil.colorize("&6&lÉconomie"));
+        Menu.Builder builder = new Menu.Builder()
+            .title(MessageUtil.colorize("&6&lÉconomie"))
+            .rows(3);
         
         // Balance display
         ItemStack balanceItem = createItem(Material.GOLD_INGOT, "&e&lVotre Solde",
-            "&7Solde actuel: &e" + String.format("%.2f", balance) + " " + symbol,
+            "&7Solde actuel: &e" + Money.format(balance) + " " + symbol,
             "",
             "&7Monnaie: &e" + currency
         );
-        inv.setItem(13, balanceItem);
+        builder.button(new Button.Builder().slot(13).item(balanceItem).build());
         
         // Salary info
         boolean salaryEnabled = Survival.getInstance().getConfig().getBoolean("economy.salary.enabled");
         if (salaryEnabled) {
-            double salaryAmount = Survival.getInstance().getConfig().getDouble("economy.salary.amount");
+            long salaryAmount = Money.of(Survival.getInstance().getConfig().getDouble("economy.salary.amount"));
             int salaryInterval = Survival.getInstance().getConfig().getInt("economy.salary.interval-minutes");
             long lastSalary = economyManager.getLastSalary(player.getUniqueId());
             long nextSalary = lastSalary + (salaryInterval * 60 * 1000L);
@@ -47,12 +64,12 @@ public class EconomyMenu {
             int minutesUntil = (int) (timeUntilNext / 60000);
             
             ItemStack salaryItem = createItem(Material.CLOCK, "&a&lSalaire",
-                "&7Montant: &e" + String.format("%.2f", salaryAmount) + " " + symbol,
+                "&7Montant: &e" + Money.format(salaryAmount) + " " + symbol,
                 "&7Fréquence: &eToutes les " + salaryInterval + " minutes",
                 "",
                 "&7Prochain salaire dans: &e" + minutesUntil + " minutes"
             );
-            inv.setItem(11, salaryItem);
+            builder.button(new Button.Builder().slot(11).item(salaryItem).build());
         }
         
         // Pay another player
@@ -62,17 +79,150 @@ public class EconomyMenu {
             "",
             "&eUtilisez: /pay <joueur> <montant>"
         );
-        inv.setItem(15, payItem);
+        builder.button(new Button.Builder().slot(15).item(payItem).build());
         
-        // Top balances
-        ItemStack topItem = createItem(Material.DIAMOND, "&b&lClassement",
-            "&7Voir les joueurs les plus riches",
+        // Transaction history
+        ItemStack historyItem = createItem(Material.BOOK, "&d&lHistorique",
+            "&7Voir vos dernières transactions",
             "",
-            "&eUtilisez: /baltop"
+            "&eCliquez pour voir!"
         );
-        inv.setItem(22, topItem);
+        builder.button(new Button.Builder()
+            .slot(4)
+            .item(historyItem)
+            .onClick((p, clickType) -> openHistory(p, 0, true))
+            .build());
+        
+        // Top balances
+        BalanceRanking ranking = economyManager.getRanking();
+        List<String> topLore = new ArrayList<>();
+        for (BalanceRanking.Entry entry : ranking.getPage(0, TOP_SHOWN)) {
+            String name = entry.getPlayerName() != null ? entry.getPlayerName() : entry.getUuid().toString().substring(0, 8);
+            topLore.add("&e#" + entry.getRank() + " &f" + name + " &7- &e" + Money.formatWhole(entry.getBalance()) + " " + symbol);
+        }
+        int rank = ranking.getRank(player.getUniqueId());
+        if (rank > 0) {
+            topLore.add("");
+            topLore.add("&7Votre rang: &e#" + rank + " &7sur &e" + ranking.size());
+        }
+        topLore.add("");
+        topLore.add("&eUtilisez: /baltop");
+        ItemStack topItem = createItem(Material.DIAMOND, "&b&lClassement", topLore.toArray(new String[0]));
+        builder.button(new Button.Builder().slot(22).item(topItem).build());
         
-        player.openInventory(inv);
+        builder.build().open(player);
+    }
+    
+    /**
+     * Open a page of the player's transaction history, read in the background
+     * @param player The player
+     * @param page The page index, starting at 0
+     * @param refresh Read the history again instead of the cached pages
+     */
+    public static void openHistory(Player player, int page, boolean refresh) {
+        TransactionHistory history = EconomyManager.getInstance().getHistory();
+        history.getPage(player.getUniqueId(), player.getUniqueId(), page, HISTORY_PAGE_SIZE, refresh).thenAccept(result -> {
+            if (player.isOnline()) {
+                showHistory(player, result, history.getFilter(player.getUniqueId()));
+            }
+        });
+    }
+    
+    private static void showHistory(Player player, HistoryPage page, HistoryFilter filter) {
+        String symbol = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
+        SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm");
+        
+        Menu.Builder builder = new Menu.Builder()
+            .title(MessageUtil.colorize("&d&lHistorique &7(page " + (page.getIndex() + 1) + ")"))
+            .rows(6);
+        
+        int slot = 0;
+        for (TransactionRecord record : page.getRecords()) {
+            boolean credit = record.getAmount() >= 0;
+            List<String> lore = new ArrayList<>();
+            lore.add("&7Type: &f" + record.getType().name());
+            lore.add("&7Date: &f" + dateFormat.format(new Date(record.getTimestamp())));
+            if (record.getDescription() != null && !record.getDescription().isEmpty()) {
+                lore.add("&7" + record.getDescription());
+            }
+            ItemStack item = createItem(credit ? Material.LIME_DYE : Material.RED_DYE,
+                (credit ? "&a+" : "&c") + Money.format(record.getAmount()) + " " + symbol,
+                lore.toArray(new String[0]));
+            builder.button(new Button.Builder().slot(slot++).item(item).build());
+        }
+        
+        if (page.getIndex() > 0) {
+            builder.button(new Button.Builder()
+                .slot(45)
+                .item(createItem(Material.ARROW, "&ePage précédente"))
+                .onClick((p, clickType) -> openHistory(p, page.getIndex() - 1, false))
+                .build());
+        }
+        
+        // Type filter, left click for the next type, right click for the previous one, shift click to clear
+        String typeName = filter.getType() != null ? filter.getType().name() : "Tous";
+        builder.button(new Button.Builder()
+            .slot(47)
+            .item(createItem(Material.HOPPER, "&6&lType: &f" + typeName,
+                "&7Clic gauche: type suivant",
+                "&7Clic droit: type précédent",
+                "&7Shift + clic: tous les types"))
+            .onClick((p, clickType) -> {
+                TransactionHistory history = EconomyManager.getInstance().getHistory();
+                history.setFilter(p.getUniqueId(), filter.withType(cycleType(filter.getType(), clickType)));
+                openHistory(p, 0, false);
+            })
+            .build());
+        
+        // Period filter
+        int days = filter.getDays();
+        builder.button(new Button.Builder()
+            .slot(48)
+            .item(createItem(Material.CLOCK, "&6&lPériode: &f" + (days > 0 ? days + " jour(s)" : "Tout"),
+                "&7Cliquez pour changer la période"))
+            .onClick((p, clickType) -> {
+                TransactionHistory history = EconomyManager.getInstance().getHistory();
+                history.setFilter(p.getUniqueId(), filter.lastDays(nextPeriod(days)));
+                openHistory(p, 0, false);
+            })
+            .build());
+        
+        builder.button(new Button.Builder()
+            .slot(49)
+            .item(createItem(Material.BARRIER, "&cRetour"))
+            .onClick((p, clickType) -> open(p))
+            .build());
+        
+        if (page.hasNext()) {
+            builder.button(new Button.Builder()
+                .slot(53)
+                .item(createItem(Material.ARROW, "&ePage suivante"))
+                .onClick((p, clickType) -> openHistory(p, page.getIndex() + 1, false))
+                .build());
+        }
+        
+        builder.build().open(player);
+    }
+    
+    private static TransactionType cycleType(TransactionType current, ClickType clickType) {
+        if (clickType.isShiftClick()) {
+            return null;
+        }
+        TransactionType[] types = TransactionType.values();
+        // Index types.length stands for every type
+        int index = current != null ? current.ordinal() : types.length;
+        int step = clickType.isRightClick() ? types.length : 1;
+        index = (index + step) % (types.length + 1);
+        return index < types.length ? types[index] : null;
+    }
+    
+    private static int nextPeriod(int days) {
+        for (int period : HISTORY_PERIODS) {
+            if (period > days) {
+                return period;
+            }
+        }
+        return HISTORY_PERIODS[0];
     }
     
     /**
@@ -2,6 +2,7 @@ package com.alexpsvet.gamble;
 
 import com.alexpsvet.Survival;
 import com.alexpsvet.economy.EconomyManager;
+import com.alexpsvet.economy.Money;
 import com.alexpsvet.economy.TransactionType;
 import com.alexpsvet.gamble.blackjack.BlackjackGame;
 import com.alexpsvet.gamble.blackjack.Card;
@@ -22,7 +23,7 @@ import java.util.*;
  */
 public class GambleMenu {
     
-    private static final Map<UUID, Double> activeBets = new HashMap<>();
+    private static final Map<UUID, Long> activeBets = new HashMap<>();
     private static final Map<UUID, CoinSide> activeChoices = new HashMap<>();
     private static final Map<UUID, BlackjackGame> activeBlackjackGames = new HashMap<>();
     private static final Set<UUID> playersInActiveGame = new HashSet<>(); // Track players actively playing
@@ -59,7 +60,7 @@ public class GambleMenu {
             if (player.isOnline()) {
                 String currency = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
                 MessageUtil.sendError(player, "Vous avez quitté la partie! Mise perdue: " + 
-                    game.getBet() + " " + currency);
+                    Money.format(game.getBet()) + " " + currency);
             }
         }
         
@@ -100,7 +101,7 @@ public class GambleMenu {
         
         String currency = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
         EconomyManager eco = Survival.getInstance().getEconomyManager();
-        double balance = eco.getBalance(player.getUniqueId());
+        long balance = eco.getBalance(player.getUniqueId());
         
         // Info item
         ItemStack info = new ItemStack(Material.NETHER_STAR);
@@ -108,7 +109,7 @@ public class GambleMenu {
         infoLore.add(MessageUtil.colorize("&7Bienvenue au casino!"));
         infoLore.add(MessageUtil.colorize("&7Choisissez votre jeu"));
         infoLore.add("");
-        infoLore.add(MessageUtil.colorize("&7Votre solde: &e" + balance + " " + currency));
+        infoLore.add(MessageUtil.colorize("&7Votre solde: &e" + Money.format(balance) + " " + currency));
         infoLore.add("");
         infoLore.add(MessageUtil.colorize("&e&lBonne chance!"));
         
@@ -182,7 +183,7 @@ public class GambleMenu {
         
         String currency = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
         EconomyManager eco = Survival.getInstance().getEconomyManager();
-        double balance = eco.getBalance(player.getUniqueId());
+        long balance = eco.getBalance(player.getUniqueId());
         
         // Info item
         ItemStack info = new ItemStack(Material.BOOK);
@@ -190,7 +191,7 @@ public class GambleMenu {
         infoLore.add(MessageUtil.colorize("&7Pariez sur Pile ou Face"));
         infoLore.add(MessageUtil.colorize("&7et doublez votre mise!"));
         infoLore.add("");
-        infoLore.add(MessageUtil.colorize("&7Votre solde: &e" + balance + " " + currency));
+        infoLore.add(MessageUtil.colorize("&7Votre solde: &e" + Money.format(balance) + " " + currency));
         infoLore.add("");
         infoLore.add(MessageUtil.colorize("&e&lChoisissez un montant à parier"));
         
@@ -202,25 +203,25 @@ public class GambleMenu {
             .build());
         
         // Bet amount options
-        double[] betAmounts = {10, 50, 100, 500, 1000, 5000, 10000, 25000, 50000};
+        long[] betAmounts = {10, 50, 100, 500, 1000, 5000, 10000, 25000, 50000};
         int[] slots = {10, 11, 12, 13, 14, 15, 16, 19, 20};
         
         for (int i = 0; i < betAmounts.length; i++) {
             if (i >= slots.length) break;
             
-            final double amount = betAmounts[i];
-            Material material = amount <= 100 ? Material.GOLD_NUGGET :
-                               amount <= 1000 ? Material.GOLD_INGOT :
-                               amount <= 10000 ? Material.GOLD_BLOCK :
+            final long amount = betAmounts[i] * Money.SCALE;
+            Material material = amount <= 100 * Money.SCALE ? Material.GOLD_NUGGET :
+                               amount <= 1000 * Money.SCALE ? Material.GOLD_INGOT :
+                               amount <= 10000 * Money.SCALE ? Material.GOLD_BLOCK :
                                Material.DIAMOND;
             
             ItemStack item = new ItemStack(material);
             List<String> lore = new ArrayList<>();
-            lore.add(MessageUtil.colorize("&7Pari: &e" + amount + " " + currency));
+            lore.add(MessageUtil.colorize("&7Pari: &e" + Money.format(amount) + " " + currency));
             lore.add("");
             
             if (balance >= amount) {
-                lore.add(MessageUtil.colorize("&aGain possible: &e" + (amount * 2) + " " + currency));
+                lore.add(MessageUtil.colorize("&aGain possible: &e" + Money.format(amount * 2) + " " + currency));
                 lore.add("");
                 lore.add(MessageUtil.colorize("&eCliquez pour parier!"));
             } else {
@@ -230,7 +231,7 @@ public class GambleMenu {
             builder.button(new Button.Builder()
                 .slot(slots[i])
                 .item(item)
-                .name(MessageUtil.colorize("&6&lParier " + amount + " " + currency))
+                .name(MessageUtil.colorize("&6&lParier " + Money.format(amount) + " " + currency))
                 .lore(lore)
                 .onClick((p, clickType) -> {
                     if (balance >= amount) {
@@ -259,7 +260,7 @@ public class GambleMenu {
      * Open choice menu (Pile or Face)
      */
     public static void openChoiceMenu(Player player) {
-        Double betAmount = activeBets.get(player.getUniqueId());
+        Long betAmount = activeBets.get(player.getUniqueId());
         if (betAmount == null) {
             openCoinFlipMenu(player);
             return;
@@ -274,7 +275,7 @@ public class GambleMenu {
         // Pile choice
         ItemStack pile = new ItemStack(Material.IRON_BLOCK);
         List<String> pileLore = new ArrayList<>();
-        pileLore.add(MessageUtil.colorize("&7Pari: &e" + betAmount + " " + currency));
+        pileLore.add(MessageUtil.colorize("&7Pari: &e" + Money.format(betAmount) + " " + currency));
         pileLore.add("");
         pileLore.add(MessageUtil.colorize("&eCliquez pour choisir PILE!"));
         
@@ -292,7 +293,7 @@ public class GambleMenu {
         // Face choice
         ItemStack face = new ItemStack(Material.GOLD_BLOCK);
         List<String> faceLore = new ArrayList<>();
-        faceLore.add(MessageUtil.colorize("&7Pari: &e" + betAmount + " " + currency));
+        faceLore.add(MessageUtil.colorize("&7Pari: &e" + Money.format(betAmount) + " " + currency));
         faceLore.add("");
         faceLore.add(MessageUtil.colorize("&eCliquez pour choisir FACE!"));
         
@@ -327,7 +328,7 @@ public class GambleMenu {
      * Play the game and show result
      */
     private static void playGame(Player player) {
-        Double betAmount = activeBets.get(player.getUniqueId());
+        Long betAmount = activeBets.get(player.getUniqueId());
         CoinSide choice = activeChoices.get(player.getUniqueId());
         
         if (betAmount == null || choice == null) {
@@ -356,7 +357,7 @@ public class GambleMenu {
     /**
      * Show coin flipping animation
      */
-    private static void showFlippingAnimation(Player player, double betAmount, CoinSide choice) {
+    private static void showFlippingAnimation(Player player, long betAmount, CoinSide choice) {
         String currency = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
         
         // Close current menu
@@ -368,7 +369,7 @@ public class GambleMenu {
         player.sendMessage(MessageUtil.colorize("&e&l━━━━━━━━━━━━━━━━━━━━━━━━"));
         player.sendMessage("");
         player.sendMessage(MessageUtil.colorize("&7Votre choix: &e" + choice.getDisplayName()));
-        player.sendMessage(MessageUtil.colorize("&7Pari: &e" + betAmount + " " + currency));
+        player.sendMessage(MessageUtil.colorize("&7Pari: &e" + Money.format(betAmount) + " " + currency));
         player.sendMessage("");
         player.sendMessage(MessageUtil.colorize("&e⟳ La pièce tourne..."));
         
@@ -392,7 +393,7 @@ public class GambleMenu {
     /**
      * Show result of the coin flip
      */
-    private static void showResult(Player player, double betAmount, CoinSide choice) {
+    private static void showResult(Player player, long betAmount, CoinSide choice) {
         String currency = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
         EconomyManager eco = Survival.getInstance().getEconomyManager();
         
@@ -406,12 +407,12 @@ public class GambleMenu {
         player.sendMessage("");
         
         if (won) {
-            double winAmount = betAmount * 2;
+            long winAmount = betAmount * 2;
             eco.addBalance(player.getUniqueId(), winAmount);
             
             player.sendMessage(MessageUtil.colorize("&a&l✓ GAGNÉ!"));
-            player.sendMessage(MessageUtil.colorize("&7Gain: &a+" + winAmount + " " + currency));
-            player.sendMessage(MessageUtil.colorize("&7Profit: &a+" + betAmount + " " + currency));
+            player.sendMessage(MessageUtil.colorize("&7Gain: &a+" + Money.format(winAmount) + " " + currency));
+            player.sendMessage(MessageUtil.colorize("&7Profit: &a+" + Money.format(betAmount) + " " + currency));
             
             player.playSound(player.getLocation(), Sound.ENTITY_PLAYER_LEVELUP, 1.0f, 1.0f);
             
@@ -425,7 +426,7 @@ public class GambleMenu {
             eco.addTransaction(player.getUniqueId(), TransactionType.GAMBLE_WIN, betAmount, "Coinflip Win");
         } else {
             player.sendMessage(MessageUtil.colorize("&c&l✗ PERDU!"));
-            player.sendMessage(MessageUtil.colorize("&7Perte: &c-" + betAmount + " " + currency));
+            player.sendMessage(MessageUtil.colorize("&7Perte: &c-" + Money.format(betAmount) + " " + currency));
             
             player.playSound(player.getLocation(), Sound.ENTITY_VILLAGER_NO, 1.0f, 1.0f);
             
@@ -433,7 +434,7 @@ public class GambleMenu {
         }
         
         player.sendMessage("");
-        player.sendMessage(MessageUtil.colorize("&7Nouveau solde: &e" + eco.getBalance(player.getUniqueId()) + " " + currency));
+        player.sendMessage(MessageUtil.colorize("&7Nouveau solde: &e" + Money.format(eco.getBalance(player.getUniqueId())) + " " + currency));
         player.sendMessage(MessageUtil.colorize("&e&l━━━━━━━━━━━━━━━━━━━━━━━━"));
         
         // Clean up
@@ -460,12 +461,12 @@ public class GambleMenu {
         
         String currency = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
         EconomyManager eco = Survival.getInstance().getEconomyManager();
-        double balance = eco.getBalance(player.getUniqueId());
+        long balance = eco.getBalance(player.getUniqueId());
         
         // Info item
         ItemStack info = new ItemStack(Material.BOOK);
         List<String> infoLore = new ArrayList<>();
-        infoLore.add(MessageUtil.colorize("&7Votre solde: &e" + balance + " " + currency));
+        infoLore.add(MessageUtil.colorize("&7Votre solde: &e" + Money.format(balance) + " " + currency));
         infoLore.add("");
         infoLore.add(MessageUtil.colorize("&7Blackjack: &ax2.5"));
         infoLore.add(MessageUtil.colorize("&7Victoire: &ax2"));
@@ -480,23 +481,23 @@ public class GambleMenu {
             .build());
         
         // Bet amounts
-        double[] betAmounts = {100, 500, 1000, 5000, 10000, 25000, 50000};
+        long[] betAmounts = {100, 500, 1000, 5000, 10000, 25000, 50000};
         int[] slots = {10, 11, 12, 13, 14, 15, 16};
         
         for (int i = 0; i < betAmounts.length && i < slots.length; i++) {
-            final double amount = betAmounts[i];
-            Material material = amount <= 1000 ? Material.GOLD_NUGGET :
-                               amount <= 10000 ? Material.GOLD_INGOT :
+            final long amount = betAmounts[i] * Money.SCALE;
+            Material material = amount <= 1000 * Money.SCALE ? Material.GOLD_NUGGET :
+                               amount <= 10000 * Money.SCALE ? Material.GOLD_INGOT :
                                Material.DIAMOND;
             
             ItemStack item = new ItemStack(material);
             List<String> lore = new ArrayList<>();
-            lore.add(MessageUtil.colorize("&7Mise: &e" + amount + " " + currency));
+            lore.add(MessageUtil.colorize("&7Mise: &e" + Money.format(amount) + " " + currency));
             lore.add("");
             
             if (balance >= amount) {
-                lore.add(MessageUtil.colorize("&aGain possible: &e" + (amount * 2) + " " + currency));
-                lore.add(MessageUtil.colorize("&aBlackjack: &e" + (amount * 2.5) + " " + currency));
+                lore.add(MessageUtil.colorize("&aGain possible: &e" + Money.format(amount * 2) + " " + currency));
+                lore.add(MessageUtil.colorize("&aBlackjack: &e" + Money.format(amount * 5 / 2) + " " + currency));
                 lore.add("");
                 lore.add(MessageUtil.colorize("&eCliquez pour parier!"));
             } else {
@@ -506,7 +507,7 @@ public class GambleMenu {
             builder.button(new Button.Builder()
                 .slot(slots[i])
                 .item(item)
-                .name(MessageUtil.colorize("&6&lParier " + amount + " " + currency))
+                .name(MessageUtil.colorize("&6&lParier " + Money.format(amount) + " " + currency))
                 .lore(lore)
                 .onClick((p, clickType) -> {
                     if (balance >= amount) {
@@ -533,7 +534,7 @@ public class GambleMenu {
     /**
      * Start a new blackjack game
      */
-    private static void startBlackjackGame(Player player, double bet) {
+    private static void startBlackjackGame(Player player, long bet) {
         EconomyManager eco = Survival.getInstance().getEconomyManager();
         
         // Check balance
@@ -625,7 +626,7 @@ public class GambleMenu {
         // Info/Bet display
         ItemStack info = new ItemStack(Material.GOLD_INGOT);
         List<String> infoLore = new ArrayList<>();
-        infoLore.add(MessageUtil.colorize("&7Mise: &e" + game.getBet() + " " + currency));
+        infoLore.add(MessageUtil.colorize("&7Mise: &e" + Money.format(game.getBet()) + " " + currency));
         infoLore.add("");
         infoLore.add(MessageUtil.colorize("&7État: &e" + getStateDisplay(game.getState())));
         
@@ -707,14 +708,14 @@ public class GambleMenu {
         player.sendMessage(MessageUtil.colorize("&c&lDealer: &f" + dealerHand.toString()));
         player.sendMessage("");
         
-        double winnings = game.getWinnings();
-        double profit = winnings - game.getBet();
+        long winnings = game.getWinnings();
+        long profit = winnings - game.getBet();
         
         switch (game.getState()) {
             case PLAYER_BLACKJACK:
                 player.sendMessage(MessageUtil.colorize("&6&l★ BLACKJACK! ★"));
-                player.sendMessage(MessageUtil.colorize("&7Gain: &a+" + winnings + " " + currency));
-                player.sendMessage(MessageUtil.colorize("&7Profit: &a+" + profit + " " + currency));
+                player.sendMessage(MessageUtil.colorize("&7Gain: &a+" + Money.format(winnings) + " " + currency));
+                player.sendMessage(MessageUtil.colorize("&7Profit: &a+" + Money.format(profit) + " " + currency));
                 eco.addBalance(player.getUniqueId(), winnings);
                 eco.addTransaction(player.getUniqueId(), TransactionType.GAMBLE_WIN, profit, "Blackjack Win (Blackjack)");
                 player.playSound(player.getLocation(), Sound.UI_TOAST_CHALLENGE_COMPLETE, 1.0f, 1.0f);
@@ -723,8 +724,8 @@ public class GambleMenu {
             case PLAYER_WIN:
             case DEALER_BUSTED:
                 player.sendMessage(MessageUtil.colorize("&a&l✓ VICTOIRE!"));
-                player.sendMessage(MessageUtil.colorize("&7Gain: &a+" + winnings + " " + currency));
-                player.sendMessage(MessageUtil.colorize("&7Profit: &a+" + profit + " " + currency));
+                player.sendMessage(MessageUtil.colorize("&7Gain: &a+" + Money.format(winnings) + " " + currency));
+                player.sendMessage(MessageUtil.colorize("&7Profit: &a+" + Money.format(profit) + " " + currency));
                 eco.addBalance(player.getUniqueId(), winnings);
                 eco.addTransaction(player.getUniqueId(), TransactionType.GAMBLE_WIN, profit, "Blackjack Win");
                 player.playSound(player.getLocation(), Sound.ENTITY_PLAYER_LEVELUP, 1.0f, 1.0f);
@@ -732,28 +733,28 @@ public class GambleMenu {
                 
             case PUSH:
                 player.sendMessage(MessageUtil.colorize("&e&l= ÉGALITÉ!"));
-                player.sendMessage(MessageUtil.colorize("&7Mise rendue: &e" + game.getBet() + " " + currency));
+                player.sendMessage(MessageUtil.colorize("&7Mise rendue: &e" + Money.format(game.getBet()) + " " + currency));
                 eco.addBalance(player.getUniqueId(), winnings);
                 player.playSound(player.getLocation(), Sound.BLOCK_NOTE_BLOCK_PLING, 1.0f, 1.0f);
                 break;
                 
             case PLAYER_BUSTED:
                 player.sendMessage(MessageUtil.colorize("&c&l✗ BUST! (Dépassé 21)"));
-                player.sendMessage(MessageUtil.colorize("&7Perte: &c-" + game.getBet() + " " + currency));
+                player.sendMessage(MessageUtil.colorize("&7Perte: &c-" + Money.format(game.getBet()) + " " + currency));
                 eco.addTransaction(player.getUniqueId(), TransactionType.GAMBLE_LOSS, -game.getBet(), "Blackjack Loss (Bust)");
                 player.playSound(player.getLocation(), Sound.ENTITY_VILLAGER_NO, 1.0f, 0.8f);
                 break;
                 
             case DEALER_WIN:
                 player.sendMessage(MessageUtil.colorize("&c&l✗ DÉFAITE!"));
-                player.sendMessage(MessageUtil.colorize("&7Perte: &c-" + game.getBet() + " " + currency));
+                player.sendMessage(MessageUtil.colorize("&7Perte: &c-" + Money.format(game.getBet()) + " " + currency));
                 eco.addTransaction(player.getUniqueId(), TransactionType.GAMBLE_LOSS, -game.getBet(), "Blackjack Loss");
                 player.playSound(player.getLocation(), Sound.ENTITY_VILLAGER_NO, 1.0f, 1.0f);
                 break;
         }
         
         player.sendMessage("");
-        player.sendMessage(MessageUtil.colorize("&7Nouveau solde: &e" + eco.getBalance(player.getUniqueId()) + " " + currency));
+        player.sendMessage(MessageUtil.colorize("&7Nouveau solde: &e" + Money.format(eco.getBalance(player.getUniqueId())) + " " + currency));
         player.sendMessage(MessageUtil.colorize("&c&l━━━━━━━━━━━━━━━━━━━━━━━━"));
         
         // Clean up
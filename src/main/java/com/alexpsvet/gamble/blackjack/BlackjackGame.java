@@ -7,7 +7,7 @@ public class BlackjackGame {
     private final Deck deck;
     private final Hand playerHand;
     private final Hand dealerHand;
-    private final double bet;
+    private final long bet;
     private GameState state;
     
     public enum GameState {
@@ -21,7 +21,7 @@ public class BlackjackGame {
         PUSH
     }
     
-    public BlackjackGame(double bet) {
+    public BlackjackGame(long bet) {
         this.deck = new Deck();
         this.playerHand = new Hand();
         this.dealerHand = new Hand();
@@ -91,10 +91,10 @@ public class BlackjackGame {
     /**
      * Calculate winnings based on game state
      */
-    public double getWinnings() {
+    public long getWinnings() {
         switch (state) {
             case PLAYER_BLACKJACK:
-                return bet * 2.5; // Blackjack pays 3:2
+                return bet * 5 / 2; // Blackjack pays 3:2
             case PLAYER_WIN:
             case DEALER_BUSTED:
                 return bet * 2; // Regular win pays 1:1
@@ -107,7 +107,7 @@ public class BlackjackGame {
     
     public Hand getPlayerHand() { return playerHand; }
     public Hand getDealerHand() { return dealerHand; }
-    public double getBet() { return bet; }
+    public long getBet() { return bet; }
     public GameState getState() { return state; }
     
     public boolean isGameOver() {
@@ -3,10 +3,8 @@ package com.alexpsvet.home;
 import com.alexpsvet.Survival;
 import com.alexpsvet.database.Database;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.*;
-import java.util.logging.Level;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 
 /**
@@ -25,65 +23,63 @@ public class HomeManager {
         this.database = database;
         this.playerHomes = new HashMap<>();
         this.teleportCooldowns = new HashMap<>();
-        
-        // Initialize database table
-        initDatabase();
     }
     
     /**
-     * Initialize homes database table
+     * Load homes for a player
      */
-    private void initDatabase() {
-        String query = "CREATE TABLE IF NOT EXISTS homes (" +
-                "owner VARCHAR(36) NOT NULL, " +
-                "name VARCHAR(32) NOT NULL, " +
-                "world VARCHAR(64) NOT NULL, " +
-                "x DOUBLE NOT NULL, " +
-                "y DOUBLE NOT NULL, " +
-                "z DOUBLE NOT NULL, " +
-                "yaw FLOAT NOT NULL, " +
-                "pitch FLOAT NOT NULL, " +
-                "PRIMARY KEY (owner, name))";
-        database.executeUpdate(query);
+    public void loadHomes(UUID uuid) {
+        cacheHomes(uuid, readHomes(uuid));
     }
     
     /**
-     * Load homes for a player
+     * Read the homes of a player from database, without touching the cache,
+     * so it can be called off the main thread
+     * @return the homes by lower case name
      */
-    public void loadHomes(UUID uuid) {
+    public Map<String, Home> readHomes(UUID uuid) {
         Map<String, Home> homes = new HashMap<>();
         
-        ResultSet rs = database.executeQuery(
-            "SELECT * FROM homes WHERE owner = ?",
-            uuid.toString()
-        );
-        
-        try {
-            while (rs != null && rs.next()) {
-                String name = rs.getString("name");
-                String world = rs.getString("world");
-                double x = rs.getDouble("x");
-                double y = rs.getDouble("y");
-                double z = rs.getDouble("z");
-                float yaw = rs.getFloat("yaw");
-                float pitch = rs.getFloat("pitch");
-                
-                homes.put(name.toLowerCase(), new Home(uuid, name, world, x, y, z, yaw, pitch));
-            }
-            if (rs != null) rs.close();
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Failed to load homes for " + uuid, e);
+        List<Home> loaded = database.query("SELECT * FROM homes WHERE owner = ?", rs -> new Home(
+            uuid,
+            rs.getString("name"),
+            rs.getString("world"),
+            rs.getDouble("x"),
+            rs.getDouble("y"),
+            rs.getDouble("z"),
+            rs.getFloat("yaw"),
+            rs.getFloat("pitch")
+        ), uuid.toString());
+        for (Home home : loaded) {
+            homes.put(home.getName().toLowerCase(), home);
         }
-        
+        return homes;
+    }
+    
+    /**
+     * Cache homes read with {@link #readHomes(UUID)}
+     */
+    public void cacheHomes(UUID uuid, Map<String, Home> homes) {
         playerHomes.put(uuid, homes);
         LOGGER.info("Loaded " + homes.size() + " homes for " + uuid);
     }
     
     /**
-     * Save a home
+     * Save a home on the database writer.
+     * The home is put in the cache right away, so the home limit and cost checks of the next
+     * commands see it, and the previous one is put back if the write fails.
+     * @return a future completed on the main thread with true if the home was saved
      */
-    public boolean saveHome(Home home) {
-        int result = database.executeUpdate(
+    public CompletableFuture<Boolean> saveHome(Home home) {
+        String key = home.getName().toLowerCase();
+        Map<String, Home> homes = playerHomes.get(home.getOwner());
+        if (homes == null) {
+            loadHomes(home.getOwner());
+            homes = playerHomes.get(home.getOwner());
+        }
+        Home previous = homes.put(key, home);
+        
+        return database.executeUpdateAsync(
             "INSERT OR REPLACE INTO homes (owner, name, world, x, y, z, yaw, pitch) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
             home.getOwner().toString(),
             home.getName(),
@@ -93,36 +89,43 @@ public class HomeManager {
             home.getZ(),
             home.getYaw(),
             home.getPitch()
-        );
-        
-        if (result > 0) {
-            // Update cache
-            playerHomes.computeIfAbsent(home.getOwner(), k -> new HashMap<>())
-                .put(home.getName().toLowerCase(), home);
-            return true;
-        }
-        return false;
+        ).thenApply(result -> {
+            if (result > 0) {
+                return true;
+            }
+            // Roll back the reservation, unless a later save or delete replaced it
+            Map<String, Home> cached = playerHomes.get(home.getOwner());
+            if (cached != null && cached.get(key) == home) {
+                if (previous != null) {
+                    cached.put(key, previous);
+                } else {
+                    cached.remove(key);
+                }
+            }
+            return false;
+        });
     }
     
     /**
-     * Delete a home
+     * Delete a home on the database writer, the cache is updated once it is deleted
+     * @return a future completed on the main thread with true if the home existed
      */
-    public boolean deleteHome(UUID owner, String name) {
-        int result = database.executeUpdate(
+    public CompletableFuture<Boolean> deleteHome(UUID owner, String name) {
+        return database.executeUpdateAsync(
             "DELETE FROM homes WHERE owner = ? AND LOWER(name) = LOWER(?)",
             owner.toString(),
             name
-        );
-        
-        if (result > 0) {
-            // Update cache
-            Map<String, Home> homes = playerHomes.get(owner);
-            if (homes != null) {
-                homes.remove(name.toLowerCase());
+        ).thenApply(result -> {
+            if (result > 0) {
+                // Update cache
+                Map<String, Home> homes = playerHomes.get(owner);
+                if (homes != null) {
+                    homes.remove(name.toLowerCase());
+                }
+                return true;
             }
-            return true;
-        }
-        return false;
+            return false;
+        });
     }
     
     /**
@@ -1,5 +1,6 @@
 package com.alexpsvet.jobs;
 
+import com.alexpsvet.economy.Money;
 import org.bukkit.Material;
 
 import java.util.HashMap;
@@ -14,7 +15,7 @@ public class Job {
     private final String description;
     private final Material icon;
     private final int maxLevel;
-    private final Map<JobAction, Double> baseRewards; // Base rewards for each action
+    private final Map<JobAction, Long> baseRewards; // Base rewards for each action, in cents
     private final Map<Integer, Double> levelMultipliers; // Level -> multiplier
     private final Map<Integer, Double> experienceRequired; // Level -> experience needed
     
@@ -49,16 +50,16 @@ public class Job {
         return maxLevel;
     }
     
-    public Map<JobAction, Double> getBaseRewards() {
+    public Map<JobAction, Long> getBaseRewards() {
         return baseRewards;
     }
     
-    public void addReward(JobAction action, double amount) {
+    public void addReward(JobAction action, long amount) {
         baseRewards.put(action, amount);
     }
     
-    public double getBaseReward(JobAction action) {
-        return baseRewards.getOrDefault(action, 0.0);
+    public long getBaseReward(JobAction action) {
+        return baseRewards.getOrDefault(action, 0L);
     }
     
     public void setLevelMultiplier(int level, double multiplier) {
@@ -114,14 +115,15 @@ public class Job {
     
     /**
      * Calculate reward for an action at a specific level
+     * @return the reward in cents
      */
-    public double calculateReward(JobAction action, int level) {
-        double baseReward = getBaseReward(action);
-        if (baseReward == 0.0) {
-            return 0.0;
+    public long calculateReward(JobAction action, int level) {
+        long baseReward = getBaseReward(action);
+        if (baseReward == 0L) {
+            return 0L;
         }
         
         double multiplier = getLevelMultiplier(level);
-        return baseReward * multiplier;
+        return Money.multiply(baseReward, multiplier);
     }
 }
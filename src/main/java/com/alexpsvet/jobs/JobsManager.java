@@ -2,7 +2,9 @@ package com.alexpsvet.jobs;
 
 import com.alexpsvet.Survival;
 import com.alexpsvet.database.Database;
+import com.alexpsvet.database.WriteBehindQueue;
 import com.alexpsvet.economy.EconomyManager;
+import com.alexpsvet.economy.Money;
 import com.alexpsvet.economy.TransactionType;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
@@ -15,10 +17,7 @@ import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 
 import java.io.File;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.*;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -31,6 +30,7 @@ public class JobsManager {
     private final Map<String, Job> jobs; // jobId -> Job
     private final Map<UUID, PlayerJob> playerJobs; // playerUuid -> PlayerJob
     private final Map<UUID, BossBar> activeBossBars; // playerUuid -> BossBar for level up notifications
+    private final WriteBehindQueue.Channel jobWrites;
     
     public JobsManager(Database database) {
         instance = this;
@@ -38,9 +38,10 @@ public class JobsManager {
         this.jobs = new HashMap<>();
         this.playerJobs = new HashMap<>();
         this.activeBossBars = new HashMap<>();
-        createTables();
-        loadJobs();
-        loadPlayerJobs();
+        this.jobWrites = database.getWriteBehindQueue().register(
+            "UPDATE player_jobs SET level = ?, experience = ? WHERE player_uuid = ?",
+            WriteBehindQueue.lastWriteWins()
+        );
     }
     
     public static JobsManager getInstance() {
@@ -48,25 +49,11 @@ public class JobsManager {
     }
     
     /**
-     * Create the jobs tables
-     */
-    private void createTables() {
-        String query = "CREATE TABLE IF NOT EXISTS player_jobs (" +
-                "player_uuid VARCHAR(36) PRIMARY KEY," +
-                "job_id VARCHAR(50) NOT NULL," +
-                "level INTEGER NOT NULL DEFAULT 1," +
-                "experience DOUBLE NOT NULL DEFAULT 0," +
-                "joined_at BIGINT NOT NULL" +
-                ")";
-        database.executeUpdate(query);
-        
-        LOGGER.info("Jobs tables created/verified");
-    }
-    
-    /**
-     * Load jobs from jobs.yml
+     * Load jobs from jobs.yml, can be called off the main thread
+     * @return the action making the jobs available, run on the main thread
      */
-    private void loadJobs() {
+    public Runnable loadJobs() {
+        Map<String, Job> loaded = new HashMap<>();
         File jobsFile = new File(Survival.getInstance().getDataFolder(), "jobs.yml");
         if (!jobsFile.exists()) {
             Survival.getInstance().saveResource("jobs.yml", false);
@@ -77,7 +64,7 @@ public class JobsManager {
         
         if (jobsSection == null) {
             LOGGER.warning("No jobs defined in jobs.yml");
-            return;
+            return null;
         }
         
         for (String jobId : jobsSection.getKeys(false)) {
@@ -97,7 +84,7 @@ public class JobsManager {
                 for (String actionName : rewardsSection.getKeys(false)) {
                     try {
                         JobAction action = JobAction.valueOf(actionName.toUpperCase());
-                        double reward = rewardsSection.getDouble(actionName);
+                        long reward = Money.of(rewardsSection.getDouble(actionName));
                         job.addReward(action, reward);
                     } catch (IllegalArgumentException e) {
                         LOGGER.warning("Unknown job action: " + actionName);
@@ -124,34 +111,33 @@ public class JobsManager {
                 }
             }
             
-            jobs.put(jobId, job);
+            loaded.put(jobId, job);
             LOGGER.info("Loaded job: " + name + " (ID: " + jobId + ")");
         }
         
-        LOGGER.info("Loaded " + jobs.size() + " jobs");
+        LOGGER.info("Loaded " + loaded.size() + " jobs");
+        return () -> jobs.putAll(loaded);
     }
     
     /**
-     * Load player jobs from database
+     * Load player jobs from database, can be called off the main thread
+     * @return the action making the player jobs available, run on the main thread
      */
-    private void loadPlayerJobs() {
-        ResultSet rs = database.executeQuery("SELECT * FROM player_jobs");
-        try {
-            while (rs != null && rs.next()) {
-                UUID playerUuid = UUID.fromString(rs.getString("player_uuid"));
-                String jobId = rs.getString("job_id");
-                int level = rs.getInt("level");
-                double experience = rs.getDouble("experience");
-                long joinedAt = rs.getLong("joined_at");
-                
-                PlayerJob playerJob = new PlayerJob(playerUuid, jobId, level, experience, joinedAt);
-                playerJobs.put(playerUuid, playerJob);
+    public Runnable loadPlayerJobs() {
+        List<PlayerJob> loaded = database.query("SELECT * FROM player_jobs", rs -> new PlayerJob(
+            UUID.fromString(rs.getString("player_uuid")),
+            rs.getString("job_id"),
+            rs.getInt("level"),
+            rs.getDouble("experience"),
+            rs.getLong("joined_at")
+        ));
+        
+        LOGGER.info("Loaded " + loaded.size() + " player jobs");
+        return () -> {
+            for (PlayerJob playerJob : loaded) {
+                playerJobs.put(playerJob.getPlayerUuid(), playerJob);
             }
-            if (rs != null) rs.close();
-            LOGGER.info("Loaded " + playerJobs.size() + " player jobs");
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Failed to load player jobs", e);
-        }
+        };
     }
     
     /**
@@ -197,7 +183,7 @@ public class JobsManager {
         PlayerJob playerJob = new PlayerJob(playerUuid, jobId, 1, 0, System.currentTimeMillis());
         playerJobs.put(playerUuid, playerJob);
         
-        database.executeUpdate(
+        database.executeAsync(
             "INSERT INTO player_jobs (player_uuid, job_id, level, experience, joined_at) VALUES (?, ?, ?, ?, ?)",
             playerUuid.toString(), jobId, 1, 0.0, System.currentTimeMillis()
         );
@@ -214,7 +200,8 @@ public class JobsManager {
         }
         
         playerJobs.remove(playerUuid);
-        database.executeUpdate("DELETE FROM player_jobs WHERE player_uuid = ?", playerUuid.toString());
+        jobWrites.discard(playerUuid);
+        database.executeAsync("DELETE FROM player_jobs WHERE player_uuid = ?", playerUuid.toString());
         
         return true;
     }
@@ -233,8 +220,8 @@ public class JobsManager {
             return; // Invalid job
         }
         
-        double reward = job.calculateReward(action, playerJob.getLevel());
-        if (reward == 0.0) {
+        long reward = job.calculateReward(action, playerJob.getLevel());
+        if (reward == 0L) {
             return; // No reward for this action in this job
         }
         
@@ -243,7 +230,7 @@ public class JobsManager {
         eco.addBalance(player.getUniqueId(), reward);
         
         // Give experience (same as reward for simplicity)
-        double expGained = reward;
+        double expGained = Money.toMajor(reward);
         playerJob.addExperience(expGained);
         
         // Check for level up
@@ -307,11 +294,11 @@ public class JobsManager {
     }
     
     /**
-     * Save player job to database
+     * Queue a player job save, coalesced with other saves until the next flush
      */
     private void savePlayerJob(PlayerJob playerJob) {
-        database.executeUpdate(
-            "UPDATE player_jobs SET level = ?, experience = ? WHERE player_uuid = ?",
+        jobWrites.enqueue(
+            playerJob.getPlayerUuid(),
             playerJob.getLevel(),
             playerJob.getExperience(),
             playerJob.getPlayerUuid().toString()
@@ -1,6 +1,7 @@
 package com.alexpsvet.jobs.menu;
 
 import com.alexpsvet.Survival;
+import com.alexpsvet.economy.Money;
 import com.alexpsvet.jobs.Job;
 import com.alexpsvet.jobs.JobAction;
 import com.alexpsvet.jobs.JobsManager;
@@ -60,9 +61,9 @@ public class JobsMenu {
             
             // Show top 5 rewards
             int count = 0;
-            for (Map.Entry<JobAction, Double> entry : job.getBaseRewards().entrySet()) {
+            for (Map.Entry<JobAction, Long> entry : job.getBaseRewards().entrySet()) {
                 if (count >= 5) break;
-                lore.add(MessageUtil.colorize("  &7" + entry.getKey().getDisplayName() + ": &a+" + entry.getValue() + " ⛁"));
+                lore.add(MessageUtil.colorize("  &7" + entry.getKey().getDisplayName() + ": &a+" + Money.format(entry.getValue()) + " ⛁"));
                 count++;
             }
             
@@ -173,9 +174,9 @@ public class JobsMenu {
         rewardsLore.add(MessageUtil.colorize("&7Vos récompenses actuelles:"));
         rewardsLore.add("");
         
-        for (Map.Entry<JobAction, Double> entry : job.getBaseRewards().entrySet()) {
-            double reward = job.calculateReward(entry.getKey(), playerJob.getLevel());
-            rewardsLore.add(MessageUtil.colorize("  &7" + entry.getKey().getDisplayName() + ": &a+" + String.format("%.2f", reward) + " ⛁"));
+        for (Map.Entry<JobAction, Long> entry : job.getBaseRewards().entrySet()) {
+            long reward = job.calculateReward(entry.getKey(), playerJob.getLevel());
+            rewardsLore.add(MessageUtil.colorize("  &7" + entry.getKey().getDisplayName() + ": &a+" + Money.format(reward) + " ⛁"));
         }
         
         builder.button(new Button.Builder()
@@ -3,9 +3,9 @@ package com.alexpsvet.listeners;
 import com.alexpsvet.Survival;
 import com.alexpsvet.display.ScoreboardManager;
 import com.alexpsvet.display.TabManager;
-import com.alexpsvet.economy.EconomyManager;
 import com.alexpsvet.gamble.GambleMenu;
-import com.alexpsvet.player.PlayerStatsManager;
+import com.alexpsvet.player.PlayerSession;
+import com.alexpsvet.player.PlayerSessionManager;
 import com.alexpsvet.territory.TerritoryDisplayManager;
 import com.alexpsvet.utils.MessageUtil;
 import org.bukkit.*;
@@ -13,33 +13,57 @@ import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Firework;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.meta.FireworkMeta;
 import org.bukkit.metadata.FixedMetadataValue;
 import org.bukkit.persistence.PersistentDataType;
 
+import java.util.UUID;
+
 /**
  * Listener for player join events
  */
 public class PlayerJoinListener implements Listener {
     
+    /**
+     * Load the player's account, stats and homes off the main thread before the join
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+        PlayerSessionManager.getInstance().preload(event.getUniqueId(), event.getName());
+    }
+    
+    /**
+     * Drop the preloaded data of a refused login
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLogin(PlayerLoginEvent event) {
+        if (event.getResult() == PlayerLoginEvent.Result.ALLOWED) {
+            return;
+        }
+        UUID uuid = event.getPlayer().getUniqueId();
+        if (PlayerSessionManager.getInstance().discard(uuid) && Bukkit.getPlayer(uuid) == null) {
+            Survival.getInstance().getEconomyManager().unloadSession(uuid);
+        }
+    }
+    
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
-        EconomyManager economyManager = Survival.getInstance().getEconomyManager();
-        PlayerStatsManager statsManager = Survival.getInstance().getStatsManager();
         FileConfiguration messages = Survival.getInstance().getConfig();
         
-        // Create economy account if doesn't exist
-        boolean isNewPlayer = !economyManager.hasAccount(event.getPlayer().getUniqueId());
-        if (isNewPlayer) {
-            economyManager.createAccount(event.getPlayer().getUniqueId(), event.getPlayer().getName());
-        }
-        
-        // Load player stats
-        statsManager.loadStats(event.getPlayer().getUniqueId(), event.getPlayer().getName());
+        // Account, stats and homes were loaded during the pre-login
+        PlayerSession session = PlayerSessionManager.getInstance().join(
+            event.getPlayer().getUniqueId(), event.getPlayer().getName());
+        boolean isNewPlayer = session.isNewPlayer();
         
         // Create scoreboard and tab
         ScoreboardManager.getInstance().createScoreboard(event.getPlayer());
@@ -126,6 +150,14 @@ public class PlayerJoinListener implements Listener {
         // Handle gamble game disconnect (charge as loss if in active game)
         GambleMenu.handlePlayerLeaveGame(event.getPlayer());
         
+        // Drop the cached salary state, history pages and homes
+        Survival.getInstance().getEconomyManager().unloadSession(event.getPlayer().getUniqueId());
+        Survival.getInstance().getEconomyManager().getHistory().forget(event.getPlayer().getUniqueId());
+        Survival.getInstance().getHomeManager().unloadHomes(event.getPlayer().getUniqueId());
+        
+        // Drop the memoized build permissions
+        Survival.getInstance().getTerritoryManager().forgetPlayer(event.getPlayer().getUniqueId());
+        
         // Clean up territory display manager data
         TerritoryDisplayManager territoryDisplayManager = Survival.getInstance().getTerritoryDisplayManager();
         if (territoryDisplayManager != null) {
@@ -25,6 +25,9 @@ import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.EntityExplodeEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Listener for territory protection
  */
@@ -53,7 +56,7 @@ public class TerritoryListener implements Listener {
             TerritoryManager territoryManager = Survival.getInstance().getTerritoryManager();
             
             // Check if already in a territory
-            if (territoryManager.getTerritoryAt(block.getLocation()) != null) {
+            if (territoryManager.getTerritoryAt(block) != null) {
                 ChatManager chatManager = ChatManager.getInstance();
                 MessageUtil.sendMessage(player, chatManager.getMessage("territory.already-claimed"));
                 event.setCancelled(true);
@@ -68,20 +71,20 @@ public class TerritoryListener implements Listener {
                 return;
             }
             
-            // Create territory
-            Territory territory = territoryManager.createTerritoryFromBlock(block, player.getUniqueId(), player.getName(), radius);
-            
-            if (territory != null) {
-                ChatManager chatManager = ChatManager.getInstance();
-                MessageUtil.sendMessage(player, chatManager.getMessage("territory.created",
-                    "{size}", String.valueOf(territory.getSize())));
-            }
+            // Create territory, its row is written in the background
+            territoryManager.createTerritoryFromBlock(block, player.getUniqueId(), player.getName(), radius).thenAccept(territory -> {
+                if (territory != null && player.isOnline()) {
+                    ChatManager chatManager = ChatManager.getInstance();
+                    MessageUtil.sendMessage(player, chatManager.getMessage("territory.created",
+                        "{size}", String.valueOf(territory.getSize())));
+                }
+            });
             return;
         }
         
         // Check if can build in this territory
         TerritoryManager territoryManager = Survival.getInstance().getTerritoryManager();
-        if (!territoryManager.canBuild(player.getUniqueId(), block.getLocation())) {
+        if (!territoryManager.canBuild(player.getUniqueId(), block)) {
             ChatManager chatManager = ChatManager.getInstance();
             MessageUtil.sendMessage(player, chatManager.getMessage("territory.cannot-build"));
             event.setCancelled(true);
@@ -99,6 +102,13 @@ public class TerritoryListener implements Listener {
             block.getType() == PROTECTION_BLOCK_MEDIUM || 
             block.getType() == PROTECTION_BLOCK_LARGE) {
             Territory territory = territoryManager.getTerritoryByBlock(block);
+            if (territory != null && territoryManager.isPendingClaim(territory)) {
+                // The claim is still being stored, removing it now would leave a territory without its block
+                ChatManager chatManager = ChatManager.getInstance();
+                MessageUtil.sendMessage(player, chatManager.getMessage("territory.pending"));
+                event.setCancelled(true);
+                return;
+            }
             if (territory != null) {
                 // Only owner can remove the protection block
                 if (!territory.getOwner().equals(player.getUniqueId())) {
@@ -117,7 +127,7 @@ public class TerritoryListener implements Listener {
         }
         
         // Check if can break in this territory
-        if (!territoryManager.canBuild(player.getUniqueId(), block.getLocation())) {
+        if (!territoryManager.canBuild(player.getUniqueId(), block)) {
             ChatManager chatManager = ChatManager.getInstance();
             MessageUtil.sendMessage(player, chatManager.getMessage("territory.cannot-break"));
             event.setCancelled(true);
@@ -133,7 +143,7 @@ public class TerritoryListener implements Listener {
         TerritoryManager territoryManager = Survival.getInstance().getTerritoryManager();
         
         // Check if can interact in this territory
-        if (!territoryManager.canBuild(player.getUniqueId(), block.getLocation())) {
+        if (!territoryManager.canBuild(player.getUniqueId(), block)) {
             // Allow certain interactions
             Material type = block.getType();
             if (type.name().contains("DOOR") || 
@@ -154,13 +164,7 @@ public class TerritoryListener implements Listener {
      */
     @EventHandler(priority = EventPriority.HIGH)
     public void onEntityExplode(EntityExplodeEvent event) {
-        TerritoryManager territoryManager = Survival.getInstance().getTerritoryManager();
-        
-        event.blockList().removeIf(block -> {
-            Territory territory = territoryManager.getTerritoryAt(block.getLocation());
-            // Remove blocks from explosion if in protected territory and explosions are disabled
-            return territory != null && !territory.getFlags().isExplosions();
-        });
+        protectFromExplosion(event.blockList());
     }
     
     /**
@@ -168,11 +172,32 @@ public class TerritoryListener implements Listener {
      */
     @EventHandler(priority = EventPriority.HIGH)
     public void onBlockExplode(BlockExplodeEvent event) {
+        protectFromExplosion(event.blockList());
+    }
+    
+    /**
+     * Remove blocks from explosion if in protected territory and explosions are disabled.
+     * The territories near the explosion are found once, then each block is checked against them only.
+     */
+    private void protectFromExplosion(List<Block> blocks) {
         TerritoryManager territoryManager = Survival.getInstance().getTerritoryManager();
+        List<Territory> protectedTerritories = new ArrayList<>();
+        for (Territory territory : territoryManager.getTerritoriesAround(blocks)) {
+            if (!territory.getFlags().isExplosions()) {
+                protectedTerritories.add(territory);
+            }
+        }
+        if (protectedTerritories.isEmpty()) {
+            return;
+        }
         
-        event.blockList().removeIf(block -> {
-            Territory territory = territoryManager.getTerritoryAt(block.getLocation());
-            return territory != null && !territory.getFlags().isExplosions();
+        blocks.removeIf(block -> {
+            for (Territory territory : protectedTerritories) {
+                if (territory.contains(block.getX(), block.getY(), block.getZ())) {
+                    return true;
+                }
+            }
+            return false;
         });
     }
     
@@ -182,7 +207,7 @@ public class TerritoryListener implements Listener {
     @EventHandler(priority = EventPriority.HIGH)
     public void onEntityChangeBlock(EntityChangeBlockEvent event) {
         TerritoryManager territoryManager = Survival.getInstance().getTerritoryManager();
-        Territory territory = territoryManager.getTerritoryAt(event.getBlock().getLocation());
+        Territory territory = territoryManager.getTerritoryAt(event.getBlock());
         
         if (territory == null) return;
         
@@ -222,7 +247,7 @@ public class TerritoryListener implements Listener {
     @EventHandler(priority = EventPriority.HIGH)
     public void onBlockBurn(BlockBurnEvent event) {
         TerritoryManager territoryManager = Survival.getInstance().getTerritoryManager();
-        Territory territory = territoryManager.getTerritoryAt(event.getBlock().getLocation());
+        Territory territory = territoryManager.getTerritoryAt(event.getBlock());
         
         if (territory != null && !territory.getFlags().isFireSpread()) {
             event.setCancelled(true);
@@ -237,7 +262,7 @@ public class TerritoryListener implements Listener {
         // Allow players to ignite if they have permission
         if (event.getPlayer() != null) {
             TerritoryManager territoryManager = Survival.getInstance().getTerritoryManager();
-            if (!territoryManager.canBuild(event.getPlayer().getUniqueId(), event.getBlock().getLocation())) {
+            if (!territoryManager.canBuild(event.getPlayer().getUniqueId(), event.getBlock())) {
                 event.setCancelled(true);
                 return;
             }
@@ -249,7 +274,7 @@ public class TerritoryListener implements Listener {
             event.getCause() == BlockIgniteEvent.IgniteCause.LIGHTNING) {
             
             TerritoryManager territoryManager = Survival.getInstance().getTerritoryManager();
-            Territory territory = territoryManager.getTerritoryAt(event.getBlock().getLocation());
+            Territory territory = territoryManager.getTerritoryAt(event.getBlock());
             
             if (territory != null && !territory.getFlags().isFireSpread()) {
                 event.setCancelled(true);
@@ -263,7 +288,7 @@ public class TerritoryListener implements Listener {
     @EventHandler(priority = EventPriority.HIGH)
     public void onBlockSpread(BlockSpreadEvent event) {
         TerritoryManager territoryManager = Survival.getInstance().getTerritoryManager();
-        Territory territory = territoryManager.getTerritoryAt(event.getBlock().getLocation());
+        Territory territory = territoryManager.getTerritoryAt(event.getBlock());
         
         if (territory != null && event.getSource().getType() == Material.FIRE && !territory.getFlags().isFireSpread()) {
             event.setCancelled(true);
@@ -276,11 +301,12 @@ public class TerritoryListener implements Listener {
     @EventHandler(priority = EventPriority.HIGH)
     public void onBlockFromTo(BlockFromToEvent event) {
         TerritoryManager territoryManager = Survival.getInstance().getTerritoryManager();
-        Territory fromTerritory = territoryManager.getTerritoryAt(event.getBlock().getLocation());
-        Territory toTerritory = territoryManager.getTerritoryAt(event.getToBlock().getLocation());
+        Territory toTerritory = territoryManager.getTerritoryAt(event.getToBlock());
+        if (toTerritory == null) return;
         
         // Prevent flow from outside into protected territory or between different territories
-        if (toTerritory != null && (fromTerritory == null || !fromTerritory.equals(toTerritory))) {
+        Territory fromTerritory = territoryManager.getTerritoryAt(event.getBlock());
+        if (fromTerritory == null || !fromTerritory.equals(toTerritory)) {
             event.setCancelled(true);
         }
     }
@@ -0,0 +1,39 @@
+package com.alexpsvet.player;
+
+import com.alexpsvet.home.Home;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Data of a joining player, loaded during the pre-login before the player enters the world
+ */
+public class PlayerSession {
+    private final UUID uuid;
+    private final String playerName;
+    private final boolean newPlayer;
+    private final long lastSalary;
+    private PlayerStats stats;
+    private final Map<String, Home> homes;
+    private final long loadedAt;
+    
+    public PlayerSession(UUID uuid, String playerName, boolean newPlayer, long lastSalary, PlayerStats stats, Map<String, Home> homes) {
+        this.uuid = uuid;
+        this.playerName = playerName;
+        this.newPlayer = newPlayer;
+        this.lastSalary = lastSalary;
+        this.stats = stats;
+        this.homes = homes;
+        this.loadedAt = System.currentTimeMillis();
+    }
+    
+    public UUID getUuid() { return uuid; }
+    public String getPlayerName() { return playerName; }
+    public boolean isNewPlayer() { return newPlayer; }
+    public long getLastSalary() { return lastSalary; }
+    public PlayerStats getStats() { return stats; }
+    public Map<String, Home> getHomes() { return homes; }
+    public long getLoadedAt() { return loadedAt; }
+    
+    void setStats(PlayerStats stats) { this.stats = stats; }
+}
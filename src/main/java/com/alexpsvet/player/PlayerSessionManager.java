@@ -0,0 +1,99 @@
+package com.alexpsvet.player;
+
+import com.alexpsvet.economy.EconomyManager;
+import com.alexpsvet.home.HomeManager;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Loads player data while the player logs in, so joining never waits on the database.
+ * The account, stats and homes are read on the pre-login thread into a {@link PlayerSession},
+ * which the join event hands to the managers on the main thread.
+ * Player jobs are loaded for everyone at startup and need no preloading.
+ */
+public class PlayerSessionManager {
+    private static final Logger LOGGER = Logger.getLogger("survival");
+    private static final long EXPIRY_MILLIS = 60000L;
+    private static PlayerSessionManager instance;
+    private final EconomyManager economyManager;
+    private final PlayerStatsManager statsManager;
+    private final HomeManager homeManager;
+    private final Map<UUID, PlayerSession> pending;
+    
+    public PlayerSessionManager(EconomyManager economyManager, PlayerStatsManager statsManager, HomeManager homeManager) {
+        instance = this;
+        this.economyManager = economyManager;
+        this.statsManager = statsManager;
+        this.homeManager = homeManager;
+        this.pending = new ConcurrentHashMap<>();
+    }
+    
+    /**
+     * Load the data of a logging in player and keep it until the player joins.
+     * Blocks on the database, call it off the main thread.
+     * @param uuid The player's UUID
+     * @param playerName The player's name
+     * @return the loaded session
+     */
+    public PlayerSession preload(UUID uuid, String playerName) {
+        // Sessions of logins refused after the pre-login are never claimed
+        long expired = System.currentTimeMillis() - EXPIRY_MILLIS;
+        pending.values().removeIf(session -> session.getLoadedAt() < expired);
+        
+        PlayerSession session = load(uuid, playerName);
+        pending.put(uuid, session);
+        return session;
+    }
+    
+    private PlayerSession load(UUID uuid, String playerName) {
+        boolean newPlayer = economyManager.loadAccount(uuid, playerName);
+        long lastSalary = economyManager.getLastSalary(uuid);
+        PlayerStats stats = statsManager.readStats(uuid, playerName);
+        return new PlayerSession(uuid, playerName, newPlayer, lastSalary, stats, homeManager.readHomes(uuid));
+    }
+    
+    /**
+     * Hand the preloaded data of a joining player to the managers, called on the main thread.
+     * A player without a preloaded session is loaded on the spot.
+     * @param uuid The player's UUID
+     * @param playerName The player's name
+     * @return the player's session
+     */
+    public PlayerSession join(UUID uuid, String playerName) {
+        PlayerSession session = pending.remove(uuid);
+        if (session == null) {
+            LOGGER.warning("No preloaded data for " + playerName + ", loading it on the main thread");
+            session = load(uuid, playerName);
+        }
+        // The stats read at pre-login are replaced by newer ones if the previous session was not saved yet
+        session.setStats(statsManager.cacheStats(session.getStats()));
+        // The quit of the previous session drops the salary state if the player relogged
+        economyManager.restoreSession(uuid, session.getLastSalary());
+        homeManager.cacheHomes(uuid, session.getHomes());
+        return session;
+    }
+    
+    /**
+     * Drop the preloaded data of a player whose login was refused
+     * @param uuid The player's UUID
+     * @return true if a session was dropped
+     */
+    public boolean discard(UUID uuid) {
+        return pending.remove(uuid) != null;
+    }
+    
+    /**
+     * Get the number of sessions loaded for players who did not join yet
+     * @return the number of pending sessions
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+    
+    public static PlayerSessionManager getInstance() {
+        return instance;
+    }
+}
@@ -1,13 +1,12 @@
 package com.alexpsvet.player;
 
 import com.alexpsvet.database.Database;
+import com.alexpsvet.database.WriteBehindQueue;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
-import java.util.logging.Level;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 /**
@@ -15,95 +14,112 @@ import java.util.logging.Logger;
  */
 public class PlayerStatsManager {
     private static final Logger LOGGER = Logger.getLogger("survival");
+    private static final String STATS_UPDATE =
+        "UPDATE player_stats SET player_name = ?, kills = ?, deaths = ?, playtime = ?, " +
+        "rank = ?, group_name = ?, last_join = ? WHERE uuid = ?";
     private static PlayerStatsManager instance;
     private final Database database;
     private final Map<UUID, PlayerStats> statsCache;
+    private final Map<UUID, PlayerStats> departed; // Stats of players who left, until their last save is written
+    private final WriteBehindQueue.Channel statsWrites;
     
     public PlayerStatsManager(Database database) {
         instance = this;
         this.database = database;
         this.statsCache = new HashMap<>();
-        createTables();
+        this.departed = new ConcurrentHashMap<>();
+        this.statsWrites = database.getWriteBehindQueue().register(STATS_UPDATE, WriteBehindQueue.lastWriteWins());
     }
     
     /**
-     * Create the player stats tables
+     * Load player stats from database
      */
-    private void createTables() {
-        String query = "CREATE TABLE IF NOT EXISTS player_stats (" +
-                "uuid VARCHAR(36) PRIMARY KEY," +
-                "player_name VARCHAR(16) NOT NULL," +
-                "kills INTEGER NOT NULL DEFAULT 0," +
-                "deaths INTEGER NOT NULL DEFAULT 0," +
-                "playtime BIGINT NOT NULL DEFAULT 0," +
-                "rank VARCHAR(20) NOT NULL DEFAULT 'USER'," +
-                "group_name VARCHAR(20) NOT NULL DEFAULT 'USER'," +
-                "last_join BIGINT NOT NULL," +
-                "created_at BIGINT NOT NULL" +
-                ")";
-        database.executeUpdate(query);
+    public PlayerStats loadStats(UUID uuid, String playerName) {
+        if (statsCache.containsKey(uuid)) {
+            return statsCache.get(uuid);
+        }
         
-        LOGGER.info("Player stats tables created/verified");
+        PlayerStats stats = readStats(uuid, playerName);
+        cacheStats(stats);
+        return stats;
     }
     
     /**
-     * Load player stats from database
+     * Read player stats from database, creating them for a new player.
+     * Stats of a player who left are used until their last save is written, since the row is still older.
+     * Does not touch the cache, so it can be called off the main thread.
      */
-    public PlayerStats loadStats(UUID uuid, String playerName) {
-        if (statsCache.containsKey(uuid)) {
-            return statsCache.get(uuid);
+    public PlayerStats readStats(UUID uuid, String playerName) {
+        PlayerStats recent = departed.get(uuid);
+        if (recent != null) {
+            return recent;
         }
         
-        ResultSet rs = database.executeQuery("SELECT * FROM player_stats WHERE uuid = ?", uuid.toString());
-        try {
-            if (rs != null && rs.next()) {
-                PlayerStats stats = new PlayerStats(
-                    uuid,
-                    rs.getString("player_name"),
-                    rs.getInt("kills"),
-                    rs.getInt("deaths"),
-                    rs.getLong("playtime"),
-                    rs.getString("rank"),
-                    rs.getString("group_name"),
-                    rs.getLong("last_join")
-                );
-                statsCache.put(uuid, stats);
-                rs.close();
-                return stats;
-            }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Failed to load stats for " + uuid, e);
+        PlayerStats loaded = database.queryOne("SELECT * FROM player_stats WHERE uuid = ?", rs -> new PlayerStats(
+            uuid,
+            rs.getString("player_name"),
+            rs.getInt("kills"),
+            rs.getInt("deaths"),
+            rs.getLong("playtime"),
+            rs.getString("rank"),
+            rs.getString("group_name"),
+            rs.getLong("last_join")
+        ), uuid.toString());
+        if (loaded != null) {
+            return loaded;
         }
         
         // Create new stats
         PlayerStats stats = new PlayerStats(uuid, playerName);
-        saveStats(stats);
-        statsCache.put(uuid, stats);
+        createStats(stats);
         return stats;
     }
     
     /**
-     * Save player stats to database
+     * Cache stats read with {@link #readStats(UUID, String)}, the play session starts now.
+     * Stats still cached or kept since the player left win over them, since they may have been read
+     * before the previous session was saved, e.g. when the pre-login of a relog ran before its quit.
+     * @return the stats actually cached
+     */
+    public PlayerStats cacheStats(PlayerStats stats) {
+        UUID uuid = stats.getUuid();
+        PlayerStats recent = statsCache.get(uuid);
+        if (recent == null) {
+            recent = departed.remove(uuid);
+        }
+        PlayerStats cached = recent != null ? recent : stats;
+        cached.setSessionStart(System.currentTimeMillis());
+        statsCache.put(uuid, cached);
+        return cached;
+    }
+    
+    /**
+     * Insert the stats row of a new player
+     */
+    private void createStats(PlayerStats stats) {
+        stats.updatePlaytime();
+        database.executeAsync(
+            "INSERT INTO player_stats (uuid, player_name, kills, deaths, playtime, rank, group_name, last_join, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            stats.getUuid().toString(), stats.getPlayerName(), stats.getKills(), stats.getDeaths(),
+            stats.getPlaytime(), stats.getRank(), stats.getGroup(), stats.getLastJoin(), System.currentTimeMillis()
+        );
+    }
+    
+    /**
+     * Queue a player stats save, coalesced with other saves until the next flush
      */
     public void saveStats(PlayerStats stats) {
         stats.updatePlaytime(); // Update playtime before saving
         
-        int result = database.executeUpdate(
-            "UPDATE player_stats SET player_name = ?, kills = ?, deaths = ?, playtime = ?, " +
-            "rank = ?, group_name = ?, last_join = ? WHERE uuid = ?",
+        statsWrites.enqueue(stats.getUuid(), toParams(stats));
+    }
+    
+    private static Object[] toParams(PlayerStats stats) {
+        return new Object[] {
             stats.getPlayerName(), stats.getKills(), stats.getDeaths(), stats.getPlaytime(),
             stats.getRank(), stats.getGroup(), stats.getLastJoin(), stats.getUuid().toString()
-        );
-        
-        if (result == 0) {
-            // Insert new record
-            database.executeUpdate(
-                "INSERT INTO player_stats (uuid, player_name, kills, deaths, playtime, rank, group_name, last_join, created_at) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
-                stats.getUuid().toString(), stats.getPlayerName(), stats.getKills(), stats.getDeaths(),
-                stats.getPlaytime(), stats.getRank(), stats.getGroup(), stats.getLastJoin(), System.currentTimeMillis()
-            );
-        }
+        };
     }
     
     /**
@@ -114,13 +130,29 @@ public class PlayerStatsManager {
     }
     
     /**
-     * Remove stats from cache
+     * Remove stats from cache, saving them on the database writer.
+     * They are kept until the save is written, so a player joining again meanwhile gets them instead of the old row.
      */
     public void unloadStats(UUID uuid) {
         PlayerStats stats = statsCache.remove(uuid);
-        if (stats != null) {
-            saveStats(stats);
+        if (stats == null) {
+            return;
         }
+        
+        stats.updatePlaytime();
+        Object[] params = toParams(stats);
+        // Written now instead of at the next flush, ordered after any flush already on the writer
+        statsWrites.discard(uuid);
+        departed.put(uuid, stats);
+        database.writeAsync(() -> database.executeUpdate(STATS_UPDATE, params)).thenAccept(rows -> {
+            if (rows < 0) {
+                // Kept for the next flush, the departed stats stay in use until the player joins again
+                statsWrites.requeue(uuid, params);
+                LOGGER.warning("Failed to save stats of " + stats.getPlayerName() + ", they will be retried");
+            } else {
+                departed.remove(uuid, stats);
+            }
+        });
     }
     
     /**
@@ -1,6 +1,7 @@
 package com.alexpsvet.rpgmobs;
 
 import com.alexpsvet.economy.EconomyManager;
+import com.alexpsvet.economy.Money;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
@@ -170,11 +171,11 @@ public class RPGMobListener implements Listener {
             EconomyManager economyManager = EconomyManager.getInstance();
             if (economyManager != null) {
                 // Calculate money based on mob level
-                double baseReward = 10.0 + (rpgMob.getLevel() * 5.0);
-                double finalReward = baseReward * mobManager.getMoneyMultiplier();
+                long baseReward = Money.of(10.0 + (rpgMob.getLevel() * 5.0));
+                long finalReward = Money.multiply(baseReward, mobManager.getMoneyMultiplier());
                 economyManager.addBalance(killer.getUniqueId(), finalReward);
                 
-                killer.sendMessage("§a+§e" + String.format("%.1f", finalReward) + 
+                killer.sendMessage("§a+§e" + Money.format(finalReward) + 
                     " §a⛁ §7(RPG Mob Kill)");
             }
         }
@@ -43,13 +43,13 @@ public class RPGMobManager {
         this.mobConfigs = new HashMap<>();
         this.activeMobs = new HashMap<>();
         this.random = new Random();
-        loadConfig();
     }
 
     /**
-     * Load configuration from rpgmobs.yml
+     * Load configuration from rpgmobs.yml.
+     * Can be called off the main thread, as long as the manager is not used before it returns.
      */
-    private void loadConfig() {
+    public void loadConfig() {
         File configFile = new File(Survival.getInstance().getDataFolder(), "rpgmobs.yml");
         if (!configFile.exists()) {
             Survival.getInstance().saveResource("rpgmobs.yml", false);
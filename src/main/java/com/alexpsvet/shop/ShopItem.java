@@ -1,5 +1,6 @@
 package com.alexpsvet.shop;
 
+import com.alexpsvet.economy.Money;
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
 
@@ -11,12 +12,12 @@ public class ShopItem {
     private final Material material;
     private final String displayName;
     private final String[] lore;
-    private final double price;
-    private final double sellPrice; // Price at which players can sell this item (0 = can't sell)
+    private final long price; // in cents
+    private final long sellPrice; // Price at which players can sell this item, in cents (0 = can't sell)
     private final int amount;
     private final String permission; // Optional permission required to buy
     
-    public ShopItem(String id, Material material, String displayName, String[] lore, double price, double sellPrice, int amount, String permission) {
+    public ShopItem(String id, Material material, String displayName, String[] lore, long price, long sellPrice, int amount, String permission) {
         this.id = id;
         this.material = material;
         this.displayName = displayName;
@@ -28,16 +29,16 @@ public class ShopItem {
     }
     
     // Constructor for backward compatibility
-    public ShopItem(String id, Material material, String displayName, String[] lore, double price, int amount, String permission) {
-        this(id, material, displayName, lore, price, price * 0.5, amount, permission); // Default sell price is 50% of buy price
+    public ShopItem(String id, Material material, String displayName, String[] lore, long price, int amount, String permission) {
+        this(id, material, displayName, lore, price, Money.multiply(price, 0.5), amount, permission); // Default sell price is 50% of buy price
     }
     
     public String getId() { return id; }
     public Material getMaterial() { return material; }
     public String getDisplayName() { return displayName; }
     public String[] getLore() { return lore; }
-    public double getPrice() { return price; }
-    public double getSellPrice() { return sellPrice; }
+    public long getPrice() { return price; }
+    public long getSellPrice() { return sellPrice; }
     public int getAmount() { return amount; }
     public String getPermission() { return permission; }
     public boolean canSell() { return sellPrice > 0; }
@@ -45,7 +46,7 @@ public class ShopItem {
     /**
      * Get the total price for a specific quantity multiplier
      */
-    public double getPriceFor(int quantityMultiplier) {
+    public long getPriceFor(int quantityMultiplier) {
         return price * quantityMultiplier;
     }
     
@@ -1,6 +1,7 @@
 package com.alexpsvet.shop;
 
 import com.alexpsvet.Survival;
+import com.alexpsvet.economy.Money;
 import com.alexpsvet.shop.menu.ShopMenu;
 
 import org.bukkit.Material;
@@ -21,20 +22,32 @@ public class ShopManager {
     private static final Logger LOGGER = Logger.getLogger("survival");
     private static ShopManager instance;
     
-    private final ShopMenu shopMenu;
+    private ShopMenu shopMenu;
     private final Map<String, ShopCategory> categories;
     
     public ShopManager() {
         instance = this;
         this.categories = new HashMap<>();
-        loadShopConfig();
-        this.shopMenu = new ShopMenu(categories.values());
+    }
+    
+    /**
+     * Parse shop.yml, can be called off the main thread
+     * @return the action building the shop menu, run on the main thread
+     */
+    public Runnable load() {
+        Map<String, ShopCategory> loaded = new HashMap<>();
+        loadShopConfig(loaded);
+        return () -> {
+            categories.putAll(loaded);
+            shopMenu = new ShopMenu(categories.values());
+        };
     }
     
     /**
      * Load shop configuration from shop.yml
+     * @param categories The map the categories are put in
      */
-    private void loadShopConfig() {
+    private void loadShopConfig(Map<String, ShopCategory> categories) {
         File shopFile = new File(Survival.getInstance().getDataFolder(), "shop.yml");
         if (!shopFile.exists()) {
             Survival.getInstance().saveResource("shop.yml", false);
@@ -75,7 +88,7 @@ public class ShopManager {
                         int amount = itemSection.getInt("amount", 1);
                         String permission = itemSection.getString("permission", null);
                         
-                        ShopItem item = new ShopItem(itemId, material, displayName, lore, price, sellPrice, amount, permission);
+                        ShopItem item = new ShopItem(itemId, material, displayName, lore, Money.of(price), Money.of(sellPrice), amount, permission);
                         category.addItem(item);
                     } catch (IllegalArgumentException e) {
                         LOGGER.warning("Invalid material for shop item: " + itemId);
@@ -114,7 +127,7 @@ public class ShopManager {
      */
     public void reload() {
         categories.clear();
-        loadShopConfig();
+        loadShopConfig(categories);
     }
     
     public static ShopManager getInstance() {
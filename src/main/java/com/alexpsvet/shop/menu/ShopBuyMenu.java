@@ -2,6 +2,7 @@ package com.alexpsvet.shop.menu;
 
 import com.alexpsvet.Survival;
 import com.alexpsvet.economy.EconomyManager;
+import com.alexpsvet.economy.Money;
 import com.alexpsvet.economy.TransactionType;
 import com.alexpsvet.shop.ShopItem;
 import com.alexpsvet.shop.ShopManager;
@@ -27,7 +28,7 @@ public class ShopBuyMenu {
     public static void open(Player player, ShopItem shopItem, String categoryId) {
         String currency = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
         EconomyManager eco = Survival.getInstance().getEconomyManager();
-        double balance = eco.getBalance(player.getUniqueId());
+        long balance = eco.getBalance(player.getUniqueId());
         
         Menu.Builder builder = new Menu.Builder()
             .title(MessageUtil.colorize("&6&lAcheter: " + shopItem.getDisplayName()))
@@ -43,7 +44,7 @@ public class ShopBuyMenu {
                 lore.add(MessageUtil.colorize(line));
             }
             lore.add("");
-            lore.add(MessageUtil.colorize("&7Prix unitaire: &e" + shopItem.getPrice() + " " + currency));
+            lore.add(MessageUtil.colorize("&7Prix unitaire: &e" + Money.format(shopItem.getPrice()) + " " + currency));
             lore.add("");
             lore.add(MessageUtil.colorize("&7Votre solde: &e" + balance + " " + currency));
             meta.setLore(lore);
@@ -62,7 +63,7 @@ public class ShopBuyMenu {
         
         for (int i = 0; i < quantities.length; i++) {
             final int quantity = quantities[i];
-            double totalPrice = shopItem.getPrice() * quantity;
+            long totalPrice = shopItem.getPrice() * quantity;
             
             ItemStack buyOption = new ItemStack(materials[i]);
             ItemMeta buyMeta = buyOption.getItemMeta();
@@ -70,7 +71,7 @@ public class ShopBuyMenu {
                 buyMeta.setDisplayName(MessageUtil.colorize("&6&lAcheter x" + quantity));
                 List<String> buyLore = new ArrayList<>();
                 buyLore.add(MessageUtil.colorize("&7Quantité: &e" + quantity));
-                buyLore.add(MessageUtil.colorize("&7Prix total: &e" + totalPrice + " " + currency));
+                buyLore.add(MessageUtil.colorize("&7Prix total: &e" + Money.format(totalPrice) + " " + currency));
                 buyLore.add("");
                 
                 if (balance >= totalPrice) {
@@ -92,7 +93,7 @@ public class ShopBuyMenu {
                     if (balance >= totalPrice) {
                         buyItem(p, shopItem, quantity, categoryId);
                     } else {
-                        MessageUtil.sendError(p, "Vous n'avez pas assez d'argent! Il vous faut " + totalPrice + " " + currency);
+                        MessageUtil.sendError(p, "Vous n'avez pas assez d'argent! Il vous faut " + Money.format(totalPrice) + " " + currency);
                     }
                 })
                 .build());
@@ -130,11 +131,11 @@ public class ShopBuyMenu {
             return;
         }
         
-        double totalPrice = shopItem.getPrice() * quantity;
+        long totalPrice = shopItem.getPrice() * quantity;
         
         // Check balance
         if (eco.getBalance(player.getUniqueId()) < totalPrice) {
-            MessageUtil.sendError(player, "Vous n'avez pas assez d'argent! Il vous faut " + totalPrice + " " + currency);
+            MessageUtil.sendError(player, "Vous n'avez pas assez d'argent! Il vous faut " + Money.format(totalPrice) + " " + currency);
             return;
         }
         
@@ -159,7 +160,7 @@ public class ShopBuyMenu {
             "Achat: " + shopItem.getDisplayName() + " x" + quantity);
         
         MessageUtil.sendSuccess(player, "Vous avez acheté &e" + shopItem.getDisplayName() + " x" + quantity + 
-            " &apour &e" + totalPrice + " " + currency);
+            " &apour &e" + Money.format(totalPrice) + " " + currency);
         
         // Reopen buy menu
         open(player, shopItem, categoryId);
@@ -1,6 +1,7 @@
 package com.alexpsvet.shop.menu;
 
 import com.alexpsvet.Survival;
+import com.alexpsvet.economy.Money;
 import com.alexpsvet.shop.ShopCategory;
 import com.alexpsvet.shop.ShopItem;
 import com.alexpsvet.shop.ShopManager;
@@ -118,9 +119,9 @@ public class ShopMenu {
                         lore.add(MessageUtil.colorize(line));
                     }
                     lore.add("");
-                    lore.add(MessageUtil.colorize("&7Prix unitaire: &e" + shopItem.getPrice() + " " + currency));
+                    lore.add(MessageUtil.colorize("&7Prix unitaire: &e" + Money.format(shopItem.getPrice()) + " " + currency));
                     if (shopItem.canSell()) {
-                        lore.add(MessageUtil.colorize("&7Prix de vente: &a" + shopItem.getSellPrice() + " " + currency));
+                        lore.add(MessageUtil.colorize("&7Prix de vente: &a" + Money.format(shopItem.getSellPrice()) + " " + currency));
                     }
                     lore.add("");
                     lore.add(MessageUtil.colorize("&eCliquez pour voir les options d'achat!"));
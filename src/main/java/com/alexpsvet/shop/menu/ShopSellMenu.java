@@ -2,6 +2,7 @@ package com.alexpsvet.shop.menu;
 
 import com.alexpsvet.Survival;
 import com.alexpsvet.economy.EconomyManager;
+import com.alexpsvet.economy.Money;
 import com.alexpsvet.economy.TransactionType;
 import com.alexpsvet.shop.ShopCategory;
 import com.alexpsvet.shop.ShopItem;
@@ -126,7 +127,7 @@ public class ShopSellMenu implements Listener {
         EconomyManager eco = Survival.getInstance().getEconomyManager();
         String currency = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
         
-        double totalValue = 0;
+        long totalValue = 0L;
         Map<String, Integer> soldItems = new HashMap<>();
         List<ItemStack> unsellableItems = new ArrayList<>();
         
@@ -153,7 +154,7 @@ public class ShopSellMenu implements Listener {
             
             // Calculate value
             int amount = item.getAmount();
-            double itemValue = shopItem.getSellPrice() * amount;
+            long itemValue = shopItem.getSellPrice() * amount;
             totalValue += itemValue;
             
             // Track sold items for message
@@ -186,8 +187,8 @@ public class ShopSellMenu implements Listener {
             }
             
             player.sendMessage("");
-            player.sendMessage(MessageUtil.colorize("&7Total reçu: &a+" + totalValue + " " + currency));
-            player.sendMessage(MessageUtil.colorize("&7Nouveau solde: &e" + eco.getBalance(player.getUniqueId()) + " " + currency));
+            player.sendMessage(MessageUtil.colorize("&7Total reçu: &a+" + Money.format(totalValue) + " " + currency));
+            player.sendMessage(MessageUtil.colorize("&7Nouveau solde: &e" + Money.format(eco.getBalance(player.getUniqueId())) + " " + currency));
             player.sendMessage(MessageUtil.colorize("&a&l━━━━━━━━━━━━━━━━━━━━━━━━"));
             player.sendMessage("");
             
@@ -0,0 +1,224 @@
+package com.alexpsvet.startup;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the startup steps of the plugin.
+ * Steps declare the steps they depend on, a step is loaded off the main thread as soon as
+ * every step it depends on is published, and the loaded data is published on the main thread,
+ * one step at a time, in the order the loads finish.
+ */
+public class StartupOrchestrator {
+    private static final Logger LOGGER = Logger.getLogger("survival");
+
+    private final int threads;
+    private final Map<String, Task> tasks;
+
+    /**
+     * Create an orchestrator
+     * @param threads Maximum number of steps loaded at the same time
+     */
+    public StartupOrchestrator(int threads) {
+        this.threads = Math.max(1, threads);
+        this.tasks = new LinkedHashMap<>();
+    }
+
+    /**
+     * Register a step
+     * @param name Name of the step, used in logs and by dependent steps
+     * @param step The step
+     * @param dependencies Names of the steps that must be published before this one is loaded
+     */
+    public void register(String name, StartupStep step, String... dependencies) {
+        if (tasks.containsKey(name)) {
+            throw new IllegalArgumentException("Startup step registered twice: " + name);
+        }
+        tasks.put(name, new Task(name, step, dependencies));
+    }
+
+    /**
+     * Run every registered step, must be called on the main thread
+     * @return true if every step was loaded and published
+     */
+    public boolean run() {
+        if (!validate()) {
+            return false;
+        }
+        if (tasks.isEmpty()) {
+            return true;
+        }
+
+        long start = System.nanoTime();
+        int poolSize = Math.min(threads, tasks.size());
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "Survival-Startup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Loaded steps are handed to the main thread through this queue, which also publishes their data
+        BlockingQueue<Task> loaded = new LinkedBlockingQueue<>();
+        List<Task> waiting = new ArrayList<>(tasks.values());
+        Set<String> published = new HashSet<>();
+        List<Task> publishOrder = new ArrayList<>();
+
+        try {
+            int running = submitReady(waiting, published, executor, loaded, start);
+            while (running > 0) {
+                Task task = loaded.take();
+                running--;
+                if (task.failure != null) {
+                    LOGGER.log(Level.SEVERE, "Startup step " + task.name + " failed", task.failure);
+                    return false;
+                }
+
+                long publishStart = System.nanoTime();
+                try {
+                    if (task.publisher != null) {
+                        task.publisher.run();
+                    }
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.SEVERE, "Failed to publish startup step " + task.name, e);
+                    return false;
+                }
+                task.publishNanos = System.nanoTime() - publishStart;
+                published.add(task.name);
+                publishOrder.add(task);
+
+                running += submitReady(waiting, published, executor, loaded, start);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.severe("Interrupted while waiting for the startup steps");
+            return false;
+        } finally {
+            executor.shutdownNow();
+        }
+
+        logBreakdown(publishOrder, System.nanoTime() - start, poolSize);
+        return true;
+    }
+
+    /**
+     * Check that every dependency exists and that the dependencies have no cycle
+     */
+    private boolean validate() {
+        for (Task task : tasks.values()) {
+            for (String dependency : task.dependencies) {
+                if (!tasks.containsKey(dependency)) {
+                    LOGGER.severe("Startup step " + task.name + " depends on unknown step " + dependency);
+                    return false;
+                }
+            }
+        }
+
+        List<Task> remaining = new ArrayList<>(tasks.values());
+        Set<String> resolved = new HashSet<>();
+        boolean progress = true;
+        while (!remaining.isEmpty() && progress) {
+            progress = false;
+            for (Iterator<Task> it = remaining.iterator(); it.hasNext(); ) {
+                Task task = it.next();
+                if (resolved.containsAll(task.dependencies)) {
+                    resolved.add(task.name);
+                    it.remove();
+                    progress = true;
+                }
+            }
+        }
+        if (!remaining.isEmpty()) {
+            List<String> names = new ArrayList<>();
+            for (Task task : remaining) {
+                names.add(task.name);
+            }
+            LOGGER.severe("Startup steps have a dependency cycle: " + String.join(", ", names));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Start loading every waiting step whose dependencies are all published
+     * @return the number of steps started
+     */
+    private int submitReady(List<Task> waiting, Set<String> published, ExecutorService executor,
+                            BlockingQueue<Task> loaded, long start) {
+        int submitted = 0;
+        for (Iterator<Task> it = waiting.iterator(); it.hasNext(); ) {
+            Task task = it.next();
+            if (!published.containsAll(task.dependencies)) continue;
+            it.remove();
+            submitted++;
+            executor.execute(() -> {
+                long loadStart = System.nanoTime();
+                task.startOffsetNanos = loadStart - start;
+                try {
+                    task.publisher = task.step.load();
+                } catch (Throwable t) {
+                    task.failure = t;
+                }
+                task.loadNanos = System.nanoTime() - loadStart;
+                loaded.add(task);
+            });
+        }
+        return submitted;
+    }
+
+    private void logBreakdown(List<Task> publishOrder, long totalNanos, int poolSize) {
+        long loadNanos = 0;
+        for (Task task : publishOrder) {
+            loadNanos += task.loadNanos;
+        }
+        StringBuilder breakdown = new StringBuilder();
+        breakdown.append(String.format("Startup finished in %dms (%dms of loading on %d thread(s))",
+            toMillis(totalNanos), toMillis(loadNanos), poolSize));
+        for (Task task : publishOrder) {
+            breakdown.append(String.format("%n  %-14s started at %5dms, loaded in %5dms, published in %4dms",
+                task.name, toMillis(task.startOffsetNanos), toMillis(task.loadNanos), toMillis(task.publishNanos)));
+        }
+        LOGGER.info(breakdown.toString());
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * A registered step and its timings.
+     * The fields written by the loading thread are read by the main thread after it took the task
+     * from the loaded queue, which orders the writes before the reads.
+     */
+    private static final class Task {
+        private final String name;
+        private final StartupStep step;
+        private final Set<String> dependencies;
+        private Runnable publisher;
+        private Throwable failure;
+        private long startOffsetNanos;
+        private long loadNanos;
+        private long publishNanos;
+
+        private Task(String name, StartupStep step, String[] dependencies) {
+            this.name = name;
+            this.step = step;
+            this.dependencies = new HashSet<>();
+            for (String dependency : dependencies) {
+                this.dependencies.add(dependency);
+            }
+        }
+    }
+}
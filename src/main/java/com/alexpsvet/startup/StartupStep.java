@@ -0,0 +1,14 @@
+package com.alexpsvet.startup;
+
+/**
+ * Work done while the plugin starts
+ */
+@FunctionalInterface
+public interface StartupStep {
+    /**
+     * Load the data of the step, off the main thread
+     * @return the action publishing the loaded data, run on the main thread (may be null)
+     * @throws Exception to abort the startup
+     */
+    Runnable load() throws Exception;
+}
@@ -16,6 +16,7 @@ public class Territory {
     private final UUID owner;
     private final String ownerName;
     private final Location center;
+    private final UUID worldId; // UID of the center's world, null if it is not loaded
     private final int radius;
     private final long createdAt;
     private String clanName; // Optional clan ownership
@@ -28,6 +29,7 @@ public class Territory {
         this.owner = owner;
         this.ownerName = ownerName;
         this.center = center;
+        this.worldId = center.getWorld() != null ? center.getWorld().getUID() : null;
         this.radius = radius;
         this.createdAt = createdAt;
         this.trusted = new HashSet<>();
@@ -51,6 +53,10 @@ public class Territory {
         return center;
     }
     
+    public UUID getWorldId() {
+        return worldId;
+    }
+    
     public int getRadius() {
         return radius;
     }
@@ -99,9 +105,23 @@ public class Territory {
             return false;
         }
         
-        int dx = location.getBlockX() - center.getBlockX();
-        int dy = location.getBlockY() - center.getBlockY();
-        int dz = location.getBlockZ() - center.getBlockZ();
+        return contains(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+    
+    /**
+     * Check if a block is within this territory, without creating a location
+     */
+    public boolean contains(UUID world, int x, int y, int z) {
+        return world.equals(worldId) && contains(x, y, z);
+    }
+    
+    /**
+     * Check if a block of the territory's world is within this territory
+     */
+    public boolean contains(int x, int y, int z) {
+        int dx = x - center.getBlockX();
+        int dy = y - center.getBlockY();
+        int dz = z - center.getBlockZ();
         
         return (dx * dx + dy * dy + dz * dz) <= (radius * radius);
     }
@@ -110,7 +130,31 @@ public class Territory {
      * Check if a block is within this territory
      */
     public boolean contains(Block block) {
-        return contains(block.getLocation());
+        return contains(block.getWorld().getUID(), block.getX(), block.getY(), block.getZ());
+    }
+    
+    /**
+     * Get the distance from a block of the territory's world to the border of this territory
+     * @return the distance in blocks, 0 inside the territory
+     */
+    public double getDistanceToBorder(int x, int y, int z) {
+        long dx = x - center.getBlockX();
+        long dy = y - center.getBlockY();
+        long dz = z - center.getBlockZ();
+        
+        return Math.max(0.0, Math.sqrt(dx * dx + dy * dy + dz * dz) - radius);
+    }
+    
+    /**
+     * Check if this territory overlaps a box of blocks of its world, bounds included
+     */
+    public boolean intersects(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        // Distance from the center to the closest block of the box
+        long dx = center.getBlockX() - Math.max(minX, Math.min(center.getBlockX(), maxX));
+        long dy = center.getBlockY() - Math.max(minY, Math.min(center.getBlockY(), maxY));
+        long dz = center.getBlockZ() - Math.max(minZ, Math.min(center.getBlockZ(), maxZ));
+        
+        return (dx * dx + dy * dy + dz * dz) <= (long) radius * radius;
     }
     
     /**
@@ -0,0 +1,119 @@
+package com.alexpsvet.territory;
+
+/**
+ * Territories of one world by the chunks they overlap.
+ * Each chunk column touched by a territory's sphere holds that territory, so the territory at a block
+ * is found among the few candidates of its chunk, whatever the number of territories.
+ * Only used from the main thread.
+ */
+final class TerritoryGrid {
+    private static final Territory[] NONE = new Territory[0];
+
+    private final LongObjectMap<Territory[]> chunks;
+
+    TerritoryGrid() {
+        this.chunks = new LongObjectMap<>();
+    }
+
+    /**
+     * Add a territory to every chunk it overlaps
+     */
+    void add(Territory territory) {
+        int x = territory.getCenter().getBlockX();
+        int z = territory.getCenter().getBlockZ();
+        int radius = territory.getRadius();
+        for (int chunkX = (x - radius) >> 4; chunkX <= (x + radius) >> 4; chunkX++) {
+            for (int chunkZ = (z - radius) >> 4; chunkZ <= (z + radius) >> 4; chunkZ++) {
+                if (!overlaps(chunkX, chunkZ, x, z, radius)) continue;
+                long key = key(chunkX, chunkZ);
+                Territory[] cell = chunks.get(key);
+                if (cell == null) {
+                    chunks.put(key, new Territory[] { territory });
+                } else {
+                    Territory[] grown = new Territory[cell.length + 1];
+                    System.arraycopy(cell, 0, grown, 0, cell.length);
+                    grown[cell.length] = territory;
+                    chunks.put(key, grown);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove a territory from every chunk it overlaps
+     */
+    void remove(Territory territory) {
+        int x = territory.getCenter().getBlockX();
+        int z = territory.getCenter().getBlockZ();
+        int radius = territory.getRadius();
+        for (int chunkX = (x - radius) >> 4; chunkX <= (x + radius) >> 4; chunkX++) {
+            for (int chunkZ = (z - radius) >> 4; chunkZ <= (z + radius) >> 4; chunkZ++) {
+                long key = key(chunkX, chunkZ);
+                Territory[] cell = chunks.get(key);
+                if (cell == null) continue;
+                int index = indexOf(cell, territory);
+                if (index < 0) continue;
+                if (cell.length == 1) {
+                    chunks.remove(key);
+                } else {
+                    Territory[] shrunk = new Territory[cell.length - 1];
+                    System.arraycopy(cell, 0, shrunk, 0, index);
+                    System.arraycopy(cell, index + 1, shrunk, index, cell.length - index - 1);
+                    chunks.put(key, shrunk);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the territory containing a block
+     * @return the territory, or null if there is none
+     */
+    Territory find(int x, int y, int z) {
+        Territory[] cell = chunks.get(key(x >> 4, z >> 4));
+        if (cell == null) {
+            return null;
+        }
+        for (Territory territory : cell) {
+            if (territory.contains(x, y, z)) {
+                return territory;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the territories overlapping a chunk
+     * @return the territories, empty if there is none, must not be modified
+     */
+    Territory[] getCandidates(int chunkX, int chunkZ) {
+        Territory[] cell = chunks.get(key(chunkX, chunkZ));
+        return cell != null ? cell : NONE;
+    }
+
+    boolean isEmpty() {
+        return chunks.size() == 0;
+    }
+
+    static long key(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Check if the circle of a territory seen from above reaches a chunk column
+     */
+    private static boolean overlaps(int chunkX, int chunkZ, int x, int z, int radius) {
+        int dx = x - Math.max(chunkX << 4, Math.min(x, (chunkX << 4) + 15));
+        int dz = z - Math.max(chunkZ << 4, Math.min(z, (chunkZ << 4) + 15));
+        return (long) dx * dx + (long) dz * dz <= (long) radius * radius;
+    }
+
+    private static int indexOf(Territory[] cell, Territory territory) {
+        for (int i = 0; i < cell.length; i++) {
+            if (cell[i] == territory) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
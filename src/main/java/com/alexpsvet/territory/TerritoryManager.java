@@ -5,12 +5,11 @@ import com.alexpsvet.clan.Clan;
 import com.alexpsvet.clan.ClanManager;
 import com.alexpsvet.database.Database;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.*;
-import java.util.logging.Level;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 
 /**
@@ -22,160 +21,160 @@ public class TerritoryManager {
     
     private final Database database;
     private final Map<Integer, Territory> territories;
-    private final Map<Block, Integer> protectionBlocks; // Protection stone blocks
-    private int nextId = 1;
+    private final Map<UUID, LongObjectMap<Territory>> protectionBlocks; // Protection stone blocks by packed position, per world UID
+    private final Map<UUID, TerritoryGrid> grids; // Territories by chunk, per world UID
+    private final Map<UUID, TerritoryTree> trees; // Territories by bounding box, per world UID
+    private final List<Territory> pendingClaims; // Territories whose row is being inserted, kept for collisions
+    private final Map<Territory, Map<UUID, Boolean>> buildPermissions; // Memoized canBuild decisions, per territory and player
     
     public TerritoryManager(Database database) {
         instance = this;
         this.database = database;
         this.territories = new HashMap<>();
         this.protectionBlocks = new HashMap<>();
-        createTables();
-        loadTerritories();
+        this.grids = new HashMap<>();
+        this.trees = new HashMap<>();
+        this.pendingClaims = new ArrayList<>();
+        this.buildPermissions = new HashMap<>();
     }
     
     /**
-     * Create territory tables
+     * Load all territories from database, can be called off the main thread.
+     * Territories and trusted players are each read with one query, in parallel, and joined in memory.
+     * @return the action making the territories available, run on the main thread
      */
-    private void createTables() {
-        String territoriesTable = "CREATE TABLE IF NOT EXISTS territories (" +
-                "id INTEGER PRIMARY KEY " + (database.getType().name().equals("SQLITE") ? "AUTOINCREMENT" : "AUTO_INCREMENT") + "," +
-                "owner_uuid VARCHAR(36) NOT NULL," +
-                "owner_name VARCHAR(16) NOT NULL," +
-                "clan_name VARCHAR(16)," +
-                "world VARCHAR(50) NOT NULL," +
-                "center_x INTEGER NOT NULL," +
-                "center_y INTEGER NOT NULL," +
-                "center_z INTEGER NOT NULL," +
-                "radius INTEGER NOT NULL," +
-                "created_at BIGINT NOT NULL," +
-                "flag_pvp BOOLEAN DEFAULT 0," +
-                "flag_explosions BOOLEAN DEFAULT 0," +
-                "flag_mob_spawning BOOLEAN DEFAULT 1," +
-                "flag_mob_griefing BOOLEAN DEFAULT 0," +
-                "flag_fire_spread BOOLEAN DEFAULT 0" +
-                ")";
-        database.executeUpdate(territoriesTable);
+    public Runnable loadTerritories() {
+        // Worlds are resolved once, the rows are mapped on the database threads
+        Map<String, World> worlds = new HashMap<>();
+        for (World world : Survival.getInstance().getServer().getWorlds()) {
+            worlds.put(world.getName().toLowerCase(Locale.ENGLISH), world);
+        }
         
-        String trustedTable = "CREATE TABLE IF NOT EXISTS territory_trusted (" +
-                "territory_id INTEGER NOT NULL," +
-                "player_uuid VARCHAR(36) NOT NULL," +
-                "PRIMARY KEY (territory_id, player_uuid)" +
-                ")";
-        database.executeUpdate(trustedTable);
+        CompletableFuture<List<Territory>> territoriesLoad = database.loadAsync(() -> database.query("SELECT * FROM territories", rs -> {
+            int id = rs.getInt("id");
+            UUID owner = UUID.fromString(rs.getString("owner_uuid"));
+            String ownerName = rs.getString("owner_name");
+            String world = rs.getString("world");
+            int x = rs.getInt("center_x");
+            int y = rs.getInt("center_y");
+            int z = rs.getInt("center_z");
+            int radius = rs.getInt("radius");
+            long createdAt = rs.getLong("created_at");
+            String clanName = rs.getString("clan_name");
+            
+            Location center = new Location(worlds.get(world.toLowerCase(Locale.ENGLISH)), x, y, z);
+            Territory territory = new Territory(id, owner, ownerName, center, radius, createdAt);
+            territory.setClanName(clanName);
+            
+            // Load flags
+            TerritoryFlags flags = new TerritoryFlags();
+            flags.setPvp(rs.getBoolean("flag_pvp"));
+            flags.setExplosions(rs.getBoolean("flag_explosions"));
+            flags.setMobSpawning(rs.getBoolean("flag_mob_spawning"));
+            flags.setMobGriefing(rs.getBoolean("flag_mob_griefing"));
+            flags.setFireSpread(rs.getBoolean("flag_fire_spread"));
+            territory.setFlags(flags);
+            return territory;
+        }));
+        CompletableFuture<Map<Integer, List<UUID>>> trustedLoad = database.loadAsync(() ->
+            database.queryGrouped("SELECT territory_id, player_uuid FROM territory_trusted",
+                rs -> rs.getInt("territory_id"), rs -> UUID.fromString(rs.getString("player_uuid"))));
         
-        LOGGER.info("Territory tables created/verified");
-    }
-    
-    /**
-     * Load all territories from database
-     */
-    private void loadTerritories() {
-        ResultSet rs = database.executeQuery("SELECT * FROM territories");
-        try {
-            while (rs != null && rs.next()) {
-                int id = rs.getInt("id");
-                UUID owner = UUID.fromString(rs.getString("owner_uuid"));
-                String ownerName = rs.getString("owner_name");
-                String world = rs.getString("world");
-                int x = rs.getInt("center_x");
-                int y = rs.getInt("center_y");
-                int z = rs.getInt("center_z");
-                int radius = rs.getInt("radius");
-                long createdAt = rs.getLong("created_at");
-                String clanName = rs.getString("clan_name");
-                
-                Location center = new Location(Survival.getInstance().getServer().getWorld(world), x, y, z);
-                Territory territory = new Territory(id, owner, ownerName, center, radius, createdAt);
-                territory.setClanName(clanName);
-                
-                // Load flags
-                TerritoryFlags flags = new TerritoryFlags();
-                flags.setPvp(rs.getBoolean("flag_pvp"));
-                flags.setExplosions(rs.getBoolean("flag_explosions"));
-                flags.setMobSpawning(rs.getBoolean("flag_mob_spawning"));
-                flags.setMobGriefing(rs.getBoolean("flag_mob_griefing"));
-                flags.setFireSpread(rs.getBoolean("flag_fire_spread"));
-                territory.setFlags(flags);
-                
-                territories.put(id, territory);
-                loadTrustedPlayers(territory);
-                
-                if (id >= nextId) {
-                    nextId = id + 1;
-                }
+        Map<Integer, List<UUID>> trusted = trustedLoad.join();
+        List<Territory> loaded = territoriesLoad.join();
+        int trustedCount = 0;
+        for (Territory territory : loaded) {
+            for (UUID player : trusted.getOrDefault(territory.getId(), Collections.emptyList())) {
+                territory.addTrusted(player);
+                trustedCount++;
             }
-            if (rs != null) rs.close();
-            LOGGER.info("Loaded " + territories.size() + " territories");
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Failed to load territories", e);
         }
+        LOGGER.info("Loaded " + loaded.size() + " territories (" + trustedCount + " trusted players)");
+        return () -> {
+            for (Territory territory : loaded) {
+                territories.put(territory.getId(), territory);
+                index(territory);
+                // Territories are created from their protection block, at their center
+                Location center = territory.getCenter();
+                indexProtectionBlock(territory, center.getBlockX(), center.getBlockY(), center.getBlockZ());
+            }
+        };
     }
     
     /**
-     * Load trusted players for a territory
+     * Create a new territory, its row is inserted on the database writer.
+     * Until then the claim is reserved, so {@link #wouldCollide(Location, int)} already sees it.
+     * @return a future completed on the main thread with the territory, or null if error
      */
-    private void loadTrustedPlayers(Territory territory) {
-        ResultSet rs = database.executeQuery("SELECT player_uuid FROM territory_trusted WHERE territory_id = ?", territory.getId());
-        try {
-            while (rs != null && rs.next()) {
-                UUID player = UUID.fromString(rs.getString("player_uuid"));
-                territory.addTrusted(player);
-            }
-            if (rs != null) rs.close();
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Failed to load trusted players for territory " + territory.getId(), e);
-        }
+    public CompletableFuture<Territory> createTerritory(UUID owner, String ownerName, Location center, int radius) {
+        return createTerritory(owner, ownerName, center, radius, false);
     }
     
     /**
-     * Create a new territory
+     * Create a territory from a protection block.
+     * The block is indexed with the reserved claim, so {@link #getTerritoryByBlock(Block)} finds it
+     * and {@link #isPendingClaim(Territory)} tells it cannot be removed yet.
+     * @return a future completed on the main thread with the territory, or null if error
      */
-    public Territory createTerritory(UUID owner, String ownerName, Location center, int radius) {
-        database.executeUpdate(
+    public CompletableFuture<Territory> createTerritoryFromBlock(Block block, UUID owner, String ownerName, int radius) {
+        return createTerritory(owner, ownerName, block.getLocation(), radius, true);
+    }
+    
+    private CompletableFuture<Territory> createTerritory(UUID owner, String ownerName, Location center, int radius, boolean fromBlock) {
+        long createdAt = System.currentTimeMillis();
+        Territory claim = new Territory(-1, owner, ownerName, center, radius, createdAt);
+        pendingClaims.add(claim);
+        int x = center.getBlockX(), y = center.getBlockY(), z = center.getBlockZ();
+        if (fromBlock) {
+            indexProtectionBlock(claim, x, y, z);
+        }
+        
+        return database.insertAsync(
             "INSERT INTO territories (owner_uuid, owner_name, world, center_x, center_y, center_z, radius, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
             owner.toString(), ownerName, center.getWorld().getName(),
-            center.getBlockX(), center.getBlockY(), center.getBlockZ(),
-            radius, System.currentTimeMillis()
-        );
-        
-        ResultSet rs = database.executeQuery("SELECT MAX(id) as max_id FROM territories");
-        try {
-            if (rs != null && rs.next()) {
-                int id = rs.getInt("max_id");
-                Territory territory = new Territory(id, owner, ownerName, center, radius, System.currentTimeMillis());
-                territories.put(id, territory);
-                rs.close();
-                return territory;
+            x, y, z,
+            radius, createdAt
+        ).thenApply(key -> {
+            pendingClaims.remove(claim);
+            if (key < 0) {
+                LOGGER.severe("Failed to create territory for " + ownerName);
+                if (fromBlock) {
+                    unindexProtectionBlock(claim, x, y, z);
+                }
+                return null;
             }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Failed to get territory ID", e);
-        }
-        
-        return null;
+            
+            int id = (int) (long) key;
+            Territory territory = new Territory(id, owner, ownerName, center, radius, createdAt);
+            territories.put(id, territory);
+            index(territory);
+            if (fromBlock) {
+                // Replaces the reserved claim
+                indexProtectionBlock(territory, x, y, z);
+            }
+            return territory;
+        });
     }
     
     /**
-     * Create a territory from a protection block
+     * Check if a territory is a claim whose row is still being inserted
+     * @return true if the claim is not stored yet
      */
-    public Territory createTerritoryFromBlock(Block block, UUID owner, String ownerName, int radius) {
-        Territory territory = createTerritory(owner, ownerName, block.getLocation(), radius);
-        if (territory != null) {
-            protectionBlocks.put(block, territory.getId());
-        }
-        return territory;
+    public boolean isPendingClaim(Territory territory) {
+        return pendingClaims.contains(territory);
     }
     
     /**
      * Remove a territory
      */
     public void removeTerritory(int territoryId) {
-        territories.remove(territoryId);
-        database.executeUpdate("DELETE FROM territories WHERE id = ?", territoryId);
-        database.executeUpdate("DELETE FROM territory_trusted WHERE territory_id = ?", territoryId);
-        
-        // Remove protection block mapping
-        protectionBlocks.entrySet().removeIf(entry -> entry.getValue() == territoryId);
+        Territory removed = territories.remove(territoryId);
+        if (removed != null) {
+            unindex(removed);
+            buildPermissions.remove(removed);
+        }
+        database.executeAsync("DELETE FROM territories WHERE id = ?", territoryId);
+        database.executeAsync("DELETE FROM territory_trusted WHERE territory_id = ?", territoryId);
     }
     
     /**
@@ -188,7 +187,8 @@ public class TerritoryManager {
         }
         
         territory.setClanName(clanName);
-        database.executeUpdate("UPDATE territories SET clan_name = ? WHERE id = ?", clanName, territoryId);
+        buildPermissions.remove(territory);
+        database.executeAsync("UPDATE territories SET clan_name = ? WHERE id = ?", clanName, territoryId);
         return true;
     }
     
@@ -199,7 +199,8 @@ public class TerritoryManager {
         Territory territory = territories.get(territoryId);
         if (territory != null) {
             territory.setClanName(null);
-            database.executeUpdate("UPDATE territories SET clan_name = NULL WHERE id = ?", territoryId);
+            buildPermissions.remove(territory);
+            database.executeAsync("UPDATE territories SET clan_name = NULL WHERE id = ?", territoryId);
         }
     }
     
@@ -210,7 +211,8 @@ public class TerritoryManager {
         Territory territory = territories.get(territoryId);
         if (territory != null) {
             territory.addTrusted(player);
-            database.executeUpdate(
+            forgetDecision(territory, player);
+            database.executeAsync(
                 "INSERT INTO territory_trusted (territory_id, player_uuid) VALUES (?, ?)",
                 territoryId, player.toString()
             );
@@ -224,7 +226,8 @@ public class TerritoryManager {
         Territory territory = territories.get(territoryId);
         if (territory != null) {
             territory.removeTrusted(player);
-            database.executeUpdate(
+            forgetDecision(territory, player);
+            database.executeAsync(
                 "DELETE FROM territory_trusted WHERE territory_id = ? AND player_uuid = ?",
                 territoryId, player.toString()
             );
@@ -238,54 +241,162 @@ public class TerritoryManager {
      * @return true if there would be a collision
      */
     public boolean wouldCollide(Location center, int radius) {
-        for (Territory territory : territories.values()) {
-            if (!territory.getCenter().getWorld().equals(center.getWorld())) {
+        if (center.getWorld() == null) {
+            return false;
+        }
+        // Collision if distance between centers is less than sum of radii
+        for (Territory claim : pendingClaims) {
+            if (!center.getWorld().getUID().equals(claim.getWorldId())) {
                 continue;
             }
-            
-            // Calculate distance between centers
-            double dx = territory.getCenter().getBlockX() - center.getBlockX();
-            double dy = territory.getCenter().getBlockY() - center.getBlockY();
-            double dz = territory.getCenter().getBlockZ() - center.getBlockZ();
-            double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
-            
-            // Collision if distance between centers is less than sum of radii
-            if (distance < (territory.getRadius() + radius)) {
+            long dx = claim.getCenter().getBlockX() - center.getBlockX();
+            long dy = claim.getCenter().getBlockY() - center.getBlockY();
+            long dz = claim.getCenter().getBlockZ() - center.getBlockZ();
+            long reach = claim.getRadius() + radius;
+            if (dx * dx + dy * dy + dz * dz < reach * reach) {
                 return true;
             }
         }
-        return false;
+        TerritoryTree tree = trees.get(center.getWorld().getUID());
+        return tree != null && tree.findOverlapping(center.getBlockX(), center.getBlockY(), center.getBlockZ(), radius) != null;
+    }
+    
+    /**
+     * Get the territory whose border is the closest to a location, to find free land around it
+     * @return the territory, or null if the location's world has none
+     * @see Territory#getDistanceToBorder(int, int, int)
+     */
+    public Territory getNearestTerritory(Location location) {
+        TerritoryTree tree = location.getWorld() != null ? trees.get(location.getWorld().getUID()) : null;
+        return tree != null ? tree.findNearest(location.getBlockX(), location.getBlockY(), location.getBlockZ()) : null;
     }
     
     /**
      * Get territory at a location
      */
     public Territory getTerritoryAt(Location location) {
-        for (Territory territory : territories.values()) {
-            if (territory.contains(location)) {
-                return territory;
+        World world = location.getWorld();
+        if (world == null) {
+            return null;
+        }
+        return getTerritoryAt(world.getUID(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+    
+    /**
+     * Get territory at a block, without creating a location
+     */
+    public Territory getTerritoryAt(Block block) {
+        return getTerritoryAt(block.getWorld().getUID(), block.getX(), block.getY(), block.getZ());
+    }
+    
+    /**
+     * Get territory at block coordinates, only the territories overlapping their chunk are checked
+     * @param world The world's UID
+     */
+    public Territory getTerritoryAt(UUID world, int x, int y, int z) {
+        TerritoryGrid grid = grids.get(world);
+        return grid != null ? grid.find(x, y, z) : null;
+    }
+    
+    /**
+     * Get the territories overlapping a box of blocks, bounds included
+     * @return the territories, empty if there is none
+     */
+    public List<Territory> getTerritoriesIn(World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        TerritoryGrid grid = world != null ? grids.get(world.getUID()) : null;
+        if (grid == null) {
+            return Collections.emptyList();
+        }
+        
+        List<Territory> found = new ArrayList<>();
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                for (Territory territory : grid.getCandidates(chunkX, chunkZ)) {
+                    // A territory is listed in every chunk it overlaps
+                    if (!found.contains(territory) && territory.intersects(minX, minY, minZ, maxX, maxY, maxZ)) {
+                        found.add(territory);
+                    }
+                }
             }
         }
-        return null;
+        return found;
+    }
+    
+    /**
+     * Get the territories that may contain some blocks of a list, such as the blocks of an explosion.
+     * They are looked up once for the box around the blocks, so each block is only checked against them.
+     * @param blocks Blocks of a single world
+     * @return the territories, empty if there is none
+     */
+    public List<Territory> getTerritoriesAround(Collection<Block> blocks) {
+        if (blocks.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        World world = null;
+        for (Block block : blocks) {
+            world = block.getWorld();
+            minX = Math.min(minX, block.getX());
+            minY = Math.min(minY, block.getY());
+            minZ = Math.min(minZ, block.getZ());
+            maxX = Math.max(maxX, block.getX());
+            maxY = Math.max(maxY, block.getY());
+            maxZ = Math.max(maxZ, block.getZ());
+        }
+        return getTerritoriesIn(world, minX, minY, minZ, maxX, maxY, maxZ);
     }
     
     /**
      * Get territory by protection block
      */
     public Territory getTerritoryByBlock(Block block) {
-        Integer territoryId = protectionBlocks.get(block);
-        return territoryId != null ? territories.get(territoryId) : null;
+        LongObjectMap<Territory> blocks = protectionBlocks.get(block.getWorld().getUID());
+        return blocks != null ? blocks.get(blockKey(block.getX(), block.getY(), block.getZ())) : null;
     }
     
     /**
      * Check if a player can build at a location
      */
     public boolean canBuild(UUID player, Location location) {
-        Territory territory = getTerritoryAt(location);
+        return canBuild(player, getTerritoryAt(location));
+    }
+    
+    /**
+     * Check if a player can build at a block, without creating a location
+     */
+    public boolean canBuild(UUID player, Block block) {
+        return canBuild(player, getTerritoryAt(block));
+    }
+    
+    /**
+     * Check if a player can build at block coordinates
+     * @param world The world's UID
+     */
+    public boolean canBuild(UUID player, UUID world, int x, int y, int z) {
+        return canBuild(player, getTerritoryAt(world, x, y, z));
+    }
+    
+    /**
+     * Decisions are memoized per territory and player, and dropped when the trusted players,
+     * the clan of the territory or the members of that clan change
+     */
+    private boolean canBuild(UUID player, Territory territory) {
         if (territory == null) {
             return true; // No territory, can build
         }
         
+        Map<UUID, Boolean> decisions = buildPermissions.computeIfAbsent(territory, key -> new HashMap<>());
+        Boolean decision = decisions.get(player);
+        if (decision == null) {
+            decision = resolveBuild(player, territory);
+            decisions.put(player, decision);
+        }
+        return decision;
+    }
+    
+    private boolean resolveBuild(UUID player, Territory territory) {
         // Check if player has direct permission
         if (territory.hasPermission(player)) {
             return true;
@@ -303,6 +414,38 @@ public class TerritoryManager {
         return false;
     }
     
+    /**
+     * Drop the memoized decisions of a player in the territories of a clan, when the player joins or leaves it
+     */
+    public void onClanMemberChanged(String clanName, UUID player) {
+        for (Territory territory : territories.values()) {
+            if (clanName.equals(territory.getClanName())) {
+                forgetDecision(territory, player);
+            }
+        }
+    }
+    
+    /**
+     * Drop the memoized decisions in the territories of a clan, when it is disbanded
+     */
+    public void onClanDisbanded(String clanName) {
+        buildPermissions.keySet().removeIf(territory -> clanName.equals(territory.getClanName()));
+    }
+    
+    /**
+     * Drop the memoized decisions of a player who left
+     */
+    public void forgetPlayer(UUID player) {
+        buildPermissions.values().removeIf(decisions -> decisions.remove(player) != null && decisions.isEmpty());
+    }
+    
+    private void forgetDecision(Territory territory, UUID player) {
+        Map<UUID, Boolean> decisions = buildPermissions.get(territory);
+        if (decisions != null) {
+            decisions.remove(player);
+        }
+    }
+    
     /**
      * Update territory flags
      */
@@ -311,12 +454,65 @@ public class TerritoryManager {
         if (territory == null) return;
         
         TerritoryFlags flags = territory.getFlags();
-        database.executeUpdate(
+        database.executeAsync(
             "UPDATE territories SET flag_pvp = ?, flag_explosions = ?, flag_mob_spawning = ?, flag_mob_griefing = ?, flag_fire_spread = ? WHERE id = ?",
             flags.isPvp(), flags.isExplosions(), flags.isMobSpawning(), flags.isMobGriefing(), flags.isFireSpread(), territoryId
         );
     }
     
+    /**
+     * Add a territory to the chunk grid and tree of its world, territories of worlds not loaded are left out
+     */
+    private void index(Territory territory) {
+        if (territory.getWorldId() != null) {
+            grids.computeIfAbsent(territory.getWorldId(), uid -> new TerritoryGrid()).add(territory);
+            trees.computeIfAbsent(territory.getWorldId(), uid -> new TerritoryTree()).add(territory);
+        }
+    }
+    
+    private void indexProtectionBlock(Territory territory, int x, int y, int z) {
+        if (territory.getWorldId() != null) {
+            protectionBlocks.computeIfAbsent(territory.getWorldId(), uid -> new LongObjectMap<>())
+                .put(blockKey(x, y, z), territory);
+        }
+    }
+    
+    private void unindexProtectionBlock(Territory territory, int x, int y, int z) {
+        LongObjectMap<Territory> blocks = territory.getWorldId() != null ? protectionBlocks.get(territory.getWorldId()) : null;
+        if (blocks != null && blocks.get(blockKey(x, y, z)) == territory) {
+            blocks.remove(blockKey(x, y, z));
+        }
+    }
+    
+    /**
+     * Remove a territory from the chunk grid and tree, and its protection block from the index
+     */
+    private void unindex(Territory territory) {
+        if (territory.getWorldId() == null) {
+            return;
+        }
+        TerritoryGrid grid = grids.get(territory.getWorldId());
+        if (grid != null) {
+            grid.remove(territory);
+        }
+        TerritoryTree tree = trees.get(territory.getWorldId());
+        if (tree != null) {
+            tree.remove(territory);
+        }
+        LongObjectMap<Territory> blocks = protectionBlocks.get(territory.getWorldId());
+        Location center = territory.getCenter();
+        if (blocks != null) {
+            blocks.remove(blockKey(center.getBlockX(), center.getBlockY(), center.getBlockZ()));
+        }
+    }
+    
+    /**
+     * Pack block coordinates into a long, 26 bits for x and z and 12 bits for y
+     */
+    private static long blockKey(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+    
     public Collection<Territory> getAllTerritories() {
         return territories.values();
     }
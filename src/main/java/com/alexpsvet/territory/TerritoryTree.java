@@ -0,0 +1,346 @@
+package com.alexpsvet.territory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Territories of one world in an R-tree of the boxes around their spheres.
+ * Nodes hold up to {@link #MAX_ENTRIES} entries and the box around them, so overlap and nearest
+ * territory queries only descend into the few nodes close to the searched point, in O(log n).
+ * Only used from the main thread.
+ */
+final class TerritoryTree {
+    private static final int MAX_ENTRIES = 8;
+    private static final int MIN_ENTRIES = 3;
+
+    private Node root;
+    private int size;
+
+    TerritoryTree() {
+        this.root = new Node(true);
+    }
+
+    void add(Territory territory) {
+        Node sibling = insert(root, territory, bounds(territory));
+        if (sibling != null) {
+            Node newRoot = new Node(false);
+            newRoot.add(root, root.bounds);
+            newRoot.add(sibling, sibling.bounds);
+            root = newRoot;
+        }
+        size++;
+    }
+
+    void remove(Territory territory) {
+        List<Territory> orphans = new ArrayList<>();
+        if (!remove(root, territory, bounds(territory), orphans)) {
+            return;
+        }
+        size--;
+        if (!root.leaf && root.count == 1) {
+            root = (Node) root.entries[0];
+        } else if (!root.leaf && root.count == 0) {
+            root = new Node(true);
+        }
+        // Territories of the nodes left with too few entries go back in from the top
+        for (Territory orphan : orphans) {
+            size--;
+            add(orphan);
+        }
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get a territory whose sphere overlaps a sphere
+     * @return the first territory found, or null if there is none
+     */
+    Territory findOverlapping(int x, int y, int z, int radius) {
+        return findOverlapping(root, x, y, z, radius);
+    }
+
+    /**
+     * Get the territory whose border is the closest to a block
+     * @return the territory, or null if there is none
+     */
+    Territory findNearest(int x, int y, int z) {
+        Nearest nearest = new Nearest();
+        findNearest(root, x, y, z, nearest);
+        return nearest.territory;
+    }
+
+    private Territory findOverlapping(Node node, int x, int y, int z, int radius) {
+        for (int i = 0; i < node.count; i++) {
+            if (node.leaf) {
+                Territory territory = (Territory) node.entries[i];
+                long dx = territory.getCenter().getBlockX() - x;
+                long dy = territory.getCenter().getBlockY() - y;
+                long dz = territory.getCenter().getBlockZ() - z;
+                long reach = territory.getRadius() + radius;
+                if (dx * dx + dy * dy + dz * dz < reach * reach) {
+                    return territory;
+                }
+            } else {
+                // A sphere is inside its box, so a box at least radius away holds no overlapping sphere,
+                // unless the box holds the point itself
+                Node child = (Node) node.entries[i];
+                if (distanceSquared(child.bounds, x, y, z) < Math.max(1L, (long) radius * radius)) {
+                    Territory found = findOverlapping(child, x, y, z, radius);
+                    if (found != null) {
+                        return found;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private void findNearest(Node node, int x, int y, int z, Nearest nearest) {
+        if (node.leaf) {
+            for (int i = 0; i < node.count; i++) {
+                Territory territory = (Territory) node.entries[i];
+                double distance = territory.getDistanceToBorder(x, y, z);
+                if (distance < nearest.distance) {
+                    nearest.distance = distance;
+                    nearest.territory = territory;
+                }
+            }
+            return;
+        }
+
+        // Closest boxes first, the distance to a box never exceeds the distance to the borders inside it
+        int[] order = new int[node.count];
+        double[] distances = new double[node.count];
+        for (int i = 0; i < node.count; i++) {
+            double distance = Math.sqrt(distanceSquared(((Node) node.entries[i]).bounds, x, y, z));
+            int j = i;
+            while (j > 0 && distances[j - 1] > distance) {
+                distances[j] = distances[j - 1];
+                order[j] = order[j - 1];
+                j--;
+            }
+            distances[j] = distance;
+            order[j] = i;
+        }
+        for (int i = 0; i < node.count && distances[i] < nearest.distance; i++) {
+            findNearest((Node) node.entries[order[i]], x, y, z, nearest);
+        }
+    }
+
+    /**
+     * Insert a territory below a node
+     * @return the node split off the given one if it overflowed, or null
+     */
+    private Node insert(Node node, Territory territory, int[] box) {
+        if (node.leaf) {
+            node.add(territory, box);
+        } else {
+            Node child = chooseChild(node, box);
+            Node sibling = insert(child, territory, box);
+            if (sibling != null) {
+                node.add(sibling, sibling.bounds);
+            }
+            node.refit();
+        }
+        return node.count > MAX_ENTRIES ? split(node) : null;
+    }
+
+    /**
+     * The child whose box grows the least, then the smallest one
+     */
+    private static Node chooseChild(Node node, int[] box) {
+        Node best = null;
+        long bestGrowth = Long.MAX_VALUE;
+        long bestVolume = Long.MAX_VALUE;
+        for (int i = 0; i < node.count; i++) {
+            Node child = (Node) node.entries[i];
+            long volume = volume(child.bounds);
+            long growth = volume(union(child.bounds, box)) - volume;
+            if (growth < bestGrowth || (growth == bestGrowth && volume < bestVolume)) {
+                best = child;
+                bestGrowth = growth;
+                bestVolume = volume;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Quadratic split: the two entries wasting the most space together seed two groups,
+     * then each remaining entry joins the group it enlarges the least
+     * @return the new node holding the second group, the given node keeps the first one
+     */
+    private static Node split(Node node) {
+        Object[] entries = node.entries;
+        int[][] boxes = node.boxes;
+        int count = node.count;
+
+        int seedA = 0, seedB = 1;
+        long worst = Long.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            for (int j = i + 1; j < count; j++) {
+                long waste = volume(union(boxes[i], boxes[j])) - volume(boxes[i]) - volume(boxes[j]);
+                if (waste > worst) {
+                    worst = waste;
+                    seedA = i;
+                    seedB = j;
+                }
+            }
+        }
+
+        Node first = new Node(node.leaf);
+        Node second = new Node(node.leaf);
+        first.add(entries[seedA], boxes[seedA]);
+        second.add(entries[seedB], boxes[seedB]);
+        for (int i = 0; i < count; i++) {
+            if (i == seedA || i == seedB) continue;
+            int left = count - first.count - second.count;
+            // A group short of the minimum takes every remaining entry once they are just enough
+            if (first.count + left <= MIN_ENTRIES) {
+                first.add(entries[i], boxes[i]);
+            } else if (second.count + left <= MIN_ENTRIES) {
+                second.add(entries[i], boxes[i]);
+            } else {
+                long growthFirst = volume(union(first.bounds, boxes[i])) - volume(first.bounds);
+                long growthSecond = volume(union(second.bounds, boxes[i])) - volume(second.bounds);
+                if (growthFirst < growthSecond || (growthFirst == growthSecond && first.count <= second.count)) {
+                    first.add(entries[i], boxes[i]);
+                } else {
+                    second.add(entries[i], boxes[i]);
+                }
+            }
+        }
+
+        node.entries = first.entries;
+        node.boxes = first.boxes;
+        node.count = first.count;
+        node.bounds = first.bounds;
+        return second;
+    }
+
+    /**
+     * Remove a territory below a node, collecting the territories of the nodes left too small
+     * @return true if the territory was found
+     */
+    private static boolean remove(Node node, Territory territory, int[] box, List<Territory> orphans) {
+        if (!covers(node.bounds, box)) {
+            return false;
+        }
+        for (int i = 0; i < node.count; i++) {
+            if (node.leaf) {
+                if (node.entries[i] == territory) {
+                    node.removeAt(i);
+                    return true;
+                }
+            } else {
+                Node child = (Node) node.entries[i];
+                if (remove(child, territory, box, orphans)) {
+                    if (child.count < MIN_ENTRIES) {
+                        node.removeAt(i);
+                        collect(child, orphans);
+                    } else {
+                        node.refit();
+                    }
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void collect(Node node, List<Territory> territories) {
+        for (int i = 0; i < node.count; i++) {
+            if (node.leaf) {
+                territories.add((Territory) node.entries[i]);
+            } else {
+                collect((Node) node.entries[i], territories);
+            }
+        }
+    }
+
+    private static int[] bounds(Territory territory) {
+        int x = territory.getCenter().getBlockX();
+        int y = territory.getCenter().getBlockY();
+        int z = territory.getCenter().getBlockZ();
+        int radius = territory.getRadius();
+        return new int[] { x - radius, y - radius, z - radius, x + radius, y + radius, z + radius };
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        if (a == null) {
+            return b.clone();
+        }
+        return new int[] {
+            Math.min(a[0], b[0]), Math.min(a[1], b[1]), Math.min(a[2], b[2]),
+            Math.max(a[3], b[3]), Math.max(a[4], b[4]), Math.max(a[5], b[5])
+        };
+    }
+
+    private static boolean covers(int[] outer, int[] inner) {
+        return outer != null
+            && outer[0] <= inner[0] && outer[1] <= inner[1] && outer[2] <= inner[2]
+            && outer[3] >= inner[3] && outer[4] >= inner[4] && outer[5] >= inner[5];
+    }
+
+    private static long volume(int[] box) {
+        return (long) (box[3] - box[0] + 1) * (box[4] - box[1] + 1) * (box[5] - box[2] + 1);
+    }
+
+    /**
+     * Squared distance from a block to the closest block of a box, 0 inside it
+     */
+    private static long distanceSquared(int[] box, int x, int y, int z) {
+        long dx = x - Math.max(box[0], Math.min(x, box[3]));
+        long dy = y - Math.max(box[1], Math.min(y, box[4]));
+        long dz = z - Math.max(box[2], Math.min(z, box[5]));
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static final class Nearest {
+        private Territory territory;
+        private double distance = Double.MAX_VALUE;
+    }
+
+    private static final class Node {
+        private final boolean leaf;
+        private Object[] entries = new Object[MAX_ENTRIES + 1];
+        private int[][] boxes = new int[MAX_ENTRIES + 1][];
+        private int count;
+        private int[] bounds;
+
+        private Node(boolean leaf) {
+            this.leaf = leaf;
+        }
+
+        private void add(Object entry, int[] box) {
+            entries[count] = entry;
+            boxes[count] = box;
+            count++;
+            bounds = union(bounds, box);
+        }
+
+        private void removeAt(int index) {
+            count--;
+            entries[index] = entries[count];
+            boxes[index] = boxes[count];
+            entries[count] = null;
+            boxes[count] = null;
+            refit();
+        }
+
+        /**
+         * Recompute the box around the entries, the boxes of child nodes are read again since they may have shrunk
+         */
+        private void refit() {
+            bounds = null;
+            for (int i = 0; i < count; i++) {
+                if (!leaf) {
+                    boxes[i] = ((Node) entries[i]).bounds;
+                }
+                bounds = union(bounds, boxes[i]);
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.alexpsvet.territory.menu;
 
 import com.alexpsvet.Survival;
 import com.alexpsvet.economy.EconomyManager;
+import com.alexpsvet.economy.Money;
 import com.alexpsvet.economy.TransactionType;
 import com.alexpsvet.utils.MessageUtil;
 import com.alexpsvet.utils.menu.Button;
@@ -29,7 +30,7 @@ public class ProtectionBlockMenu {
         String currency = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
         
         // Small protection (radius 10)
-        double smallCost = Survival.getInstance().getConfig().getDouble("territory.protection-blocks.small.cost", 2000.0);
+        long smallCost = Money.of(Survival.getInstance().getConfig().getDouble("territory.protection-blocks.small.cost", 2000.0));
         int smallRadius = Survival.getInstance().getConfig().getInt("territory.protection-blocks.small.radius", 10);
         ItemStack smallBlock = createProtectionBlockItem(
             Material.SPONGE,
@@ -58,13 +59,13 @@ public class ProtectionBlockMenu {
                     MessageUtil.sendSuccess(p, "Bloc de protection acheté!");
                     p.closeInventory();
                 } else {
-                    MessageUtil.sendError(p, "Fonds insuffisants! Vous avez besoin de " + smallCost + " " + currency);
+                    MessageUtil.sendError(p, "Fonds insuffisants! Vous avez besoin de " + Money.format(smallCost) + " " + currency);
                 }
             })
             .build());
         
         // Medium protection (radius 25)
-        double mediumCost = Survival.getInstance().getConfig().getDouble("territory.protection-blocks.medium.cost", 5000.0);
+        long mediumCost = Money.of(Survival.getInstance().getConfig().getDouble("territory.protection-blocks.medium.cost", 5000.0));
         int mediumRadius = Survival.getInstance().getConfig().getInt("territory.protection-blocks.medium.radius", 25);
         ItemStack mediumBlock = createProtectionBlockItem(
             Material.GOLD_BLOCK,
@@ -93,13 +94,13 @@ public class ProtectionBlockMenu {
                     MessageUtil.sendSuccess(p, "Bloc de protection acheté!");
                     p.closeInventory();
                 } else {
-                    MessageUtil.sendError(p, "Fonds insuffisants! Vous avez besoin de " + mediumCost + " " + currency);
+                    MessageUtil.sendError(p, "Fonds insuffisants! Vous avez besoin de " + Money.format(mediumCost) + " " + currency);
                 }
             })
             .build());
         
         // Large protection (radius 50)
-        double largeCost = Survival.getInstance().getConfig().getDouble("territory.protection-blocks.large.cost", 10000.0);
+        long largeCost = Money.of(Survival.getInstance().getConfig().getDouble("territory.protection-blocks.large.cost", 10000.0));
         int largeRadius = Survival.getInstance().getConfig().getInt("territory.protection-blocks.large.radius", 50);
         ItemStack largeBlock = createProtectionBlockItem(
             Material.DIAMOND_BLOCK,
@@ -128,7 +129,7 @@ public class ProtectionBlockMenu {
                     MessageUtil.sendSuccess(p, "Bloc de protection acheté!");
                     p.closeInventory();
                 } else {
-                    MessageUtil.sendError(p, "Fonds insuffisants! Vous avez besoin de " + largeCost + " " + currency);
+                    MessageUtil.sendError(p, "Fonds insuffisants! Vous avez besoin de " + Money.format(largeCost) + " " + currency);
                 }
             })
             .build());
@@ -154,14 +155,14 @@ public class ProtectionBlockMenu {
         builder.build().open(player);
     }
     
-    private static ItemStack createProtectionBlockItem(Material material, String name, int radius, double cost, String currency) {
+    private static ItemStack createProtectionBlockItem(Material material, String name, int radius, long cost, String currency) {
         ItemStack item = new ItemStack(material);
         ItemMeta meta = item.getItemMeta();
         if (meta != null) {
             meta.setDisplayName(MessageUtil.colorize(name));
             List<String> lore = new ArrayList<>();
             lore.add(MessageUtil.colorize("&7Rayon: &e" + radius + " blocs"));
-            lore.add(MessageUtil.colorize("&7Prix: &a" + cost + " " + currency));
+            lore.add(MessageUtil.colorize("&7Prix: &a" + Money.format(cost) + " " + currency));
             lore.add("");
             lore.add(MessageUtil.colorize("&7Protégez votre territoire"));
             lore.add(MessageUtil.colorize("&7contre les intrus!"));
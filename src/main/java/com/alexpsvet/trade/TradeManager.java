@@ -2,6 +2,7 @@ package com.alexpsvet.trade;
 
 import com.alexpsvet.Survival;
 import com.alexpsvet.economy.EconomyManager;
+import com.alexpsvet.economy.Money;
 import com.alexpsvet.economy.TransactionType;
 import com.alexpsvet.utils.MessageUtil;
 import org.bukkit.Bukkit;
@@ -224,8 +225,8 @@ public class TradeManager {
         
         // Transfer money
         EconomyManager eco = Survival.getInstance().getEconomyManager();
-        double money1 = session.getPlayer1Money();
-        double money2 = session.getPlayer2Money();
+        long money1 = session.getPlayer1Money();
+        long money2 = session.getPlayer2Money();
         String currency = Survival.getInstance().getConfig().getString("economy.currency-symbol", "⛁");
         
         if (money1 > 0) {
@@ -257,10 +258,10 @@ public class TradeManager {
         player1.sendMessage(MessageUtil.colorize("&a&l━━━━━━━━━━━━━━━━━━━━━━━━"));
         player1.sendMessage(MessageUtil.colorize("  &7Échangé avec: &e" + player2.getName()));
         if (money2 > 0) {
-            player1.sendMessage(MessageUtil.colorize("  &7Argent reçu: &a+" + money2 + " " + currency));
+            player1.sendMessage(MessageUtil.colorize("  &7Argent reçu: &a+" + Money.format(money2) + " " + currency));
         }
         if (money1 > 0) {
-            player1.sendMessage(MessageUtil.colorize("  &7Argent donné: &c-" + money1 + " " + currency));
+            player1.sendMessage(MessageUtil.colorize("  &7Argent donné: &c-" + Money.format(money1) + " " + currency));
         }
         player1.sendMessage(MessageUtil.colorize("&a&l━━━━━━━━━━━━━━━━━━━━━━━━"));
         player1.sendMessage("");
@@ -271,10 +272,10 @@ public class TradeManager {
         player2.sendMessage(MessageUtil.colorize("&a&l━━━━━━━━━━━━━━━━━━━━━━━━"));
         player2.sendMessage(MessageUtil.colorize("  &7Échangé avec: &e" + player1.getName()));
         if (money1 > 0) {
-            player2.sendMessage(MessageUtil.colorize("  &7Argent reçu: &a+" + money1 + " " + currency));
+            player2.sendMessage(MessageUtil.colorize("  &7Argent reçu: &a+" + Money.format(money1) + " " + currency));
         }
         if (money2 > 0) {
-            player2.sendMessage(MessageUtil.colorize("  &7Argent donné: &c-" + money2 + " " + currency));
+            player2.sendMessage(MessageUtil.colorize("  &7Argent donné: &c-" + Money.format(money2) + " " + currency));
         }
         player2.sendMessage(MessageUtil.colorize("&a&l━━━━━━━━━━━━━━━━━━━━━━━━"));
         player2.sendMessage("");
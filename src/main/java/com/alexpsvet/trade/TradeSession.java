@@ -23,8 +23,8 @@ public class TradeSession {
     private final List<ItemStack> player1Items;
     private final List<ItemStack> player2Items;
     
-    private double player1Money;
-    private double player2Money;
+    private long player1Money;
+    private long player2Money;
     
     private boolean player1Accepted;
     private boolean player2Accepted;
@@ -48,8 +48,8 @@ public class TradeSession {
     public List<ItemStack> getPlayer1Items() { return player1Items; }
     public List<ItemStack> getPlayer2Items() { return player2Items; }
     
-    public double getPlayer1Money() { return player1Money; }
-    public double getPlayer2Money() { return player2Money; }
+    public long getPlayer1Money() { return player1Money; }
+    public long getPlayer2Money() { return player2Money; }
     
     public boolean isPlayer1Accepted() { return player1Accepted; }
     public boolean isPlayer2Accepted() { return player2Accepted; }
@@ -91,7 +91,7 @@ public class TradeSession {
     /**
      * Set money for a player
      */
-    public void setMoney(Player player, double amount) {
+    public void setMoney(Player player, long amount) {
         EconomyManager eco = Survival.getInstance().getEconomyManager();
         
         // Validate amount
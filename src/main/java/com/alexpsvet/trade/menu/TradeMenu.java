@@ -2,6 +2,7 @@ package com.alexpsvet.trade.menu;
 
 import com.alexpsvet.Survival;
 import com.alexpsvet.economy.EconomyManager;
+import com.alexpsvet.economy.Money;
 import com.alexpsvet.trade.TradeManager;
 import com.alexpsvet.trade.TradeSession;
 import com.alexpsvet.utils.MessageUtil;
@@ -72,9 +73,9 @@ public class TradeMenu implements Listener {
             playerSkullMeta.setDisplayName(MessageUtil.colorize("&a&lVotre Offre"));
             List<String> playerLore = new ArrayList<>();
             playerLore.add(MessageUtil.colorize("&7Placez vos items ici"));
-            double playerMoney = player.equals(session.getPlayer1()) ? session.getPlayer1Money() : session.getPlayer2Money();
+            long playerMoney = player.equals(session.getPlayer1()) ? session.getPlayer1Money() : session.getPlayer2Money();
             if (playerMoney > 0) {
-                playerLore.add(MessageUtil.colorize("&7Argent: &e" + playerMoney + " " + currency));
+                playerLore.add(MessageUtil.colorize("&7Argent: &e" + Money.format(playerMoney) + " " + currency));
             }
             playerSkullMeta.setLore(playerLore);
             playerHead.setItemMeta(playerSkullMeta);
@@ -88,9 +89,9 @@ public class TradeMenu implements Listener {
             otherSkullMeta.setOwningPlayer(otherPlayer);
             otherSkullMeta.setDisplayName(MessageUtil.colorize("&c&lOffre de " + otherPlayer.getName()));
             List<String> otherLore = new ArrayList<>();
-            double otherMoney = otherPlayer.equals(session.getPlayer1()) ? session.getPlayer1Money() : session.getPlayer2Money();
+            long otherMoney = otherPlayer.equals(session.getPlayer1()) ? session.getPlayer1Money() : session.getPlayer2Money();
             if (otherMoney > 0) {
-                otherLore.add(MessageUtil.colorize("&7Argent: &e" + otherMoney + " " + currency));
+                otherLore.add(MessageUtil.colorize("&7Argent: &e" + Money.format(otherMoney) + " " + currency));
             }
             otherSkullMeta.setLore(otherLore);
             otherHead.setItemMeta(otherSkullMeta);
@@ -128,8 +129,8 @@ public class TradeMenu implements Listener {
         if (moneyMeta != null) {
             moneyMeta.setDisplayName(MessageUtil.colorize("&6&lAjouter de l'Argent"));
             List<String> moneyLore = new ArrayList<>();
-            double currentMoney = player.equals(session.getPlayer1()) ? session.getPlayer1Money() : session.getPlayer2Money();
-            moneyLore.add(MessageUtil.colorize("&7Montant actuel: &e" + currentMoney + " " + currency));
+            long currentMoney = player.equals(session.getPlayer1()) ? session.getPlayer1Money() : session.getPlayer2Money();
+            moneyLore.add(MessageUtil.colorize("&7Montant actuel: &e" + Money.format(currentMoney) + " " + currency));
             moneyLore.add("");
             moneyLore.add(MessageUtil.colorize("&7Click gauche: &a+100 " + currency));
             moneyLore.add(MessageUtil.colorize("&7Click droit: &a+1000 " + currency));
@@ -198,13 +199,13 @@ public class TradeMenu implements Listener {
         
         // Money button
         if (slot == 45) {
-            double currentMoney = player.equals(session.getPlayer1()) ? session.getPlayer1Money() : session.getPlayer2Money();
-            double change = 0;
+            long currentMoney = player.equals(session.getPlayer1()) ? session.getPlayer1Money() : session.getPlayer2Money();
+            long change = 0;
             
             if (event.isShiftClick()) {
-                change = event.isLeftClick() ? -100 : -1000;
+                change = (event.isLeftClick() ? -100 : -1000) * Money.SCALE;
             } else {
-                change = event.isLeftClick() ? 100 : 1000;
+                change = (event.isLeftClick() ? 100 : 1000) * Money.SCALE;
             }
             
             session.setMoney(player, currentMoney + change);
@@ -0,0 +1,43 @@
+package com.alexpsvet.database;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Checks the string literals written to SQL exports.
+ */
+public class SqlDialectTest
+{
+    private final SqlDialect mysql = new SqlDialect(DatabaseType.MYSQL);
+    private final SqlDialect sqlite = new SqlDialect(DatabaseType.SQLITE);
+
+    @Test
+    public void doublesQuotes()
+    {
+        assertEquals("'l''\u00e9p\u00e9e'", mysql.stringLiteral("l'\u00e9p\u00e9e"));
+        assertEquals("'l''\u00e9p\u00e9e'", sqlite.stringLiteral("l'\u00e9p\u00e9e"));
+    }
+
+    @Test
+    public void escapesBackslashesForMysql()
+    {
+        // Without the escape the backslash would eat the closing quote and run into the next statement
+        assertEquals("'C:\\\\shop\\\\'''", mysql.stringLiteral("C:\\shop\\'"));
+        assertEquals("'a\\0b\\nc\\rd\\Z'", mysql.stringLiteral("a\0b\nc\rd\u001A"));
+    }
+
+    @Test
+    public void keepsBackslashesForSqlite()
+    {
+        assertEquals("'C:\\shop\\'''", sqlite.stringLiteral("C:\\shop\\'"));
+        assertEquals("'a\nb'", sqlite.stringLiteral("a\nb"));
+    }
+
+    @Test
+    public void quotesEmptyValue()
+    {
+        assertEquals("''", mysql.stringLiteral(""));
+        assertEquals("''", sqlite.stringLiteral(""));
+    }
+}
@@ -0,0 +1,250 @@
+package com.alexpsvet.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * Checks the striped balance ledger, alone and under concurrent changes.
+ */
+public class BalanceLedgerTest
+{
+    private final Random random = new Random(11);
+
+    @Test
+    public void keepsBalancesWhileGrowing()
+    {
+        BalanceLedger ledger = new BalanceLedger();
+        Map<UUID, Long> balances = new HashMap<>();
+
+        // Enough players for every segment to grow several times
+        for (int i = 0; i < 20000; i++) {
+            UUID uuid = new UUID(random.nextLong(), random.nextLong());
+            long balance = random.nextInt(1000000);
+            assertEquals(balance, ledger.cache(uuid, balance));
+            balances.put(uuid, balance);
+            if (i % 1000 == 0) {
+                assertBalances(ledger, balances);
+            }
+        }
+        assertBalances(ledger, balances);
+
+        for (Map.Entry<UUID, Long> entry : balances.entrySet()) {
+            // A cached balance is newer than the stored one
+            assertEquals(entry.getValue().longValue(), ledger.cache(entry.getKey(), -1L));
+        }
+        assertEquals(BalanceLedger.MISSING, ledger.get(new UUID(random.nextLong(), random.nextLong())));
+    }
+
+    @Test
+    public void keepsCollidingBalancesWhileGrowing()
+    {
+        BalanceLedger ledger = new BalanceLedger();
+        Map<UUID, Long> balances = new HashMap<>();
+
+        // Same segment and same first slot for every player, so each one probes past all the others
+        for (int i = 0; i < 1000; i++) {
+            UUID uuid = sameHash(i);
+            ledger.credit(uuid, i, null);
+            balances.put(uuid, (long) i);
+        }
+        assertBalances(ledger, balances);
+
+        for (int i = 0; i < 1000; i += 2) {
+            assertTrue(ledger.debit(sameHash(i), i, null));
+            balances.put(sameHash(i), 0L);
+        }
+        assertBalances(ledger, balances);
+        assertEquals(BalanceLedger.MISSING, ledger.get(sameHash(1000)));
+    }
+
+    @Test
+    public void clearDropsEveryBalance()
+    {
+        BalanceLedger ledger = new BalanceLedger();
+        UUID uuid = UUID.randomUUID();
+        ledger.set(uuid, 500L, null);
+
+        ledger.clear();
+
+        assertEquals(BalanceLedger.MISSING, ledger.get(uuid));
+        assertEquals(25L, ledger.credit(uuid, 25L, null));
+    }
+
+    @Test
+    public void transfersWithinOneSegment()
+    {
+        BalanceLedger ledger = new BalanceLedger();
+        UUID from = sameHash(1);
+        UUID to = sameHash(2);
+        ledger.set(from, 1000L, null);
+        ledger.set(to, 50L, null);
+        long[] notified = new long[2];
+
+        assertTrue(ledger.transfer(from, to, 300L, (fromBalance, toBalance) -> {
+            notified[0] = fromBalance;
+            notified[1] = toBalance;
+        }));
+
+        assertEquals(700L, ledger.get(from));
+        assertEquals(350L, ledger.get(to));
+        assertEquals(700L, notified[0]);
+        assertEquals(350L, notified[1]);
+
+        assertFalse(ledger.transfer(from, to, 701L, (fromBalance, toBalance) -> {
+            throw new AssertionError("A refused transfer must not be notified");
+        }));
+        assertEquals(700L, ledger.get(from));
+        assertEquals(350L, ledger.get(to));
+    }
+
+    @Test
+    public void concurrentTransfersWithinOneSegmentKeepTheTotal() throws InterruptedException
+    {
+        BalanceLedger ledger = new BalanceLedger();
+        UUID first = sameHash(1);
+        UUID second = sameHash(2);
+        ledger.set(first, 5000L, null);
+        ledger.set(second, 5000L, null);
+        AtomicBoolean negative = new AtomicBoolean();
+
+        // Opposite transfers between the two players, a deadlock would hang the test
+        runConcurrently(8, 20000, thread -> {
+            UUID from = thread % 2 == 0 ? first : second;
+            UUID to = thread % 2 == 0 ? second : first;
+            ledger.transfer(from, to, 7L, (fromBalance, toBalance) -> {
+                if (fromBalance < 0 || toBalance < 0) {
+                    negative.set(true);
+                }
+            });
+        });
+
+        assertFalse(negative.get());
+        assertEquals(10000L, ledger.get(first) + ledger.get(second));
+    }
+
+    @Test
+    public void concurrentDebitsNeverOverdraw() throws InterruptedException
+    {
+        BalanceLedger ledger = new BalanceLedger();
+        UUID uuid = UUID.randomUUID();
+        ledger.set(uuid, 10000L, null);
+        AtomicLong spent = new AtomicLong();
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicBoolean negative = new AtomicBoolean();
+
+        runConcurrently(8, 5000, thread -> {
+            long amount = 1 + thread;
+            if (ledger.debit(uuid, amount, (player, balance, earned, debited) -> {
+                if (balance < 0) {
+                    negative.set(true);
+                }
+            })) {
+                spent.addAndGet(amount);
+                accepted.incrementAndGet();
+            }
+            // Optimistic reads racing the writers never see a negative balance either
+            if (ledger.get(uuid) < 0) {
+                negative.set(true);
+            }
+        });
+
+        assertFalse(negative.get());
+        assertTrue(accepted.get() > 0);
+        assertEquals(10000L - spent.get(), ledger.get(uuid));
+        // The debits asked for more than the balance, so one was refused and what remains is below the largest amount
+        assertTrue(ledger.get(uuid) < 8L);
+    }
+
+    @Test
+    public void concurrentChangesOfManyPlayersWhileGrowing() throws InterruptedException
+    {
+        BalanceLedger ledger = new BalanceLedger();
+        int players = 2000;
+
+        List<UUID> uuids = new ArrayList<>();
+        for (int i = 0; i < players * 8; i++) {
+            uuids.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+        // Each player is changed by one thread, so segments grow while other threads read and write them
+        AtomicInteger next = new AtomicInteger();
+        runConcurrently(8, players, thread -> {
+            UUID uuid = uuids.get(next.getAndIncrement());
+            ledger.credit(uuid, 100L, null);
+            ledger.credit(uuid, 20L, null);
+            ledger.debit(uuid, 30L, null);
+        });
+
+        for (UUID uuid : uuids) {
+            assertEquals(90L, ledger.get(uuid));
+        }
+    }
+
+    private static void assertBalances(BalanceLedger ledger, Map<UUID, Long> balances)
+    {
+        for (Map.Entry<UUID, Long> entry : balances.entrySet()) {
+            assertEquals(entry.getValue().longValue(), ledger.get(entry.getKey()));
+        }
+    }
+
+    /**
+     * Players whose UUID halves have the same xor, so they share the segment and home slot of the ledger
+     */
+    private static UUID sameHash(long index)
+    {
+        return new UUID(index, index ^ 0x5DEECE66DL);
+    }
+
+    private interface Task
+    {
+        void run(int thread);
+    }
+
+    /**
+     * Start threads together, each running a task a number of times
+     */
+    private static void runConcurrently(int threads, int iterations, Task task) throws InterruptedException
+    {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> started = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < iterations; i++) {
+                        task.run(thread);
+                    }
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            worker.start();
+            started.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : started) {
+            worker.join(60000L);
+            assertFalse("Worker still running, probably deadlocked", worker.isAlive());
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError(failures.get(0));
+        }
+    }
+}
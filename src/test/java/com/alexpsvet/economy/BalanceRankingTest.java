@@ -0,0 +1,126 @@
+package com.alexpsvet.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.Test;
+
+/**
+ * Checks the balance ranking against a sorted list of every player.
+ */
+public class BalanceRankingTest
+{
+    private static final int PLAYERS = 80;
+    private static final int OPERATIONS = 3000;
+
+    /**
+     * Richest first, ties by UUID bits as in the ranking
+     */
+    private static final Comparator<Map.Entry<UUID, Long>> ORDER = (a, b) -> {
+        int byBalance = Long.compare(b.getValue(), a.getValue());
+        if (byBalance != 0) {
+            return byBalance;
+        }
+        int byMsb = Long.compare(a.getKey().getMostSignificantBits(), b.getKey().getMostSignificantBits());
+        return byMsb != 0 ? byMsb : Long.compare(a.getKey().getLeastSignificantBits(), b.getKey().getLeastSignificantBits());
+    };
+
+    private final Random random = new Random(7);
+
+    @Test
+    public void matchesSortedListAfterRandomChanges()
+    {
+        BalanceRanking ranking = new BalanceRanking();
+        Map<UUID, Long> balances = new HashMap<>();
+        Map<UUID, String> names = new HashMap<>();
+        List<UUID> players = new ArrayList<>();
+        for (int i = 0; i < PLAYERS; i++) {
+            players.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+
+        for (int i = 0; i < OPERATIONS; i++) {
+            UUID uuid = players.get(random.nextInt(PLAYERS));
+            // Few distinct balances so ties are frequent
+            long balance = random.nextInt(40) * 100L;
+            if (random.nextInt(4) == 0) {
+                String name = "player" + random.nextInt(1000);
+                ranking.seed(uuid, name, balance);
+                names.putIfAbsent(uuid, name);
+                balances.putIfAbsent(uuid, balance);
+            } else {
+                ranking.update(uuid, balance);
+                balances.put(uuid, balance);
+            }
+            assertMatchesSortedList(ranking, balances, names, players);
+        }
+    }
+
+    @Test
+    public void seedKeepsNewerBalance()
+    {
+        BalanceRanking ranking = new BalanceRanking();
+        UUID rich = UUID.randomUUID();
+        UUID poor = UUID.randomUUID();
+        ranking.update(rich, 500L);
+        ranking.seed(rich, "rich", 10L);
+        ranking.seed(poor, "poor", 100L);
+
+        assertEquals(1, ranking.getRank(rich));
+        assertEquals(2, ranking.getRank(poor));
+        assertEquals(500L, ranking.getPage(0, 1).get(0).getBalance());
+        assertEquals("rich", ranking.getPage(0, 1).get(0).getPlayerName());
+    }
+
+    @Test
+    public void outOfRangeRequestsAreEmpty()
+    {
+        BalanceRanking ranking = new BalanceRanking();
+        assertEquals(-1, ranking.getRank(UUID.randomUUID()));
+        assertTrue(ranking.getPage(0, 10).isEmpty());
+
+        ranking.update(UUID.randomUUID(), 100L);
+        assertTrue(ranking.getPage(1, 10).isEmpty());
+        assertTrue(ranking.getPage(-1, 10).isEmpty());
+        assertTrue(ranking.getPage(0, 0).isEmpty());
+        assertEquals(1, ranking.getPage(0, 10).size());
+    }
+
+    private void assertMatchesSortedList(BalanceRanking ranking, Map<UUID, Long> balances,
+                                         Map<UUID, String> names, List<UUID> players)
+    {
+        List<Map.Entry<UUID, Long>> sorted = new ArrayList<>(balances.entrySet());
+        sorted.sort(ORDER);
+        assertEquals(sorted.size(), ranking.size());
+
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(i + 1, ranking.getRank(sorted.get(i).getKey()));
+        }
+        for (UUID uuid : players) {
+            if (!balances.containsKey(uuid)) {
+                assertEquals(-1, ranking.getRank(uuid));
+            }
+        }
+
+        int offset = random.nextInt(sorted.size() + 2);
+        int count = 1 + random.nextInt(15);
+        List<BalanceRanking.Entry> page = ranking.getPage(offset, count);
+        int expected = Math.max(0, Math.min(count, sorted.size() - offset));
+        assertEquals(expected, page.size());
+        for (int i = 0; i < page.size(); i++) {
+            BalanceRanking.Entry entry = page.get(i);
+            Map.Entry<UUID, Long> wanted = sorted.get(offset + i);
+            assertEquals(offset + i + 1, entry.getRank());
+            assertEquals(wanted.getKey(), entry.getUuid());
+            assertEquals(wanted.getValue().longValue(), entry.getBalance());
+            assertEquals(names.get(wanted.getKey()), entry.getPlayerName());
+        }
+    }
+}
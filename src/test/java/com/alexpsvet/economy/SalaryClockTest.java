@@ -0,0 +1,80 @@
+package com.alexpsvet.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.Test;
+
+/**
+ * Checks the salary state across a relog, where the new session loads before the old one quits.
+ */
+public class SalaryClockTest
+{
+    private static final long INTERVAL = 3600000L;
+    private static final UUID PLAYER = UUID.randomUUID();
+
+    @Test
+    public void relogKeepsSalaryState()
+    {
+        SalaryClock clock = new SalaryClock();
+        // First session, paid once
+        clock.load(PLAYER, 0L);
+        clock.paid(PLAYER, 1000L);
+
+        // Pre-login of the second connection, the old session is still online
+        clock.load(PLAYER, 0L);
+        long loaded = clock.get(PLAYER);
+        // The server kicks the old session, its quit drops the state
+        clock.forget(PLAYER);
+        assertFalse(clock.isDue(PLAYER, 1000L + INTERVAL, INTERVAL));
+        // Join of the second session
+        clock.restore(PLAYER, loaded);
+
+        assertEquals(1000L, clock.get(PLAYER).longValue());
+        assertFalse(clock.isDue(PLAYER, 1000L + INTERVAL - 1, INTERVAL));
+        assertTrue(clock.isDue(PLAYER, 1000L + INTERVAL, INTERVAL));
+    }
+
+    @Test
+    public void joinKeepsSalaryPaidSincePreLogin()
+    {
+        SalaryClock clock = new SalaryClock();
+        clock.load(PLAYER, 1000L);
+        long loaded = clock.get(PLAYER);
+        // Paid to the old session between the pre-login and the join
+        clock.paid(PLAYER, 5000L);
+
+        clock.restore(PLAYER, loaded);
+
+        assertEquals(5000L, clock.get(PLAYER).longValue());
+    }
+
+    @Test
+    public void loadKeepsStateOfOnlineSession()
+    {
+        SalaryClock clock = new SalaryClock();
+        clock.load(PLAYER, 1000L);
+        clock.paid(PLAYER, 5000L);
+
+        // The stored time is older than the one of the session still online
+        clock.load(PLAYER, 1000L);
+
+        assertEquals(5000L, clock.get(PLAYER).longValue());
+    }
+
+    @Test
+    public void quitWithoutRelogDropsState()
+    {
+        SalaryClock clock = new SalaryClock();
+        clock.load(PLAYER, 0L);
+
+        clock.forget(PLAYER);
+
+        assertNull(clock.get(PLAYER));
+        assertFalse(clock.isDue(PLAYER, INTERVAL, INTERVAL));
+    }
+}
@@ -0,0 +1,275 @@
+package com.alexpsvet.economy.journal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import com.alexpsvet.economy.TransactionType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the file sink finds the end of its entries again after a crash, and its segment rotation.
+ */
+public class FileJournalSinkTest
+{
+    private static final int SEGMENT_BYTES = 1024 * 1024;
+
+    private File directory;
+
+    @Before
+    public void createDirectory() throws IOException
+    {
+        directory = Files.createTempDirectory("journal").toFile();
+    }
+
+    @After
+    public void deleteDirectory()
+    {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void emptyDirectoryStartsAtZero() throws IOException
+    {
+        FileJournalSink sink = new FileJournalSink(directory, SEGMENT_BYTES, false);
+        assertEquals(0L, sink.open());
+        sink.close();
+        assertEquals(0L, new JournalReader(directory).read(0L, entry -> { }));
+    }
+
+    @Test
+    public void reopensAfterLastEntry() throws IOException
+    {
+        List<JournalEntry> written = entries(1, 50, 20);
+        write(written.subList(0, 30));
+        write(written.subList(30, 50));
+
+        assertSameEntries(written, readAll(0L));
+    }
+
+    @Test
+    public void recoversFromTruncatedSegment() throws IOException
+    {
+        List<JournalEntry> written = entries(1, 50, 20);
+        write(written);
+        File segment = onlySegment();
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.setLength(middleOfRecord(written, 40));
+        }
+
+        assertRecovered(written, 40);
+    }
+
+    @Test
+    public void recoversFromTornRecord() throws IOException
+    {
+        List<JournalEntry> written = entries(1, 50, 20);
+        write(written);
+        // The pages of the torn record and of the records after it never reached the disk
+        zero(onlySegment(), middleOfRecord(written, 40), SEGMENT_BYTES);
+
+        assertRecovered(written, 40);
+    }
+
+    @Test
+    public void recoversFromTornRecordFollowedByWrittenRecords() throws IOException
+    {
+        List<JournalEntry> written = entries(1, 50, 20);
+        write(written);
+        // Only the page of the torn record is lost, the records after it are still in the file
+        long middle = middleOfRecord(written, 40);
+        zero(onlySegment(), middle, middle + 4);
+
+        assertRecovered(written, 40);
+    }
+
+    @Test
+    public void rotatesFullSegments() throws IOException
+    {
+        // Long descriptions so the entries span several segments
+        List<JournalEntry> written = entries(1, 6000, JournalCodec.MAX_DESCRIPTION_BYTES);
+        write(written.subList(0, 2000));
+        write(written.subList(2000, 6000));
+
+        List<File> segments = new JournalReader(directory).segments();
+        assertTrue(segments.size() >= 3);
+        assertEquals(1L, JournalReader.firstSequence(segments.get(0)));
+        for (File segment : segments) {
+            assertEquals(SEGMENT_BYTES, segment.length());
+        }
+        // Each segment is named after its first entry
+        long expectedFirst = 1L;
+        for (File segment : segments) {
+            assertEquals(expectedFirst, JournalReader.firstSequence(segment));
+            List<JournalEntry> read = new ArrayList<>();
+            JournalEntry entry;
+            ByteBuffer buffer = JournalReader.map(segment);
+            while ((entry = JournalCodec.decode(buffer)) != null) {
+                read.add(entry);
+            }
+            assertEquals(expectedFirst, read.get(0).getSequence());
+            expectedFirst = read.get(read.size() - 1).getSequence() + 1;
+        }
+        assertEquals(6001L, expectedFirst);
+        assertSameEntries(written, readAll(0L));
+    }
+
+    @Test
+    public void deletesSegmentsBeforeCheckpoint() throws IOException
+    {
+        List<JournalEntry> written = entries(1, 6000, JournalCodec.MAX_DESCRIPTION_BYTES);
+        write(written);
+        List<File> segments = new JournalReader(directory).segments();
+        assertTrue(segments.size() >= 3);
+        long secondFirst = JournalReader.firstSequence(segments.get(1));
+        long thirdFirst = JournalReader.firstSequence(segments.get(2));
+        FileJournalSink sink = new FileJournalSink(directory, SEGMENT_BYTES, false);
+
+        // The first segment still holds the entry right before the second one
+        assertEquals(0, sink.deleteSegmentsThrough(secondFirst - 2));
+        assertEquals(segments.size(), new JournalReader(directory).segments().size());
+
+        assertEquals(1, sink.deleteSegmentsThrough(secondFirst - 1));
+        assertEquals(JournalReader.firstSequence(segments.get(1)),
+            JournalReader.firstSequence(new JournalReader(directory).segments().get(0)));
+
+        // A checkpoint inside the third segment leaves it and the ones after it
+        assertEquals(1, sink.deleteSegmentsThrough(thirdFirst));
+        assertSameEntries(written.subList((int) thirdFirst - 1, written.size()), readAll(thirdFirst - 1));
+
+        // The newest segment is kept even when every entry is before the checkpoint
+        sink.deleteSegmentsThrough(Long.MAX_VALUE - 1);
+        List<File> left = new JournalReader(directory).segments();
+        assertEquals(1, left.size());
+        assertEquals(segments.get(segments.size() - 1), left.get(0));
+
+        // The journal goes on after the kept segment
+        assertEquals(6000L, sink.open());
+        List<JournalEntry> next = entries(6001, 6010, 20);
+        assertTrue(sink.write(next));
+        sink.close();
+        List<JournalEntry> read = readAll(6000L);
+        assertSameEntries(next, read);
+    }
+
+    @Test
+    public void skipsEntriesAlreadyWritten() throws IOException
+    {
+        List<JournalEntry> written = entries(1, 20, 20);
+        FileJournalSink sink = new FileJournalSink(directory, SEGMENT_BYTES, false);
+        sink.open();
+        assertTrue(sink.write(written.subList(0, 12)));
+        // A batch retried after a failure halfway holds entries the sink already stored
+        assertTrue(sink.write(written.subList(5, 20)));
+        sink.close();
+
+        assertSameEntries(written, readAll(0L));
+    }
+
+    /**
+     * Reopen the journal after a crash tore the record at an index, then write the entries again from there
+     */
+    private void assertRecovered(List<JournalEntry> written, int tornIndex) throws IOException
+    {
+        FileJournalSink sink = new FileJournalSink(directory, SEGMENT_BYTES, false);
+        assertEquals(written.get(tornIndex - 1).getSequence(), sink.open());
+        assertSameEntries(written.subList(0, tornIndex), readAll(0L));
+
+        // As long as the lost entries, so records left after the torn one line up with the new ones
+        List<JournalEntry> rewritten = new ArrayList<>(written.subList(0, tornIndex));
+        List<JournalEntry> next = entries(tornIndex + 1, tornIndex + 5, 20);
+        assertTrue(sink.write(next));
+        sink.close();
+        rewritten.addAll(next);
+
+        assertSameEntries(rewritten, readAll(0L));
+    }
+
+    private void write(List<JournalEntry> entries) throws IOException
+    {
+        FileJournalSink sink = new FileJournalSink(directory, SEGMENT_BYTES, false);
+        long last = sink.open();
+        assertTrue(sink.write(entries));
+        sink.close();
+        assertTrue(last < entries.get(0).getSequence());
+    }
+
+    private List<JournalEntry> readAll(long afterSequence) throws IOException
+    {
+        List<JournalEntry> read = new ArrayList<>();
+        new JournalReader(directory).read(afterSequence, read::add);
+        return read;
+    }
+
+    private File onlySegment()
+    {
+        List<File> segments = new JournalReader(directory).segments();
+        assertEquals(1, segments.size());
+        return segments.get(0);
+    }
+
+    /**
+     * Offset in the segment of the middle of the record of the entry at an index
+     */
+    private static long middleOfRecord(List<JournalEntry> written, int index)
+    {
+        long offset = JournalCodec.HEADER_SIZE;
+        for (int i = 0; i < index; i++) {
+            offset += JournalCodec.encode(written.get(i)).length;
+        }
+        return offset + JournalCodec.encode(written.get(index)).length / 2;
+    }
+
+    private static void zero(File file, long from, long to) throws IOException
+    {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(from);
+            raf.write(new byte[(int) (Math.min(to, raf.length()) - from)]);
+        }
+    }
+
+    /**
+     * Transaction and balance entries alternating, numbered from first to last included
+     */
+    static List<JournalEntry> entries(long first, long last, int descriptionLength)
+    {
+        char[] description = new char[descriptionLength];
+        Arrays.fill(description, 'x');
+        List<JournalEntry> entries = new ArrayList<>();
+        for (long sequence = first; sequence <= last; sequence++) {
+            UUID uuid = new UUID(0L, sequence % 7);
+            if (sequence % 2 == 0) {
+                entries.add(JournalEntry.balance(sequence, sequence * 1000L, uuid, sequence * 100L, sequence, 0L));
+            } else {
+                entries.add(JournalEntry.transaction(sequence, sequence * 1000L, uuid, TransactionType.SALE, sequence,
+                    new String(description)));
+            }
+        }
+        return entries;
+    }
+
+    static void assertSameEntries(List<JournalEntry> expected, List<JournalEntry> actual)
+    {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            JournalCodecTest.assertSameEntry(expected.get(i), actual.get(i));
+        }
+    }
+}
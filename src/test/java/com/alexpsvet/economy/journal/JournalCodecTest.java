@@ -0,0 +1,124 @@
+package com.alexpsvet.economy.journal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import com.alexpsvet.economy.TransactionType;
+import org.junit.Test;
+
+/**
+ * Checks the binary format of the journal records.
+ */
+public class JournalCodecTest
+{
+    private static final UUID PLAYER = UUID.fromString("3f2c1a5e-7b9d-4e8f-a1b2-c3d4e5f60718");
+
+    @Test
+    public void decodesEveryTransactionType()
+    {
+        long sequence = 1;
+        for (TransactionType type : TransactionType.values()) {
+            JournalEntry entry = JournalEntry.transaction(sequence++, 1700000000000L, PLAYER, type, -12345L, "Achat de " + type);
+            assertSameEntry(entry, roundTrip(entry));
+        }
+    }
+
+    @Test
+    public void decodesTransactionWithoutDescription()
+    {
+        JournalEntry entry = JournalEntry.transaction(7L, 42L, PLAYER, TransactionType.SALARY, 500L, null);
+        assertSameEntry(entry, roundTrip(entry));
+    }
+
+    @Test
+    public void decodesBalance()
+    {
+        JournalEntry entry = JournalEntry.balance(Long.MAX_VALUE - 1, 1700000000000L, PLAYER, 987654321L, 1000L, 250L);
+        assertSameEntry(entry, roundTrip(entry));
+    }
+
+    @Test
+    public void cutsLongDescriptionOnCharacterBoundary()
+    {
+        StringBuilder description = new StringBuilder();
+        while (description.length() < JournalCodec.MAX_DESCRIPTION_BYTES) {
+            description.append("\u00e9");
+        }
+        JournalEntry entry = JournalEntry.transaction(1L, 0L, PLAYER, TransactionType.SALE, 1L, "a" + description);
+
+        String decoded = roundTrip(entry).getDescription();
+
+        byte[] bytes = decoded.getBytes(StandardCharsets.UTF_8);
+        assertTrue(bytes.length <= JournalCodec.MAX_DESCRIPTION_BYTES);
+        assertTrue(entry.getDescription().startsWith(decoded));
+        assertEquals(-1, decoded.indexOf('\uFFFD'));
+    }
+
+    @Test
+    public void decodesRecordsBackToBack()
+    {
+        JournalEntry first = JournalEntry.transaction(1L, 10L, PLAYER, TransactionType.PURCHASE, -99L, "Pain");
+        JournalEntry second = JournalEntry.balance(2L, 11L, PLAYER, 901L, 0L, 99L);
+        byte[] a = JournalCodec.encode(first);
+        byte[] b = JournalCodec.encode(second);
+        ByteBuffer buffer = ByteBuffer.allocate(a.length + b.length + JournalCodec.RECORD_OVERHEAD);
+        buffer.put(a).put(b).flip();
+        buffer.limit(buffer.capacity());
+
+        assertSameEntry(first, JournalCodec.decode(buffer));
+        assertSameEntry(second, JournalCodec.decode(buffer));
+        // The zero length after the last record ends the written part
+        int end = buffer.position();
+        assertNull(JournalCodec.decode(buffer));
+        assertEquals(end, buffer.position());
+    }
+
+    @Test
+    public void rejectsCorruptRecord()
+    {
+        byte[] record = JournalCodec.encode(JournalEntry.balance(3L, 0L, PLAYER, 1L, 1L, 0L));
+        record[record.length - 1] ^= 0x01;
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+
+        assertNull(JournalCodec.decode(buffer));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void rejectsTornRecord()
+    {
+        byte[] record = JournalCodec.encode(JournalEntry.transaction(4L, 0L, PLAYER, TransactionType.GAMBLE, 5L, "Pile ou face"));
+        for (int length = 0; length < record.length; length++) {
+            ByteBuffer buffer = ByteBuffer.wrap(record, 0, length);
+            assertNull(JournalCodec.decode(buffer));
+            assertEquals(0, buffer.position());
+        }
+    }
+
+    private static JournalEntry roundTrip(JournalEntry entry)
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(JournalCodec.encode(entry));
+        JournalEntry decoded = JournalCodec.decode(buffer);
+        assertEquals(0, buffer.remaining());
+        return decoded;
+    }
+
+    static void assertSameEntry(JournalEntry expected, JournalEntry actual)
+    {
+        assertEquals(expected.getKind(), actual.getKind());
+        assertEquals(expected.getSequence(), actual.getSequence());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(expected.getUuid(), actual.getUuid());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getAmount(), actual.getAmount());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getBalance(), actual.getBalance());
+        assertEquals(expected.getEarned(), actual.getEarned());
+        assertEquals(expected.getSpent(), actual.getSpent());
+    }
+}
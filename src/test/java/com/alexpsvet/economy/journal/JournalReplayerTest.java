@@ -0,0 +1,200 @@
+package com.alexpsvet.economy.journal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import com.alexpsvet.database.Database;
+import com.alexpsvet.database.RowMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that reading and replaying the journal only applies the entries after the stored sequence numbers.
+ */
+public class JournalReplayerTest
+{
+    private static final int SEGMENT_BYTES = 1024 * 1024;
+
+    private File directory;
+    private List<JournalEntry> written;
+
+    @Before
+    public void writeJournal() throws IOException
+    {
+        directory = Files.createTempDirectory("journal").toFile();
+        // Long descriptions so the entries span several segments
+        written = FileJournalSinkTest.entries(1, 6000, JournalCodec.MAX_DESCRIPTION_BYTES);
+        FileJournalSink sink = new FileJournalSink(directory, SEGMENT_BYTES, false);
+        sink.open();
+        assertTrue(sink.write(written));
+        sink.close();
+        assertTrue(new JournalReader(directory).segments().size() >= 3);
+    }
+
+    @After
+    public void deleteDirectory()
+    {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void readsOnlyEntriesAfterSequence() throws IOException
+    {
+        List<Long> afterSequences = new ArrayList<>();
+        afterSequences.add(0L);
+        afterSequences.add(3000L);
+        afterSequences.add(5999L);
+        afterSequences.add(6000L);
+        afterSequences.add(10000L);
+        // Around each segment boundary
+        for (File segment : new JournalReader(directory).segments()) {
+            long first = JournalReader.firstSequence(segment);
+            afterSequences.add(first - 2);
+            afterSequences.add(first - 1);
+            afterSequences.add(first);
+        }
+
+        for (long afterSequence : afterSequences) {
+            List<JournalEntry> read = new ArrayList<>();
+            long count = new JournalReader(directory).read(afterSequence, read::add);
+
+            int from = (int) Math.min(Math.max(afterSequence, 0L), written.size());
+            assertEquals(written.size() - from, count);
+            FileJournalSinkTest.assertSameEntries(written.subList(from, written.size()), read);
+        }
+    }
+
+    @Test
+    public void replaysOnlyEntriesAfterStoredSequence()
+    {
+        // Players 0 to 6 own the entries whose sequence number modulo 7 is their number
+        Map<UUID, Long> stored = new LinkedHashMap<>();
+        stored.put(new UUID(0L, 0L), 0L);
+        stored.put(new UUID(0L, 1L), 2500L);
+        stored.put(new UUID(0L, 2L), 5998L);
+        stored.put(new UUID(0L, 3L), 6000L);
+        stored.put(new UUID(0L, 4L), 4200L);
+        // Player 5 has no account row, player 6 is only behind the global sequence
+        stored.put(new UUID(0L, 6L), 1000L);
+        long afterSequence = 2000L;
+        FakeDatabase database = new FakeDatabase(stored);
+
+        int restored = new JournalReplayer(database, new JournalReader(directory)).replay(afterSequence);
+
+        Map<String, Object[]> expected = new HashMap<>();
+        for (JournalEntry entry : written) {
+            Long storedSequence = stored.get(entry.getUuid());
+            if (entry.getKind() != JournalEntry.Kind.BALANCE || storedSequence == null) continue;
+            if (entry.getSequence() <= afterSequence || entry.getSequence() <= storedSequence) continue;
+            Object[] row = expected.computeIfAbsent(entry.getUuid().toString(), uuid -> new Object[] { 0L, 0L, 0L, 0L, uuid });
+            row[0] = entry.getBalance();
+            row[1] = (Long) row[1] + entry.getEarned();
+            row[2] = (Long) row[2] + entry.getSpent();
+            row[3] = entry.getSequence();
+        }
+
+        assertEquals(expected.size(), restored);
+        assertEquals(expected.size(), database.restored.size());
+        for (Object[] row : database.restored) {
+            Object[] wanted = expected.get((String) row[4]);
+            assertTrue(wanted != null);
+            for (int i = 0; i < row.length; i++) {
+                assertEquals(wanted[i], row[i]);
+            }
+        }
+    }
+
+    @Test
+    public void replayingTwiceChangesNothing()
+    {
+        Map<UUID, Long> stored = new LinkedHashMap<>();
+        for (long player = 0; player < 7; player++) {
+            stored.put(new UUID(0L, player), 0L);
+        }
+        FakeDatabase database = new FakeDatabase(stored);
+        JournalReplayer replayer = new JournalReplayer(database, new JournalReader(directory));
+
+        assertEquals(stored.size(), replayer.replay(0L));
+        for (Object[] row : database.restored) {
+            stored.put(UUID.fromString((String) row[4]), (Long) row[3]);
+        }
+        database.restored.clear();
+
+        assertEquals(0, replayer.replay(0L));
+        assertTrue(database.restored.isEmpty());
+    }
+
+    /**
+     * Database holding the journal_seq column of economy_players in memory, writes run on the calling thread
+     */
+    private static final class FakeDatabase extends Database
+    {
+        private final Map<UUID, Long> journalSequences;
+        private final List<Object[]> restored = new ArrayList<>();
+
+        private FakeDatabase(Map<UUID, Long> journalSequences)
+        {
+            super("localhost", 3306, "survival", "survival", "");
+            this.journalSequences = journalSequences;
+        }
+
+        @Override
+        public <T> List<T> query(String query, RowMapper<T> mapper, Object... params)
+        {
+            List<T> rows = new ArrayList<>();
+            for (Map.Entry<UUID, Long> row : journalSequences.entrySet()) {
+                ResultSet rs = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                    new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+                        if (method.getName().equals("getString") && "uuid".equals(args[0])) {
+                            return row.getKey().toString();
+                        }
+                        if (method.getName().equals("getLong") && "journal_seq".equals(args[0])) {
+                            return row.getValue();
+                        }
+                        throw new SQLException("Unexpected column read " + method.getName() + " " + args[0]);
+                    });
+                try {
+                    rows.add(mapper.map(rs));
+                } catch (SQLException e) {
+                    throw new AssertionError(e);
+                }
+            }
+            return rows;
+        }
+
+        @Override
+        public <T> CompletableFuture<T> writeAsync(Supplier<T> task)
+        {
+            return CompletableFuture.completedFuture(task.get());
+        }
+
+        @Override
+        public boolean executeBatch(String query, List<Object[]> rows)
+        {
+            restored.addAll(rows);
+            return true;
+        }
+    }
+}
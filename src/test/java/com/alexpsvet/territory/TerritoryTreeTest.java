@@ -0,0 +1,130 @@
+package com.alexpsvet.territory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.bukkit.Location;
+import org.junit.Test;
+
+/**
+ * Checks the territory R-tree against a scan of every territory.
+ */
+public class TerritoryTreeTest
+{
+    private static final int TERRITORIES = 400;
+    private static final int PROBES = 30;
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void matchesScanWhileTerritoriesAreAddedAndRemoved()
+    {
+        TerritoryTree tree = new TerritoryTree();
+        List<Territory> territories = new ArrayList<>();
+
+        for (int i = 0; i < TERRITORIES; i++) {
+            Territory territory = randomTerritory(i);
+            tree.add(territory);
+            territories.add(territory);
+            assertMatchesScan(tree, territories);
+        }
+
+        while (!territories.isEmpty()) {
+            Territory territory = territories.remove(random.nextInt(territories.size()));
+            tree.remove(territory);
+            assertMatchesScan(tree, territories);
+        }
+        assertTrue(tree.isEmpty());
+    }
+
+    @Test
+    public void matchesScanWithInterleavedChanges()
+    {
+        TerritoryTree tree = new TerritoryTree();
+        List<Territory> territories = new ArrayList<>();
+
+        for (int i = 0; i < TERRITORIES * 2; i++) {
+            if (territories.isEmpty() || random.nextInt(3) != 0) {
+                Territory territory = randomTerritory(i);
+                tree.add(territory);
+                territories.add(territory);
+            } else {
+                tree.remove(territories.remove(random.nextInt(territories.size())));
+            }
+            assertMatchesScan(tree, territories);
+        }
+    }
+
+    @Test
+    public void ignoresUnknownTerritory()
+    {
+        TerritoryTree tree = new TerritoryTree();
+        Territory territory = randomTerritory(0);
+        tree.add(territory);
+
+        tree.remove(randomTerritory(1));
+
+        assertTrue(!tree.isEmpty());
+        assertEquals(territory, tree.findNearest(0, 64, 0));
+    }
+
+    private Territory randomTerritory(int id)
+    {
+        // Small coordinates so many spheres overlap
+        Location center = new Location(null, random.nextInt(2000) - 1000, random.nextInt(256), random.nextInt(2000) - 1000);
+        return new Territory(id, UUID.randomUUID(), "owner" + id, center, 1 + random.nextInt(48), 0L);
+    }
+
+    private void assertMatchesScan(TerritoryTree tree, List<Territory> territories)
+    {
+        assertEquals(territories.isEmpty(), tree.isEmpty());
+        for (int i = 0; i < PROBES; i++) {
+            int x = random.nextInt(2200) - 1100;
+            int y = random.nextInt(300) - 20;
+            int z = random.nextInt(2200) - 1100;
+            int radius = random.nextInt(4) == 0 ? 0 : random.nextInt(64);
+
+            Territory overlapping = tree.findOverlapping(x, y, z, radius);
+            boolean anyOverlapping = false;
+            for (Territory territory : territories) {
+                anyOverlapping |= overlaps(territory, x, y, z, radius);
+            }
+            if (anyOverlapping) {
+                assertNotNull(overlapping);
+                assertTrue(territories.contains(overlapping));
+                assertTrue(overlaps(overlapping, x, y, z, radius));
+            } else {
+                assertNull(overlapping);
+            }
+
+            Territory nearest = tree.findNearest(x, y, z);
+            if (territories.isEmpty()) {
+                assertNull(nearest);
+                continue;
+            }
+            double best = Double.MAX_VALUE;
+            for (Territory territory : territories) {
+                best = Math.min(best, territory.getDistanceToBorder(x, y, z));
+            }
+            assertNotNull(nearest);
+            assertTrue(territories.contains(nearest));
+            assertEquals(best, nearest.getDistanceToBorder(x, y, z), 0.0);
+        }
+    }
+
+    private static boolean overlaps(Territory territory, int x, int y, int z, int radius)
+    {
+        long dx = territory.getCenter().getBlockX() - x;
+        long dy = territory.getCenter().getBlockY() - y;
+        long dz = territory.getCenter().getBlockZ() - z;
+        long reach = territory.getRadius() + radius;
+        return dx * dx + dy * dy + dz * dz < reach * reach;
+    }
+}